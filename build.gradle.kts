@@ -1,6 +1,7 @@
 plugins {
     `java-library`
     id("io.papermc.paperweight.userdev") version "2.0.0-beta.18"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 java {
@@ -15,10 +16,33 @@ repositories {
 dependencies {
     paperweight.paperDevBundle("1.21.1-R0.1-SNAPSHOT")
     compileOnly("tools.jackson.core:jackson-databind:3.0.0")
+
+    testImplementation(platform("org.junit:junit-bom:5.11.3"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+// benchmarks run against the bootstrapped server and reuse the test worlds
+configurations.named("jmhImplementation") {
+    extendsFrom(configurations.testImplementation.get())
+}
+
+jmh {
+    includeTests.set(true)
+    jvmArgs.add("--add-modules=jdk.incubator.vector")
+    profilers.add("gc")
 }
 
 tasks {
     compileJava {
         options.release = 21
+        // SIMD entity hit tests, only used at runtime if enabled in the config and the server enables the module
+        options.compilerArgs.addAll(listOf("--add-modules=jdk.incubator.vector", "-Xlint:-incubating"))
+    }
+
+    test {
+        // the server is bootstrapped in the tests: block shapes and materials come from the real registries
+        useJUnitPlatform()
+        jvmArgs("--add-modules=jdk.incubator.vector")
     }
 }
@@ -0,0 +1,88 @@
+package org.dredd.bulletcore.models;
+
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.world.item.Items;
+import org.bukkit.NamespacedKey;
+import org.bukkit.craftbukkit.inventory.CraftItemStack;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.dredd.bulletcore.TestServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads and writes of the bullet count of a weapon stack, through {@link ItemState} and through
+ * {@code getItemMeta().getPersistentDataContainer()} as done before the compact state.
+ * <p>
+ * Both stacks are server stacks, as held in player inventories. Run with {@code -prof gc} to compare allocations.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemStateBenchmark {
+
+    private static final NamespacedKey BULLETS_KEY = new NamespacedKey("bulletcore", "bullets");
+
+    private static final NamespacedKey DURABILITY_KEY = new NamespacedKey("bulletcore", "durability");
+
+    private ItemStack stateStack, metaStack;
+
+    private int count;
+
+    @Setup
+    public void setup() {
+        TestServer.install();
+
+        stateStack = CraftItemStack.asCraftMirror(new net.minecraft.world.item.ItemStack(Items.IRON_HOE));
+        ItemState.setCount(stateStack, 30, BULLETS_KEY, null);
+        ItemState.setDurability(stateStack, 100.0D, DURABILITY_KEY, null);
+
+        metaStack = CraftItemStack.asCraftMirror(new net.minecraft.world.item.ItemStack(Items.IRON_HOE));
+        final ItemMeta meta = metaStack.getItemMeta();
+        meta.getPersistentDataContainer().set(BULLETS_KEY, PersistentDataType.INTEGER, 30);
+        meta.getPersistentDataContainer().set(DURABILITY_KEY, PersistentDataType.DOUBLE, 100.0D);
+        metaStack.setItemMeta(meta);
+    }
+
+    // ----------< Reads >----------
+
+    @Benchmark
+    public int readState() {
+        return ItemState.getCount(stateStack, BULLETS_KEY);
+    }
+
+    @Benchmark
+    public Integer readMeta() {
+        return metaStack.getItemMeta().getPersistentDataContainer().get(BULLETS_KEY, PersistentDataType.INTEGER);
+    }
+
+    // ----------< Writes >----------
+
+    @Benchmark
+    public void writeState() {
+        ItemState.setCount(stateStack, count++ & 31, BULLETS_KEY, null);
+    }
+
+    @Benchmark
+    public void writeMeta() {
+        final ItemMeta meta = metaStack.getItemMeta();
+        meta.getPersistentDataContainer().set(BULLETS_KEY, PersistentDataType.INTEGER, count++ & 31);
+        metaStack.setItemMeta(meta);
+    }
+}
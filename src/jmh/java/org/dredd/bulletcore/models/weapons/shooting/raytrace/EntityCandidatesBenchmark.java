@@ -0,0 +1,80 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.util.RayTraceResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Narrow phase of one pellet against the entity candidates, with the scalar slab test and the {@link EntityHitKernel}.
+ * <p>
+ * Candidates are player-sized hitboxes spread around the shooter, so more rays hit one as the count grows.
+ * The kernel is only worth enabling where it beats the scalar test at the candidate counts a server sees.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class EntityCandidatesBenchmark {
+
+    private static final int RAYS = 1024;
+
+    @Param({"8", "64", "512"})
+    public int candidateCount;
+
+    @Param({"false", "true"})
+    public boolean kernel;
+
+    private final EntityCandidates candidates = new EntityCandidates();
+
+    /**
+     * Rays as consecutive {@code startX, startY, startZ, dirX, dirY, dirZ}.
+     */
+    private final double[] rays = new double[RAYS * 6];
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        if (kernel && !EntityCandidates.VECTORIZED)
+            throw new IllegalStateException("The kernel needs --add-modules jdk.incubator.vector");
+        EntityCandidates.setKernelEnabled(kernel);
+
+        final SplittableRandom random = new SplittableRandom(1L);
+        TestEntities.randomCandidates(candidates, random, candidateCount, -32.0D, -4.0D, -32.0D, 32.0D, 4.0D, 32.0D);
+
+        for (int i = 0; i < rays.length; i += 6) {
+            rays[i + 1] = 1.6D;
+
+            final double y = random.nextDouble(-0.2D, 0.2D);
+            final double angle = random.nextDouble(2.0D * Math.PI);
+            final double r = Math.sqrt(1.0D - y * y);
+            rays[i + 3] = r * Math.cos(angle);
+            rays[i + 4] = y;
+            rays[i + 5] = r * Math.sin(angle);
+        }
+    }
+
+    @Benchmark
+    public RayTraceResult rayTrace() {
+        final int i = next;
+        next = i + 6 == rays.length ? 0 : i + 6;
+        return candidates.rayTrace(rays[i], rays[i + 1], rays[i + 2], rays[i + 3], rays[i + 4], rays[i + 5], 100.0D);
+    }
+}
@@ -0,0 +1,83 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One tick of {@link HitboxHistory#record()} for all online players, without reading their bounding boxes.
+ * <p>
+ * Players run in random directions. Windows of 7 and 21 ticks match a rewind limit of 300 ms (the default) and 1000 ms.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitboxHistoryBenchmark {
+
+    @Param({"20", "100", "500"})
+    public int players;
+
+    @Param({"7", "21"})
+    public int window;
+
+    private double[] x, y, z, stepX, stepZ;
+
+    private int tick;
+
+    @Setup
+    public void setup() {
+        HitboxHistory.clear();
+        HitboxHistory.init(window);
+
+        final SplittableRandom random = new SplittableRandom(1L);
+        x = new double[players];
+        y = new double[players];
+        z = new double[players];
+        stepX = new double[players];
+        stepZ = new double[players];
+        for (int i = 0; i < players; i++) {
+            x[i] = random.nextDouble(-1000.0D, 1000.0D);
+            y[i] = random.nextDouble(60.0D, 80.0D);
+            z[i] = random.nextDouble(-1000.0D, 1000.0D);
+
+            // sprinting speed, in blocks per tick
+            final double angle = random.nextDouble(2.0D * Math.PI);
+            stepX[i] = Math.cos(angle) * 0.28D;
+            stepZ[i] = Math.sin(angle) * 0.28D;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        HitboxHistory.clear();
+    }
+
+    @Benchmark
+    public void recordTick() {
+        final int tick = ++this.tick;
+        for (int i = 0; i < players; i++) {
+            final double px = x[i] += stepX[i];
+            final double pz = z[i] += stepZ[i];
+            final double py = y[i];
+            HitboxHistory.record(i, null, px - 0.3D, py, pz - 0.3D, px + 0.3D, py + 1.8D, pz + 0.3D, tick);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.dredd.bulletcore.models.weapons.shooting.spray;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SprayHandler#handleShot} once the movement state of the player is known, before and after
+ * the final spray was precomputed: {@code before} builds the modifier list and sums the {@link LegacySpray} maps,
+ * {@code after} reads the {@link WeaponSpray} table. Both then spread the pellets the same way.
+ * <p>
+ * Reading the movement state of the player is left out, it did not change. Run with {@code -prof gc} to compare allocations.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SprayHandlerBenchmark {
+
+    private static final int SHOTS = 1024;
+
+    @Param({"1", "8"})
+    public int pellets;
+
+    @Param({"0", "64"})
+    public int patternPoints;
+
+    private WeaponSpray spray;
+
+    private LegacySpray legacy;
+
+    private final SplittableRandom patternRandom = new SplittableRandom(1L);
+
+    private final MovementState[] states = new MovementState[SHOTS];
+
+    private final int[] modifierMasks = new int[SHOTS];
+
+    private double[] directions;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        final YamlConfiguration config = new YamlConfiguration();
+        config.set("spray.patternPoints", patternPoints);
+        config.set("spray.state.walking", 3.0D);
+        config.set("spray.state.jumping", 8.0D);
+        config.set("spray.state.standing", 1.0D);
+        config.set("spray.state.crawling", 0.5D);
+        config.set("spray.modifier.sprinting", 4.0D);
+        config.set("spray.modifier.sneaking", -1.5D);
+        config.set("spray.modifier.in_water", 2.0D);
+        spray = WeaponSpray.load(config);
+        legacy = new LegacySpray(config);
+
+        // mostly no or one modifier, as during play
+        final SplittableRandom random = new SplittableRandom(2L);
+        final MovementState[] values = MovementState.values();
+        final int modifiers = MovementModifier.values().length;
+        for (int i = 0; i < SHOTS; i++) {
+            states[i] = values[random.nextInt(values.length)];
+            if (random.nextInt(4) == 0) continue;
+            modifierMasks[i] = 1 << random.nextInt(modifiers);
+            if (random.nextInt(8) == 0) modifierMasks[i] |= 1 << random.nextInt(modifiers);
+        }
+        directions = new double[pellets * 3];
+    }
+
+    @Benchmark
+    public double[] before() {
+        final int i = nextShot();
+        final double finalSpray = legacy.getFinalValue(states[i], LegacySpray.modifiersOf(modifierMasks[i]));
+        SprayHandler.spread(spray, finalSpray, patternRandom, 0.0D, 0.0D, 1.0D, directions);
+        return directions;
+    }
+
+    @Benchmark
+    public double[] after() {
+        final int i = nextShot();
+        final double finalSpray = spray.getFinalValue(states[i], modifierMasks[i]);
+        SprayHandler.spread(spray, finalSpray, patternRandom, 0.0D, 0.0D, 1.0D, directions);
+        return directions;
+    }
+
+    private int nextShot() {
+        final int i = next;
+        next = i + 1 == SHOTS ? 0 : i + 1;
+        return i;
+    }
+}
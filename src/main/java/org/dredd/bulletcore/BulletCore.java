@@ -10,15 +10,27 @@ import org.dredd.bulletcore.config.materials.MaterialsManager;
 import org.dredd.bulletcore.config.messages.component.MessageManager;
 import org.dredd.bulletcore.config.messages.translatable.StylesManager;
 import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
+import org.dredd.bulletcore.listeners.BlockChangeListener;
 import org.dredd.bulletcore.listeners.CustomBaseListener;
 import org.dredd.bulletcore.listeners.PlayerActionsListener;
 import org.dredd.bulletcore.listeners.UnknownCommandListener;
 import org.dredd.bulletcore.listeners.WeaponListener;
+import org.dredd.bulletcore.listeners.trackers.HeldItemTracker;
 import org.dredd.bulletcore.models.CustomItemType;
+import org.dredd.bulletcore.models.ammo.AmmoIndex;
+import org.dredd.bulletcore.models.ammo.AmmoReservoir;
+import org.dredd.bulletcore.models.weapons.MagazineCache;
 import org.dredd.bulletcore.models.weapons.reloading.ReloadHandler;
 import org.dredd.bulletcore.models.weapons.shooting.ShootingHandler;
+import org.dredd.bulletcore.models.weapons.shooting.ShotQueue;
+import org.dredd.bulletcore.models.weapons.shooting.ballistics.BulletSimulator;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.CollisionSectionCache;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.EntityCandidates;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.HitboxHistory;
 import org.dredd.bulletcore.models.weapons.shooting.recoil.RecoilHandler;
+import org.dredd.bulletcore.models.weapons.shooting.spray.SprayHandler;
 import org.dredd.bulletcore.models.weapons.skins.SkinsManager;
+import org.dredd.bulletcore.network.VirtualLore;
 import org.dredd.bulletcore.utils.JsonUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -52,6 +64,10 @@ public final class BulletCore extends JavaPlugin {
         ConfigManager.load(plugin);
         MaterialsManager.load(plugin);
         CustomItemType.load(plugin);
+
+        EntityCandidates.setKernelEnabled(ConfigManager.instance().simdEntityHits);
+        VirtualLore.installAll();
+        SprayHandler.wakeAll();
     }
 
     /**
@@ -59,9 +75,18 @@ public final class BulletCore extends JavaPlugin {
      * This method is used on plugin reload and disable.
      */
     private static void cancelAndClear() {
-        ReloadHandler.cancelAllReloadTasks();
+        VirtualLore.uninstallAll();
+        MagazineCache.clear();
+        ReloadHandler.cancelAllReloads();
         ShootingHandler.cancelAllAutoShootingTasks();
-        RecoilHandler.cancelAllRecoilTasks();
+        ShotQueue.clear();
+        BulletSimulator.clear();
+        HitboxHistory.clear();
+        CollisionSectionCache.clear();
+        RecoilHandler.cancelAllRecoils();
+        AmmoIndex.clear();
+        AmmoReservoir.clear();
+        HeldItemTracker.clear();
         CustomItemsRegistry.clearAllItems();
     }
 
@@ -100,6 +125,7 @@ public final class BulletCore extends JavaPlugin {
         registerListener(WeaponListener.INSTANCE);
         registerListener(PlayerActionsListener.INSTANCE);
         registerListener(UnknownCommandListener.INSTANCE);
+        registerListener(BlockChangeListener.INSTANCE);
 
         logInfo("==================================================================");
     }
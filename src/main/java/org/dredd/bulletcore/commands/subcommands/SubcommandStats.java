@@ -0,0 +1,138 @@
+package org.dredd.bulletcore.commands.subcommands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.util.StringUtil;
+import org.dredd.bulletcore.listeners.trackers.HeldItemTracker;
+import org.dredd.bulletcore.models.weapons.shooting.ShotQueue;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.CollisionSectionCache;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.HitboxHistory;
+import org.dredd.bulletcore.models.weapons.shooting.recoil.RecoilHandler;
+import org.dredd.bulletcore.models.weapons.shooting.spray.SprayHandler;
+import org.dredd.bulletcore.utils.ServerUtils;
+import org.jetbrains.annotations.NotNull;
+
+import static org.dredd.bulletcore.config.messages.component.ComponentMessage.DEBUG_STATS_COLLISION_CACHE;
+import static org.dredd.bulletcore.config.messages.component.ComponentMessage.DEBUG_STATS_FIRE;
+import static org.dredd.bulletcore.config.messages.component.ComponentMessage.DEBUG_STATS_HELD_ITEMS;
+import static org.dredd.bulletcore.config.messages.component.ComponentMessage.DEBUG_STATS_HITBOX_HISTORY;
+import static org.dredd.bulletcore.config.messages.component.ComponentMessage.DEBUG_STATS_PLAYER_RECOIL;
+import static org.dredd.bulletcore.config.messages.component.ComponentMessage.DEBUG_STATS_RECOIL;
+import static org.dredd.bulletcore.config.messages.component.ComponentMessage.DEBUG_STATS_SHOT_QUEUE;
+import static org.dredd.bulletcore.config.messages.component.ComponentMessage.DEBUG_STATS_SPRAY;
+import static org.dredd.bulletcore.config.messages.component.ComponentMessage.PLAYER_NOT_FOUND;
+import static org.dredd.bulletcore.utils.ServerUtils.EMPTY_LIST;
+
+/**
+ * Shows the per-tick cost of the plugin's background work, or the recoil packet rate of a single player.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public enum SubcommandStats implements Subcommand {
+
+    INSTANCE;
+
+    @Override
+    public @NotNull String getName() {
+        return "stats";
+    }
+
+    @Override
+    public @NotNull String getUsageArgs() {
+        return "[player]";
+    }
+
+    @Override
+    public int getMinArgs() {
+        return 0;
+    }
+
+    @Override
+    public @NotNull String getPermission() {
+        return "bulletcore.command.stats";
+    }
+
+    @Override
+    public void execute(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (args.length > 1) {
+            executeForPlayer(sender, args[1]);
+            return;
+        }
+
+        DEBUG_STATS_HITBOX_HISTORY.sendMessage(sender, Map.of(
+            "players", String.valueOf(HitboxHistory.trackedPlayers()),
+            "window", String.valueOf(HitboxHistory.window()),
+            "last", toMicros(HitboxHistory.lastRecordNanos()),
+            "average", toMicros(HitboxHistory.averageRecordNanos())
+        ));
+        DEBUG_STATS_SHOT_QUEUE.sendMessage(sender, Map.of(
+            "shots", String.valueOf(ShotQueue.resolvedShots()),
+            "time", toMicros(ShotQueue.averageResolveNanos()),
+            "bytes", String.valueOf(ShotQueue.averageAllocatedBytes())
+        ));
+        DEBUG_STATS_FIRE.sendMessage(sender, Map.of(
+            "shots", String.valueOf(ShotQueue.fireCycles()),
+            "bytes", String.valueOf(ShotQueue.averageFireAllocatedBytes())
+        ));
+        DEBUG_STATS_COLLISION_CACHE.sendMessage(sender, Map.of(
+            "sections", String.valueOf(CollisionSectionCache.cachedSections()),
+            "lookups", String.valueOf(CollisionSectionCache.lookups()),
+            "builds", String.valueOf(CollisionSectionCache.builds())
+        ));
+        DEBUG_STATS_RECOIL.sendMessage(sender, Map.of(
+            "packets", String.valueOf(RecoilHandler.packetsPerSecond()),
+            "players", String.valueOf(RecoilHandler.playersWithPackets()),
+            "max", String.valueOf(RecoilHandler.maxPlayerPacketsPerSecond())
+        ));
+
+        final long hits = HeldItemTracker.hits();
+        final long reads = hits + HeldItemTracker.misses();
+        DEBUG_STATS_HELD_ITEMS.sendMessage(sender, Map.of(
+            "hits", String.valueOf(hits),
+            "misses", String.valueOf(HeldItemTracker.misses()),
+            "ratio", String.format("%.1f", reads == 0L ? 0.0D : hits * 100.0D / reads)
+        ));
+        DEBUG_STATS_SPRAY.sendMessage(sender, Map.of(
+            "awake", String.valueOf(SprayHandler.awakeContexts()),
+            "players", String.valueOf(Bukkit.getOnlinePlayers().size())
+        ));
+    }
+
+    @Override
+    public @NotNull List<String> tabComplete(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (args.length == 2)
+            return StringUtil.copyPartialMatches(args[1], ServerUtils.getOnlinePlayerNames(), new ArrayList<>());
+
+        return EMPTY_LIST;
+    }
+
+    /**
+     * Shows the recoil packet rate of the player with the given name.
+     */
+    private static void executeForPlayer(@NotNull CommandSender sender, @NotNull String playerName) {
+        final Player player = Bukkit.getPlayerExact(playerName);
+        if (player == null) {
+            PLAYER_NOT_FOUND.sendMessage(sender, Map.of("player", playerName));
+            return;
+        }
+
+        DEBUG_STATS_PLAYER_RECOIL.sendMessage(sender, Map.of(
+            "player", player.getName(),
+            "packets", String.valueOf(RecoilHandler.packetsPerSecond(player)),
+            "limit", String.valueOf(RecoilHandler.maxPacketsPerSecond(player))
+        ));
+    }
+
+    /**
+     * Formats a duration in nanoseconds as microseconds with one decimal place.
+     */
+    private static @NotNull String toMicros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0D);
+    }
+}
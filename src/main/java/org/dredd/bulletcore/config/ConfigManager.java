@@ -79,6 +79,36 @@ public final class ConfigManager {
 
     public final long fireResumeThreshold;
 
+    public final long autoFireMaxCatchUpNanos;
+
+    public final int recoilMaxPacketsPerSecond;
+
+    public final int shotQueueMaxShots;
+
+    public final long shotQueueMaxNanos;
+
+    public final boolean asyncShots;
+
+    public final int asyncShotThreads;
+
+    public final boolean lagCompensation;
+
+    public final int maxRewindTicks;
+
+    public final boolean simdEntityHits;
+
+    public final boolean collisionCache;
+
+    public final int collisionCacheMaxAgeTicks;
+
+    public final boolean magazineCache;
+
+    public final int magazineFlushIntervalTicks;
+
+    public final boolean virtualLore;
+
+    public final boolean verifyAmmoIndex;
+
     public final DamageThresholds damageThresholds;
 
     public final ConfiguredSound entityHitHeadSound;
@@ -110,6 +140,33 @@ public final class ConfigManager {
 
         this.fireResumeThreshold = Math.clamp(cfg.getLong("fire-resume-threshold", 1000L), -1L, Long.MAX_VALUE);
 
+        this.autoFireMaxCatchUpNanos = Math.clamp(cfg.getLong("auto-fire-max-catch-up", 150L), 0L, 1000L) * 1_000_000L;
+
+        this.recoilMaxPacketsPerSecond = Math.clamp(cfg.getInt("recoil-max-packets-per-second", 20), 1, 20);
+
+        this.shotQueueMaxShots = Math.clamp(cfg.getInt("shot-queue.max-shots-per-tick", 0), 0, Integer.MAX_VALUE);
+        this.shotQueueMaxNanos = Math.clamp(cfg.getLong("shot-queue.max-millis-per-tick", 10L), 0L, 1000L) * 1_000_000L;
+
+        this.asyncShots = cfg.getBoolean("async-shots.enabled", false);
+        final int defaultThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        final int threads = cfg.getInt("async-shots.threads", 0);
+        this.asyncShotThreads = threads <= 0 ? defaultThreads : Math.min(threads, 64);
+
+        this.lagCompensation = cfg.getBoolean("lag-compensation.enabled", false);
+        this.maxRewindTicks = (int) (Math.clamp(cfg.getLong("lag-compensation.max-rewind-millis", 300L), 0L, 1000L) / 50L);
+
+        this.simdEntityHits = cfg.getBoolean("simd-entity-hits", false);
+
+        this.collisionCache = cfg.getBoolean("collision-cache.enabled", true);
+        this.collisionCacheMaxAgeTicks = Math.clamp(cfg.getInt("collision-cache.max-age-seconds", 30), 0, 3600) * 20;
+
+        this.magazineCache = cfg.getBoolean("magazine-cache.enabled", true);
+        this.magazineFlushIntervalTicks = Math.clamp(cfg.getInt("magazine-cache.flush-interval-seconds", 5), 1, 300) * 20;
+
+        this.virtualLore = cfg.getBoolean("virtual-lore", false);
+
+        this.verifyAmmoIndex = cfg.getBoolean("debug-verify-ammo-index", false);
+
         this.damageThresholds = DamageThresholds.load(cfg);
 
         this.entityHitHeadSound = SoundManager.loadSound(cfg, "entity-hit-head", DEFAULT_ENTITY_HIT_HEAD_SOUND);
@@ -261,7 +261,78 @@ public enum ComponentMessage {
      * <p>
      * {@code %block%} – the block’s translation key
      */
-    DEBUG_BLOCK_NON_COLLIDABLE("<red>Bullets will go through <white><lang:%block%></white>");
+    DEBUG_BLOCK_NON_COLLIDABLE("<red>Bullets will go through <white><lang:%block%></white>"),
+
+    /**
+     * Shown by the stats command: hitbox history recording cost.
+     * <p>
+     * {@code %players%} – number of players with recorded history<br>
+     * {@code %window%} – number of ticks kept per player<br>
+     * {@code %last%} – duration of the last recording in microseconds<br>
+     * {@code %average%} – average duration of a recording in microseconds
+     */
+    DEBUG_STATS_HITBOX_HISTORY("<white>Hitbox history: <#7fdbff>%players%</#7fdbff> players × <#7fdbff>%window%</#7fdbff> ticks, recorded in <#39ff14>%last%</#39ff14> µs (avg <#39ff14>%average%</#39ff14> µs)"),
+
+    /**
+     * Shown by the stats command: cost of resolving shots on the main thread.
+     * <p>
+     * {@code %shots%} – number of shots resolved since the last reload<br>
+     * {@code %time%} – average time per shot in microseconds<br>
+     * {@code %bytes%} – average memory allocated per shot in bytes ({@code -1} if not measurable)
+     */
+    DEBUG_STATS_SHOT_QUEUE("<white>Shot queue: <#7fdbff>%shots%</#7fdbff> shots, <#39ff14>%time%</#39ff14> µs and <#39ff14>%bytes%</#39ff14> B per shot"),
+
+    /**
+     * Shown by the stats command: cost of firing shots on the main thread, before they are resolved.
+     * <p>
+     * {@code %shots%} – number of fire cycles since the last reload<br>
+     * {@code %bytes%} – average memory allocated per fire cycle in bytes ({@code -1} if not measurable)
+     */
+    DEBUG_STATS_FIRE("<white>Firing: <#7fdbff>%shots%</#7fdbff> fire cycles, <#39ff14>%bytes%</#39ff14> B per fire cycle"),
+
+    /**
+     * Shown by the stats command: block collision cache usage.
+     * <p>
+     * {@code %sections%} – number of cached chunk sections<br>
+     * {@code %lookups%} – number of section lookups since the last reload<br>
+     * {@code %builds%} – number of sections built since the last reload
+     */
+    DEBUG_STATS_COLLISION_CACHE("<white>Collision cache: <#7fdbff>%sections%</#7fdbff> sections, <#7fdbff>%builds%</#7fdbff> builds for <#7fdbff>%lookups%</#7fdbff> lookups"),
+
+    /**
+     * Shown by the stats command: recoil camera packets.
+     * <p>
+     * {@code %packets%} – number of recoil packets sent during the last second<br>
+     * {@code %players%} – number of players who received recoil packets during the last second<br>
+     * {@code %max%} – highest number of recoil packets sent to a single player during the last second
+     */
+    DEBUG_STATS_RECOIL("<white>Recoil: <#7fdbff>%packets%</#7fdbff> packets/s to <#7fdbff>%players%</#7fdbff> players (max <#39ff14>%max%</#39ff14>/s per player)"),
+
+    /**
+     * Shown by the stats command for a single player: recoil camera packets sent to the player.
+     * <p>
+     * {@code %player%} – name of the player<br>
+     * {@code %packets%} – number of recoil packets sent to the player during the last second<br>
+     * {@code %limit%} – maximum number of recoil packets sent to the player per second
+     */
+    DEBUG_STATS_PLAYER_RECOIL("<white>Recoil of <#7fdbff>%player%</#7fdbff>: <#7fdbff>%packets%</#7fdbff> packets/s (limit <#39ff14>%limit%</#39ff14>/s)"),
+
+    /**
+     * Shown by the stats command: held item cache usage.
+     * <p>
+     * {@code %hits%} – number of held item reads answered from the cache since the last reload<br>
+     * {@code %misses%} – number of held item reads that resolved the item since the last reload<br>
+     * {@code %ratio%} – percentage of reads answered from the cache
+     */
+    DEBUG_STATS_HELD_ITEMS("<white>Held items: <#7fdbff>%hits%</#7fdbff> hits, <#7fdbff>%misses%</#7fdbff> misses (<#39ff14>%ratio%</#39ff14> % hit ratio)"),
+
+    /**
+     * Shown by the stats command: spray context updates.
+     * <p>
+     * {@code %awake%} – number of spray contexts updated every tick, i.e., of players holding a weapon<br>
+     * {@code %players%} – number of online players
+     */
+    DEBUG_STATS_SPRAY("<white>Spray: <#7fdbff>%awake%</#7fdbff> of <#7fdbff>%players%</#7fdbff> players updated per tick");
 
 
     // ----------< Instance >----------
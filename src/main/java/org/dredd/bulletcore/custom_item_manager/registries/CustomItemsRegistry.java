@@ -1,7 +1,11 @@
 package org.dredd.bulletcore.custom_item_manager.registries;
 
+import java.util.BitSet;
 import java.util.regex.Pattern;
 
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.world.item.component.CustomModelData;
+import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.dredd.bulletcore.custom_item_manager.exceptions.ItemRegisterException;
@@ -10,6 +14,7 @@ import org.dredd.bulletcore.models.ammo.Ammo;
 import org.dredd.bulletcore.models.armor.Armor;
 import org.dredd.bulletcore.models.grenades.Grenade;
 import org.dredd.bulletcore.models.weapons.Weapon;
+import org.dredd.bulletcore.utils.ServerUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -66,6 +71,11 @@ public final class CustomItemsRegistry {
      */
     public static final ItemRegistry<Weapon> WEAPON = ItemRegistry.create();
 
+    /**
+     * Materials used by registered items, by {@link Material#ordinal()}.
+     */
+    private static final BitSet USED_MATERIALS = new BitSet(Material.values().length);
+
     // ----------< Registration & Clearing >----------
 
     /**
@@ -84,6 +94,8 @@ public final class CustomItemsRegistry {
             case Weapon weapon -> WEAPON.register(weapon);
             default -> throw new ItemRegisterException("Unknown type: " + item.getClass().getSimpleName());
         }
+
+        USED_MATERIALS.set(item.material.ordinal());
     }
 
     /**
@@ -95,6 +107,7 @@ public final class CustomItemsRegistry {
         ARMOR.clearAll();
         GRENADE.clearAll();
         WEAPON.clearAll();
+        USED_MATERIALS.clear();
     }
 
     // ----------< Validation >----------
@@ -122,91 +135,85 @@ public final class CustomItemsRegistry {
     // ----------< Lookup Helpers >----------
 
     /**
-     * Retrieves the base custom model data from the given {@link ItemStack}.
+     * Retrieves the custom item of the given {@link ItemStack} with a single registry lookup.
      * <p>
-     * The "base" is defined as the largest multiple of 100 less than or equal to the item's
-     * custom model data (i.e., {@code customModelData - (customModelData % 100)}).
-     * <p>
-     * If the stack is {@code null}, lacks item meta, or does not have a custom model data set,
-     * this method returns {@code 0}.
+     * Stacks of materials no custom item uses are rejected right away. The custom model data of the
+     * other stacks is read straight from the server stack, without copying the item meta.
+     * The custom item is the one registered under the "base" custom model data: the largest
+     * multiple of 100 less than or equal to the item's custom model data.
      *
      * @param stack the item stack to inspect
-     * @return the base custom model data if present, or {@code 0} otherwise
+     * @return the matching item if found, or {@code null} otherwise
      */
-    private static int getBaseModelDataOrZero(@Nullable ItemStack stack) {
-        if (stack == null || !stack.hasItemMeta()) return 0;
+    private static @Nullable CustomBase lookup(@Nullable ItemStack stack) {
+        if (stack == null || !USED_MATERIALS.get(stack.getType().ordinal())) return null;
+
+        final net.minecraft.world.item.ItemStack handle = ServerUtils.getHandleOrNull(stack);
+        if (handle != null) return getItemOrNull(handle);
+
+        // not backed by a server stack (e.g., created with new ItemStack(...))
+        if (!stack.hasItemMeta()) return null;
         final ItemMeta meta = stack.getItemMeta();
-        if (meta == null || !meta.hasCustomModelData()) return 0;
-        final int customModelData = meta.getCustomModelData();
-        return customModelData - (customModelData % 100);
+        return meta.hasCustomModelData() ? getByModelData(meta.getCustomModelData()) : null;
     }
 
     /**
-     * Retrieves an item from the given registry based on the {@link ItemStack}'s base custom model data.
-     *
-     * @param registry the registry to query
-     * @param stack    the item stack to inspect
-     * @param <T>      the type of item stored in the registry
-     * @return the matching item if found, or {@code null} otherwise
+     * Retrieves the custom item registered under the base of the given custom model data.
      */
-    private static <T extends CustomBase> @Nullable T getOrNull(@NotNull ItemRegistry<T> registry,
-                                                                @Nullable ItemStack stack) {
-        final int modelData = getBaseModelDataOrZero(stack);
-        return (modelData == 0) ? null : registry.getItemOrNull(modelData);
+    private static @Nullable CustomBase getByModelData(int customModelData) {
+        return ALL.getItemOrNull(customModelData - (customModelData % 100));
     }
 
+    // ----------< Public Query >----------
+
     /**
-     * Checks whether the given {@link ItemStack} corresponds to an item in the specified registry.
+     * Retrieves the custom item of the given server stack. Safe to call from network threads.
      *
-     * @param registry the registry to query
-     * @param stack    the item stack to inspect
-     * @param <T>      the type of item stored in the registry
-     * @return {@code true} if the stack maps to an item in the registry, {@code false} otherwise
+     * @param stack the server stack to inspect
+     * @return the matching item if found, or {@code null} otherwise
      */
-    private static <T extends CustomBase> boolean isType(@NotNull ItemRegistry<T> registry,
-                                                         @Nullable ItemStack stack) {
-        return getOrNull(registry, stack) != null;
+    public static @Nullable CustomBase getItemOrNull(@NotNull net.minecraft.world.item.ItemStack stack) {
+        final CustomModelData modelData = stack.get(DataComponents.CUSTOM_MODEL_DATA);
+        return modelData == null ? null : getByModelData(modelData.value());
     }
 
-    // ----------< Public Query >----------
-
     public static @Nullable CustomBase getItemOrNull(@Nullable ItemStack stack) {
-        return getOrNull(ALL, stack);
+        return lookup(stack);
     }
 
     public static boolean isCustomItem(@Nullable ItemStack stack) {
-        return isType(ALL, stack);
+        return lookup(stack) != null;
     }
 
     public static @Nullable Ammo getAmmoOrNull(@Nullable ItemStack stack) {
-        return getOrNull(AMMO, stack);
+        return lookup(stack) instanceof Ammo ammo ? ammo : null;
     }
 
     public static boolean isAmmo(@Nullable ItemStack stack) {
-        return isType(AMMO, stack);
+        return lookup(stack) instanceof Ammo;
     }
 
     public static @Nullable Armor getArmorOrNull(@Nullable ItemStack stack) {
-        return getOrNull(ARMOR, stack);
+        return lookup(stack) instanceof Armor armor ? armor : null;
     }
 
     public static boolean isArmor(@Nullable ItemStack stack) {
-        return isType(ARMOR, stack);
+        return lookup(stack) instanceof Armor;
     }
 
     public static @Nullable Grenade getGrenadeOrNull(@Nullable ItemStack stack) {
-        return getOrNull(GRENADE, stack);
+        return lookup(stack) instanceof Grenade grenade ? grenade : null;
     }
 
     public static boolean isGrenade(@Nullable ItemStack stack) {
-        return isType(GRENADE, stack);
+        return lookup(stack) instanceof Grenade;
     }
 
     public static @Nullable Weapon getWeaponOrNull(@Nullable ItemStack stack) {
-        return getOrNull(WEAPON, stack);
+        return lookup(stack) instanceof Weapon weapon ? weapon : null;
     }
 
     public static boolean isWeapon(@Nullable ItemStack stack) {
-        return isType(WEAPON, stack);
+        return lookup(stack) instanceof Weapon;
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package org.dredd.bulletcore.custom_item_manager.registries;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -44,12 +45,27 @@ public final class ItemRegistry<T extends CustomBase> {
     }
 
 
+    // -----< Constants >-----
+
+    /**
+     * Number of {@link CustomBase#customModelData} keys looked up in the dense array: {@code 100} to {@code 6_553_500}.
+     * Items with larger keys are kept in a map.
+     */
+    private static final int MAX_DENSE_SIZE = 1 << 16;
+
+
     // ----------< Instance >----------
 
     // -----< Attributes >-----
 
     /**
-     * A mapping of {@link CustomBase#customModelData} keys to their corresponding custom item instances.
+     * Custom item instances indexed by {@code customModelData / 100}, grown as items are registered.
+     */
+    private CustomBase[] itemsByIndex = new CustomBase[0];
+
+    /**
+     * A mapping of {@link CustomBase#customModelData} keys to their corresponding custom item instances,
+     * for the keys too large for {@link #itemsByIndex}.
      */
     private final Int2ObjectMap<T> itemsByModelData;
 
@@ -78,8 +94,14 @@ public final class ItemRegistry<T extends CustomBase> {
      * @param customModelData custom model data key associated with the item
      * @return the item if found, or {@code null} if not registered
      */
+    @SuppressWarnings("unchecked")
     public @Nullable T getItemOrNull(int customModelData) {
-        return itemsByModelData.get(customModelData);
+        if (customModelData <= 0 || customModelData % 100 != 0) return null;
+
+        final int index = customModelData / 100;
+        final CustomBase[] items = itemsByIndex;
+        if (index < items.length) return (T) items[index];
+        return index < MAX_DENSE_SIZE ? null : itemsByModelData.get(customModelData);
     }
 
     /**
@@ -122,14 +144,20 @@ public final class ItemRegistry<T extends CustomBase> {
         final int modelData = item.customModelData;
         final String name = item.name;
 
-        final T existingByModelData = itemsByModelData.putIfAbsent(modelData, item);
-        if (existingByModelData != null)
+        if (getItemOrNull(modelData) != null)
             throw new ItemRegisterException("Item is already registered with the customModelData: " + modelData);
 
         final T existingByName = itemsByName.putIfAbsent(name, item);
-        if (existingByName != null) {
-            itemsByModelData.remove(modelData, item);
+        if (existingByName != null)
             throw new ItemRegisterException("Item is already registered with the name: " + name);
+
+        final int index = modelData / 100;
+        if (index >= MAX_DENSE_SIZE) {
+            itemsByModelData.put(modelData, item);
+        } else {
+            if (index >= itemsByIndex.length)
+                itemsByIndex = Arrays.copyOf(itemsByIndex, index + 1);
+            itemsByIndex[index] = item;
         }
     }
 
@@ -137,6 +165,7 @@ public final class ItemRegistry<T extends CustomBase> {
      * Clears all registered items from the registry.
      */
     void clearAll() {
+        itemsByIndex = new CustomBase[0];
         itemsByModelData.clear();
         itemsByName.clear();
     }
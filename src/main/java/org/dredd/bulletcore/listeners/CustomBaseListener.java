@@ -14,6 +14,7 @@ import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
+import org.dredd.bulletcore.listeners.trackers.HeldItemTracker;
 import org.dredd.bulletcore.listeners.trackers.PlayerActionTracker;
 import org.dredd.bulletcore.models.CustomBase;
 
@@ -61,11 +62,11 @@ public enum CustomBaseListener implements Listener {
         final long lastDrop = PlayerActionTracker.getLastDrop(player.getUniqueId());
         if (now - lastDrop < 25L) return;
 
-        final ItemStack mainHandItem = player.getInventory().getItemInMainHand();
-
-        final CustomBase usedCustomItem = CustomItemsRegistry.getItemOrNull(mainHandItem);
+        final CustomBase usedCustomItem = HeldItemTracker.getItemOrNull(player);
         if (usedCustomItem == null) return;
 
+        final ItemStack mainHandItem = player.getInventory().getItemInMainHand();
+
         if (usedCustomItem.onLMB(player, mainHandItem))
             event.setCancelled(true);
     }
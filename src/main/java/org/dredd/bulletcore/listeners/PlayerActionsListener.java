@@ -1,21 +1,40 @@
 package org.dredd.bulletcore.listeners;
 
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerArmorStandManipulateEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
+import org.bukkit.event.player.PlayerItemBreakEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.dredd.bulletcore.listeners.trackers.HeldItemTracker;
 import org.dredd.bulletcore.listeners.trackers.PlayerActionTracker;
+import org.dredd.bulletcore.models.ammo.AmmoIndex;
+import org.dredd.bulletcore.models.ammo.AmmoReservoir;
+import org.dredd.bulletcore.models.weapons.MagazineCache;
 import org.dredd.bulletcore.models.weapons.reloading.ReloadHandler;
 import org.dredd.bulletcore.models.weapons.shooting.ShootingHandler;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.HitboxHistory;
 import org.dredd.bulletcore.models.weapons.shooting.recoil.RecoilHandler;
 import org.dredd.bulletcore.models.weapons.shooting.spray.SprayHandler;
+import org.dredd.bulletcore.network.VirtualLore;
 import org.dredd.bulletcore.utils.ServerUtils;
+import org.jetbrains.annotations.NotNull;
 
 // TODO: verify whether ignoreCancelled should be applied to some/all events
 
@@ -34,16 +53,126 @@ public enum PlayerActionsListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onInventoryClick(InventoryClickEvent event) {
         PlayerActionTracker.recordInventoryInteraction(event.getWhoClicked().getUniqueId());
+        AmmoIndex.invalidate(event.getWhoClicked());
+        heldItemMayChange(event.getWhoClicked());
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onInventoryDrag(InventoryDragEvent event) {
         PlayerActionTracker.recordInventoryInteraction(event.getWhoClicked().getUniqueId());
+        AmmoIndex.invalidate(event.getWhoClicked());
+        heldItemMayChange(event.getWhoClicked());
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerDropItem(PlayerDropItemEvent event) {
         PlayerActionTracker.recordDrop(event.getPlayer().getUniqueId());
+        AmmoIndex.invalidate(event.getPlayer());
+        heldItemMayChange(event.getPlayer());
+    }
+
+    // ----------< Magazine Sync >----------
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void flushMagazineOnInventoryClick(InventoryClickEvent event) {
+        MagazineCache.flush(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void flushMagazineOnInventoryDrag(InventoryDragEvent event) {
+        MagazineCache.flush(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void flushMagazineOnInventoryOpen(InventoryOpenEvent event) {
+        MagazineCache.flush(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void flushMagazineOnItemHeld(PlayerItemHeldEvent event) {
+        MagazineCache.flush(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void flushMagazineOnSwapHandItems(PlayerSwapHandItemsEvent event) {
+        MagazineCache.flush(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void flushMagazineOnDropItem(PlayerDropItemEvent event) {
+        MagazineCache.flushDropped(event.getPlayer(), event.getItemDrop());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void flushMagazineOnInteractEntity(PlayerInteractEntityEvent event) {
+        MagazineCache.flush(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void flushMagazineOnArmorStandManipulate(PlayerArmorStandManipulateEvent event) {
+        MagazineCache.flush(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void flushMagazineOnDeath(PlayerDeathEvent event) {
+        MagazineCache.flush(event.getEntity());
+    }
+
+    // ----------< Inventory Changes >----------
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityPickupReservoirAmmo(EntityPickupItemEvent event) {
+        if (!(event.getEntity() instanceof Player player)) return;
+
+        final Item item = event.getItem();
+        if (!AmmoReservoir.absorb(player, item.getItemStack())) return;
+
+        event.setCancelled(true);
+        player.playPickupItemAnimation(item);
+        item.remove();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityPickupItem(EntityPickupItemEvent event) {
+        if (!(event.getEntity() instanceof Player player)) return;
+
+        AmmoIndex.invalidate(player);
+        heldItemMayChange(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerItemHeld(PlayerItemHeldEvent event) {
+        heldItemMayChange(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerSwapHandItems(PlayerSwapHandItemsEvent event) {
+        AmmoIndex.invalidate(event.getPlayer());
+        heldItemMayChange(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        AmmoIndex.invalidate(event.getPlayer());
+        heldItemMayChange(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerItemConsume(PlayerItemConsumeEvent event) {
+        AmmoIndex.invalidate(event.getPlayer());
+        heldItemMayChange(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerItemBreak(PlayerItemBreakEvent event) {
+        AmmoIndex.invalidate(event.getPlayer());
+        heldItemMayChange(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        AmmoIndex.invalidate(event.getPlayer());
+        heldItemMayChange(event.getPlayer());
     }
 
     // ----------< Lifecycle >----------
@@ -52,7 +181,8 @@ public enum PlayerActionsListener implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         final Player player = event.getPlayer();
 
-        SprayHandler.getSprayContext(player);
+        SprayHandler.wake(player);
+        VirtualLore.install(player);
 
         ServerUtils.chargeOrDischargeIfCrossbowWeapon(player.getInventory().getItemInMainHand(), player.isSneaking());
     }
@@ -62,11 +192,17 @@ public enum PlayerActionsListener implements Listener {
         final Player player = event.getPlayer();
 
         PlayerActionTracker.clear(player.getUniqueId());
+        MagazineCache.flush(player);
 
         ReloadHandler.cancelReload(player, false);
         ShootingHandler.cancelAutoShooting(player);
         RecoilHandler.cancelAndRemoveRecoil(player);
+        RecoilHandler.resetMaxPacketsPerSecond(player);
         SprayHandler.clearSprayContext(player);
+        HitboxHistory.remove(player);
+        AmmoIndex.remove(player);
+        AmmoReservoir.remove(player);
+        HeldItemTracker.remove(player);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
@@ -78,5 +214,18 @@ public enum PlayerActionsListener implements Listener {
         ReloadHandler.cancelReload(player, false);
         ShootingHandler.cancelAutoShooting(player);
         RecoilHandler.cancelAndRemoveRecoil(player);
+        AmmoIndex.invalidate(player);
+        heldItemMayChange(player);
+    }
+
+    // ----------< Utilities >----------
+
+    /**
+     * Invalidates the held item of the given player, and wakes up their spray context,
+     * so it is updated from the end of this tick on if they hold a weapon then.
+     */
+    private static void heldItemMayChange(@NotNull HumanEntity entity) {
+        HeldItemTracker.invalidate(entity);
+        if (entity instanceof Player player) SprayHandler.wake(player);
     }
-}
\ No newline at end of file
+}
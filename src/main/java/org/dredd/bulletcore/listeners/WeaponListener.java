@@ -1,6 +1,7 @@
 package org.dredd.bulletcore.listeners;
 
 import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.destroystokyo.paper.event.server.ServerTickStartEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -18,14 +19,22 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.dredd.bulletcore.BulletCore;
 import org.dredd.bulletcore.listeners.trackers.CurrentHitTracker;
+import org.dredd.bulletcore.listeners.trackers.HeldItemTracker;
 import org.dredd.bulletcore.models.armor.ArmorHit;
+import org.dredd.bulletcore.models.weapons.MagazineCache;
 import org.dredd.bulletcore.models.weapons.Weapon;
+import org.dredd.bulletcore.models.weapons.reloading.ReloadHandler;
 import org.dredd.bulletcore.models.weapons.shooting.CurrentHit;
 import org.dredd.bulletcore.models.weapons.shooting.ShootingHandler;
+import org.dredd.bulletcore.models.weapons.shooting.ShotQueue;
+import org.dredd.bulletcore.models.weapons.shooting.ballistics.BulletSimulator;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.CollisionSectionCache;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.HitboxHistory;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.ShootableEntities;
+import org.dredd.bulletcore.models.weapons.shooting.recoil.RecoilHandler;
 import org.dredd.bulletcore.models.weapons.shooting.spray.SprayHandler;
 import org.dredd.bulletcore.utils.ServerUtils;
 
-import static org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry.getWeaponOrNull;
 import static org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry.isWeapon;
 
 /**
@@ -184,7 +193,7 @@ public enum WeaponListener implements Listener {
             return;
 
         //System.err.println("3. MainHand item: " + damager.getInventory().getItemInMainHand().getType());
-        final Weapon weapon = getWeaponOrNull(damager.getInventory().getItemInMainHand());
+        final Weapon weapon = HeldItemTracker.getWeaponOrNull(damager);
         if (weapon != null && !CurrentHitTracker.isAlreadyHit(damager.getUniqueId(), event.getEntity().getUniqueId())) {
             //System.err.println("4. MainHand item is a Weapon. Cancel event. Call onLMB.");
             event.setCancelled(true);
@@ -197,9 +206,8 @@ public enum WeaponListener implements Listener {
                 () -> {
                     if (!damager.isOnline() || damager.isDead()) return;
 
-                    final ItemStack currentWeapon = damager.getInventory().getItemInMainHand();
-                    if (weapon.isThisWeapon(currentWeapon))
-                        weapon.onLMB(damager, currentWeapon);
+                    if (HeldItemTracker.isHolding(damager, weapon))
+                        weapon.onLMB(damager, damager.getInventory().getItemInMainHand());
                 }
             );
         }
@@ -211,8 +219,8 @@ public enum WeaponListener implements Listener {
      * If the incoming damage is blocked by a shield, the default shield durability loss is replaced
      * with a weapon-defined shield damage value.
      * <p>
-     * If the hit is <b>not</b> blocked by a shield, and an {@link ArmorHit} is registered for the victim,
-     * custom armor durability damage is applied.
+     * If the hit is <b>not</b> blocked by a shield, custom armor durability damage is applied
+     * for each {@link ArmorHit} registered for the victim.
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void damageShieldAndArmorOnEntityDamageByEntity(EntityDamageByEntityEvent event) {
@@ -231,15 +239,15 @@ public enum WeaponListener implements Listener {
         final boolean wasAnyDamageBlockedByShield = damageBlockedByShield != 0.0D;
         //System.err.println("3. Original damage blocked by shield: " + damageBlockedByShield);
 
+        // the shield takes the damage of every pellet of the fire cycle
         final double customShieldDamage = currentHit.weapon().damage.shield();
 
         if (wasAnyDamageBlockedByShield) {
             //System.err.println("4.1. Shield block. Using value from weapon to damage shield: " + customShieldDamage);
-            event.setDamage(shieldDamageModifier, -customShieldDamage);
+            event.setDamage(shieldDamageModifier, -customShieldDamage * currentHit.hits().totalHits());
         }
 
-        final ArmorHit armorHit = CurrentHitTracker.getArmorHit(victim.getUniqueId());
-        if (armorHit != null) {
+        for (final ArmorHit armorHit : CurrentHitTracker.getArmorHits(victim.getUniqueId())) {
             //System.err.println("4.2. Try damaging armor. Blocked damage: " + (wasAnyDamageBlockedByShield ? customShieldDamage : 0.0D));
             armorHit.applyArmorDamage(wasAnyDamageBlockedByShield ? customShieldDamage : 0.0D);
         }
@@ -258,8 +266,7 @@ public enum WeaponListener implements Listener {
         //System.err.println("0. PlayerToggleSneakEvent.");
 
         final Player player = event.getPlayer();
-        final ItemStack mainHandItem = player.getInventory().getItemInMainHand();
-        final Weapon weapon = getWeaponOrNull(mainHandItem);
+        final Weapon weapon = HeldItemTracker.getWeaponOrNull(player);
         if (weapon == null) return;
         //System.err.println("1. Player has Weapon in MainHand.");
 
@@ -270,7 +277,18 @@ public enum WeaponListener implements Listener {
             ShootingHandler.cancelAutoShooting(player);
         }
 
-        ServerUtils.chargeOrDischargeIfCrossbowMeta(mainHandItem, isReallySneaking);
+        ServerUtils.chargeOrDischargeIfCrossbowMeta(player.getInventory().getItemInMainHand(), isReallySneaking);
+    }
+
+    /**
+     * Apply results of the work done off the main thread during the previous tick,
+     * then advance reloads and fire the due shots of automatic weapons.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void applyResultsOnServerTickStart(ServerTickStartEvent event) {
+        ShotQueue.applyAsyncResults();
+        ReloadHandler.tick();
+        ShootingHandler.tickAutoShooting();
     }
 
     /**
@@ -279,5 +297,12 @@ public enum WeaponListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     public void updateStatesOnServerTickEnd(ServerTickEndEvent event) {
         SprayHandler.tick();
+        RecoilHandler.tick();
+        HitboxHistory.record();
+        ShotQueue.tick();
+        BulletSimulator.tick();
+        ShootableEntities.releaseAll();
+        MagazineCache.tick();
+        CollisionSectionCache.tick();
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import java.util.UUID;
 import org.dredd.bulletcore.models.armor.ArmorHit;
 import org.dredd.bulletcore.models.weapons.Weapon;
 import org.dredd.bulletcore.models.weapons.shooting.CurrentHit;
+import org.dredd.bulletcore.models.weapons.shooting.VictimHits;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -56,11 +57,13 @@ public final class CurrentHitTracker {
      * @param damager UUID of the entity that is attacking
      * @param victim  UUID of the entity that is being attacked
      * @param weapon  the weapon used for this hit
+     * @param hits    the hits of the fire cycle on the victim
      */
     public static void startHitProcess(@NotNull UUID damager,
                                        @NotNull UUID victim,
-                                       @NotNull Weapon weapon) {
-        CURRENT_HITS.add(new CurrentHit(damager, victim, weapon));
+                                       @NotNull Weapon weapon,
+                                       @NotNull VictimHits hits) {
+        CURRENT_HITS.add(new CurrentHit(damager, victim, weapon, hits));
     }
 
     /**
@@ -102,7 +105,10 @@ public final class CurrentHitTracker {
 
     // ----------< CURRENT_ARMOR_HITS >----------
 
-    private static final Map<UUID, ArmorHit> CURRENT_ARMOR_HITS = new HashMap<>();
+    /**
+     * Armor hits of each victim, one per hit armor piece.
+     */
+    private static final Map<UUID, List<ArmorHit>> CURRENT_ARMOR_HITS = new HashMap<>();
 
     /**
      * Adds armor hit.
@@ -112,25 +118,49 @@ public final class CurrentHitTracker {
      */
     public static void addArmorHit(@NotNull UUID victim,
                                    @NotNull ArmorHit armorHit) {
-        CURRENT_ARMOR_HITS.put(victim, armorHit);
+        CURRENT_ARMOR_HITS.computeIfAbsent(victim, k -> new ArrayList<>(4)).add(armorHit);
     }
 
     /**
-     * Removes the armor hit for the given victim.
+     * Removes the armor hits for the given victim.
      *
      * @param victim the victim's UUID
      */
-    public static void removeArmorHit(@NotNull UUID victim) {
+    public static void removeArmorHits(@NotNull UUID victim) {
         CURRENT_ARMOR_HITS.remove(victim);
     }
 
     /**
-     * Gets the armor hit for the given victim.
+     * Gets the armor hits for the given victim.
+     *
+     * @param victim the victim's UUID
+     * @return the armor hits, empty if none
+     */
+    public static @NotNull List<ArmorHit> getArmorHits(@NotNull UUID victim) {
+        return CURRENT_ARMOR_HITS.getOrDefault(victim, List.of());
+    }
+
+    /**
+     * Gets the first armor hit for the given victim.
      *
      * @param victim the victim's UUID
-     * @return the armor hit instance, or {@code null} if not found
+     * @return the first armor hit instance, or {@code null} if not found
+     * @deprecated a fire cycle may hit several armor pieces of a victim, use {@link #getArmorHits(UUID)}
      */
+    @Deprecated(since = "1.0.0")
     public static @Nullable ArmorHit getArmorHit(@NotNull UUID victim) {
-        return CURRENT_ARMOR_HITS.get(victim);
+        final List<ArmorHit> armorHits = getArmorHits(victim);
+        return armorHits.isEmpty() ? null : armorHits.getFirst();
+    }
+
+    /**
+     * Removes the armor hits for the given victim.
+     *
+     * @param victim the victim's UUID
+     * @deprecated use {@link #removeArmorHits(UUID)}
+     */
+    @Deprecated(since = "1.0.0")
+    public static void removeArmorHit(@NotNull UUID victim) {
+        removeArmorHits(victim);
     }
-}
\ No newline at end of file
+}
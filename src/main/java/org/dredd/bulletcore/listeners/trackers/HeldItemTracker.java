@@ -0,0 +1,163 @@
+package org.dredd.bulletcore.listeners.trackers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.ItemStack;
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.entity.CraftPlayer;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
+import org.dredd.bulletcore.models.CustomBase;
+import org.dredd.bulletcore.models.weapons.Weapon;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Tracks the custom item each player holds in the main hand.
+ * <p>
+ * The resolved item is cached together with the selected slot and the held server stack itself,
+ * and reused as long as both are the same, so repeated checks of the held item during a tick
+ * (e.g., shots, reloads, arm swings, sneaking) resolve it only once.<br>
+ * Inventory events {@link #invalidate invalidate} the cached item. Since most inventory events
+ * are called before the inventory changes, an item invalidated during a tick is resolved again
+ * on every read until that tick ends.
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class HeldItemTracker {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private HeldItemTracker() {}
+
+    /**
+     * Held item of each player.
+     */
+    private static final Map<UUID, HeldItem> HELD_ITEMS = new HashMap<>();
+
+    /**
+     * Number of reads answered from the cache, and number of reads that resolved the item, since the last reload.
+     */
+    private static long hits, misses;
+
+    // ----------< Public API >----------
+
+    /**
+     * Returns the custom item held in the main hand of the given player.
+     *
+     * @param player the player
+     * @return the held custom item, or {@code null} if the player holds no custom item
+     */
+    public static @Nullable CustomBase getItemOrNull(@NotNull Player player) {
+        final Inventory inventory = ((CraftPlayer) player).getHandle().getInventory();
+        final int slot = inventory.selected;
+        final ItemStack stack = inventory.getSelected();
+
+        final HeldItem held = HELD_ITEMS.computeIfAbsent(player.getUniqueId(), k -> new HeldItem());
+        if (held.resolvedTick > held.invalidatedTick && held.slot == slot && held.stack == stack
+            && (held.item == null || !stack.isEmpty())) {
+            hits++;
+            return held.item;
+        }
+
+        misses++;
+        held.slot = slot;
+        held.stack = stack;
+        held.item = stack.isEmpty() ? null : CustomItemsRegistry.getItemOrNull(stack);
+        held.resolvedTick = Bukkit.getCurrentTick();
+        return held.item;
+    }
+
+    /**
+     * Returns the weapon held in the main hand of the given player.
+     *
+     * @param player the player
+     * @return the held weapon, or {@code null} if the player holds no weapon
+     */
+    public static @Nullable Weapon getWeaponOrNull(@NotNull Player player) {
+        return getItemOrNull(player) instanceof Weapon weapon ? weapon : null;
+    }
+
+    /**
+     * Checks whether the given player holds the given custom item in the main hand.
+     *
+     * @param player the player
+     * @param item   the custom item
+     * @return {@code true} if the held item is the given custom item, {@code false} otherwise
+     */
+    public static boolean isHolding(@NotNull Player player, @NotNull CustomBase item) {
+        return getItemOrNull(player) == item;
+    }
+
+    /**
+     * Marks the held item of the given player as outdated. Called when their inventory may change.
+     *
+     * @param entity the player whose inventory may change
+     */
+    public static void invalidate(@NotNull HumanEntity entity) {
+        final HeldItem held = HELD_ITEMS.get(entity.getUniqueId());
+        if (held != null) held.invalidatedTick = Bukkit.getCurrentTick();
+    }
+
+    /**
+     * Drops the held item of the given player. Called when the player leaves the server.
+     *
+     * @param player the player
+     */
+    public static void remove(@NotNull Player player) {
+        HELD_ITEMS.remove(player.getUniqueId());
+    }
+
+    /**
+     * Drops all held items and resets the counters. Called when the plugin is reloaded or disabled, so items can change.
+     */
+    public static void clear() {
+        HELD_ITEMS.clear();
+        hits = 0L;
+        misses = 0L;
+    }
+
+    /**
+     * @return the number of reads answered from the cache since the last reload
+     */
+    public static long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of reads that resolved the held item since the last reload
+     */
+    public static long misses() {
+        return misses;
+    }
+
+    // ----------< Held Item >----------
+
+    /**
+     * Held item of a single player.
+     */
+    private static final class HeldItem {
+
+        /**
+         * The selected hotbar slot, and the server stack in it, the item was resolved from.
+         */
+        private int slot = -1;
+
+        private ItemStack stack;
+
+        private CustomBase item;
+
+        /**
+         * Tick the item was last resolved at, and tick it was last invalidated at.
+         */
+        private int resolvedTick = Integer.MIN_VALUE, invalidatedTick = Integer.MIN_VALUE + 1;
+    }
+}
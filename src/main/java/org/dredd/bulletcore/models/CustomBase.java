@@ -5,6 +5,7 @@ import java.util.stream.Collectors;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import net.minecraft.nbt.CompoundTag;
 import org.bukkit.Material;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
@@ -12,6 +13,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.dredd.bulletcore.custom_item_manager.exceptions.ItemLoadException;
 import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
+import org.dredd.bulletcore.network.VirtualLore;
 import org.dredd.bulletcore.utils.ComponentUtils;
 import org.dredd.bulletcore.utils.ServerUtils;
 import org.jetbrains.annotations.NotNull;
@@ -132,6 +134,16 @@ public abstract class CustomBase {
      */
     protected void applyCustomAttributes(@NotNull ItemStack stack) {}
 
+    /**
+     * Renders the first lore line of a stack of this item from its persistent data,
+     * when lore is rendered by {@link VirtualLore} instead of stored on the stack.<br>
+     * May be called from network threads.
+     *
+     * @param values the persistent data values of the stack
+     * @return the rendered lore line, or {@code null} if this item has no dynamic lore line
+     */
+    public @Nullable Component renderDynamicLore(@NotNull CompoundTag values) {return null;}
+
     /**
      * Called when a player right-clicks with this custom item in the main hand.
      *
@@ -0,0 +1,300 @@
+package org.dredd.bulletcore.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.papermc.paper.adventure.PaperAdventure;
+import net.kyori.adventure.text.Component;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.component.CustomData;
+import net.minecraft.world.item.component.ItemLore;
+import org.bukkit.NamespacedKey;
+import org.bukkit.craftbukkit.inventory.CraftItemStack;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.dredd.bulletcore.utils.ServerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static org.bukkit.persistence.PersistentDataType.BYTE_ARRAY;
+
+/**
+ * Reads and writes the mutable state of custom item stacks (bullets, ammo count, durability).
+ * <p>
+ * The state is a single compact, versioned byte array in the persistent data of the stack:
+ * <pre>
+ * [version: byte] [fields: byte] [count: varint, if fields &amp; COUNT] [durability: 8 bytes, if fields &amp; DURABILITY]
+ * </pre>
+ * It is read and written directly on the server stack, without copying the {@link ItemMeta}.
+ * Stacks not backed by a server stack fall back to the {@link ItemMeta}.
+ * <p>
+ * Stacks still holding the state in the separate keys used before are read from those keys,
+ * and migrated to the compact state on their next write.
+ *
+ * @since 1.0.0
+ */
+public final class ItemState {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ItemState() {}
+
+    // ----------< Constants >----------
+
+    /**
+     * Identifier for the compact state in the persistent data of a stack.
+     */
+    public static final NamespacedKey KEY = new NamespacedKey("bulletcore", "state");
+
+    private static final String KEY_STRING = KEY.toString();
+
+    /**
+     * Tag holding the persistent data values of a stack in its custom data.
+     */
+    public static final String PERSISTENT_VALUES_TAG = "PublicBukkitValues";
+
+    /**
+     * Current version of the state layout.
+     */
+    private static final byte VERSION = 1;
+
+    /**
+     * Flags of the fields present in the state.
+     */
+    private static final int COUNT = 1, DURABILITY = 1 << 1;
+
+    // ----------< Public API >----------
+
+    /**
+     * Reads the count (bullets, ammo) of the given stack.
+     *
+     * @param stack     the stack
+     * @param legacyKey the key the count was stored under before the compact state
+     * @return the count, or {@code 0} if the stack has none
+     */
+    public static int getCount(@NotNull ItemStack stack, @NotNull NamespacedKey legacyKey) {
+        return getCount(valuesOf(stack), legacyKey);
+    }
+
+    /**
+     * Reads the count (bullets, ammo) from the given persistent data values.
+     *
+     * @param values    the persistent data values of a stack
+     * @param legacyKey the key the count was stored under before the compact state
+     * @return the count, or {@code 0} if the values hold none
+     */
+    public static int getCount(@NotNull CompoundTag values, @NotNull NamespacedKey legacyKey) {
+        final byte[] state = values.getByteArray(KEY_STRING);
+        if (state.length == 0) return Math.max(0, values.getInt(legacyKey.toString()));
+
+        final Reader reader = new Reader(state);
+        return reader.has(COUNT) ? Math.max(0, reader.readVarInt()) : 0;
+    }
+
+    /**
+     * Reads the durability of the given stack.
+     *
+     * @param stack     the stack
+     * @param legacyKey the key the durability was stored under before the compact state
+     * @return the durability, or {@code 0.0} if the stack has none
+     */
+    public static double getDurability(@NotNull ItemStack stack, @NotNull NamespacedKey legacyKey) {
+        return getDurability(valuesOf(stack), legacyKey);
+    }
+
+    /**
+     * Reads the durability from the given persistent data values.
+     *
+     * @param values    the persistent data values of a stack
+     * @param legacyKey the key the durability was stored under before the compact state
+     * @return the durability, or {@code 0.0} if the values hold none
+     */
+    public static double getDurability(@NotNull CompoundTag values, @NotNull NamespacedKey legacyKey) {
+        final byte[] state = values.getByteArray(KEY_STRING);
+        if (state.length == 0) return Math.max(0.0D, values.getDouble(legacyKey.toString()));
+
+        final Reader reader = new Reader(state);
+        if (reader.has(COUNT)) reader.readVarInt();
+        return reader.has(DURABILITY) ? Math.max(0.0D, reader.readDouble()) : 0.0D;
+    }
+
+    /**
+     * Writes the count (bullets, ammo) of the given stack.
+     *
+     * @param stack     the stack
+     * @param count     the count
+     * @param legacyKey the key the count was stored under before the compact state, removed from the stack
+     * @param loreLine  the new first lore line of the stack, or {@code null} to keep the lore
+     */
+    public static void setCount(@NotNull ItemStack stack,
+                                int count,
+                                @NotNull NamespacedKey legacyKey,
+                                @Nullable Component loreLine) {
+        // keep the other fields of the state
+        final CompoundTag values = valuesOf(stack);
+        final boolean hasDurability = new Reader(values.getByteArray(KEY_STRING)).has(DURABILITY);
+        final double durability = hasDurability ? getDurability(values, legacyKey) : 0.0D;
+
+        write(stack, encode(true, count, hasDurability, durability), legacyKey, loreLine);
+    }
+
+    /**
+     * Writes the durability of the given stack.
+     *
+     * @param stack      the stack
+     * @param durability the durability
+     * @param legacyKey  the key the durability was stored under before the compact state, removed from the stack
+     * @param loreLine   the new first lore line of the stack, or {@code null} to keep the lore
+     */
+    public static void setDurability(@NotNull ItemStack stack,
+                                     double durability,
+                                     @NotNull NamespacedKey legacyKey,
+                                     @Nullable Component loreLine) {
+        // keep the other fields of the state
+        final CompoundTag values = valuesOf(stack);
+        final boolean hasCount = new Reader(values.getByteArray(KEY_STRING)).has(COUNT);
+        final int count = hasCount ? getCount(values, legacyKey) : 0;
+
+        write(stack, encode(hasCount, count, true, durability), legacyKey, loreLine);
+    }
+
+    // ----------< Internal API >----------
+
+    /**
+     * Returns the persistent data values of the given stack. Must not be modified.
+     */
+    private static @NotNull CompoundTag valuesOf(@NotNull ItemStack stack) {
+        final net.minecraft.world.item.ItemStack handle = ServerUtils.getHandleOrNull(stack);
+        final net.minecraft.world.item.ItemStack nms = handle != null ? handle : CraftItemStack.asNMSCopy(stack);
+
+        final CustomData data = nms.get(DataComponents.CUSTOM_DATA);
+        if (data == null) return new CompoundTag();
+
+        @SuppressWarnings("deprecation") final CompoundTag tag = data.getUnsafe();
+        return tag.getCompound(PERSISTENT_VALUES_TAG);
+    }
+
+    /**
+     * Writes the given state and lore line to the given stack.
+     */
+    private static void write(@NotNull ItemStack stack,
+                              byte @NotNull [] state,
+                              @NotNull NamespacedKey legacyKey,
+                              @Nullable Component loreLine) {
+        final net.minecraft.world.item.ItemStack handle = ServerUtils.getHandleOrNull(stack);
+        if (handle == null) {
+            writeMeta(stack, state, legacyKey, loreLine);
+            return;
+        }
+
+        CustomData.update(DataComponents.CUSTOM_DATA, handle, tag -> {
+            final CompoundTag values = tag.getCompound(PERSISTENT_VALUES_TAG);
+            values.putByteArray(KEY_STRING, state);
+            values.remove(legacyKey.toString());
+            tag.put(PERSISTENT_VALUES_TAG, values);
+        });
+
+        if (loreLine == null) return;
+        final ItemLore lore = handle.get(DataComponents.LORE);
+        if (lore == null || lore.lines().isEmpty()) return;
+
+        final List<net.minecraft.network.chat.Component> lines = new ArrayList<>(lore.lines());
+        lines.set(0, PaperAdventure.asVanilla(loreLine));
+        handle.set(DataComponents.LORE, new ItemLore(lines));
+    }
+
+    /**
+     * Writes the given state and lore line to the given stack through its {@link ItemMeta}.
+     */
+    private static void writeMeta(@NotNull ItemStack stack,
+                                  byte @NotNull [] state,
+                                  @NotNull NamespacedKey legacyKey,
+                                  @Nullable Component loreLine) {
+        final ItemMeta meta = stack.getItemMeta();
+        final PersistentDataContainer container = meta.getPersistentDataContainer();
+        container.set(KEY, BYTE_ARRAY, state);
+        container.remove(legacyKey);
+
+        final List<Component> lore = meta.lore();
+        if (loreLine != null && lore != null && !lore.isEmpty()) {
+            lore.set(0, loreLine);
+            meta.lore(lore);
+        }
+        stack.setItemMeta(meta);
+    }
+
+    /**
+     * Encodes a state with the given fields.
+     */
+    private static byte @NotNull [] encode(boolean hasCount, int count,
+                                           boolean hasDurability, double durability) {
+        final byte[] buffer = new byte[2 + 5 + 8];
+        int length = 0;
+        buffer[length++] = VERSION;
+        buffer[length++] = (byte) ((hasCount ? COUNT : 0) | (hasDurability ? DURABILITY : 0));
+
+        if (hasCount) {
+            int value = count;
+            while ((value & ~0x7F) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+
+        if (hasDurability) {
+            final long bits = Double.doubleToRawLongBits(durability);
+            for (int shift = 56; shift >= 0; shift -= 8)
+                buffer[length++] = (byte) (bits >>> shift);
+        }
+
+        final byte[] state = new byte[length];
+        System.arraycopy(buffer, 0, state, 0, length);
+        return state;
+    }
+
+    // ----------< Reader >----------
+
+    /**
+     * Sequential reader of an encoded state. Malformed or unknown states read as empty.
+     */
+    private static final class Reader {
+
+        private final byte[] state;
+
+        private final int fields;
+
+        private int position = 2;
+
+        private Reader(byte @NotNull [] state) {
+            this.state = state;
+            this.fields = state.length >= 2 && state[0] == VERSION ? state[1] : 0;
+        }
+
+        private boolean has(int field) {
+            return (fields & field) != 0;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35 && position < state.length; shift += 7) {
+                final byte b = state[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            return 0;
+        }
+
+        private double readDouble() {
+            if (position + 8 > state.length) return 0.0D;
+
+            long bits = 0L;
+            for (int i = 0; i < 8; i++)
+                bits = (bits << 8) | (state[position++] & 0xFFL);
+            return Double.longBitsToDouble(bits);
+        }
+    }
+}
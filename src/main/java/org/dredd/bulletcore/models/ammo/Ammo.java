@@ -1,22 +1,20 @@
 package org.dredd.bulletcore.models.ammo;
 
-import java.util.Arrays;
-import java.util.List;
-
 import net.kyori.adventure.text.Component;
+import net.minecraft.nbt.CompoundTag;
 import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
-import org.bukkit.inventory.meta.ItemMeta;
+import org.dredd.bulletcore.config.ConfigManager;
 import org.dredd.bulletcore.custom_item_manager.exceptions.ItemLoadException;
 import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
 import org.dredd.bulletcore.models.CustomBase;
+import org.dredd.bulletcore.models.ItemState;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import static org.bukkit.persistence.PersistentDataType.INTEGER;
 import static org.dredd.bulletcore.config.messages.translatable.TranslatableMessage.LORE_AMMO_COUNT;
 
 /**
@@ -49,6 +47,17 @@ public class Ammo extends CustomBase {
      */
     public final String maxAmmoString;
 
+    /**
+     * Whether this ammo is kept as a per-player counter instead of items in the inventory.<br>
+     * Items of this ammo are converted into the {@link AmmoReservoir reserve} of the player who picks them up.
+     */
+    public final boolean reservoir;
+
+    /**
+     * Identifier for the reserve of this ammo in the player's persistent data, used in {@link #reservoir} mode.
+     */
+    final NamespacedKey reserveKey;
+
     // -----< Construction >-----
 
     /**
@@ -62,6 +71,8 @@ public class Ammo extends CustomBase {
 
         this.maxAmmo = Math.clamp(config.getInt("maxAmmo", 100), 1, Integer.MAX_VALUE);
         this.maxAmmoString = Integer.toString(maxAmmo);
+        this.reservoir = config.getBoolean("reservoir", false);
+        this.reserveKey = new NamespacedKey("bulletcore", "ammo_reserve_" + name);
 
         super.lore.add(0, Component.empty()); // Ammo count will be here on ItemStack creation
     }
@@ -83,8 +94,7 @@ public class Ammo extends CustomBase {
      * {@code 0} if the stack did not store ammo count metadata.
      */
     public int getAmmoCount(@NotNull ItemStack stack) {
-        final Integer value = stack.getItemMeta().getPersistentDataContainer().get(AMMO_COUNT_KEY, INTEGER);
-        return value == null ? 0 : Math.max(0, value);
+        return ItemState.getCount(stack, AMMO_COUNT_KEY);
     }
 
     /**
@@ -95,15 +105,15 @@ public class Ammo extends CustomBase {
      */
     public void setAmmoCount(@NotNull ItemStack stack,
                              int count) {
-        final ItemMeta meta = stack.getItemMeta();
-        meta.getPersistentDataContainer().set(AMMO_COUNT_KEY, INTEGER, count);
-
-        final List<Component> lore = meta.lore();
-        if (lore != null && !lore.isEmpty()) {
-            lore.set(0, LORE_AMMO_COUNT.toTranslatable(Integer.toString(count), maxAmmoString));
-            meta.lore(lore);
-            stack.setItemMeta(meta);
-        }
+        final Component loreLine = ConfigManager.instance().virtualLore ? null
+            : LORE_AMMO_COUNT.toTranslatable(Integer.toString(count), maxAmmoString);
+        ItemState.setCount(stack, count, AMMO_COUNT_KEY, loreLine);
+    }
+
+    @Override
+    public @NotNull Component renderDynamicLore(@NotNull CompoundTag values) {
+        final int count = ItemState.getCount(values, AMMO_COUNT_KEY);
+        return LORE_AMMO_COUNT.toTranslatable(Integer.toString(count), maxAmmoString);
     }
 
     /**
@@ -119,31 +129,32 @@ public class Ammo extends CustomBase {
     // -----< Player | Ammo >-----
 
     /**
-     * Determines whether the given {@link Player} has at least one this ammo item in their inventory.
+     * Determines whether the given {@link Player} has at least one this ammo item in their inventory,
+     * or any reserve of this ammo in {@link #reservoir} mode.
      *
      * @param player the player to check
      * @return {@code true} if the player has at least one this ammo item in their inventory, {@code false} otherwise.
      */
     public boolean hasAmmo(@NotNull Player player) {
-        return Arrays.stream(player.getInventory().getContents())
-            .anyMatch(this::isThisAmmo);
+        if (reservoir) return AmmoReservoir.get(player, this) > 0;
+        return AmmoIndex.stacksOf(player, this) > 0;
     }
 
     /**
-     * Retrieves the current ammo count stored in the given {@link Player}'s inventory.
+     * Retrieves the current ammo count stored in the given {@link Player}'s inventory,
+     * or in their reserve in {@link #reservoir} mode.
      *
      * @param player the player to retrieve the ammo count from
      * @return the number of ammo units currently stored in the player's inventory.
      */
     public int getAmmoCount(@NotNull Player player) {
-        return Arrays.stream(player.getInventory().getContents())
-            .filter(this::isThisAmmo)
-            .mapToInt(this::getAmmoCount)
-            .sum();
+        if (reservoir) return AmmoReservoir.get(player, this);
+        return AmmoIndex.countOf(player, this);
     }
 
     /**
-     * Tries to remove the given amount of ammo from the given {@link Player}'s inventory.
+     * Tries to remove the given amount of ammo from the given {@link Player}'s inventory,
+     * or from their reserve in {@link #reservoir} mode.
      *
      * @param player       the player to remove the ammo from
      * @param removeAmount the number of ammo units to remove from the player's inventory
@@ -152,16 +163,23 @@ public class Ammo extends CustomBase {
     public int removeAmmo(@NotNull Player player,
                           int removeAmount) {
         if (removeAmount <= 0) return 0;
+        if (reservoir) return AmmoReservoir.take(player, this, removeAmount);
 
         int leftToRemove = removeAmount;
         int removed = 0;
 
         final PlayerInventory inventory = player.getInventory();
-        final ItemStack[] contents = inventory.getContents();
+        final AmmoIndex.PlayerAmmo index = AmmoIndex.upToDate(player);
+
+        for (int i = 0; i < index.size(); i++) {
+            if (index.ammoAt(i) != this) continue;
 
-        for (int i = 0; i < contents.length; i++) {
-            final ItemStack stack = contents[i];
-            if (!isThisAmmo(stack)) continue;
+            final ItemStack stack = inventory.getItem(i);
+            if (!isThisAmmo(stack)) {
+                // the inventory changed without an event, start over with a fresh index
+                AmmoIndex.refresh(player);
+                return removed + removeAmmo(player, leftToRemove);
+            }
 
             final int stackAmmoCount = getAmmoCount(stack);
 
@@ -171,8 +189,10 @@ public class Ammo extends CustomBase {
 
                 if (leftInStack <= 0) {
                     inventory.setItem(i, null);
+                    index.update(i, -1);
                 } else {
                     setAmmoCount(stack, leftInStack);
+                    index.update(i, leftInStack);
                 }
 
                 return removeAmount;
@@ -182,8 +202,9 @@ public class Ammo extends CustomBase {
             removed += stackAmmoCount;
             leftToRemove -= stackAmmoCount;
             inventory.setItem(i, null);
+            index.update(i, -1);
         }
 
         return removed;
     }
-}
\ No newline at end of file
+}
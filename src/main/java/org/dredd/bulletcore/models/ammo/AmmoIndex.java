@@ -0,0 +1,233 @@
+package org.dredd.bulletcore.models.ammo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.dredd.bulletcore.BulletCore;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Index of the ammo items in each player's inventory: the ammo type and count of every slot,
+ * and the totals per ammo type.
+ * <p>
+ * An index is built with one full inventory scan and then read in O(1).<br>
+ * Inventory events {@link #invalidate invalidate} it, so it is rebuilt on the next read,
+ * and ammo removed by {@link Ammo#removeAmmo} is written to the index directly.
+ * Since most inventory events are called before the inventory changes, an index invalidated
+ * during a tick is rebuilt on every read until that tick ends.
+ * <p>
+ * Changes made without events (e.g., by other plugins) are picked up when a reload starts,
+ * which {@link #refresh refreshes} the index.
+ * With {@link ConfigManager#verifyAmmoIndex} enabled, every read is cross-checked against a full scan.
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class AmmoIndex {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AmmoIndex() {}
+
+    /**
+     * Index of each player.
+     */
+    private static final Map<UUID, PlayerAmmo> INDEX = new HashMap<>();
+
+    // ----------< Public API >----------
+
+    /**
+     * Marks the ammo index of the given player as outdated. Called when their inventory may change.
+     *
+     * @param entity the player whose inventory may change
+     */
+    public static void invalidate(@NotNull HumanEntity entity) {
+        final PlayerAmmo index = INDEX.get(entity.getUniqueId());
+        if (index != null) index.invalidatedTick = Bukkit.getCurrentTick();
+    }
+
+    /**
+     * Rebuilds the ammo index of the given player from their inventory now.
+     *
+     * @param player the player
+     */
+    public static void refresh(@NotNull Player player) {
+        indexOf(player).rebuild(player.getInventory());
+    }
+
+    /**
+     * Drops the ammo index of the given player. Called when the player leaves the server.
+     *
+     * @param player the player
+     */
+    public static void remove(@NotNull Player player) {
+        INDEX.remove(player.getUniqueId());
+    }
+
+    /**
+     * Drops all ammo indexes. Called when the plugin is reloaded or disabled, so ammo types can change.
+     */
+    public static void clear() {
+        INDEX.clear();
+    }
+
+    // ----------< Package API >----------
+
+    /**
+     * Returns the total ammo count of the given ammo type in the inventory of the given player.
+     */
+    static int countOf(@NotNull Player player, @NotNull Ammo ammo) {
+        return upToDate(player).totals.getInt(ammo);
+    }
+
+    /**
+     * Returns the number of inventory slots holding the given ammo type.
+     */
+    static int stacksOf(@NotNull Player player, @NotNull Ammo ammo) {
+        return upToDate(player).stacks.getInt(ammo);
+    }
+
+    /**
+     * Returns the up-to-date ammo index of the given player.
+     */
+    static @NotNull PlayerAmmo upToDate(@NotNull Player player) {
+        final PlayerAmmo index = indexOf(player);
+        if (index.builtTick <= index.invalidatedTick) {
+            index.rebuild(player.getInventory());
+        } else if (ConfigManager.instance().verifyAmmoIndex) {
+            index.verify(player);
+        }
+        return index;
+    }
+
+    // ----------< Internal API >----------
+
+    private static @NotNull PlayerAmmo indexOf(@NotNull Player player) {
+        return INDEX.computeIfAbsent(player.getUniqueId(), k -> new PlayerAmmo());
+    }
+
+    // ----------< Player Ammo >----------
+
+    /**
+     * Ammo index of a single player.
+     */
+    static final class PlayerAmmo {
+
+        /**
+         * Ammo type of each inventory slot (in {@link PlayerInventory#getContents()} order), or {@code null}.
+         */
+        private Ammo[] slotAmmo = new Ammo[0];
+
+        /**
+         * Ammo count of each inventory slot holding ammo.
+         */
+        private int[] slotCounts = new int[0];
+
+        /**
+         * Total ammo count per ammo type.
+         */
+        private final Reference2IntOpenHashMap<Ammo> totals = new Reference2IntOpenHashMap<>();
+
+        /**
+         * Number of slots holding each ammo type.
+         */
+        private final Reference2IntOpenHashMap<Ammo> stacks = new Reference2IntOpenHashMap<>();
+
+        /**
+         * Tick this index was last built at, and tick it was last invalidated at.
+         */
+        private int builtTick = Integer.MIN_VALUE, invalidatedTick = Integer.MIN_VALUE + 1;
+
+        /**
+         * @return the number of indexed inventory slots
+         */
+        int size() {
+            return slotAmmo.length;
+        }
+
+        /**
+         * @return the ammo type of the given slot, or {@code null} if the slot holds no ammo
+         */
+        Ammo ammoAt(int slot) {
+            return slotAmmo[slot];
+        }
+
+        /**
+         * Updates the ammo count of a slot holding ammo, or clears the slot if the count is negative.
+         *
+         * @param slot  the inventory slot
+         * @param count the new ammo count, or {@code -1} if the ammo item was removed from the slot
+         */
+        void update(int slot, int count) {
+            final Ammo ammo = slotAmmo[slot];
+            if (ammo == null) return;
+
+            totals.addTo(ammo, Math.max(0, count) - slotCounts[slot]);
+            if (count < 0) {
+                stacks.addTo(ammo, -1);
+                slotAmmo[slot] = null;
+                slotCounts[slot] = 0;
+            } else {
+                slotCounts[slot] = count;
+            }
+        }
+
+        /**
+         * Rebuilds this index with a full scan of the given inventory.
+         */
+        private void rebuild(@NotNull PlayerInventory inventory) {
+            final ItemStack[] contents = inventory.getContents();
+            if (slotAmmo.length != contents.length) {
+                slotAmmo = new Ammo[contents.length];
+                slotCounts = new int[contents.length];
+            }
+
+            totals.clear();
+            stacks.clear();
+            for (int slot = 0; slot < contents.length; slot++) {
+                final ItemStack stack = contents[slot];
+                final Ammo ammo = CustomItemsRegistry.getAmmoOrNull(stack);
+                slotAmmo[slot] = ammo;
+                slotCounts[slot] = 0;
+                if (ammo == null) continue;
+
+                final int count = ammo.getAmmoCount(stack);
+                slotCounts[slot] = count;
+                totals.addTo(ammo, count);
+                stacks.addTo(ammo, 1);
+            }
+
+            builtTick = Bukkit.getCurrentTick();
+        }
+
+        /**
+         * Cross-checks this index against a full scan of the player's inventory, and rebuilds it on mismatch.
+         */
+        private void verify(@NotNull Player player) {
+            final ItemStack[] contents = player.getInventory().getContents();
+            boolean valid = contents.length == slotAmmo.length;
+
+            for (int slot = 0; valid && slot < contents.length; slot++) {
+                final Ammo ammo = CustomItemsRegistry.getAmmoOrNull(contents[slot]);
+                valid = ammo == slotAmmo[slot] && (ammo == null || ammo.getAmmoCount(contents[slot]) == slotCounts[slot]);
+            }
+
+            if (valid) return;
+
+            BulletCore.logError("Outdated ammo index of " + player.getName() + ", rebuilding it");
+            rebuild(player.getInventory());
+        }
+    }
+}
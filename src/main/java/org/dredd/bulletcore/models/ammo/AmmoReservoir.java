@@ -0,0 +1,183 @@
+package org.dredd.bulletcore.models.ammo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static org.bukkit.persistence.PersistentDataType.INTEGER;
+
+/**
+ * Reserve ammo of players for the ammo types in {@link Ammo#reservoir reservoir} mode.
+ * <p>
+ * The reserve of each player is a plain counter per ammo type instead of ammo items in the inventory.
+ * Counters are loaded from the player's persistent data container on first use and written back
+ * on every change, so they are saved with the player data.<br>
+ * Reservoir ammo items are converted into reserve when picked up, or when a reload starts
+ * for the ones that reached the inventory in another way (e.g., by the give command).
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class AmmoReservoir {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AmmoReservoir() {}
+
+    /**
+     * Counter value of ammo types whose reserve was not loaded yet.
+     */
+    private static final int NOT_LOADED = -1;
+
+    /**
+     * Loaded reserve counters of each player.
+     */
+    private static final Map<UUID, Reference2IntOpenHashMap<Ammo>> RESERVES = new HashMap<>();
+
+    // ----------< Public API >----------
+
+    /**
+     * Returns the reserve of the given ammo type of the given player.
+     *
+     * @param player the player
+     * @param ammo   the ammo type
+     * @return the number of ammo units in the reserve
+     */
+    public static int get(@NotNull Player player, @NotNull Ammo ammo) {
+        final Reference2IntOpenHashMap<Ammo> reserves = reservesOf(player);
+        final int count = reserves.getInt(ammo);
+        return count == NOT_LOADED ? load(player, reserves, ammo) : count;
+    }
+
+    /**
+     * Adds ammo units to the reserve of the given ammo type of the given player.
+     *
+     * @param player the player
+     * @param ammo   the ammo type
+     * @param amount the number of ammo units to add
+     */
+    public static void add(@NotNull Player player, @NotNull Ammo ammo, int amount) {
+        if (amount <= 0) return;
+        set(player, ammo, (int) Math.min(Integer.MAX_VALUE, (long) get(player, ammo) + amount));
+    }
+
+    /**
+     * Takes up to the given number of ammo units from the reserve of the given ammo type of the given player.
+     *
+     * @param player the player
+     * @param ammo   the ammo type
+     * @param amount the number of ammo units to take
+     * @return the number of ammo units taken from the reserve
+     */
+    public static int take(@NotNull Player player, @NotNull Ammo ammo, int amount) {
+        if (amount <= 0) return 0;
+
+        final int count = get(player, ammo);
+        final int taken = Math.min(count, amount);
+        if (taken > 0) set(player, ammo, count - taken);
+        return taken;
+    }
+
+    /**
+     * Converts the given stack into reserve of the given player, if it is ammo in reservoir mode.
+     *
+     * @param player the player who picks up the stack
+     * @param stack  the stack
+     * @return {@code true} if the stack was converted and must not reach the inventory, {@code false} otherwise
+     */
+    public static boolean absorb(@NotNull Player player, @Nullable ItemStack stack) {
+        final Ammo ammo = CustomItemsRegistry.getAmmoOrNull(stack);
+        if (ammo == null || !ammo.reservoir) return false;
+
+        add(player, ammo, (int) Math.min(Integer.MAX_VALUE, (long) ammo.getAmmoCount(stack) * stack.getAmount()));
+        return true;
+    }
+
+    /**
+     * Moves all items of the given ammo type from the inventory of the given player into their reserve.<br>
+     * Uses the {@link AmmoIndex}, so the inventory is not scanned unless it changed.
+     *
+     * @param player the player
+     * @param ammo   the ammo type, in reservoir mode
+     */
+    public static void absorbInventory(@NotNull Player player, @NotNull Ammo ammo) {
+        if (AmmoIndex.stacksOf(player, ammo) == 0) return;
+
+        final PlayerInventory inventory = player.getInventory();
+        final AmmoIndex.PlayerAmmo index = AmmoIndex.upToDate(player);
+
+        for (int i = 0; i < index.size(); i++) {
+            if (index.ammoAt(i) != ammo) continue;
+
+            final ItemStack stack = inventory.getItem(i);
+            if (!ammo.isThisAmmo(stack)) {
+                // the inventory changed without an event, start over with a fresh index
+                AmmoIndex.refresh(player);
+                absorbInventory(player, ammo);
+                return;
+            }
+
+            absorb(player, stack);
+            inventory.setItem(i, null);
+            index.update(i, -1);
+        }
+    }
+
+    /**
+     * Drops the loaded reserves of the given player. Called when the player leaves the server.<br>
+     * Reserves are already saved on every change.
+     *
+     * @param player the player
+     */
+    public static void remove(@NotNull Player player) {
+        RESERVES.remove(player.getUniqueId());
+    }
+
+    /**
+     * Drops all loaded reserves. Called when the plugin is reloaded or disabled, so ammo types can change.
+     */
+    public static void clear() {
+        RESERVES.clear();
+    }
+
+    // ----------< Internal API >----------
+
+    private static @NotNull Reference2IntOpenHashMap<Ammo> reservesOf(@NotNull Player player) {
+        return RESERVES.computeIfAbsent(player.getUniqueId(), k -> {
+            final Reference2IntOpenHashMap<Ammo> reserves = new Reference2IntOpenHashMap<>();
+            reserves.defaultReturnValue(NOT_LOADED);
+            return reserves;
+        });
+    }
+
+    /**
+     * Loads the reserve of the given ammo type from the player's persistent data container.
+     */
+    private static int load(@NotNull Player player,
+                            @NotNull Reference2IntOpenHashMap<Ammo> reserves,
+                            @NotNull Ammo ammo) {
+        final Integer value = player.getPersistentDataContainer().get(ammo.reserveKey, INTEGER);
+        final int count = value == null ? 0 : Math.max(0, value);
+        reserves.put(ammo, count);
+        return count;
+    }
+
+    /**
+     * Sets the reserve of the given ammo type, and writes it to the player's persistent data container.
+     */
+    private static void set(@NotNull Player player, @NotNull Ammo ammo, int count) {
+        reservesOf(player).put(ammo, count);
+        player.getPersistentDataContainer().set(ammo.reserveKey, INTEGER, count);
+    }
+}
@@ -1,19 +1,20 @@
 package org.dredd.bulletcore.models.armor;
 
-import java.util.List;
-
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
 import net.kyori.adventure.text.Component;
+import net.minecraft.nbt.CompoundTag;
 import org.bukkit.NamespacedKey;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeModifier;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.dredd.bulletcore.config.ConfigManager;
 import org.dredd.bulletcore.custom_item_manager.exceptions.ItemLoadException;
 import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
 import org.dredd.bulletcore.models.CustomBase;
+import org.dredd.bulletcore.models.ItemState;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -26,7 +27,6 @@ import static org.bukkit.inventory.EquipmentSlotGroup.ARMOR;
 import static org.bukkit.inventory.ItemFlag.HIDE_ADDITIONAL_TOOLTIP;
 import static org.bukkit.inventory.ItemFlag.HIDE_ATTRIBUTES;
 import static org.bukkit.inventory.ItemFlag.HIDE_UNBREAKABLE;
-import static org.bukkit.persistence.PersistentDataType.DOUBLE;
 import static org.dredd.bulletcore.config.messages.translatable.TranslatableMessage.LORE_ARMOR_ARMOR_POINTS;
 import static org.dredd.bulletcore.config.messages.translatable.TranslatableMessage.LORE_ARMOR_DAMAGE_REDUCTION;
 import static org.dredd.bulletcore.config.messages.translatable.TranslatableMessage.LORE_ARMOR_DURABILITY;
@@ -148,8 +148,7 @@ public class Armor extends CustomBase {
      * {@code 0.0} if the stack did not store armor durability value metadata.
      */
     public double getDurability(@NotNull ItemStack stack) {
-        final Double value = stack.getItemMeta().getPersistentDataContainer().get(DURABILITY_KEY, DOUBLE);
-        return value == null ? 0.0D : Math.max(0.0D, value);
+        return ItemState.getDurability(stack, DURABILITY_KEY);
     }
 
     /**
@@ -160,15 +159,15 @@ public class Armor extends CustomBase {
      */
     public void setDurability(@NotNull ItemStack stack,
                               double durability) {
-        final ItemMeta meta = stack.getItemMeta();
-        meta.getPersistentDataContainer().set(DURABILITY_KEY, DOUBLE, durability);
-
-        final List<Component> lore = meta.lore();
-        if (lore != null && !lore.isEmpty()) {
-            lore.set(0, LORE_ARMOR_DURABILITY.toTranslatable(formatDouble(durability), formattedMaxDurability));
-            meta.lore(lore);
-            stack.setItemMeta(meta);
-        }
+        final Component loreLine = ConfigManager.instance().virtualLore ? null
+            : LORE_ARMOR_DURABILITY.toTranslatable(formatDouble(durability), formattedMaxDurability);
+        ItemState.setDurability(stack, durability, DURABILITY_KEY, loreLine);
+    }
+
+    @Override
+    public @NotNull Component renderDynamicLore(@NotNull CompoundTag values) {
+        final double durability = ItemState.getDurability(values, DURABILITY_KEY);
+        return LORE_ARMOR_DURABILITY.toTranslatable(formatDouble(durability), formattedMaxDurability);
     }
 
     /**
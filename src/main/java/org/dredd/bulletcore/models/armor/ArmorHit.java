@@ -9,24 +9,36 @@ import org.dredd.bulletcore.models.weapons.damage.DamagePoint;
  * Represents a hit on an armor piece.
  *
  * @param initialArmor  The armor before the hit damage was applied
- * @param initialDamage The initial damage that should be dealt to the armor piece
+ * @param initialDamage The initial damage of all hits that should be dealt to the armor piece
  * @param damagePoint   The body part where the damage occurred
  * @param victim        The victim of the hit
+ * @param hits          The number of hits on the armor piece
  */
 public record ArmorHit(
     Armor initialArmor,
     double initialDamage,
     DamagePoint damagePoint,
-    Player victim
+    Player victim,
+    int hits
 ) {
 
+    /**
+     * Creates a single hit on an armor piece.
+     *
+     * @deprecated armor hits are summed per fire cycle, use the canonical constructor with the number of hits
+     */
+    @Deprecated(since = "1.0.0")
+    public ArmorHit(Armor initialArmor, double initialDamage, DamagePoint damagePoint, Player victim) {
+        this(initialArmor, initialDamage, damagePoint, victim, 1);
+    }
+
     /**
      * Applies the custom armor damage to the armor stack.
      *
-     * @param blockedDamage the amount of damage blocked by other means (e.g., shield)
+     * @param blockedDamage the amount of damage of each hit blocked by other means (e.g., shield)
      */
     public void applyArmorDamage(double blockedDamage) {
-        final double remainingArmorDamage = initialDamage - blockedDamage;
+        final double remainingArmorDamage = initialDamage - blockedDamage * hits;
         if (remainingArmorDamage <= 0) return;
 
         final PlayerInventory inv = victim.getInventory();
@@ -31,6 +31,11 @@ public final class BulletTrailParticle {
         Particle.DUST, 1, new Particle.DustOptions(Color.fromRGB(0x505050), 0.5F)
     );
 
+    /**
+     * Reusable location particles are spawned at. Trails are only spawned from the main thread.
+     */
+    private static final Location PARTICLE_LOCATION = new Location(null, 0.0D, 0.0D, 0.0D);
+
     // -----< Loader >-----
 
     /**
@@ -90,31 +95,65 @@ public final class BulletTrailParticle {
      * </ul>
      *
      * @param eyeLocation the starting eye position of the shooter
-     * @param direction   the normalized firing direction
+     * @param dirX        the x component of the normalized firing direction
+     * @param dirY        the y component of the normalized firing direction
+     * @param dirZ        the z component of the normalized firing direction
      * @param result      the ray-trace result of the shot, or {@code null} if no collision occurred
      * @param weapon      the weapon, used to determine maximum firing range
      * @param world       the world in which to spawn particles
      */
     public void spawn(@NotNull Location eyeLocation,
-                      @NotNull Vector direction,
+                      double dirX, double dirY, double dirZ,
                       @Nullable RayTraceResult result,
                       @NotNull Weapon weapon,
                       @NotNull World world) {
+        final double startX = eyeLocation.getX(), startY = eyeLocation.getY(), startZ = eyeLocation.getZ();
 
-        if (step < 0.01D) return;
+        double length = weapon.maxDistance;
+        if (result != null) {
+            final Vector hitPos = result.getHitPosition();
+            final double dx = hitPos.getX() - startX, dy = hitPos.getY() - startY, dz = hitPos.getZ() - startZ;
+            length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
 
-        final double travelDistance = (result == null)
-            ? weapon.maxDistance - offset
-            : eyeLocation.toVector().distance(result.getHitPosition()) - offset;
+        spawnSegment(world, startX, startY, startZ, dirX, dirY, dirZ, 0.0D, length);
+    }
 
-        if (travelDistance <= 0.0D) return;
+    /**
+     * Spawns the part of a particle trail that lies on a single segment of a simulated bullet's path.
+     * <p>
+     * Particles are placed every {@link #step} blocks of the total traveled distance,
+     * starting at {@link #offset}, so consecutive segments form one continuous trail.
+     *
+     * @param world          the world in which to spawn particles
+     * @param fromX          the x coordinate of the segment start
+     * @param fromY          the y coordinate of the segment start
+     * @param fromZ          the z coordinate of the segment start
+     * @param dirX           the x component of the normalized segment direction
+     * @param dirY           the y component of the normalized segment direction
+     * @param dirZ           the z component of the normalized segment direction
+     * @param traveledBefore the distance the bullet traveled before this segment
+     * @param length         the length of this segment
+     */
+    public void spawnSegment(@NotNull World world,
+                             double fromX, double fromY, double fromZ,
+                             double dirX, double dirY, double dirZ,
+                             double traveledBefore,
+                             double length) {
+        if (step < 0.01D) return;
 
-        final Location particleLoc = eyeLocation.clone().add(direction.clone().multiply(offset));
-        final Vector stepVec = direction.clone().multiply(step);
+        final double end = traveledBefore + length;
+        double traveled = traveledBefore <= offset
+            ? offset
+            : offset + Math.ceil((traveledBefore - offset) / step) * step;
 
-        for (double traveled = 0.0D; traveled < travelDistance; traveled += step) {
+        final Location particleLoc = PARTICLE_LOCATION;
+        particleLoc.setWorld(world);
+        for (; traveled < end; traveled += step) {
+            final double t = traveled - traveledBefore;
+            particleLoc.set(fromX + dirX * t, fromY + dirY * t, fromZ + dirZ * t);
             ParticleManager.spawnParticle(world, particleLoc, particle);
-            particleLoc.add(stepVec);
         }
+        particleLoc.setWorld(null);
     }
-}
\ No newline at end of file
+}
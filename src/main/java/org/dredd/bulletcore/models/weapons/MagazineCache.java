@@ -0,0 +1,244 @@
+package org.dredd.bulletcore.models.weapons;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.entity.CraftPlayer;
+import org.bukkit.craftbukkit.inventory.CraftItemStack;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Write-back cache of the bullet count of the weapon each player holds.
+ * <p>
+ * Reading and writing the bullet count of a stack copies its whole meta and rewrites its lore,
+ * so shots only update the cached count, which is written to the stack at sync points:
+ * when the held item changes, the inventory is opened or clicked, the weapon is dropped,
+ * the player interacts with an entity (item frames, armor stands), the player dies or leaves,
+ * a reload starts, and periodically after {@link ConfigManager#magazineFlushIntervalTicks}.
+ * <p>
+ * A cached stack that is no longer in the selected slot of its player at the end of the tick,
+ * because it was moved in a way none of the above reports, is written and dropped from the cache.
+ * <p>
+ * Shots only lower the cached count, so the stack never holds fewer bullets than the cache.
+ * Since the stack is always written before it can leave the player's inventory,
+ * no copy of it ever carries a stale count; after a crash, at most the shots fired
+ * since the last flush are refunded.
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class MagazineCache {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MagazineCache() {}
+
+    /**
+     * Cached magazine of each player.
+     */
+    private static final Map<UUID, Magazine> MAGAZINES = new HashMap<>();
+
+    // ----------< Public API >----------
+
+    /**
+     * Returns the bullet count of the weapon stack held in the main hand of the given player.
+     *
+     * @param player the player
+     * @param weapon the weapon type of the held stack
+     * @param stack  the held weapon stack
+     * @return the current bullet count
+     */
+    public static int getBulletCount(@NotNull Player player,
+                                     @NotNull Weapon weapon,
+                                     @NotNull ItemStack stack) {
+        if (!ConfigManager.instance().magazineCache) return weapon.getBulletCount(stack);
+        return magazineOf(player, weapon, stack).bullets;
+    }
+
+    /**
+     * Sets the bullet count of the weapon stack held in the main hand of the given player.<br>
+     * The stack itself is written at the next sync point, or right away if the cache is disabled.
+     *
+     * @param player the player
+     * @param weapon the weapon type of the held stack
+     * @param stack  the held weapon stack
+     * @param count  the new bullet count
+     */
+    public static void setBulletCount(@NotNull Player player,
+                                      @NotNull Weapon weapon,
+                                      @NotNull ItemStack stack,
+                                      int count) {
+        if (!ConfigManager.instance().magazineCache) {
+            weapon.setBulletCount(stack, count);
+            return;
+        }
+
+        final Magazine magazine = magazineOf(player, weapon, stack);
+        magazine.bullets = count;
+        if (!magazine.dirty) {
+            magazine.dirty = true;
+            magazine.dirtyTick = Bukkit.getCurrentTick();
+        }
+    }
+
+    /**
+     * Writes the cached bullet count of the given player to their weapon stack and drops it from the cache.
+     *
+     * @param entity the player
+     */
+    public static void flush(@NotNull HumanEntity entity) {
+        final Magazine magazine = MAGAZINES.remove(entity.getUniqueId());
+        if (magazine != null) magazine.write();
+    }
+
+    /**
+     * Writes the cached bullet count of the given player to the given dropped item,
+     * if it is the cached weapon stack that has just left the main hand.
+     *
+     * @param player the player who dropped the item
+     * @param item   the dropped item
+     */
+    public static void flushDropped(@NotNull Player player, @NotNull Item item) {
+        final Magazine magazine = MAGAZINES.get(player.getUniqueId());
+        if (magazine == null) return;
+
+        if (magazine.dirty && magazine.handle.isEmpty()) {
+            final ItemStack stack = item.getItemStack();
+            if (magazine.weapon.isThisWeapon(stack)) {
+                magazine.weapon.setBulletCount(stack, magazine.bullets);
+                item.setItemStack(stack);
+                magazine.dirty = false;
+            }
+        }
+
+        flush(player);
+    }
+
+    /**
+     * Writes the cached bullet counts that are dirty for longer than the flush interval,
+     * and drops the cached stacks that have left the selected slot of their player.<br>
+     * Called once at the end of each server tick.
+     */
+    public static void tick() {
+        if (MAGAZINES.isEmpty()) return;
+
+        final int oldestTick = Bukkit.getCurrentTick() - ConfigManager.instance().magazineFlushIntervalTicks;
+        final Iterator<Magazine> iterator = MAGAZINES.values().iterator();
+        while (iterator.hasNext()) {
+            final Magazine magazine = iterator.next();
+            if (!magazine.isSelected()) {
+                magazine.write();
+                iterator.remove();
+            } else if (magazine.dirty && magazine.dirtyTick <= oldestTick) {
+                magazine.write();
+            }
+        }
+    }
+
+    /**
+     * Writes all cached bullet counts and clears the cache. Called when the plugin is reloaded or disabled.
+     */
+    public static void clear() {
+        final Iterator<Magazine> iterator = MAGAZINES.values().iterator();
+        while (iterator.hasNext()) {
+            iterator.next().write();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * @return the number of cached magazines
+     */
+    public static int size() {
+        return MAGAZINES.size();
+    }
+
+    // ----------< Internal API >----------
+
+    /**
+     * Returns the cached magazine of the given player for the given held stack,
+     * replacing the cached one if the player holds another stack now.
+     */
+    private static @NotNull Magazine magazineOf(@NotNull Player player,
+                                                @NotNull Weapon weapon,
+                                                @NotNull ItemStack stack) {
+        final net.minecraft.world.entity.player.Player owner = ((CraftPlayer) player).getHandle();
+        final net.minecraft.world.item.ItemStack handle = owner.getInventory().getSelected();
+
+        Magazine magazine = MAGAZINES.get(player.getUniqueId());
+        if (magazine != null && magazine.handle == handle && magazine.weapon == weapon) return magazine;
+
+        if (magazine != null) magazine.write();
+        magazine = new Magazine(owner, weapon, handle, weapon.getBulletCount(stack));
+        MAGAZINES.put(player.getUniqueId(), magazine);
+        return magazine;
+    }
+
+    // ----------< Magazine >----------
+
+    /**
+     * Cached bullet count of a single weapon stack.
+     */
+    private static final class Magazine {
+
+        /**
+         * The player holding the stack when it was cached.
+         */
+        private final net.minecraft.world.entity.player.Player owner;
+
+        private final Weapon weapon;
+
+        /**
+         * The cached weapon stack itself, identifying it wherever it moves.
+         */
+        private final net.minecraft.world.item.ItemStack handle;
+
+        private int bullets;
+
+        /**
+         * Whether {@link #bullets} differs from the count stored in the stack, and the tick it started to.
+         */
+        private boolean dirty;
+
+        private int dirtyTick;
+
+        private Magazine(@NotNull net.minecraft.world.entity.player.Player owner,
+                         @NotNull Weapon weapon,
+                         @NotNull net.minecraft.world.item.ItemStack handle,
+                         int bullets) {
+            this.owner = owner;
+            this.weapon = weapon;
+            this.handle = handle;
+            this.bullets = bullets;
+        }
+
+        /**
+         * Checks whether the stack is still in the selected slot of its player.
+         */
+        private boolean isSelected() {
+            return owner.getInventory().getSelected() == handle;
+        }
+
+        /**
+         * Writes the cached bullet count to the stack if it changed and the stack still is this weapon.
+         */
+        private void write() {
+            if (!dirty) return;
+            dirty = false;
+
+            final ItemStack stack = CraftItemStack.asCraftMirror(handle);
+            if (weapon.isThisWeapon(stack)) weapon.setBulletCount(stack, bullets);
+        }
+    }
+}
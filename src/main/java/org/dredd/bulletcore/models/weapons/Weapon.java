@@ -1,5 +1,6 @@
 package org.dredd.bulletcore.models.weapons;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -7,21 +8,25 @@ import java.util.UUID;
 import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import net.kyori.adventure.text.Component;
+import net.minecraft.nbt.CompoundTag;
 import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.dredd.bulletcore.config.ConfigManager;
 import org.dredd.bulletcore.config.messages.component.ComponentMessage;
 import org.dredd.bulletcore.custom_item_manager.exceptions.ItemLoadException;
 import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
 import org.dredd.bulletcore.models.CustomBase;
+import org.dredd.bulletcore.models.ItemState;
 import org.dredd.bulletcore.models.ammo.Ammo;
 import org.dredd.bulletcore.models.weapons.damage.WeaponDamage;
 import org.dredd.bulletcore.models.weapons.reloading.DefaultReloadHandler;
 import org.dredd.bulletcore.models.weapons.reloading.ReloadHandler;
 import org.dredd.bulletcore.models.weapons.reloading.ReloadType;
 import org.dredd.bulletcore.models.weapons.shooting.ShootingHandler;
+import org.dredd.bulletcore.models.weapons.shooting.ballistics.WeaponBallistics;
 import org.dredd.bulletcore.models.weapons.shooting.recoil.WeaponRecoil;
 import org.dredd.bulletcore.models.weapons.shooting.spray.WeaponSpray;
 import org.dredd.bulletcore.models.weapons.skins.SkinsManager;
@@ -33,12 +38,12 @@ import org.jetbrains.annotations.Nullable;
 
 import static org.bukkit.inventory.ItemFlag.HIDE_ADDITIONAL_TOOLTIP;
 import static org.bukkit.inventory.ItemFlag.HIDE_UNBREAKABLE;
-import static org.bukkit.persistence.PersistentDataType.INTEGER;
 import static org.dredd.bulletcore.config.messages.component.ComponentMessage.WEAPON_STATUS;
 import static org.dredd.bulletcore.config.messages.translatable.TranslatableMessage.LORE_WEAPON_AMMO;
 import static org.dredd.bulletcore.config.messages.translatable.TranslatableMessage.LORE_WEAPON_BULLETS;
 import static org.dredd.bulletcore.config.messages.translatable.TranslatableMessage.LORE_WEAPON_DAMAGE;
 import static org.dredd.bulletcore.config.messages.translatable.TranslatableMessage.LORE_WEAPON_DISTANCE;
+import static org.dredd.bulletcore.utils.FormatterUtils.formatCount;
 import static org.dredd.bulletcore.utils.FormatterUtils.formatDouble;
 import static org.dredd.bulletcore.utils.FormatterUtils.formatDoubles;
 
@@ -57,6 +62,12 @@ public class Weapon extends CustomBase {
      */
     private static final NamespacedKey BULLETS_KEY = new NamespacedKey("bulletcore", "bullets");
 
+    /**
+     * Reusable placeholders of the {@link ComponentMessage#WEAPON_STATUS} message.<br>
+     * Status messages are only sent from the main thread.
+     */
+    private static final Map<String, String> STATUS_PLACEHOLDERS = new HashMap<>(8);
+
 
     // ----------< Instance >----------
 
@@ -78,15 +89,11 @@ public class Weapon extends CustomBase {
     public final double maxDistance;
 
     /**
-     * This number of milliseconds must elapse before the next shot is available.
+     * This number of milliseconds must elapse before the next shot is available.<br>
+     * Delays shorter than a tick make automatic weapons fire several shots per tick.
      */
     public final long delayBetweenShots;
 
-    /**
-     * The same as {@link #delayBetweenShots}, but converted to ticks.
-     */
-    public final long ticksDelayBetweenShots;
-
     /**
      * Stores the timestamp of the last trigger pull per weapon for each player.<br>
      * Used with {@link #delayBetweenShots} to prevent firing again too quickly after pulling the trigger.
@@ -174,6 +181,11 @@ public class Weapon extends CustomBase {
      */
     public final WeaponBlocksPenetration blocksPenetration;
 
+    /**
+     * Controls simulated bullet flight (velocity, drop, travel time).
+     */
+    public final WeaponBallistics ballistics;
+
     // -----< Construction >-----
 
     /**
@@ -196,8 +208,7 @@ public class Weapon extends CustomBase {
             throw new ItemLoadException("Invalid 'reloadHandler' name: " + reloadHandlerName);
 
         this.maxDistance = Math.clamp(config.getDouble("maxDistance", 64.0D), 1.0D, 300.0D);
-        this.delayBetweenShots = Math.clamp(config.getLong("delayBetweenShots", 500L), 50L, Long.MAX_VALUE);
-        this.ticksDelayBetweenShots = Math.max(1L, delayBetweenShots / 50L);
+        this.delayBetweenShots = Math.clamp(config.getLong("delayBetweenShots", 500L), 10L, Long.MAX_VALUE);
         this.lastTriggerPulls = new Object2LongOpenHashMap<>();
         this.maxBullets = Math.clamp(config.getInt("maxBullets", 10), 1, Integer.MAX_VALUE);
         this.maxBulletsString = Integer.toString(maxBullets);
@@ -215,6 +226,7 @@ public class Weapon extends CustomBase {
         this.trailParticle = BulletTrailParticle.load(config);
         this.skins = WeaponSkins.load(config, super.customModelData, super.displayName);
         this.blocksPenetration = WeaponBlocksPenetration.load(config);
+        this.ballistics = WeaponBallistics.load(config);
 
         super.lore.add(0, Component.empty()); // Bullets will be here on ItemStack creation
         super.lore.add(1, LORE_WEAPON_DAMAGE.toTranslatable(formatDoubles(damage.head(), damage.body(), damage.legs(), damage.feet(), damage.shield())));
@@ -324,8 +336,7 @@ public class Weapon extends CustomBase {
      * {@code 0} if the stack did not store bullet count metadata.
      */
     public int getBulletCount(@NotNull ItemStack stack) {
-        final Integer value = stack.getItemMeta().getPersistentDataContainer().get(BULLETS_KEY, INTEGER);
-        return value == null ? 0 : Math.max(0, value);
+        return ItemState.getCount(stack, BULLETS_KEY);
     }
 
     /**
@@ -336,15 +347,15 @@ public class Weapon extends CustomBase {
      */
     public void setBulletCount(@NotNull ItemStack stack,
                                int count) {
-        final ItemMeta meta = stack.getItemMeta();
-        meta.getPersistentDataContainer().set(BULLETS_KEY, INTEGER, count);
-
-        final List<Component> lore = meta.lore();
-        if (lore != null && !lore.isEmpty()) {
-            lore.set(0, LORE_WEAPON_BULLETS.toTranslatable(Integer.toString(count), maxBulletsString));
-            meta.lore(lore);
-            stack.setItemMeta(meta);
-        }
+        final Component loreLine = ConfigManager.instance().virtualLore ? null
+            : LORE_WEAPON_BULLETS.toTranslatable(Integer.toString(count), maxBulletsString);
+        ItemState.setCount(stack, count, BULLETS_KEY, loreLine);
+    }
+
+    @Override
+    public @NotNull Component renderDynamicLore(@NotNull CompoundTag values) {
+        final int count = ItemState.getCount(values, BULLETS_KEY);
+        return LORE_WEAPON_BULLETS.toTranslatable(formatCount(count), maxBulletsString);
     }
 
     /**
@@ -388,14 +399,11 @@ public class Weapon extends CustomBase {
      */
     public void sendWeaponStatus(@NotNull Player player,
                                  int current) {
-        WEAPON_STATUS.sendActionBar(
-            player,
-            Map.of(
-                "displayname", displayNameString,
-                "bullets", Integer.toString(current),
-                "maxbullets", maxBulletsString,
-                "total", Integer.toString(ammo.getAmmoCount(player))
-            )
-        );
+        final Map<String, String> placeholders = STATUS_PLACEHOLDERS;
+        placeholders.put("displayname", displayNameString);
+        placeholders.put("bullets", formatCount(current));
+        placeholders.put("maxbullets", maxBulletsString);
+        placeholders.put("total", formatCount(ammo.getAmmoCount(player)));
+        WEAPON_STATUS.sendActionBar(player, placeholders);
     }
 }
\ No newline at end of file
@@ -3,18 +3,33 @@ package org.dredd.bulletcore.models.weapons;
 import java.util.EnumMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.dredd.bulletcore.BulletCore;
+import org.dredd.bulletcore.config.materials.MaterialsManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 public final class WeaponBlocksPenetration {
 
     // ----------< Static >----------
 
+    // -----< Constants >-----
+
+    /**
+     * Collision limit of materials that bullets always pass through (see {@link MaterialsManager#isIgnored}).
+     */
+    public static final int IGNORED = -1;
+
+    /**
+     * Collision limit of materials that always stop bullets.
+     */
+    public static final int STOPS = 0;
+
     // -----< Loader >-----
 
     /**
@@ -27,6 +42,19 @@ public final class WeaponBlocksPenetration {
         return new WeaponBlocksPenetration(config);
     }
 
+    /**
+     * Creates a {@link WeaponBlocksPenetration} from already parsed limits, without {@link MaterialsManager}.
+     *
+     * @param limits  the block penetration limits by material
+     * @param ignored the materials bullets always pass through
+     * @return a new {@link WeaponBlocksPenetration} instance
+     */
+    @VisibleForTesting
+    public static @NotNull WeaponBlocksPenetration of(@NotNull Map<Material, Integer> limits,
+                                                      @NotNull Predicate<Material> ignored) {
+        return new WeaponBlocksPenetration(new EnumMap<>(limits), ignored);
+    }
+
 
     // ----------< Instance >----------
 
@@ -34,13 +62,26 @@ public final class WeaponBlocksPenetration {
 
     private final Map<Material, Integer> blockPenetrationLimits;
 
+    /**
+     * Precomputed collision limits indexed by {@link Material#ordinal()}.<br>
+     * Combines {@link MaterialsManager#isIgnored} with {@link #blockPenetrationLimits},
+     * so bullet traversal needs a single array read per block.
+     */
+    private final int[] collisionLimits;
+
     // -----< Construction >-----
 
     /**
      * Private constructor. Use {@link #load(YamlConfiguration)} instead.
      */
     private WeaponBlocksPenetration(@NotNull YamlConfiguration config) {
-        this.blockPenetrationLimits = parseBlockPenetrationLimits(config);
+        this(parseBlockPenetrationLimits(config), MaterialsManager.instance()::isIgnored);
+    }
+
+    private WeaponBlocksPenetration(@NotNull Map<Material, Integer> limits,
+                                    @NotNull Predicate<Material> ignored) {
+        this.blockPenetrationLimits = limits;
+        this.collisionLimits = buildCollisionLimits(limits, ignored);
     }
 
     /**
@@ -53,7 +94,7 @@ public final class WeaponBlocksPenetration {
      * @param config the configuration to load from
      * @return a map of block materials to their penetration limits
      */
-    private Map<Material, Integer> parseBlockPenetrationLimits(@Nullable YamlConfiguration config) {
+    private static Map<Material, Integer> parseBlockPenetrationLimits(@Nullable YamlConfiguration config) {
         final Map<Material, Integer> result = new EnumMap<>(Material.class);
 
         final ConfigurationSection section = config.getConfigurationSection("blocks_penetration");
@@ -80,6 +121,29 @@ public final class WeaponBlocksPenetration {
         return result;
     }
 
+    /**
+     * Builds the per-material collision table.
+     *
+     * @param limits  the parsed block penetration limits
+     * @param ignored the materials bullets always pass through, usually {@link MaterialsManager#isIgnored}
+     * @return an array indexed by {@link Material#ordinal()} holding {@link #IGNORED},
+     * {@link #STOPS} or a positive penetration limit
+     */
+    private static int[] buildCollisionLimits(@NotNull Map<Material, Integer> limits,
+                                              @NotNull Predicate<Material> ignored) {
+        final Material[] values = Material.values();
+        final int[] result = new int[values.length];
+
+        for (final Material material : values) {
+            if (ignored.test(material))
+                result[material.ordinal()] = IGNORED;
+            else
+                result[material.ordinal()] = Math.max(STOPS, limits.getOrDefault(material, STOPS));
+        }
+
+        return result;
+    }
+
     /**
      * Returns the block penetration limit for the given material.
      * <p>
@@ -93,4 +157,15 @@ public final class WeaponBlocksPenetration {
         final Integer limit = blockPenetrationLimits.get(material);
         return (limit != null) ? limit : 0;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns how the given block material interacts with bullets of this weapon.
+     *
+     * @param materialOrdinal the {@link Material#ordinal()} of the block being tested
+     * @return {@link #IGNORED} if bullets pass through, {@link #STOPS} if the block stops bullets,
+     * or the number of blocks of this material a bullet may go through before being stopped
+     */
+    public int getCollisionLimit(int materialOrdinal) {
+        return collisionLimits[materialOrdinal];
+    }
+}
@@ -2,7 +2,6 @@ package org.dredd.bulletcore.models.weapons.reloading;
 
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.dredd.bulletcore.models.weapons.Weapon;
 import org.jetbrains.annotations.NotNull;
 
@@ -32,39 +31,26 @@ public final class DefaultReloadHandler extends ReloadHandler {
     }
 
     @Override
-    @NotNull BukkitRunnable create(@NotNull Player player,
-                                   @NotNull Weapon weapon) {
-        return new BukkitRunnable() {
-            long millisLeft = weapon.reloadTime;
-
-            @Override
-            public void run() {
-                // make sure the weapon stack didn't change in the meantime
-                final ItemStack weaponStack = player.getInventory().getItemInMainHand();
-                if (!weapon.isThisWeapon(weaponStack)) {
-                    ReloadHandler.cancelReload(player, false);
-                    return;
-                }
-
-                // the timer is still running
-                if (millisLeft > 0) {
-                    millisLeft = updateReloadCountdown(player, weapon, weaponStack, millisLeft);
-                    return;
-                }
-
-                // ammo calculations
-                final int bulletCount = weapon.getBulletCount(weaponStack);
-                final int bulletsToReload = weapon.maxBullets - bulletCount;
-                final int removedCount = weapon.ammo.removeAmmo(player, bulletsToReload);
-
-                // add bullets to the weapon if changed
-                final int newBulletCount = bulletCount + removedCount;
-                if (bulletCount != newBulletCount)
-                    weapon.setBulletCount(weaponStack, newBulletCount);
+    long getStageMillis(@NotNull Weapon weapon) {
+        return weapon.reloadTime;
+    }
 
-                ReloadHandler.finishReload(player, weapon, newBulletCount);
-            }
-        };
+    @Override
+    boolean completeStage(@NotNull Player player,
+                          @NotNull Weapon weapon,
+                          @NotNull ItemStack weaponStack) {
+        // ammo calculations
+        final int bulletCount = weapon.getBulletCount(weaponStack);
+        final int bulletsToReload = weapon.maxBullets - bulletCount;
+        final int removedCount = weapon.ammo.removeAmmo(player, bulletsToReload);
+
+        // add bullets to the weapon if changed
+        final int newBulletCount = bulletCount + removedCount;
+        if (bulletCount != newBulletCount)
+            weapon.setBulletCount(weaponStack, newBulletCount);
+
+        ReloadHandler.finishReload(player, weapon, newBulletCount);
+        return false;
     }
 
     @Override
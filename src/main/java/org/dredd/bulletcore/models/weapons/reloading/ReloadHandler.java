@@ -3,16 +3,19 @@ package org.dredd.bulletcore.models.weapons.reloading;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
-import org.dredd.bulletcore.BulletCore;
 import org.dredd.bulletcore.config.ConfigManager;
+import org.dredd.bulletcore.listeners.trackers.HeldItemTracker;
+import org.dredd.bulletcore.models.ammo.AmmoIndex;
+import org.dredd.bulletcore.models.ammo.AmmoReservoir;
+import org.dredd.bulletcore.models.weapons.MagazineCache;
 import org.dredd.bulletcore.models.weapons.Weapon;
 import org.dredd.bulletcore.models.weapons.shooting.ShootingHandler;
 import org.dredd.bulletcore.utils.FormatterUtils;
+import org.dredd.bulletcore.utils.TimingWheel;
 import org.jetbrains.annotations.NotNull;
 
 import static org.dredd.bulletcore.config.messages.component.ComponentMessage.WEAPON_RELOADING;
@@ -29,17 +32,34 @@ public abstract class ReloadHandler {
     // ----------< Static >----------
 
     /**
-     * Represents a weapon reload action.
-     *
-     * @param weapon     the weapon currently being reloaded
-     * @param reloadTask the {@link BukkitTask} managing the reload process
+     * Number of wheel slots; stages up to this many ticks are scheduled without wrapping around.
+     */
+    private static final int WHEEL_SLOTS = 64;
+
+    /**
+     * Number of ticks between two updates of the reload countdown.
+     */
+    private static final int COUNTDOWN_TICKS = 2;
+
+    /**
+     * Advances all reloads. Each reload wakes up when its countdown has to be updated or its current stage ends.
+     */
+    private static final TimingWheel<WeaponReload> WHEEL = new TimingWheel<>(WHEEL_SLOTS);
+
+    /**
+     * Stores currently running reloads for each player.
+     */
+    private static final Map<UUID, WeaponReload> RELOADS = new HashMap<>();
+
+    /**
+     * Updates a reload, run by {@link #WHEEL} for every due reload.
      */
-    private record WeaponReload(Weapon weapon, BukkitTask reloadTask) {}
+    private static final Consumer<WeaponReload> UPDATE = ReloadHandler::update;
 
     /**
-     * Stores currently running reload tasks for each player.
+     * Number of {@link #tick()} calls so far, the time base of {@link #WHEEL}.
      */
-    private static final Map<UUID, WeaponReload> RELOAD_TASKS = new HashMap<>();
+    private static long tick;
 
     // -----< Public API >-----
 
@@ -50,21 +70,21 @@ public abstract class ReloadHandler {
      * @return {@code true} if the player is currently reloading, {@code false} otherwise
      */
     public static boolean isReloading(@NotNull Player player) {
-        return RELOAD_TASKS.containsKey(player.getUniqueId());
+        return RELOADS.containsKey(player.getUniqueId());
     }
 
     /**
-     * Cancels the reload task for the specified player.
+     * Cancels the reload for the specified player.
      *
-     * @param player  the player whose reload task should be canceled
+     * @param player  the player whose reload should be canceled
      * @param success whether the reload was successful or not
      */
     public static void cancelReload(@NotNull Player player,
                                     boolean success) {
-        final WeaponReload reload = RELOAD_TASKS.remove(player.getUniqueId());
+        final WeaponReload reload = RELOADS.remove(player.getUniqueId());
         if (reload == null) return;
 
-        reload.reloadTask.cancel();
+        WHEEL.cancel(reload);
         player.setCooldown(reload.weapon.material, 0);
 
         if (!success && ConfigManager.instance().enableHotbarMessages)
@@ -72,11 +92,18 @@ public abstract class ReloadHandler {
     }
 
     /**
-     * Clears all reload tasks. Called when the plugin is reloaded or disabled.
+     * Clears all reloads. Called when the plugin is reloaded or disabled.
+     */
+    public static void cancelAllReloads() {
+        WHEEL.clear();
+        RELOADS.clear();
+    }
+
+    /**
+     * Advances all running reloads. Called once at the start of each tick.
      */
-    public static void cancelAllReloadTasks() {
-        RELOAD_TASKS.values().stream().map(WeaponReload::reloadTask).forEach(BukkitTask::cancel);
-        RELOAD_TASKS.clear();
+    public static void tick() {
+        WHEEL.advance(++tick, UPDATE);
     }
 
     // -----< Internal API >-----
@@ -99,30 +126,127 @@ public abstract class ReloadHandler {
     }
 
     /**
-     * Updates a reload countdown and shows a message to the specified player.
+     * Starts the next stage of the given reload and shows its countdown.
+     */
+    private static void startStage(@NotNull WeaponReload reload) {
+        reload.stageStartTick = tick;
+        reload.shownMillis = -1L;
+        updateCountdown(reload, reload.player.getInventory().getItemInMainHand(), 0L);
+    }
+
+    /**
+     * Updates the given reload: cancels it if the weapon is no longer held,
+     * completes its current stage if it has ended, or updates its countdown.
+     */
+    private static void update(@NotNull WeaponReload reload) {
+        final Player player = reload.player;
+        final Weapon weapon = reload.weapon;
+
+        // make sure the weapon stack didn't change in the meantime
+        if (!HeldItemTracker.isHolding(player, weapon)) {
+            cancelReload(player, false);
+            return;
+        }
+        final ItemStack weaponStack = player.getInventory().getItemInMainHand();
+
+        final long elapsedTicks = tick - reload.stageStartTick;
+        if (elapsedTicks < reload.stageTicks) {
+            updateCountdown(reload, weaponStack, elapsedTicks);
+            return;
+        }
+
+        if (reload.handler.completeStage(player, weapon, weaponStack))
+            startStage(reload);
+    }
+
+    /**
+     * Shows the countdown of the given reload if its visible value changed, then schedules the next update.
+     *
+     * @param reload       the reload
+     * @param stack        the weapon stack
+     * @param elapsedTicks the number of ticks since the current stage started
+     */
+    private static void updateCountdown(@NotNull WeaponReload reload,
+                                        @NotNull ItemStack stack,
+                                        long elapsedTicks) {
+        final boolean showCountdown = ConfigManager.instance().enableHotbarMessages;
+        final long stageEndTick = reload.stageStartTick + reload.stageTicks;
+
+        if (showCountdown) {
+            // the countdown goes down in steps of 100 ms, starting at the full stage time
+            final long millisLeft = reload.stageMillis - (elapsedTicks / COUNTDOWN_TICKS) * 100L;
+            if (millisLeft > 0L && millisLeft != reload.shownMillis) {
+                reload.shownMillis = millisLeft;
+                sendReloadCountdown(reload.player, reload.weapon, stack, millisLeft);
+            }
+        }
+
+        // without a countdown, the reload only wakes up when the stage ends
+        WHEEL.schedule(reload, showCountdown ? Math.min(stageEndTick, tick + COUNTDOWN_TICKS) : stageEndTick);
+    }
+
+    /**
+     * Shows a reload countdown message to the specified player.
      *
      * @param player     the player reloading the weapon
      * @param weapon     the weapon being reloaded
      * @param stack      the weapon stack
      * @param millisLeft the number of milliseconds remaining in the reload countdown
-     * @return the number of milliseconds remaining for the next countdown tick
      */
-    static long updateReloadCountdown(@NotNull Player player,
-                                      @NotNull Weapon weapon,
-                                      @NotNull ItemStack stack,
-                                      long millisLeft) {
-        if (ConfigManager.instance().enableHotbarMessages)
-            WEAPON_RELOADING.sendActionBar(
-                player,
-                Map.of(
-                    "bullets", Integer.toString(weapon.getBulletCount(stack)),
-                    "maxbullets", weapon.maxBulletsString,
-                    "total", Integer.toString(weapon.ammo.getAmmoCount(player)),
-                    "time", FormatterUtils.formatDouble2(millisLeft / 1000D)
-                )
-            );
-
-        return millisLeft - 100L;
+    private static void sendReloadCountdown(@NotNull Player player,
+                                            @NotNull Weapon weapon,
+                                            @NotNull ItemStack stack,
+                                            long millisLeft) {
+        WEAPON_RELOADING.sendActionBar(
+            player,
+            Map.of(
+                "bullets", Integer.toString(weapon.getBulletCount(stack)),
+                "maxbullets", weapon.maxBulletsString,
+                "total", Integer.toString(weapon.ammo.getAmmoCount(player)),
+                "time", FormatterUtils.formatDouble2(millisLeft / 1000D)
+            )
+        );
+    }
+
+    // -----< Weapon Reload >-----
+
+    /**
+     * A running weapon reload, made of one or more timed stages.
+     */
+    private static final class WeaponReload extends TimingWheel.Timer {
+
+        private final Player player;
+
+        private final Weapon weapon;
+
+        private final ReloadHandler handler;
+
+        /**
+         * Duration of each stage, in milliseconds and in ticks.
+         */
+        private final long stageMillis;
+
+        private final long stageTicks;
+
+        /**
+         * Tick the current stage started at.
+         */
+        private long stageStartTick;
+
+        /**
+         * Countdown value last shown to the player, or {@code -1} if none was shown in the current stage.
+         */
+        private long shownMillis;
+
+        private WeaponReload(@NotNull Player player,
+                             @NotNull Weapon weapon,
+                             @NotNull ReloadHandler handler) {
+            this.player = player;
+            this.weapon = weapon;
+            this.handler = handler;
+            this.stageMillis = handler.getStageMillis(weapon);
+            this.stageTicks = Math.max(1L, Math.ceilDiv(stageMillis, 50L));
+        }
     }
 
 
@@ -141,6 +265,13 @@ public abstract class ReloadHandler {
         if (isReloading(player)) return;
         if (weapon.isAutomatic) ShootingHandler.cancelAutoShooting(player);
 
+        // reload stages work on the stack, so it must hold the current bullet count
+        MagazineCache.flush(player);
+
+        // pick up ammo added to the inventory without an event
+        if (weapon.ammo.reservoir) AmmoReservoir.absorbInventory(player, weapon.ammo);
+        else AmmoIndex.refresh(player);
+
         // stop if (weapon_fully_loaded or player_out_of_ammo)
         final int bulletCount = weapon.getBulletCount(weaponStack);
         if (bulletCount >= weapon.maxBullets || !weapon.ammo.hasAmmo(player)) {
@@ -160,9 +291,10 @@ public abstract class ReloadHandler {
         }
         player.setCooldown(weapon.material, ticksToReload);
 
-        // run the reload task every 2 ticks (~100 ms), starting immediately.
-        final BukkitTask reloadTask = create(player, weapon).runTaskTimer(BulletCore.instance(), 0L, 2L);
-        RELOAD_TASKS.put(player.getUniqueId(), new WeaponReload(weapon, reloadTask));
+        // show the countdown immediately, the stages are then advanced by tick()
+        final WeaponReload reload = new WeaponReload(player, weapon, this);
+        RELOADS.put(player.getUniqueId(), reload);
+        startStage(reload);
     }
 
     // -----< Abstract >-----
@@ -173,17 +305,28 @@ public abstract class ReloadHandler {
     abstract @NotNull String getName();
 
     /**
-     * Creates a reload task for the specified player and weapon.
+     * Returns the duration of a single reload stage of the specified weapon.
      * <p>
-     * This method is invoked from {@link #tryReload(Player, Weapon, ItemStack)} when a reload begins.
-     * Implementations should return a {@link BukkitRunnable} that performs the reload logic every {@code 2 ticks}
-     * (e.g., visual/audio feedback, ammo transfer).
+     * A reload started by {@link #tryReload(Player, Weapon, ItemStack)} runs one stage after another,
+     * calling {@link #completeStage} at the end of each, until that returns {@code false}.
      *
-     * @param player the player initiating the reload
      * @param weapon the weapon being reloaded
-     * @return a {@link BukkitRunnable} that performs the reload behavior
+     * @return the stage duration in milliseconds
+     */
+    abstract long getStageMillis(@NotNull Weapon weapon);
+
+    /**
+     * Called when a reload stage ends, with the weapon still held by the player.
+     * Implementations perform the reload logic of the stage (e.g., audio feedback, ammo transfer).
+     *
+     * @param player      the player reloading the weapon
+     * @param weapon      the weapon being reloaded
+     * @param weaponStack the weapon stack
+     * @return {@code true} if another stage follows, {@code false} if the reload was finished
      */
-    abstract @NotNull BukkitRunnable create(@NotNull Player player, @NotNull Weapon weapon);
+    abstract boolean completeStage(@NotNull Player player,
+                                   @NotNull Weapon weapon,
+                                   @NotNull ItemStack weaponStack);
 
     /**
      * Determines whether the player is currently allowed to shoot with their weapon.
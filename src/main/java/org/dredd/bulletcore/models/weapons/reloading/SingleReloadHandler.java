@@ -2,7 +2,6 @@ package org.dredd.bulletcore.models.weapons.reloading;
 
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.dredd.bulletcore.models.weapons.Weapon;
 import org.jetbrains.annotations.NotNull;
 
@@ -32,51 +31,38 @@ public final class SingleReloadHandler extends ReloadHandler {
     }
 
     @Override
-    @NotNull BukkitRunnable create(@NotNull Player player,
-                                   @NotNull Weapon weapon) {
-        return new BukkitRunnable() {
-            final long singleBulletReloadTime = weapon.reloadTime / weapon.maxBullets;
-
-            long currentBulletMillisLeft = singleBulletReloadTime;
-
-            @Override
-            public void run() {
-                // make sure the weapon stack didn't change in the meantime
-                final ItemStack weaponStack = player.getInventory().getItemInMainHand();
-                if (!weapon.isThisWeapon(weaponStack)) {
-                    ReloadHandler.cancelReload(player, false);
-                    return;
-                }
+    long getStageMillis(@NotNull Weapon weapon) {
+        return weapon.reloadTime / weapon.maxBullets;
+    }
 
-                // the timer is still running
-                if (currentBulletMillisLeft > 0) {
-                    currentBulletMillisLeft = updateReloadCountdown(player, weapon, weaponStack, currentBulletMillisLeft);
-                    return;
-                }
-                currentBulletMillisLeft = singleBulletReloadTime; // reset reload time for the next bullet
+    @Override
+    boolean completeStage(@NotNull Player player,
+                          @NotNull Weapon weapon,
+                          @NotNull ItemStack weaponStack) {
+        // ammo calculations
+        final int bulletCount = weapon.getBulletCount(weaponStack);
 
-                // ammo calculations
-                final int bulletCount = weapon.getBulletCount(weaponStack);
+        // finish reload if (weapon_fully_loaded or player_out_of_ammo)
+        if (bulletCount >= weapon.maxBullets || weapon.ammo.removeAmmo(player, 1) <= 0) {
+            ReloadHandler.finishReload(player, weapon, bulletCount);
+            return false;
+        }
 
-                // finish reload if (weapon_fully_loaded or player_out_of_ammo)
-                if (bulletCount >= weapon.maxBullets || weapon.ammo.removeAmmo(player, 1) <= 0) {
-                    ReloadHandler.finishReload(player, weapon, bulletCount);
-                    return;
-                }
+        // add 1 bullet to the weapon
+        final int newBulletCount = bulletCount + 1;
+        weapon.setBulletCount(weaponStack, newBulletCount);
 
-                // add 1 bullet to the weapon
-                final int newBulletCount = bulletCount + 1;
-                weapon.setBulletCount(weaponStack, newBulletCount);
+        // play an add bullet sound
+        weapon.sounds.play(player, weapon.sounds.addBullet);
 
-                // play an add bullet sound
-                weapon.sounds.play(player, weapon.sounds.addBullet);
+        // finish reload if (weapon_is_now_fully_loaded or player_is_now_out_of_ammo)
+        if (newBulletCount >= weapon.maxBullets || !weapon.ammo.hasAmmo(player)) {
+            ReloadHandler.finishReload(player, weapon, newBulletCount);
+            return false;
+        }
 
-                // finish reload if (weapon_is_now_fully_loaded or player_is_now_out_of_ammo)
-                if (newBulletCount >= weapon.maxBullets || !weapon.ammo.hasAmmo(player)) {
-                    ReloadHandler.finishReload(player, weapon, newBulletCount);
-                }
-            }
-        };
+        // load the next bullet
+        return true;
     }
 
     @Override
@@ -0,0 +1,288 @@
+package org.dredd.bulletcore.models.weapons.shooting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.minecraft.world.phys.Vec3;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.craftbukkit.CraftWorld;
+import org.bukkit.util.RayTraceResult;
+import org.dredd.bulletcore.BulletCore;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.BulletRayTracer;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.EntityCandidates;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.SectionSnapshot;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.ShootableEntities;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Resolves queued shots on worker threads.
+ * <p>
+ * On the main thread, the chunk sections along each shot's pellets are copied into a per-world
+ * {@link SectionSnapshot} and the entity candidates are collected. Pellets are then traced on a
+ * worker pool against these immutable copies, and the hit results are applied on the main thread
+ * at the start of the next tick.<br>
+ * The main thread never waits for the tracing: shots still not traced at the start of the next tick
+ * are claimed back and resolved synchronously, so hits are never applied more than one tick late.
+ * Results of claimed shots are discarded by the workers.
+ * <p>
+ * Shots that could not be traced off the main thread (incomplete snapshot, worker failure, rejected task)
+ * are resolved synchronously instead.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+final class AsyncShotResolver {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AsyncShotResolver() {}
+
+    /**
+     * A shot prepared for tracing off the main thread.
+     */
+    private static final class PreparedShot {
+
+        private final QueuedShot shot;
+        private final EntityCandidates candidates;
+        private final SectionSnapshot snapshot;
+
+        /**
+         * Set by whichever thread takes the shot over first: the worker once traced,
+         * or the main thread if tracing takes too long.
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        /**
+         * Set once the results of a shot claimed by the worker are published.
+         */
+        private volatile boolean traced;
+
+        /**
+         * The traced hit results, or {@code null} if tracing failed.
+         * Block hits have no hit block yet; it is given by {@link #hitBlocks}.
+         */
+        private RayTraceResult[] results;
+
+        private long[] hitBlocks;
+
+        private PreparedShot(@NotNull QueuedShot shot,
+                             @NotNull EntityCandidates candidates,
+                             @NotNull SectionSnapshot snapshot) {
+            this.shot = shot;
+            this.candidates = candidates;
+            this.snapshot = snapshot;
+        }
+    }
+
+    /**
+     * Ray tracer of each worker thread.
+     */
+    private static final ThreadLocal<BulletRayTracer> TRACERS = ThreadLocal.withInitial(BulletRayTracer::new);
+
+    /**
+     * Section snapshots of the current tick for each world.
+     */
+    private static final Map<UUID, SectionSnapshot> SNAPSHOTS = new HashMap<>();
+
+    /**
+     * Shots prepared in the current tick, not submitted yet.
+     */
+    private static final List<PreparedShot> PREPARED = new ArrayList<>();
+
+    /**
+     * Submitted shots not applied yet, in submission order.
+     */
+    private static final ArrayDeque<PreparedShot> IN_FLIGHT = new ArrayDeque<>();
+
+    /**
+     * Worker pool, created on first use.
+     */
+    private static ExecutorService executor;
+
+    // ----------< Main Thread API >----------
+
+    /**
+     * Prepares a shot for tracing off the main thread.
+     *
+     * @param shot      the queued shot
+     * @param shootable the spatial hash of shootable entities in the world of the shot
+     */
+    static void prepare(@NotNull QueuedShot shot,
+                        @NotNull ShootableEntities shootable) {
+        final Location origin = shot.origin();
+        final double maxDistance = shot.weapon().maxDistance;
+
+        final SectionSnapshot snapshot = SNAPSHOTS.computeIfAbsent(
+            origin.getWorld().getUID(), k -> new SectionSnapshot(((CraftWorld) origin.getWorld()).getHandle())
+        );
+        final Vec3 from = new Vec3(origin.getX(), origin.getY(), origin.getZ());
+        final double[] directions = shot.directions();
+        for (int d = 0; d < directions.length; d += 3) {
+            snapshot.captureRay(from, new Vec3(
+                from.x + directions[d] * maxDistance,
+                from.y + directions[d + 1] * maxDistance,
+                from.z + directions[d + 2] * maxDistance
+            ));
+        }
+
+        final EntityCandidates candidates = new EntityCandidates();
+        candidates.collect(shootable, shot.shooter(), origin, shot.directions(), maxDistance, shot.rewindTick());
+
+        PREPARED.add(new PreparedShot(shot, candidates, snapshot));
+    }
+
+    /**
+     * Submits all shots prepared in the current tick to the worker pool.
+     *
+     * @param config the current plugin configuration
+     */
+    static void submitPrepared(@NotNull ConfigManager config) {
+        if (PREPARED.isEmpty()) return;
+
+        SNAPSHOTS.values().forEach(SectionSnapshot::freeze);
+        SNAPSHOTS.clear();
+
+        final ExecutorService workers = executor(config.asyncShotThreads);
+        for (final PreparedShot prepared : PREPARED) {
+            try {
+                workers.execute(() -> trace(prepared));
+            } catch (RejectedExecutionException e) {
+                prepared.claimed.set(true);
+                prepared.traced = true; // no results: resolved synchronously
+            }
+            IN_FLIGHT.add(prepared);
+        }
+        PREPARED.clear();
+    }
+
+    /**
+     * Applies the hits of all shots submitted in the previous tick, without waiting for the tracing.<br>
+     * Shots that are still not traced are resolved synchronously. Called at the start of each tick.
+     *
+     * @param config the current plugin configuration
+     */
+    static void applyCompleted(@NotNull ConfigManager config) {
+        if (IN_FLIGHT.isEmpty()) return;
+
+        PreparedShot prepared;
+        while ((prepared = IN_FLIGHT.pollFirst()) != null) {
+            if (prepared.claimed.compareAndSet(false, true)) {
+                apply(prepared, config); // not traced in time: resolved synchronously, not pooled as a worker may still read it
+                continue;
+            }
+
+            // claimed by the worker, which only has to publish its results
+            while (!prepared.traced) Thread.onSpinWait();
+            apply(prepared, config);
+            prepared.shot.release(); // no worker reads it anymore
+        }
+
+        ShootableEntities.releaseAll();
+    }
+
+    /**
+     * Discards all pending work and stops the worker pool.<br>
+     * Called when the plugin is reloaded or disabled.
+     */
+    static void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        SNAPSHOTS.clear();
+        PREPARED.clear();
+        IN_FLIGHT.forEach(prepared -> prepared.claimed.set(true)); // running workers discard their results
+        IN_FLIGHT.clear();
+    }
+
+    // ----------< Internal API >----------
+
+    /**
+     * Applies the hits of a traced shot, or resolves it synchronously if it has no results.
+     */
+    private static void apply(@NotNull PreparedShot prepared,
+                              @NotNull ConfigManager config) {
+        final QueuedShot shot = prepared.shot;
+        if (!shot.shooter().isOnline()) return;
+
+        final RayTraceResult[] results = prepared.results;
+        if (results == null) {
+            // fallback: resolve against the live world
+            final ShootableEntities shootable = ShootingHandler.shootableOf(shot, config.raySize);
+            ShootingHandler.resolveShot(shot, shootable, config);
+            return;
+        }
+
+        // hit blocks can only be looked up on the main thread
+        final World world = shot.origin().getWorld();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null && prepared.hitBlocks[i] != BulletRayTracer.NO_BLOCK)
+                results[i] = BulletRayTracer.withHitBlock(world, results[i], prepared.hitBlocks[i]);
+        }
+        ShootingHandler.applyShot(shot, results, config);
+    }
+
+    /**
+     * Traces a prepared shot. Runs on a worker thread.<br>
+     * The shot is handed back only if the main thread has not claimed it in the meantime.
+     */
+    private static void trace(@NotNull PreparedShot prepared) {
+        if (prepared.claimed.get()) return; // already resolved synchronously
+
+        RayTraceResult[] results = null;
+        long[] hitBlocks = null;
+        try {
+            final int pellets = prepared.shot.pelletCount();
+            results = new RayTraceResult[pellets];
+            hitBlocks = new long[pellets];
+            ShootingHandler.traceShot(prepared.shot, prepared.candidates, prepared.snapshot, TRACERS.get(), results, hitBlocks);
+        } catch (SectionSnapshot.MissingSectionException ignored) {
+            // the ray reached a block outside the snapshot: resolved synchronously
+            results = null;
+        } catch (RuntimeException e) {
+            BulletCore.logError("Failed to resolve a shot off the main thread: " + e);
+            results = null;
+        }
+
+        if (!prepared.claimed.compareAndSet(false, true)) return;
+        prepared.results = results;
+        prepared.hitBlocks = hitBlocks;
+        prepared.traced = true;
+    }
+
+    /**
+     * Returns the worker pool, creating it if needed.
+     */
+    private static @NotNull ExecutorService executor(int threads) {
+        if (executor == null) executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+        return executor;
+    }
+
+    /**
+     * Creates named daemon worker threads.
+     */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public @NotNull Thread newThread(@NotNull Runnable task) {
+            final Thread thread = new Thread(task, "BulletCore Shot Worker #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -6,15 +6,19 @@ import org.dredd.bulletcore.models.weapons.Weapon;
 
 /**
  * Data container representing a hit that is currently being processed.
+ * <p>
+ * A hit covers all pellets of a fire cycle on the victim, broken down in {@link #hits()}.
  *
  * @param damager the UUID of the player damaging the victim
  * @param victim  the UUID of the entity being damaged
  * @param weapon  the weapon used to damage the victim
+ * @param hits    the hits of the fire cycle on the victim, per damage point
  * @author dredd
  * @since 1.0.0
  */
 public record CurrentHit(
     UUID damager,
     UUID victim,
-    Weapon weapon
+    Weapon weapon,
+    VictimHits hits
 ) {}
\ No newline at end of file
@@ -0,0 +1,237 @@
+package org.dredd.bulletcore.models.weapons.shooting;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import net.minecraft.util.Mth;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.dredd.bulletcore.models.weapons.Weapon;
+import org.dredd.bulletcore.utils.TimingWheel;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Fires the shots of all automatic weapons from a single timing wheel driven once per tick.
+ * <p>
+ * Each firing player has a next-shot timestamp that advances by exactly {@link Weapon#delayBetweenShots},
+ * so fire rates are not rounded to whole ticks. When more than one shot is due in a tick
+ * (fast weapons, or lag), they are all fired, each from an eye location interpolated between the
+ * previous and the current one at the time the shot was due.
+ * Shots further behind than {@link ConfigManager#autoFireMaxCatchUpNanos} are dropped.
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+final class FireScheduler {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FireScheduler() {}
+
+    // ----------< Constants >----------
+
+    /**
+     * Nominal duration of a server tick.
+     */
+    private static final long TICK_NANOS = 50_000_000L;
+
+    /**
+     * Number of wheel slots; delays up to this many ticks are scheduled without wrapping around.
+     */
+    private static final int WHEEL_SLOTS = 64;
+
+    // ----------< Storage >----------
+
+    private static final TimingWheel<AutoFire> WHEEL = new TimingWheel<>(WHEEL_SLOTS);
+
+    /**
+     * Automatic fire of each firing player.
+     */
+    private static final Map<UUID, AutoFire> ACTIVE = new HashMap<>();
+
+    /**
+     * Fires the due shots of a player, run by {@link #WHEEL} for every due timer.
+     */
+    private static final Consumer<AutoFire> FIRE = FireScheduler::fire;
+
+    /**
+     * Number of {@link #tick()} calls so far, the time base of {@link #WHEEL}.
+     */
+    private static long tick;
+
+    /**
+     * Start time of the current tick.
+     */
+    private static long tickNanos;
+
+    // ----------< API >----------
+
+    /**
+     * Checks whether the given player is firing automatically.
+     */
+    static boolean isFiring(@NotNull Player player) {
+        return ACTIVE.containsKey(player.getUniqueId());
+    }
+
+    /**
+     * Starts automatic fire for the given player.
+     *
+     * @param player         the player who is shooting
+     * @param weapon         the weapon used
+     * @param nanosUntilShot the time until the next shot is due, in nanoseconds
+     */
+    static void start(@NotNull Player player,
+                      @NotNull Weapon weapon,
+                      long nanosUntilShot) {
+        final long now = System.nanoTime();
+        final AutoFire fire = new AutoFire(player, weapon);
+        fire.nextShotNanos = now + nanosUntilShot;
+        fire.remember(player.getEyeLocation(), now);
+
+        final AutoFire previous = ACTIVE.put(player.getUniqueId(), fire);
+        if (previous != null) WHEEL.cancel(previous);
+        WHEEL.schedule(fire, tick + ticksUntil(fire.nextShotNanos - now));
+    }
+
+    /**
+     * Stops automatic fire of the given player.
+     */
+    static void stop(@NotNull Player player) {
+        final AutoFire fire = ACTIVE.remove(player.getUniqueId());
+        if (fire != null) WHEEL.cancel(fire);
+    }
+
+    /**
+     * Stops automatic fire of all players. Called when the plugin is reloaded or disabled.
+     */
+    static void stopAll() {
+        WHEEL.clear();
+        ACTIVE.clear();
+    }
+
+    /**
+     * Fires all shots due by now. Called once at the start of each tick.
+     */
+    static void tick() {
+        tickNanos = System.nanoTime();
+        WHEEL.advance(++tick, FIRE);
+    }
+
+    // ----------< Internal API >----------
+
+    /**
+     * Fires every shot of the given player that is due by the start of this tick, then schedules the next one.
+     */
+    private static void fire(@NotNull AutoFire fire) {
+        final Player player = fire.player;
+        final long now = tickNanos;
+
+        final long oldestShotNanos = now - ConfigManager.instance().autoFireMaxCatchUpNanos;
+        if (fire.nextShotNanos < oldestShotNanos) fire.nextShotNanos = oldestShotNanos;
+
+        final Location eyeLocation = player.getEyeLocation();
+        final long delayNanos = fire.weapon.delayBetweenShots * 1_000_000L;
+
+        while (fire.nextShotNanos <= now) {
+            if (!ShootingHandler.shoot(player, fire.weapon, fire.interpolate(eyeLocation, now))) {
+                ACTIVE.remove(player.getUniqueId(), fire);
+                return;
+            }
+            // the shot itself may have stopped automatic fire
+            if (ACTIVE.get(player.getUniqueId()) != fire) return;
+
+            fire.nextShotNanos += delayNanos;
+        }
+
+        fire.remember(eyeLocation, now);
+        WHEEL.schedule(fire, tick + ticksUntil(fire.nextShotNanos - now));
+    }
+
+    /**
+     * Returns the number of ticks to wait until the given time has passed, at least one.
+     */
+    private static long ticksUntil(long nanos) {
+        return Math.max(1L, Math.ceilDiv(nanos, TICK_NANOS));
+    }
+
+    // ----------< Auto Fire >----------
+
+    /**
+     * Automatic fire of a single player.
+     */
+    private static final class AutoFire extends TimingWheel.Timer {
+
+        private final Player player;
+
+        private final Weapon weapon;
+
+        /**
+         * Time the next shot is due at, by {@link System#nanoTime()}.
+         */
+        private long nextShotNanos;
+
+        /**
+         * Eye location of the player when this fire was last processed.
+         */
+        private World lastWorld;
+
+        private double lastX, lastY, lastZ;
+
+        private float lastYaw, lastPitch;
+
+        /**
+         * Time this fire was last processed at.
+         */
+        private long lastNanos;
+
+        /**
+         * Reused result of {@link #interpolate}, only valid until the next call.
+         */
+        private final Location interpolated = new Location(null, 0.0D, 0.0D, 0.0D);
+
+        private AutoFire(@NotNull Player player, @NotNull Weapon weapon) {
+            this.player = player;
+            this.weapon = weapon;
+        }
+
+        /**
+         * Remembers the given eye location as the start of the next interpolation.
+         */
+        private void remember(@NotNull Location eyeLocation, long nanos) {
+            lastWorld = eyeLocation.getWorld();
+            lastX = eyeLocation.getX();
+            lastY = eyeLocation.getY();
+            lastZ = eyeLocation.getZ();
+            lastYaw = eyeLocation.getYaw();
+            lastPitch = eyeLocation.getPitch();
+            lastNanos = nanos;
+        }
+
+        /**
+         * Returns the eye location at the time the next shot is due,
+         * interpolated between the remembered and the given current eye location.<br>
+         * The returned location is reused and must not be kept.
+         */
+        private @NotNull Location interpolate(@NotNull Location eyeLocation, long now) {
+            if (now <= lastNanos || eyeLocation.getWorld() != lastWorld) return eyeLocation;
+
+            final double t = Math.clamp((double) (nextShotNanos - lastNanos) / (now - lastNanos), 0.0D, 1.0D);
+            if (t >= 1.0D) return eyeLocation;
+
+            interpolated.setWorld(lastWorld);
+            interpolated.setX(lastX + (eyeLocation.getX() - lastX) * t);
+            interpolated.setY(lastY + (eyeLocation.getY() - lastY) * t);
+            interpolated.setZ(lastZ + (eyeLocation.getZ() - lastZ) * t);
+            interpolated.setYaw(lastYaw + Mth.wrapDegrees(eyeLocation.getYaw() - lastYaw) * (float) t);
+            interpolated.setPitch(lastPitch + (eyeLocation.getPitch() - lastPitch) * (float) t);
+            return interpolated;
+        }
+    }
+}
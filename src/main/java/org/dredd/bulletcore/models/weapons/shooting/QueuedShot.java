@@ -0,0 +1,158 @@
+package org.dredd.bulletcore.models.weapons.shooting;
+
+import java.util.ArrayDeque;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.dredd.bulletcore.models.weapons.Weapon;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.HitboxHistory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A fired shot waiting to be resolved.
+ * <p>
+ * Shots are pooled per pellet count: a shot is {@link #acquire acquired} when fired and {@link #release released}
+ * once its hits are applied, so firing allocates no shot, origin or direction objects.
+ * A shot must not be used after it is released.
+ * <p>
+ * Acquiring and releasing must only be done from the main thread.
+ * Shot workers may read shots that are not released yet.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+final class QueuedShot {
+
+    /**
+     * Maximum number of released shots kept per pellet count.
+     */
+    private static final int MAX_POOLED = 256;
+
+    /**
+     * Released shots by pellet count.
+     */
+    private static final Int2ObjectOpenHashMap<ArrayDeque<QueuedShot>> POOLS = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * The player who fired the shot.
+     */
+    private Player shooter;
+
+    /**
+     * The weapon used.
+     */
+    private Weapon weapon;
+
+    /**
+     * The eye location of the shooter at the moment of firing.
+     */
+    private final Location origin = new Location(null, 0.0D, 0.0D, 0.0D);
+
+    /**
+     * The normalized final direction of each pellet as consecutive {@code x, y, z} components.
+     */
+    private final double[] directions;
+
+    /**
+     * The tick victims are rewound to, or {@link HitboxHistory#PRESENT}.
+     */
+    private int rewindTick;
+
+    private QueuedShot(int pellets) {
+        this.directions = new double[pellets * 3];
+    }
+
+    /**
+     * Takes a shot with the given number of pellets from the pool, or creates one if the pool is empty.<br>
+     * The directions of the shot have to be filled by the caller.
+     *
+     * @param pellets    the number of pellets
+     * @param shooter    the player who fired the shot
+     * @param weapon     the weapon used
+     * @param origin     the eye location of the shooter at the moment of firing, copied into the shot
+     * @param rewindTick the tick victims are rewound to, or {@link HitboxHistory#PRESENT}
+     * @return the shot
+     */
+    static @NotNull QueuedShot acquire(int pellets,
+                                       @NotNull Player shooter,
+                                       @NotNull Weapon weapon,
+                                       @NotNull Location origin,
+                                       int rewindTick) {
+        final ArrayDeque<QueuedShot> pool = POOLS.get(pellets);
+        final QueuedShot pooled = pool != null ? pool.pollLast() : null;
+        final QueuedShot shot = pooled != null ? pooled : new QueuedShot(pellets);
+
+        shot.shooter = shooter;
+        shot.weapon = weapon;
+        shot.origin.setWorld(origin.getWorld());
+        shot.origin.setX(origin.getX());
+        shot.origin.setY(origin.getY());
+        shot.origin.setZ(origin.getZ());
+        shot.origin.setYaw(origin.getYaw());
+        shot.origin.setPitch(origin.getPitch());
+        shot.rewindTick = rewindTick;
+        return shot;
+    }
+
+    /**
+     * Returns this shot to the pool.
+     */
+    void release() {
+        shooter = null;
+        weapon = null;
+        origin.setWorld(null);
+
+        final ArrayDeque<QueuedShot> pool = POOLS.computeIfAbsent(pelletCount(), k -> new ArrayDeque<>());
+        if (pool.size() < MAX_POOLED) pool.addLast(this);
+    }
+
+    /**
+     * Drops all pooled shots. Called when the plugin is reloaded or disabled.
+     */
+    static void clearPool() {
+        POOLS.clear();
+    }
+
+    /**
+     * @return the player who fired the shot
+     */
+    @NotNull Player shooter() {
+        return shooter;
+    }
+
+    /**
+     * @return the weapon used
+     */
+    @NotNull Weapon weapon() {
+        return weapon;
+    }
+
+    /**
+     * @return the eye location of the shooter at the moment of firing; must not be modified
+     */
+    @NotNull Location origin() {
+        return origin;
+    }
+
+    /**
+     * @return the normalized final direction of each pellet as consecutive {@code x, y, z} components
+     */
+    @NotNull double[] directions() {
+        return directions;
+    }
+
+    /**
+     * @return the tick victims are rewound to, or {@link HitboxHistory#PRESENT}
+     */
+    int rewindTick() {
+        return rewindTick;
+    }
+
+    /**
+     * @return the number of pellets of this shot
+     */
+    int pelletCount() {
+        return directions.length / 3;
+    }
+}
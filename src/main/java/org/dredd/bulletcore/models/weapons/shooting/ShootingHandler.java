@@ -1,46 +1,45 @@
 package org.dredd.bulletcore.models.weapons.shooting;
 
-import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-import java.util.function.Predicate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-import org.bukkit.FluidCollisionMode;
+import net.minecraft.server.level.ServerLevel;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeInstance;
-import org.bukkit.block.Block;
-import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.Entity;
+import org.bukkit.craftbukkit.CraftWorld;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.BoundingBox;
 import org.bukkit.util.RayTraceResult;
 import org.bukkit.util.Vector;
-import org.dredd.bulletcore.BulletCore;
 import org.dredd.bulletcore.config.ConfigManager;
-import org.dredd.bulletcore.config.materials.MaterialsManager;
 import org.dredd.bulletcore.config.particles.ParticleManager;
 import org.dredd.bulletcore.config.sounds.ConfiguredSound;
 import org.dredd.bulletcore.config.sounds.SoundManager;
 import org.dredd.bulletcore.config.sounds.SoundPlaybackMode;
-import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
 import org.dredd.bulletcore.listeners.trackers.CurrentHitTracker;
+import org.dredd.bulletcore.listeners.trackers.HeldItemTracker;
 import org.dredd.bulletcore.listeners.trackers.PlayerActionTracker;
-import org.dredd.bulletcore.models.armor.Armor;
-import org.dredd.bulletcore.models.armor.ArmorHit;
+import org.dredd.bulletcore.models.weapons.MagazineCache;
 import org.dredd.bulletcore.models.weapons.Weapon;
 import org.dredd.bulletcore.models.weapons.damage.DamagePoint;
 import org.dredd.bulletcore.models.weapons.damage.DamageThresholds;
+import org.dredd.bulletcore.models.weapons.shooting.ballistics.BulletSimulator;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.BlockSource;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.BulletRayTracer;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.EntityCandidates;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.HitboxHistory;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.LevelBlockSource;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.SectionSnapshot;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.ShootableEntities;
 import org.dredd.bulletcore.models.weapons.shooting.recoil.RecoilHandler;
 import org.dredd.bulletcore.models.weapons.shooting.spray.SprayHandler;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import static org.dredd.bulletcore.models.weapons.damage.DamagePoint.BODY;
 import static org.dredd.bulletcore.models.weapons.damage.DamagePoint.FEET;
@@ -61,14 +60,29 @@ public final class ShootingHandler {
     private ShootingHandler() {}
 
     /**
-     * Stores currently running automatic shooting tasks for each player.
+     * Reusable entity candidates of the currently processing fire cycle.
      */
-    private static final Map<UUID, BukkitTask> AUTO_SHOOTING_TASKS = new HashMap<>();
+    private static final EntityCandidates PELLET_CANDIDATES = new EntityCandidates();
 
     /**
-     * Stores the number of penetrated blocks for each material for the currently processing pellet.
+     * Ray tracer used for shots resolved on the main thread.
      */
-    private static final Map<Material, Integer> CURRENT_PELLET_PENETRATED_BLOCKS = new EnumMap<>(Material.class);
+    private static final BulletRayTracer MAIN_TRACER = new BulletRayTracer();
+
+    /**
+     * Block source used to resolve shots on the main thread.
+     */
+    private static final LevelBlockSource MAIN_BLOCKS = new LevelBlockSource();
+
+    /**
+     * Reusable hit results of the pellets of a shot resolved on the main thread.
+     */
+    private static RayTraceResult[] pelletResults = new RayTraceResult[1];
+
+    /**
+     * Reusable hits per victim of the currently applied fire cycle, in order of their first hit.
+     */
+    private static final List<VictimHits> SHOT_VICTIMS = new ArrayList<>();
 
     // ----------< Public API >----------
 
@@ -79,25 +93,30 @@ public final class ShootingHandler {
      * @return {@code true} if the player is currently shooting in automatic mode, {@code false} otherwise
      */
     public static boolean isAutoShooting(@NotNull Player player) {
-        return AUTO_SHOOTING_TASKS.containsKey(player.getUniqueId());
+        return FireScheduler.isFiring(player);
     }
 
     /**
-     * Cancels the automatic shooting task for the specified player.
+     * Cancels automatic shooting for the specified player.
      *
-     * @param player the player whose shooting task should be canceled
+     * @param player the player whose automatic shooting should be canceled
      */
     public static void cancelAutoShooting(@NotNull Player player) {
-        final BukkitTask task = AUTO_SHOOTING_TASKS.remove(player.getUniqueId());
-        if (task != null) task.cancel();
+        FireScheduler.stop(player);
     }
 
     /**
-     * Clears all shooting tasks. Called when the plugin is reloaded or disabled.
+     * Cancels automatic shooting for all players. Called when the plugin is reloaded or disabled.
      */
     public static void cancelAllAutoShootingTasks() {
-        AUTO_SHOOTING_TASKS.values().forEach(BukkitTask::cancel);
-        AUTO_SHOOTING_TASKS.clear();
+        FireScheduler.stopAll();
+    }
+
+    /**
+     * Fires the due shots of all automatically shooting players. Called once at the start of each tick.
+     */
+    public static void tickAutoShooting() {
+        FireScheduler.tick();
     }
 
     /**
@@ -116,12 +135,12 @@ public final class ShootingHandler {
         if (currentTime - lastShot < weapon.delayBetweenShots) return;
 
         if (weapon.isAutomatic && player.isSneaking()) {
-            if (!shoot(player, weapon)) return;
+            if (!shoot(player, weapon, player.getEyeLocation())) return;
 
-            runAutoShootingTask(player, weapon, weapon.ticksDelayBetweenShots, weapon.ticksDelayBetweenShots);
+            FireScheduler.start(player, weapon, weapon.delayBetweenShots * 1_000_000L);
         } else {
             if (weapon.isAutomatic) PlayerActionTracker.recordSingleShotAutomatic(player.getUniqueId());
-            shoot(player, weapon);
+            shoot(player, weapon, player.getEyeLocation());
         }
     }
 
@@ -146,63 +165,61 @@ public final class ShootingHandler {
         if (isAutoShooting(player)) return;
 
         final long lastShot = weapon.getLastTriggerPullTime(player);
-        long ticksUntilShotAvailable = Math.ceilDiv((weapon.delayBetweenShots - (now - lastShot)), 50L);
+        long millisUntilShotAvailable = weapon.delayBetweenShots - (now - lastShot);
 
-        if (ticksUntilShotAvailable <= 0L) {
-            ticksUntilShotAvailable = weapon.ticksDelayBetweenShots;
-            if (!shoot(player, weapon)) return;
+        if (millisUntilShotAvailable <= 0L) {
+            millisUntilShotAvailable = weapon.delayBetweenShots;
+            if (!shoot(player, weapon, player.getEyeLocation())) return;
         }
 
-        runAutoShootingTask(player, weapon, ticksUntilShotAvailable, weapon.ticksDelayBetweenShots);
+        FireScheduler.start(player, weapon, millisUntilShotAvailable * 1_000_000L);
     }
 
 
     // ----------< Internal API >----------
 
     /**
-     * Runs a new auto shooting task for the specified player.
+     * Does a single fire cycle. For most of the weapons this is a single bullet shot.<br>
+     * For some weapons (e.g., shotguns), this may be multiple bullet shots.
+     * <p>
+     * Ammo, sounds, recoil and spray are applied immediately,
+     * while the bullets are queued to {@link ShotQueue} and resolved at the end of the tick,
+     * or handed to {@link BulletSimulator} if the weapon has ballistics enabled.
      *
-     * @param player the player to start the task for
-     * @param weapon the weapon used
-     * @param delay  the ticks to wait before running the task
-     * @param period the ticks to wait between runs
+     * @param player      the player who is shooting
+     * @param weapon      the weapon used
+     * @param eyeLocation the eye location of the player when the shot was fired
+     * @return {@code true} if the shot was successful, {@code false} otherwise.
      */
-    private static void runAutoShootingTask(@NotNull Player player,
-                                            @NotNull Weapon weapon,
-                                            long delay,
-                                            long period) {
-        final BukkitTask autoShootingTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!shoot(player, weapon)) cancelAutoShooting(player);
-            }
-        }.runTaskTimer(BulletCore.instance(), delay, period);
-
-        AUTO_SHOOTING_TASKS.put(player.getUniqueId(), autoShootingTask);
+    static boolean shoot(@NotNull Player player,
+                         @NotNull Weapon weapon,
+                         @NotNull Location eyeLocation) {
+        final long startBytes = ShotQueue.allocatedBytes();
+        try {
+            return fireCycle(player, weapon, eyeLocation);
+        } finally {
+            ShotQueue.recordFire(ShotQueue.allocatedBytes() - startBytes);
+        }
     }
 
     /**
-     * Does a single fire cycle. For most of the weapons this is a single bullet shot.<br>
-     * For some weapons (e.g., shotguns), this may be multiple bullet shots.
-     *
-     * @param player the player who is shooting
-     * @param weapon the weapon used
-     * @return {@code true} if the shot was successful, {@code false} otherwise.
+     * Does a single fire cycle, see {@link #shoot}.
      */
-    private static boolean shoot(@NotNull Player player,
-                                 @NotNull Weapon weapon) {
+    private static boolean fireCycle(@NotNull Player player,
+                                     @NotNull Weapon weapon,
+                                     @NotNull Location eyeLocation) {
         // always update the last trigger-pull time whenever this method is called,
         // otherwise certain actions may occur more frequently than allowed
         weapon.setLastTriggerPullTime(player);
 
         // make sure the weapon stack didn't change in the meantime
+        if (!HeldItemTracker.isHolding(player, weapon)) return false;
         final ItemStack weaponStack = player.getInventory().getItemInMainHand();
-        if (!weapon.isThisWeapon(weaponStack)) return false;
 
         final ConfigManager config = ConfigManager.instance();
 
         // stop if the weapon is empty
-        final int bulletCount = weapon.getBulletCount(weaponStack);
+        final int bulletCount = MagazineCache.getBulletCount(player, weapon, weaponStack);
         if (bulletCount <= 0) {
             weapon.sounds.play(player, weapon.sounds.empty);
             if (config.enableHotbarMessages)
@@ -212,7 +229,7 @@ public final class ShootingHandler {
 
         // update bullet count
         final int newBulletCount = bulletCount - 1;
-        weapon.setBulletCount(weaponStack, newBulletCount);
+        MagazineCache.setBulletCount(player, weapon, weaponStack, newBulletCount);
         if (config.enableHotbarMessages)
             weapon.sendWeaponStatus(player, newBulletCount);
 
@@ -223,108 +240,301 @@ public final class ShootingHandler {
         RecoilHandler.handleShot(player, weapon.recoil);
 
 
-        // -----< RayTracing >-----
-        final Predicate<Entity> entityFilter = entity ->
-            entity instanceof LivingEntity victim && !entity.equals(player) && !skipHit(victim);
+        // aim direction, same as Location#getDirection
+        final double yaw = Math.toRadians(eyeLocation.getYaw());
+        final double pitch = Math.toRadians(eyeLocation.getPitch());
+        final double xz = Math.cos(pitch);
+        final double aimX = -xz * Math.sin(yaw);
+        final double aimY = -Math.sin(pitch);
+        final double aimZ = xz * Math.cos(yaw);
+
+        // bullets are resolved at the end of the tick
+        final QueuedShot shot = QueuedShot.acquire(weapon.pelletsPerShot, player, weapon, eyeLocation, HitboxHistory.rewindTick(player));
+        SprayHandler.handleShot(player, weapon, aimX, aimY, aimZ, shot.directions());
+        if (weapon.ballistics.enabled) {
+            BulletSimulator.spawn(player, weapon, shot.origin(), shot.directions(), shot.rewindTick());
+            shot.release();
+        } else {
+            ShotQueue.add(shot);
+        }
 
-        final World world = player.getWorld();
-        final Location eyeLocation = player.getEyeLocation();
-        final Vector aimDirection = eyeLocation.getDirection();
+        if (weapon.recoilImpulse > 0.0D) {
+            final Vector velocity = player.getVelocity();
+            velocity.setX(velocity.getX() - aimX * weapon.recoilImpulse);
+            velocity.setY(velocity.getY() - aimY * weapon.recoilImpulse);
+            velocity.setZ(velocity.getZ() - aimZ * weapon.recoilImpulse);
+            player.setVelocity(velocity);
+        }
 
-        // rayTrace each pellet direction separately
-        final Vector[] directions = SprayHandler.handleShot(player, weapon, aimDirection);
-        for (final Vector direction : directions) {
-            CURRENT_PELLET_PENETRATED_BLOCKS.clear(); // Clear the previous pellets / shots
+        return true;
+    }
 
-            final Predicate<Block> canCollide = block -> {
-                // return true  == this block will stop the bullet
-                // return false == the bullet will go through this block
+    /**
+     * Resolves the bullets of a queued fire cycle on the main thread: traces each pellet and applies its hit.
+     *
+     * @param shot      the queued shot
+     * @param shootable the spatial hash of shootable entities in the world of the shot
+     * @param config    the current plugin configuration
+     */
+    static void resolveShot(@NotNull QueuedShot shot,
+                            @NotNull ShootableEntities shootable,
+                            @NotNull ConfigManager config) {
+        final Location eyeLocation = shot.origin();
+        final ServerLevel level = ((CraftWorld) eyeLocation.getWorld()).getHandle();
+
+        final int pellets = shot.pelletCount();
+        if (pelletResults.length < pellets) pelletResults = new RayTraceResult[pellets];
+        final RayTraceResult[] results = pelletResults;
+
+        // collect entities once for all pellets
+        PELLET_CANDIDATES.collect(shootable, shot.shooter(), eyeLocation, shot.directions(), shot.weapon().maxDistance, shot.rewindTick());
+        traceShot(shot, PELLET_CANDIDATES, MAIN_BLOCKS.reset(level), MAIN_TRACER, results, null);
+        PELLET_CANDIDATES.clear();
+        MAIN_BLOCKS.release();
 
-                final Material blockType = block.getType();
+        try {
+            applyShot(shot, results, config);
+        } finally {
+            Arrays.fill(results, 0, pellets, null);
+        }
+    }
+
+    /**
+     * Returns the spatial hash of the world of the given shot, with the entities its pellets can reach collected.
+     *
+     * @param shot    the queued shot
+     * @param raySize entity bounding boxes will be uniformly expanded (or shrunk) by this value
+     * @return the spatial hash of shootable entities
+     */
+    static @NotNull ShootableEntities shootableOf(@NotNull QueuedShot shot,
+                                                  double raySize) {
+        final Location origin = shot.origin();
+        final double maxDistance = shot.weapon().maxDistance;
+        final double[] directions = shot.directions();
+
+        // horizontal bounds of all pellet paths
+        double minX = origin.getX(), minZ = origin.getZ();
+        double maxX = minX, maxZ = minZ;
+        for (int d = 0; d < directions.length; d += 3) {
+            final double x = origin.getX() + directions[d] * maxDistance;
+            final double z = origin.getZ() + directions[d + 2] * maxDistance;
+            minX = Math.min(minX, x);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxZ = Math.max(maxZ, z);
+        }
 
-                if (MaterialsManager.instance().isIgnored(blockType)) return false;
+        return ShootableEntities.of(origin.getWorld(), raySize).collect(minX, minZ, maxX, maxZ);
+    }
 
-                final int penetrationLimit = weapon.blocksPenetration.getPenetrationLimit(blockType);
-                if (penetrationLimit <= 0) return true;
+    /**
+     * Traces each pellet of a queued fire cycle.
+     * <p>
+     * With {@code hitBlocks} given, the world is not accessed except through the given block source,
+     * so it can run off the main thread against a {@link SectionSnapshot}. Block hits then have no hit block,
+     * which has to be added on the main thread with {@link BulletRayTracer#withHitBlock}.
+     *
+     * @param shot       the queued shot
+     * @param candidates the entities that can be hit by the pellets
+     * @param blocks     the source of the world's blocks
+     * @param tracer     the tracer to use
+     * @param results    receives the hit result of each pellet, {@code null} elements are misses;
+     *                   must have room for at least {@link QueuedShot#pelletCount()} elements
+     * @param hitBlocks  receives the position of the block hit by each pellet, or {@link BulletRayTracer#NO_BLOCK},
+     *                   if tracing off the main thread; {@code null} on the main thread
+     */
+    static void traceShot(@NotNull QueuedShot shot,
+                          @NotNull EntityCandidates candidates,
+                          @NotNull BlockSource blocks,
+                          @NotNull BulletRayTracer tracer,
+                          @NotNull RayTraceResult[] results,
+                          @Nullable long[] hitBlocks) {
+        final Weapon weapon = shot.weapon();
+        final Location eyeLocation = shot.origin();
+        final World world = hitBlocks == null ? eyeLocation.getWorld() : null;
+        final double startX = eyeLocation.getX(), startY = eyeLocation.getY(), startZ = eyeLocation.getZ();
+        final double[] directions = shot.directions();
+
+        // without spray all pellets fly the same path, so trace it only once
+        final boolean samePath = isSamePath(directions);
 
-                // Check how many blocks of this material already penetrated
-                // by the current pellet incremented by 1 and updated in the map.
-                final int newValue = CURRENT_PELLET_PENETRATED_BLOCKS.merge(blockType, 1, Integer::sum);
-                return newValue > penetrationLimit;
-            };
+        // rayTrace each pellet direction separately
+        for (int i = 0, d = 0; d < directions.length; i++, d += 3) {
+            if (i > 0 && samePath) {
+                results[i] = results[0];
+                if (hitBlocks != null) hitBlocks[i] = hitBlocks[0];
+                continue;
+            }
 
-            final RayTraceResult result = world.rayTrace(
-                eyeLocation,
-                direction,
+            results[i] = tracer.rayTrace(
+                world,
+                blocks,
+                startX, startY, startZ,
+                directions[d], directions[d + 1], directions[d + 2],
                 weapon.maxDistance,
-                FluidCollisionMode.ALWAYS, // ALWAYS == water/lava will stop bullets (let canCollide predicate handle it)
-                false,                     // false == will collide with all blocks (even GRASS, but not AIR)
-                config.raySize,            // 0 == precise, > 0 == expands, < 0 == shrinks (hitbox for raycast)
-                entityFilter,
-                canCollide
+                weapon.blocksPenetration,
+                candidates
             );
+            if (hitBlocks != null) hitBlocks[i] = tracer.lastHitBlock();
+        }
+    }
+
+    /**
+     * Applies the traced hits of a queued fire cycle: damage, sounds, particles and bullet holes.
+     * <p>
+     * The hits of all pellets on the same victim are summed, and applied as one damage per victim.
+     *
+     * @param shot    the queued shot
+     * @param results the hit result of each pellet
+     * @param config  the current plugin configuration
+     */
+    static void applyShot(@NotNull QueuedShot shot,
+                          @NotNull RayTraceResult[] results,
+                          @NotNull ConfigManager config) {
+        final Player player = shot.shooter();
+        final Weapon weapon = shot.weapon();
+        final Location eyeLocation = shot.origin();
+        final World world = eyeLocation.getWorld();
+        final double[] directions = shot.directions();
+
+        final List<VictimHits> victims = SHOT_VICTIMS;
+        try {
+            for (int i = 0, d = 0; d < directions.length; i++, d += 3) {
+                final RayTraceResult result = results[i];
+
+                weapon.trailParticle.spawn(eyeLocation, directions[d], directions[d + 1], directions[d + 2], result, weapon, world);
 
-            weapon.trailParticle.spawn(eyeLocation, direction, result, weapon, world);
-
-            // handle result
-            if (result == null) continue;
-
-            final Location hitLocation = result.getHitPosition().toLocation(world);
-
-            if (result.getHitEntity() instanceof LivingEntity victim) {
-                // Entity hit
-                final DamagePoint damagePoint = applyCustomDamage(victim, player, weapon, hitLocation);
-                final ConfiguredSound sound = damagePoint == HEAD ? config.entityHitHeadSound : config.entityHitBodySound;
-                final Location soundLocation = sound.mode() == SoundPlaybackMode.WORLD ? hitLocation : eyeLocation;
-                SoundManager.playSound(player, soundLocation, sound);
-                ParticleManager.spawnParticle(world, hitLocation, config.entityHitParticle);
-            } else if (result.getHitBlock() != null) {
-                // Block hit
-                SoundManager.playSound(player, hitLocation, config.blockHitSound);
-                ParticleManager.spawnParticle(world, hitLocation, config.blockHitParticle);
-                config.asFeatureManager.bulletHole.spawn(world, hitLocation, result.getHitBlockFace());
+                // handle result
+                if (result == null) continue;
+
+                if (result.getHitEntity() instanceof LivingEntity victim)
+                    addHit(victimHitsOf(victims, victim), player, weapon, eyeLocation, world, result, shot.rewindTick(), config);
+                else
+                    applyBlockHit(player, world, result, config);
             }
+
+            for (int i = 0; i < victims.size(); i++)
+                applyCustomDamage(victims.get(i), player, weapon);
+        } finally {
+            victims.clear();
         }
+    }
 
-        if (weapon.recoilImpulse > 0.0D) {
-            final Vector recoil = aimDirection.clone().multiply(weapon.recoilImpulse);
-            final Vector newVelocity = player.getVelocity().subtract(recoil);
-            player.setVelocity(newVelocity);
+    /**
+     * Applies a single bullet hit: damage, sounds, particles and bullet holes.
+     *
+     * @param player      the player who fired the bullet
+     * @param weapon      the weapon used
+     * @param eyeLocation the eye location of the player, used for sounds played to the player only
+     * @param world       the world of the hit
+     * @param result      the hit result of the bullet
+     * @param rewindTick  the tick the victim was rewound to when traced, or {@link HitboxHistory#PRESENT}
+     * @param config      the current plugin configuration
+     */
+    public static void applyHit(@NotNull Player player,
+                                @NotNull Weapon weapon,
+                                @NotNull Location eyeLocation,
+                                @NotNull World world,
+                                @NotNull RayTraceResult result,
+                                int rewindTick,
+                                @NotNull ConfigManager config) {
+        if (result.getHitEntity() instanceof LivingEntity victim) {
+            final VictimHits hits = new VictimHits(victim);
+            addHit(hits, player, weapon, eyeLocation, world, result, rewindTick, config);
+            applyCustomDamage(hits, player, weapon);
+        } else {
+            applyBlockHit(player, world, result, config);
         }
+    }
 
-        return true;
+    /**
+     * Adds a bullet hit on an entity to the hits on its victim, and plays its sound and particle.
+     */
+    private static void addHit(@NotNull VictimHits hits,
+                               @NotNull Player player,
+                               @NotNull Weapon weapon,
+                               @NotNull Location eyeLocation,
+                               @NotNull World world,
+                               @NotNull RayTraceResult result,
+                               int rewindTick,
+                               @NotNull ConfigManager config) {
+        final LivingEntity victim = hits.victim();
+        if (!victim.isValid()) return; // may have died or left while the shot was resolved
+
+        final Location hitLocation = result.getHitPosition().toLocation(world);
+
+        // non-player entities will default to BODY
+        final DamagePoint damagePoint = victim instanceof Player victimPlayer
+            ? getDamagePoint(victimPlayer, hitLocation, rewindTick)
+            : BODY;
+        hits.add(damagePoint, weapon);
+
+        final ConfiguredSound sound = damagePoint == HEAD ? config.entityHitHeadSound : config.entityHitBodySound;
+        final Location soundLocation = sound.mode() == SoundPlaybackMode.WORLD ? hitLocation : eyeLocation;
+        SoundManager.playSound(player, soundLocation, sound);
+        ParticleManager.spawnParticle(world, hitLocation, config.entityHitParticle);
     }
 
     /**
-     * Evaluates whether the bullet should skip the specified entity and go beyond it.
+     * Applies a bullet hit on a block: sound, particle and bullet hole.
+     */
+    private static void applyBlockHit(@NotNull Player player,
+                                      @NotNull World world,
+                                      @NotNull RayTraceResult result,
+                                      @NotNull ConfigManager config) {
+        if (result.getHitBlock() == null) return;
+
+        final Location hitLocation = result.getHitPosition().toLocation(world);
+        SoundManager.playSound(player, hitLocation, config.blockHitSound);
+        ParticleManager.spawnParticle(world, hitLocation, config.blockHitParticle);
+        config.asFeatureManager.bulletHole.spawn(world, hitLocation, result.getHitBlockFace());
+    }
+
+    /**
+     * Returns the hits on the given victim from the given list, adding them if the victim has none yet.
+     */
+    private static @NotNull VictimHits victimHitsOf(@NotNull List<VictimHits> victims,
+                                                    @NotNull LivingEntity victim) {
+        for (int i = 0; i < victims.size(); i++)
+            if (victims.get(i).victim() == victim) return victims.get(i);
+
+        final VictimHits hits = new VictimHits(victim);
+        victims.add(hits);
+        return hits;
+    }
+
+    /**
+     * Checks whether all pellet directions are exactly the same.
      *
-     * @param victim the entity being evaluated for skipping
-     * @return true if the entity should be skipped; false otherwise
+     * @param directions the pellet directions as consecutive {@code x, y, z} components
+     * @return {@code true} if every direction equals the first one, {@code false} otherwise
      */
-    private static boolean skipHit(@NotNull LivingEntity victim) {
-        return victim.isInvulnerable()
-            || victim instanceof ArmorStand
-            || (victim instanceof Player p && switch (p.getGameMode()) {
-            case CREATIVE, SPECTATOR -> true;
-            default -> false;
-        });
+    private static boolean isSamePath(@NotNull double[] directions) {
+        for (int d = 3; d < directions.length; d += 3) {
+            if (directions[d] != directions[0]
+                || directions[d + 1] != directions[1]
+                || directions[d + 2] != directions[2]) return false;
+        }
+        return true;
     }
 
     /**
-     * Applies custom damage to a living entity.
+     * Applies the summed custom damage of the given hits to their victim.
+     * <p>
+     * The vanilla damage reduction (armor points, armor toughness) is applied once to the sum,
+     * see {@link VictimHits} for how this differs from applying each hit on its own.
      *
-     * @param victim   the entity receiving damage
-     * @param damager  the player who caused the damage using Weapon
-     * @param weapon   the weapon used
-     * @param hitPoint the location where the damage occurred
-     * @return the damage point of the hit
+     * @param hits    the hits on the victim
+     * @param damager the player who caused the damage using Weapon
+     * @param weapon  the weapon used
      */
-    private static @NotNull DamagePoint applyCustomDamage(@NotNull LivingEntity victim,
-                                                          @NotNull Player damager,
-                                                          @NotNull Weapon weapon,
-                                                          @NotNull Location hitPoint) {
-        DamagePoint damagePoint = DamagePoint.BODY; // non-player entities will default to BODY
-        double finalDamage = weapon.damage.body();
+    private static void applyCustomDamage(@NotNull VictimHits hits,
+                                          @NotNull Player damager,
+                                          @NotNull Weapon weapon) {
+        if (hits.totalHits() == 0) return; // every hit was on an invalid victim
+
+        final LivingEntity victim = hits.victim();
+        if (!victim.isValid()) return; // may have died from the hits on a previous victim
 
         // START: PLAYER ONLY
         final Player victimPlayer = victim instanceof Player p ? p : null;
@@ -333,8 +543,7 @@ public final class ShootingHandler {
         double originalKnockbackValue = 0.0;
 
         if (victimPlayer != null) {
-            damagePoint = getDamagePoint(victimPlayer, hitPoint);
-            finalDamage = getFinalHPDamage(victimPlayer, damagePoint, weapon);
+            hits.addArmorHits();
 
             victimKnockbackResistance = victimPlayer.getAttribute(Attribute.GENERIC_KNOCKBACK_RESISTANCE);
             if (victimKnockbackResistance != null) {
@@ -345,8 +554,8 @@ public final class ShootingHandler {
         // END: PLAYER ONLY
 
         try {
-            CurrentHitTracker.startHitProcess(damager.getUniqueId(), victim.getUniqueId(), weapon);
-            victim.damage(finalDamage, damager); // fires EntityDamageByEntityEvent
+            CurrentHitTracker.startHitProcess(damager.getUniqueId(), victim.getUniqueId(), weapon, hits);
+            victim.damage(hits.totalDamage(), damager); // fires EntityDamageByEntityEvent
             victim.setNoDamageTicks(0); // allows constant hits
         } finally {
             CurrentHitTracker.finishHitProcess(damager.getUniqueId(), victim.getUniqueId());
@@ -355,11 +564,9 @@ public final class ShootingHandler {
             if (victimPlayer != null) {
                 if (victimKnockbackResistance != null)
                     victimKnockbackResistance.setBaseValue(originalKnockbackValue);
-                CurrentHitTracker.removeArmorHit(victim.getUniqueId());
+                CurrentHitTracker.removeArmorHits(victim.getUniqueId());
             }
         }
-
-        return damagePoint;
     }
 
     /**
@@ -369,12 +576,14 @@ public final class ShootingHandler {
      * to categorize the hit location. If the player is sleeping, all hits are treated as {@link DamagePoint#HEAD},
      * as the hitbox is tiny and localized to the head region.
      *
-     * @param victim   the player who was hit
-     * @param hitPoint the location of the hit (typically from ray tracing)
+     * @param victim     the player who was hit
+     * @param hitPoint   the location of the hit (typically from ray tracing)
+     * @param rewindTick the tick the victim was rewound to when traced, or {@link HitboxHistory#PRESENT}
      * @return the body part that was hit, as a {@link DamagePoint}
      */
     private static @NotNull DamagePoint getDamagePoint(@NotNull Player victim,
-                                                       @NotNull Location hitPoint) {
+                                                       @NotNull Location hitPoint,
+                                                       int rewindTick) {
         // Player hitbox size (height, width):
         // sleeping: h=0.2, w=0.2
         // standing: h=1.8, w=0.6
@@ -383,8 +592,19 @@ public final class ShootingHandler {
 
         if (victim.isSleeping()) return HEAD; // while sleeping hitbox is only in the head
 
-        final BoundingBox bb = victim.getBoundingBox();
-        final double normalizedY = (hitPoint.getY() - bb.getMinY()) / bb.getHeight();
+        // the hit was traced against the rewound hitbox, if any
+        final double minY, height;
+        final int entry = HitboxHistory.find(victim, rewindTick);
+        if (entry >= 0) {
+            minY = HitboxHistory.minY(entry);
+            height = HitboxHistory.maxY(entry) - minY;
+        } else {
+            final BoundingBox bb = victim.getBoundingBox();
+            minY = bb.getMinY();
+            height = bb.getHeight();
+        }
+
+        final double normalizedY = (hitPoint.getY() - minY) / height;
         final DamageThresholds thr = ConfigManager.instance().damageThresholds;
 
         if (normalizedY > thr.head()) return HEAD;
@@ -392,28 +612,4 @@ public final class ShootingHandler {
         if (normalizedY > thr.legs()) return LEGS;
         return FEET;
     }
-
-    /**
-     * Calculates the final Health Points damage to be applied to the victim
-     * taking the worn {@link Armor} into account.
-     *
-     * @param victim      the victim player receiving the damage
-     * @param damagePoint the damage point of the hit
-     * @param weapon      the weapon used to cause the damage
-     * @return the final damage to be applied to the victim
-     */
-    private static double getFinalHPDamage(@NotNull Player victim,
-                                           @NotNull DamagePoint damagePoint,
-                                           @NotNull Weapon weapon) {
-        final double initialDamage = damagePoint.getDamage(weapon.damage);
-        final ItemStack armorStack = damagePoint.getArmor(victim.getInventory());
-
-        final Armor armor = CustomItemsRegistry.getArmorOrNull(armorStack);
-        if (armor == null) return initialDamage;
-
-        final ArmorHit armorHit = new ArmorHit(armor, initialDamage, damagePoint, victim);
-        CurrentHitTracker.addArmorHit(victim.getUniqueId(), armorHit);
-
-        return initialDamage * (1 - armor.damageReduction);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package org.dredd.bulletcore.models.weapons.shooting;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.dredd.bulletcore.config.ConfigManager;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.ShootableEntities;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects fired shots and resolves them together once per tick.
+ * <p>
+ * Resolution is limited by {@link ConfigManager#shotQueueMaxShots} and {@link ConfigManager#shotQueueMaxNanos}.<br>
+ * Shots over the budget stay queued for the next tick, and players are served
+ * round-robin, so a single player cannot use up the budget of everyone else.
+ * <p>
+ * If {@link ConfigManager#asyncShots} is enabled, pellets are traced by {@link AsyncShotResolver}
+ * and their hits are applied at the start of the next tick, or of the one after if the workers fall behind.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class ShotQueue {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ShotQueue() {}
+
+    /**
+     * Pending shots of each player.<br>
+     * The first entry is the next player to be served.
+     */
+    private static final LinkedHashMap<UUID, ArrayDeque<QueuedShot>> PENDING_SHOTS = new LinkedHashMap<>();
+
+    /**
+     * Used to measure the memory allocated while resolving shots, {@code null} if the JVM does not support it.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS =
+        ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported()
+            && threads.isThreadAllocatedMemoryEnabled() ? threads : null;
+
+    // ----------< Stats >----------
+
+    private static long totalResolvedShots;
+
+    private static long totalResolveNanos;
+
+    private static long totalAllocatedBytes;
+
+    private static long totalFireCycles;
+
+    private static long totalFireAllocatedBytes;
+
+    // ----------< Public API >----------
+
+    /**
+     * Removes all pending shots. Called when the plugin is reloaded or disabled.
+     */
+    public static void clear() {
+        PENDING_SHOTS.clear();
+        totalResolvedShots = 0L;
+        totalResolveNanos = 0L;
+        totalAllocatedBytes = 0L;
+        totalFireCycles = 0L;
+        totalFireAllocatedBytes = 0L;
+        AsyncShotResolver.shutdown();
+        QueuedShot.clearPool();
+        ShootableEntities.clearAll();
+    }
+
+    /**
+     * Applies the hits of shots resolved off the main thread during the previous tick.<br>
+     * Called at the start of each tick.
+     */
+    public static void applyAsyncResults() {
+        AsyncShotResolver.applyCompleted(ConfigManager.instance());
+    }
+
+    /**
+     * Resolves pending shots within the configured budget.<br>
+     * At least one shot is resolved on every call, so the queue always makes progress.
+     */
+    public static void tick() {
+        if (PENDING_SHOTS.isEmpty()) return;
+
+        final ConfigManager config = ConfigManager.instance();
+        final int maxShots = config.shotQueueMaxShots;
+        final long maxNanos = config.shotQueueMaxNanos;
+        final long startTime = System.nanoTime();
+
+        final long startBytes = allocatedBytes();
+        int resolvedShots = 0;
+        try {
+            do {
+                final QueuedShot shot = pollNext();
+                if (!shot.shooter().isOnline()) {
+                    shot.release();
+                } else if (config.asyncShots) {
+                    AsyncShotResolver.prepare(shot, ShootingHandler.shootableOf(shot, config.raySize));
+                } else {
+                    ShootingHandler.resolveShot(shot, ShootingHandler.shootableOf(shot, config.raySize), config);
+                    shot.release();
+                }
+                resolvedShots++;
+            } while (!PENDING_SHOTS.isEmpty()
+                && (maxShots <= 0 || resolvedShots < maxShots)
+                && (maxNanos <= 0L || System.nanoTime() - startTime < maxNanos));
+        } finally {
+            if (config.asyncShots) AsyncShotResolver.submitPrepared(config);
+
+            totalResolvedShots += resolvedShots;
+            totalResolveNanos += System.nanoTime() - startTime;
+            totalAllocatedBytes += allocatedBytes() - startBytes;
+        }
+    }
+
+    // -----< Stats >-----
+
+    /**
+     * @return the number of shots resolved since the plugin was (re)loaded
+     */
+    public static long resolvedShots() {
+        return totalResolvedShots;
+    }
+
+    /**
+     * @return the average time spent resolving a shot on the main thread, in nanoseconds
+     */
+    public static long averageResolveNanos() {
+        return totalResolvedShots == 0L ? 0L : totalResolveNanos / totalResolvedShots;
+    }
+
+    /**
+     * @return the average memory allocated on the main thread while resolving a shot, in bytes,
+     * or {@code -1} if the JVM does not support measuring it
+     */
+    public static long averageAllocatedBytes() {
+        if (THREADS == null) return -1L;
+        return totalResolvedShots == 0L ? 0L : totalAllocatedBytes / totalResolvedShots;
+    }
+
+    /**
+     * @return the number of fire cycles attempted since the plugin was (re)loaded
+     */
+    public static long fireCycles() {
+        return totalFireCycles;
+    }
+
+    /**
+     * @return the average memory allocated on the main thread while firing a shot, before it is resolved, in bytes,
+     * or {@code -1} if the JVM does not support measuring it
+     */
+    public static long averageFireAllocatedBytes() {
+        if (THREADS == null) return -1L;
+        return totalFireCycles == 0L ? 0L : totalFireAllocatedBytes / totalFireCycles;
+    }
+
+    // ----------< Internal API >----------
+
+    /**
+     * Records a fire cycle for the stats.
+     *
+     * @param allocatedBytes the memory allocated while firing it, in bytes
+     */
+    static void recordFire(long allocatedBytes) {
+        totalFireCycles++;
+        totalFireAllocatedBytes += allocatedBytes;
+    }
+
+    /**
+     * Queues a fired shot to be resolved at the end of the tick.
+     *
+     * @param shot the shot to queue
+     */
+    static void add(@NotNull QueuedShot shot) {
+        PENDING_SHOTS.computeIfAbsent(shot.shooter().getUniqueId(), k -> new ArrayDeque<>()).add(shot);
+    }
+
+    /**
+     * Takes the next shot in round-robin order.<br>
+     * The served player is moved to the end of the queue if they have more shots pending.
+     *
+     * @return the next shot to resolve
+     */
+    private static @NotNull QueuedShot pollNext() {
+        final Map.Entry<UUID, ArrayDeque<QueuedShot>> next = PENDING_SHOTS.pollFirstEntry();
+        final ArrayDeque<QueuedShot> shots = next.getValue();
+        final QueuedShot shot = shots.poll();
+        if (!shots.isEmpty()) PENDING_SHOTS.putLast(next.getKey(), shots);
+        return shot;
+    }
+
+    /**
+     * Returns the total memory allocated by the current thread, or {@code 0} if the JVM does not support measuring it.
+     */
+    static long allocatedBytes() {
+        return THREADS == null ? 0L : THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,133 @@
+package org.dredd.bulletcore.models.weapons.shooting;
+
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
+import org.dredd.bulletcore.listeners.trackers.CurrentHitTracker;
+import org.dredd.bulletcore.models.armor.Armor;
+import org.dredd.bulletcore.models.armor.ArmorHit;
+import org.dredd.bulletcore.models.weapons.Weapon;
+import org.dredd.bulletcore.models.weapons.damage.DamagePoint;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Hits of a single fire cycle on a single victim, summed per {@link DamagePoint}.
+ * <p>
+ * All pellets hitting the same victim are applied as one damage, so a fire cycle fires
+ * a single {@code EntityDamageByEntityEvent} per victim. Listeners can read the breakdown
+ * from {@link CurrentHit#hits()}.
+ * <p>
+ * The armor of each damage point is resolved on its first hit, and reduces the damage
+ * of all hits on that point.
+ * <p>
+ * The vanilla damage reduction is applied once to {@link #totalDamage()}, not to each hit.
+ * Since the reduction of armor points shrinks as the damage grows relative to the armor toughness,
+ * a fire cycle of several pellets on one victim may deal slightly more damage than the same pellets
+ * applied one by one. Damage of single-bullet weapons is unchanged.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class VictimHits {
+
+    private static final DamagePoint[] POINTS = DamagePoint.values();
+
+    private final LivingEntity victim;
+
+    /**
+     * Number of hits, damage to health after armor, and damage to armor, per damage point ordinal.
+     */
+    private final int[] hits = new int[POINTS.length];
+
+    private final double[] damage = new double[POINTS.length];
+
+    private final double[] armorDamage = new double[POINTS.length];
+
+    /**
+     * Armor worn on each damage point when it was first hit, or {@code null} if none.
+     */
+    private final Armor[] armor = new Armor[POINTS.length];
+
+    private int totalHits;
+
+    private double totalDamage;
+
+    /**
+     * Creates an empty accumulator for the given victim.
+     *
+     * @param victim the victim
+     */
+    VictimHits(@NotNull LivingEntity victim) {
+        this.victim = victim;
+    }
+
+    /**
+     * Adds a hit of the given weapon on the given damage point.
+     *
+     * @param damagePoint the damage point of the hit
+     * @param weapon      the weapon used
+     */
+    void add(@NotNull DamagePoint damagePoint, @NotNull Weapon weapon) {
+        final int i = damagePoint.ordinal();
+        if (hits[i] == 0 && victim instanceof Player player)
+            armor[i] = CustomItemsRegistry.getArmorOrNull(damagePoint.getArmor(player.getInventory()));
+
+        final double initialDamage = damagePoint.getDamage(weapon.damage);
+        final double finalDamage = armor[i] == null ? initialDamage : initialDamage * (1 - armor[i].damageReduction);
+
+        hits[i]++;
+        damage[i] += finalDamage;
+        armorDamage[i] += initialDamage;
+        totalHits++;
+        totalDamage += finalDamage;
+    }
+
+    /**
+     * Registers an {@link ArmorHit} for each hit armor piece of the victim, if it is a player.
+     */
+    void addArmorHits() {
+        if (!(victim instanceof Player player)) return;
+
+        for (int i = 0; i < POINTS.length; i++) {
+            if (armor[i] != null)
+                CurrentHitTracker.addArmorHit(player.getUniqueId(), new ArmorHit(armor[i], armorDamage[i], POINTS[i], player, hits[i]));
+        }
+    }
+
+    /**
+     * @return the victim of the hits
+     */
+    public @NotNull LivingEntity victim() {
+        return victim;
+    }
+
+    /**
+     * @param damagePoint the damage point
+     * @return the number of hits on the given damage point
+     */
+    public int hits(@NotNull DamagePoint damagePoint) {
+        return hits[damagePoint.ordinal()];
+    }
+
+    /**
+     * @param damagePoint the damage point
+     * @return the summed damage of the hits on the given damage point, after armor
+     */
+    public double damage(@NotNull DamagePoint damagePoint) {
+        return damage[damagePoint.ordinal()];
+    }
+
+    /**
+     * @return the number of all hits on the victim
+     */
+    public int totalHits() {
+        return totalHits;
+    }
+
+    /**
+     * @return the summed damage of all hits on the victim, after armor
+     */
+    public double totalDamage() {
+        return totalDamage;
+    }
+}
@@ -0,0 +1,370 @@
+package org.dredd.bulletcore.models.weapons.shooting.ballistics;
+
+import java.util.Arrays;
+
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.craftbukkit.CraftWorld;
+import org.bukkit.entity.Player;
+import org.bukkit.util.RayTraceResult;
+import org.bukkit.util.Vector;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.dredd.bulletcore.models.weapons.Weapon;
+import org.dredd.bulletcore.models.weapons.shooting.ShootingHandler;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.BulletRayTracer;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.EntityCandidates;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.HitboxHistory;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.LevelBlockSource;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.PenetrationCounter;
+import org.dredd.bulletcore.models.weapons.shooting.raytrace.ShootableEntities;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Simulates bullets of weapons with {@link WeaponBallistics} enabled as projectiles.
+ * <p>
+ * Bullets are not entities: their state is kept in pooled parallel arrays and advanced
+ * once per tick by {@link #tick()}. Each tick, the segment a bullet travels is traced for blocks
+ * and entities, and the bullet is removed on hit, when it reaches an unloaded chunk,
+ * or when its lifetime runs out. Removed bullets are replaced by the last one, so the arrays stay dense.
+ * <p>
+ * Block penetration is tracked per bullet across segments in {@value #PENETRATION_SLOTS} material slots.
+ * A bullet that penetrates more different materials than that is stopped.
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class BulletSimulator {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BulletSimulator() {}
+
+    // ----------< Constants >----------
+
+    /**
+     * Initial capacity of the bullet arrays.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Number of different penetrated materials tracked per bullet.
+     */
+    private static final int PENETRATION_SLOTS = 8;
+
+    // ----------< Bullet Storage >----------
+
+    private static double[] posX = new double[INITIAL_CAPACITY];
+    private static double[] posY = new double[INITIAL_CAPACITY];
+    private static double[] posZ = new double[INITIAL_CAPACITY];
+    private static double[] velX = new double[INITIAL_CAPACITY];
+    private static double[] velY = new double[INITIAL_CAPACITY];
+    private static double[] velZ = new double[INITIAL_CAPACITY];
+
+    /**
+     * Distance traveled by each bullet, used to place trail particles.
+     */
+    private static double[] traveled = new double[INITIAL_CAPACITY];
+
+    /**
+     * Number of ticks each bullet has been flying.
+     */
+    private static int[] age = new int[INITIAL_CAPACITY];
+
+    private static Player[] owner = new Player[INITIAL_CAPACITY];
+    private static Weapon[] weapon = new Weapon[INITIAL_CAPACITY];
+    private static World[] world = new World[INITIAL_CAPACITY];
+
+    /**
+     * Last block visited by each bullet, or {@link BulletRayTracer#NO_BLOCK}.
+     */
+    private static long[] lastBlock = new long[INITIAL_CAPACITY];
+
+    /**
+     * Number of ticks victims are rewound by for each bullet, or {@code -1} without lag compensation.
+     */
+    private static int[] rewind = new int[INITIAL_CAPACITY];
+
+    /**
+     * Penetrated material ordinals, {@value #PENETRATION_SLOTS} slots per bullet.
+     */
+    private static int[] penMaterials = new int[INITIAL_CAPACITY * PENETRATION_SLOTS];
+
+    /**
+     * Penetrated block counts, {@value #PENETRATION_SLOTS} slots per bullet.
+     */
+    private static int[] penCounts = new int[INITIAL_CAPACITY * PENETRATION_SLOTS];
+
+    /**
+     * Number of used penetration slots of each bullet.
+     */
+    private static int[] penUsed = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of bullets in flight.
+     */
+    private static int size;
+
+    // ----------< Reusable Objects >----------
+
+    private static final BulletRayTracer TRACER = new BulletRayTracer();
+
+    private static final EntityCandidates CANDIDATES = new EntityCandidates();
+
+    private static final LevelBlockSource BLOCKS = new LevelBlockSource();
+
+    private static final BulletPenetration PENETRATION = new BulletPenetration();
+
+    // ----------< Public API >----------
+
+    /**
+     * Launches the bullets of a fired shot.
+     *
+     * @param shooter    the player who fired
+     * @param weapon     the weapon used, must have ballistics enabled
+     * @param origin     the eye location of the player at the time of the shot
+     * @param directions the normalized direction of each bullet (pellet) as consecutive {@code x, y, z} components
+     * @param rewindTick the tick victims are rewound to, or {@link HitboxHistory#PRESENT}
+     */
+    public static void spawn(@NotNull Player shooter,
+                             @NotNull Weapon weapon,
+                             @NotNull Location origin,
+                             @NotNull double[] directions,
+                             int rewindTick) {
+        final double speed = weapon.ballistics.velocityPerTick;
+        final int rewindTicks = rewindTick == HitboxHistory.PRESENT ? -1 : Bukkit.getCurrentTick() - rewindTick;
+
+        for (int d = 0; d < directions.length; d += 3) {
+            if (size == posX.length) grow();
+
+            final int i = size++;
+            posX[i] = origin.getX();
+            posY[i] = origin.getY();
+            posZ[i] = origin.getZ();
+            velX[i] = directions[d] * speed;
+            velY[i] = directions[d + 1] * speed;
+            velZ[i] = directions[d + 2] * speed;
+            traveled[i] = 0.0D;
+            age[i] = 0;
+            BulletSimulator.owner[i] = shooter;
+            BulletSimulator.weapon[i] = weapon;
+            BulletSimulator.world[i] = origin.getWorld();
+            lastBlock[i] = BulletRayTracer.NO_BLOCK;
+            rewind[i] = rewindTicks;
+            penUsed[i] = 0;
+        }
+    }
+
+    /**
+     * Advances all bullets by one tick.
+     */
+    public static void tick() {
+        if (size == 0) return;
+
+        final ConfigManager config = ConfigManager.instance();
+
+        World currentWorld = null;
+        LevelBlockSource blocks = null;
+        ShootableEntities shootable = null;
+
+        int i = 0;
+        while (i < size) {
+            final World bulletWorld = world[i];
+            if (bulletWorld != currentWorld) {
+                currentWorld = bulletWorld;
+                blocks = BLOCKS.reset(((CraftWorld) bulletWorld).getHandle());
+                shootable = ShootableEntities.of(bulletWorld, config.raySize);
+            }
+
+            if (advance(i, blocks, shootable, config))
+                i++;
+            else
+                remove(i); // the last bullet is moved to i
+        }
+        BLOCKS.release();
+    }
+
+    /**
+     * Removes all bullets. Called when the plugin is reloaded or disabled.
+     */
+    public static void clear() {
+        Arrays.fill(owner, 0, size, null);
+        Arrays.fill(weapon, 0, size, null);
+        Arrays.fill(world, 0, size, null);
+        size = 0;
+    }
+
+    // ----------< Internal API >----------
+
+    /**
+     * Moves a single bullet along its path for one tick.
+     *
+     * @return {@code true} if the bullet is still flying; {@code false} if it should be removed
+     */
+    private static boolean advance(int i,
+                                   @NotNull LevelBlockSource blocks,
+                                   @NotNull ShootableEntities shootable,
+                                   @NotNull ConfigManager config) {
+        final Player shooter = owner[i];
+        if (!shooter.isOnline()) return false;
+
+        final Weapon bulletWeapon = weapon[i];
+        final World bulletWorld = world[i];
+        final int rewindTick = rewind[i] < 0 ? HitboxHistory.PRESENT : Bukkit.getCurrentTick() - rewind[i];
+
+        final double fromX = posX[i], fromY = posY[i], fromZ = posZ[i];
+        final double toX = fromX + velX[i], toY = fromY + velY[i], toZ = fromZ + velZ[i];
+        final double length = Math.sqrt(velX[i] * velX[i] + velY[i] * velY[i] + velZ[i] * velZ[i]);
+        final double dirX = velX[i] / length, dirY = velY[i] / length, dirZ = velZ[i] / length;
+
+        // blocks
+        PENETRATION.bullet = i;
+        final BlockHitResult blockHit = TRACER.traceSegment(
+            blocks, fromX, fromY, fromZ, toX, toY, toZ,
+            bulletWeapon.blocksPenetration, PENETRATION, lastBlock[i]
+        );
+        if (TRACER.reachedUnloadedChunk()) return false;
+        lastBlock[i] = TRACER.lastVisitedBlock();
+
+        double hitDistance = length;
+        if (blockHit != null) {
+            final Vec3 hitPos = blockHit.getLocation();
+            final double dx = hitPos.x - fromX, dy = hitPos.y - fromY, dz = hitPos.z - fromZ;
+            hitDistance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+
+        // entities, only up to the block hit
+        shootable.collect(Math.min(fromX, toX), Math.min(fromZ, toZ), Math.max(fromX, toX), Math.max(fromZ, toZ));
+        CANDIDATES.collectSegment(
+            shootable, shooter, fromX, fromY, fromZ,
+            fromX + dirX * hitDistance, fromY + dirY * hitDistance, fromZ + dirZ * hitDistance,
+            rewindTick
+        );
+        RayTraceResult result = CANDIDATES.rayTrace(fromX, fromY, fromZ, dirX, dirY, dirZ, hitDistance);
+        CANDIDATES.clear();
+        if (result != null) {
+            final Vector hitPos = result.getHitPosition();
+            final double dx = hitPos.getX() - fromX, dy = hitPos.getY() - fromY, dz = hitPos.getZ() - fromZ;
+            hitDistance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        } else if (blockHit != null) {
+            result = BulletRayTracer.toBukkitResult(bulletWorld, blockHit);
+        }
+
+        // trail
+        bulletWeapon.trailParticle.spawnSegment(
+            bulletWorld, fromX, fromY, fromZ, dirX, dirY, dirZ, traveled[i], hitDistance
+        );
+
+        if (result != null) {
+            ShootingHandler.applyHit(shooter, bulletWeapon, shooter.getEyeLocation(), bulletWorld, result, rewindTick, config);
+            return false;
+        }
+
+        // move on
+        posX[i] = toX;
+        posY[i] = toY;
+        posZ[i] = toZ;
+        velY[i] -= bulletWeapon.ballistics.gravityPerTick;
+        traveled[i] += length;
+        return ++age[i] < bulletWeapon.ballistics.maxLifetimeTicks;
+    }
+
+    /**
+     * Removes a bullet by moving the last bullet in its place.
+     */
+    private static void remove(int i) {
+        final int last = --size;
+        if (i != last) {
+            posX[i] = posX[last];
+            posY[i] = posY[last];
+            posZ[i] = posZ[last];
+            velX[i] = velX[last];
+            velY[i] = velY[last];
+            velZ[i] = velZ[last];
+            traveled[i] = traveled[last];
+            age[i] = age[last];
+            owner[i] = owner[last];
+            weapon[i] = weapon[last];
+            world[i] = world[last];
+            lastBlock[i] = lastBlock[last];
+            rewind[i] = rewind[last];
+            penUsed[i] = penUsed[last];
+            System.arraycopy(penMaterials, last * PENETRATION_SLOTS, penMaterials, i * PENETRATION_SLOTS, PENETRATION_SLOTS);
+            System.arraycopy(penCounts, last * PENETRATION_SLOTS, penCounts, i * PENETRATION_SLOTS, PENETRATION_SLOTS);
+        }
+        owner[last] = null;
+        weapon[last] = null;
+        world[last] = null;
+    }
+
+    /**
+     * Doubles the capacity of the bullet arrays.
+     */
+    private static void grow() {
+        final int capacity = posX.length << 1;
+        posX = Arrays.copyOf(posX, capacity);
+        posY = Arrays.copyOf(posY, capacity);
+        posZ = Arrays.copyOf(posZ, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        velZ = Arrays.copyOf(velZ, capacity);
+        traveled = Arrays.copyOf(traveled, capacity);
+        age = Arrays.copyOf(age, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+        weapon = Arrays.copyOf(weapon, capacity);
+        world = Arrays.copyOf(world, capacity);
+        lastBlock = Arrays.copyOf(lastBlock, capacity);
+        rewind = Arrays.copyOf(rewind, capacity);
+        penUsed = Arrays.copyOf(penUsed, capacity);
+        penMaterials = Arrays.copyOf(penMaterials, capacity * PENETRATION_SLOTS);
+        penCounts = Arrays.copyOf(penCounts, capacity * PENETRATION_SLOTS);
+    }
+
+    /**
+     * Penetration counter view over the slots of a single bullet.
+     */
+    private static final class BulletPenetration implements PenetrationCounter {
+
+        /**
+         * Index of the bullet being traced.
+         */
+        private int bullet;
+
+        @Override
+        public int count(int materialOrdinal) {
+            final int slot = find(materialOrdinal);
+            return slot < 0 ? 0 : penCounts[slot];
+        }
+
+        @Override
+        public int increment(int materialOrdinal) {
+            final int slot = find(materialOrdinal);
+            if (slot >= 0) return ++penCounts[slot];
+
+            final int used = penUsed[bullet];
+            if (used == PENETRATION_SLOTS) return Integer.MAX_VALUE; // out of slots: stops the bullet
+
+            final int newSlot = bullet * PENETRATION_SLOTS + used;
+            penMaterials[newSlot] = materialOrdinal;
+            penCounts[newSlot] = 1;
+            penUsed[bullet] = used + 1;
+            return 1;
+        }
+
+        /**
+         * Returns the slot of the given material, or {@code -1} if it was not penetrated yet.
+         */
+        private int find(int materialOrdinal) {
+            final int base = bullet * PENETRATION_SLOTS;
+            final int end = base + penUsed[bullet];
+            for (int slot = base; slot < end; slot++)
+                if (penMaterials[slot] == materialOrdinal) return slot;
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.dredd.bulletcore.models.weapons.shooting.ballistics;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Defines how the bullets of a weapon fly when they are simulated as projectiles
+ * instead of instant hitscan rays.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class WeaponBallistics {
+
+    // ----------< Static >----------
+
+    // -----< Loader >-----
+
+    /**
+     * Loads a {@link WeaponBallistics} from config, defaulting and clamping to the specified values.
+     *
+     * @param config the YAML configuration to load from
+     * @return a new {@link WeaponBallistics} instance
+     */
+    public static @NotNull WeaponBallistics load(@NotNull YamlConfiguration config) {
+        return new WeaponBallistics(config);
+    }
+
+
+    // ----------< Instance >----------
+
+    // -----< Attributes >-----
+
+    /**
+     * Whether bullets are simulated as projectiles.<br>
+     * If {@code false}, bullets are instant hitscan rays up to the weapon's max distance.
+     */
+    public final boolean enabled;
+
+    /**
+     * Initial bullet speed, in blocks per second.<br>
+     * <b>Allowed Range:</b> [1.0 – 2000.0]
+     */
+    public final double muzzleVelocity;
+
+    /**
+     * Downward acceleration applied to bullets, in blocks per second squared.<br>
+     * <b>Allowed Range:</b> [0.0 – 100.0]
+     */
+    public final double gravity;
+
+    /**
+     * Number of ticks a bullet flies before it is discarded.<br>
+     * <b>Allowed Range:</b> [1 – 200]
+     */
+    public final int maxLifetimeTicks;
+
+    /**
+     * The same as {@link #muzzleVelocity}, but converted to blocks per tick.
+     */
+    public final double velocityPerTick;
+
+    /**
+     * The same as {@link #gravity}, but converted to blocks per tick squared.
+     */
+    public final double gravityPerTick;
+
+    // -----< Construction >-----
+
+    /**
+     * Private constructor. Use {@link #load(YamlConfiguration)} instead.
+     */
+    private WeaponBallistics(@NotNull YamlConfiguration config) {
+        this.enabled = config.getBoolean("ballistics.enabled", false);
+        this.muzzleVelocity = Math.clamp(config.getDouble("ballistics.muzzleVelocity", 400.0D), 1.0D, 2000.0D);
+        this.gravity = Math.clamp(config.getDouble("ballistics.gravity", 9.81D), 0.0D, 100.0D);
+        this.maxLifetimeTicks = Math.clamp(config.getInt("ballistics.maxLifetimeTicks", 60), 1, 200);
+
+        this.velocityPerTick = muzzleVelocity / 20.0D;
+        this.gravityPerTick = gravity / 400.0D;
+    }
+}
@@ -0,0 +1,62 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.state.BlockState;
+import org.bukkit.Material;
+import org.bukkit.craftbukkit.util.CraftMagicNumbers;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Source of block states for {@link BulletRayTracer}.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public interface BlockSource {
+
+    /**
+     * Returned by {@link #collisionMaterial} for blocks in unloaded chunks.
+     */
+    int UNLOADED = -2;
+
+    /**
+     * Returned by {@link #collisionMaterial} for blocks bullets always pass through.
+     */
+    int PASSABLE = -1;
+
+    /**
+     * Returns the block state at the given position.
+     *
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @return the block state, or {@code null} if the chunk of the block is not loaded
+     */
+    @Nullable BlockState getBlockState(int x, int y, int z);
+
+    /**
+     * Returns the block getter used to compute block and fluid shapes.
+     *
+     * @return the block getter backed by this source
+     */
+    @NotNull BlockGetter shapeGetter();
+
+    /**
+     * Returns the material of the block at the given position, as far as bullets are concerned.
+     * <p>
+     * Sources may also return {@link #PASSABLE} for materials that bullets of every weapon pass through.
+     *
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @return the {@link Material#ordinal()} of the block, {@link #PASSABLE} for air,
+     * or {@link #UNLOADED} if the chunk of the block is not loaded
+     */
+    default int collisionMaterial(int x, int y, int z) {
+        final BlockState state = getBlockState(x, y, z);
+        if (state == null) return UNLOADED;
+        if (state.isAir()) return PASSABLE;
+        return CraftMagicNumbers.getMaterial(state.getBlock()).ordinal();
+    }
+}
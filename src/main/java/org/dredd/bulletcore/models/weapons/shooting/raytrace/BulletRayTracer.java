@@ -0,0 +1,392 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import org.bukkit.FluidCollisionMode;
+import org.bukkit.World;
+import org.bukkit.craftbukkit.block.CraftBlock;
+import org.bukkit.util.RayTraceResult;
+import org.bukkit.util.Vector;
+import org.dredd.bulletcore.models.weapons.WeaponBlocksPenetration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static org.dredd.bulletcore.models.weapons.WeaponBlocksPenetration.IGNORED;
+import static org.dredd.bulletcore.models.weapons.WeaponBlocksPenetration.STOPS;
+
+/**
+ * Traces bullets through the world.
+ * <p>
+ * Blocks are visited with an Amanatides–Woo voxel traversal that reads block states from a {@link BlockSource}
+ * and checks penetration against {@link WeaponBlocksPenetration}'s precomputed table.
+ * The traversal and the per-block collision mirror {@link World#rayTrace} with {@link FluidCollisionMode#ALWAYS}
+ * and {@code ignorePassableBlocks = false}, so the hit block, face and position are the same as the Bukkit ray tracer's.
+ * <p>
+ * Each instance holds its own scratch state, so it must only be used by one thread at a time.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class BulletRayTracer {
+
+    // ----------< Static >----------
+
+    /**
+     * Returned by {@link #visitBlock} when the traversal reaches an unloaded chunk.<br>
+     * Like the Bukkit ray tracer, the traversal stops there without a hit.
+     */
+    private static final BlockHitResult UNLOADED_CHUNK = BlockHitResult.miss(Vec3.ZERO, Direction.UP, BlockPos.ZERO);
+
+    /**
+     * Block position meaning "no block" in {@link #traceSegment} and {@link #lastVisitedBlock()}.
+     */
+    public static final long NO_BLOCK = Long.MIN_VALUE;
+
+    /**
+     * Converts a block hit to a Bukkit ray trace result.
+     *
+     * @param world the world of the hit, or {@code null} off the main thread to leave out the hit block
+     * @param hit   the block hit
+     * @return the Bukkit ray trace result of the hit
+     */
+    public static @NotNull RayTraceResult toBukkitResult(@Nullable World world,
+                                                         @NotNull BlockHitResult hit) {
+        final Vec3 hitPos = hit.getLocation();
+        final BlockPos hitBlockPos = hit.getBlockPos();
+        return new RayTraceResult(
+            new Vector(hitPos.x, hitPos.y, hitPos.z),
+            world == null ? null : world.getBlockAt(hitBlockPos.getX(), hitBlockPos.getY(), hitBlockPos.getZ()),
+            CraftBlock.notchToBlockFace(hit.getDirection())
+        );
+    }
+
+    /**
+     * Adds the hit block to a block hit traced off the main thread. Must be called on the main thread.
+     *
+     * @param world    the world of the hit
+     * @param result   the block hit without hit block
+     * @param blockPos position ({@link BlockPos#asLong}) of the hit block
+     * @return the Bukkit ray trace result of the hit
+     */
+    public static @NotNull RayTraceResult withHitBlock(@NotNull World world,
+                                                       @NotNull RayTraceResult result,
+                                                       long blockPos) {
+        return new RayTraceResult(
+            result.getHitPosition(),
+            world.getBlockAt(BlockPos.getX(blockPos), BlockPos.getY(blockPos), BlockPos.getZ(blockPos)),
+            result.getHitBlockFace()
+        );
+    }
+
+
+    // ----------< Instance >----------
+
+    // -----< Scratch State >-----
+
+    /**
+     * Penetration counter of the currently traced hitscan pellet.
+     */
+    private final MaterialPenetrationCounter pelletCounter = new MaterialPenetrationCounter();
+
+    /**
+     * Reusable position of the currently visited block.
+     */
+    private final BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
+
+    /**
+     * Start and end of the currently traced segment.
+     */
+    private double fromX, fromY, fromZ, toX, toY, toZ;
+
+    /**
+     * Start and end of the currently traced segment as vectors, created only when a block shape has to be clipped.
+     */
+    private Vec3 fromVec, toVec;
+
+    /**
+     * Whether the last traced segment reached an unloaded chunk.
+     */
+    private boolean reachedUnloadedChunk;
+
+    /**
+     * Position ({@link BlockPos#asLong}) of the last block visited by the last traced segment.
+     */
+    private long lastVisitedBlock;
+
+    /**
+     * Position ({@link BlockPos#asLong}) of the block hit by the last {@link #rayTrace}, or {@link #NO_BLOCK}.
+     */
+    private long lastHitBlock = NO_BLOCK;
+
+    // -----< Public API >-----
+
+    /**
+     * Traces a single bullet (pellet) for blocks and entities and returns the closest hit.
+     * <p>
+     * Blocks of {@link WeaponBlocksPenetration#IGNORED} materials are skipped.
+     * Blocks of penetrable materials are skipped until the bullet has gone through
+     * more blocks of that material than the weapon allows.
+     *
+     * @param world       the world to trace in, or {@code null} off the main thread;
+     *                    block hits then have no hit block, which is given by {@link #lastHitBlock()} instead
+     * @param blocks      the source of the world's blocks
+     * @param startX      the x coordinate of the start position of the bullet
+     * @param startY      the y coordinate of the start position of the bullet
+     * @param startZ      the z coordinate of the start position of the bullet
+     * @param dirX        the x component of the normalized direction of the bullet
+     * @param dirY        the y component of the normalized direction of the bullet
+     * @param dirZ        the z component of the normalized direction of the bullet
+     * @param maxDistance the maximum distance the bullet can travel
+     * @param penetration the block penetration settings of the weapon used
+     * @param candidates  the entities that can be hit, collected for the whole fire cycle
+     * @return the closest ray trace hit result, or {@code null} if there is no hit
+     */
+    public @Nullable RayTraceResult rayTrace(@Nullable World world,
+                                             @NotNull BlockSource blocks,
+                                             double startX, double startY, double startZ,
+                                             double dirX, double dirY, double dirZ,
+                                             double maxDistance,
+                                             @NotNull WeaponBlocksPenetration penetration,
+                                             @NotNull EntityCandidates candidates) {
+        lastHitBlock = NO_BLOCK;
+        if (maxDistance <= 0.0D) return null;
+
+        pelletCounter.reset();
+        final BlockHitResult blockHit = traceSegment(
+            blocks,
+            startX, startY, startZ,
+            startX + dirX * maxDistance, startY + dirY * maxDistance, startZ + dirZ * maxDistance,
+            penetration, pelletCounter, NO_BLOCK
+        );
+
+        // limit the entity search range if there is a block hit
+        double blockHitDistance = maxDistance;
+        if (blockHit != null) {
+            final Vec3 hitPos = blockHit.getLocation();
+            final double dx = hitPos.x - startX, dy = hitPos.y - startY, dz = hitPos.z - startZ;
+            blockHitDistance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+
+        final RayTraceResult entityHit = candidates.rayTrace(startX, startY, startZ, dirX, dirY, dirZ, blockHitDistance);
+        if (blockHit == null) return entityHit;
+
+        // pick the closer hit
+        if (entityHit != null) {
+            final Vector entityHitPos = entityHit.getHitPosition();
+            final double dx = entityHitPos.getX() - startX, dy = entityHitPos.getY() - startY, dz = entityHitPos.getZ() - startZ;
+            if (dx * dx + dy * dy + dz * dz < blockHitDistance * blockHitDistance) return entityHit;
+        }
+
+        lastHitBlock = blockHit.getBlockPos().asLong();
+        return toBukkitResult(world, blockHit);
+    }
+
+    /**
+     * @return the position ({@link BlockPos#asLong}) of the block hit by the last {@link #rayTrace},
+     * or {@link #NO_BLOCK} if it hit no block
+     */
+    public long lastHitBlock() {
+        return lastHitBlock;
+    }
+
+    /**
+     * Traces a single segment of a bullet's path for blocks only.
+     * <p>
+     * Used to advance simulated bullets tick by tick: the penetration counter is kept by the caller
+     * between segments, and {@code uncountedBlock} should be the {@link #lastVisitedBlock()} of the
+     * previous segment, so the block shared by two consecutive segments is not counted twice.
+     *
+     * @param blocks         the source of the world's blocks
+     * @param penetration    the block penetration settings of the weapon used
+     * @param counter        the penetrated blocks of the bullet
+     * @param uncountedBlock position ({@link BlockPos#asLong}) of a block not to count as penetrated, or {@link #NO_BLOCK}
+     * @return the block hit, or {@code null} if no block stopped the bullet on this segment
+     */
+    public @Nullable BlockHitResult traceSegment(@NotNull BlockSource blocks,
+                                                 double fromX, double fromY, double fromZ,
+                                                 double toX, double toY, double toZ,
+                                                 @NotNull WeaponBlocksPenetration penetration,
+                                                 @NotNull PenetrationCounter counter,
+                                                 long uncountedBlock) {
+        this.fromX = fromX;
+        this.fromY = fromY;
+        this.fromZ = fromZ;
+        this.toX = toX;
+        this.toY = toY;
+        this.toZ = toZ;
+        this.fromVec = null;
+        this.toVec = null;
+        this.reachedUnloadedChunk = false;
+        this.lastVisitedBlock = NO_BLOCK;
+
+        final BlockHitResult hit = traverseBlocks(blocks, penetration, counter, uncountedBlock);
+        if (hit == UNLOADED_CHUNK) {
+            reachedUnloadedChunk = true;
+            return null;
+        }
+        return hit;
+    }
+
+    /**
+     * Returns whether the last traced segment reached an unloaded chunk.<br>
+     * Like the Bukkit ray tracer, the traversal stops there without a hit.
+     *
+     * @return {@code true} if the last segment stopped at an unloaded chunk
+     */
+    public boolean reachedUnloadedChunk() {
+        return reachedUnloadedChunk;
+    }
+
+    /**
+     * Returns the position of the last block visited by the last traced segment.
+     *
+     * @return the block position as {@link BlockPos#asLong}, or {@link #NO_BLOCK}
+     */
+    public long lastVisitedBlock() {
+        return lastVisitedBlock;
+    }
+
+    // -----< Traversal >-----
+
+    /**
+     * Visits every block the current segment passes through, in order,
+     * until one of them is hit (Amanatides–Woo).
+     * <p>
+     * Mirrors {@code BlockGetter#traverseBlocks}, including its {@code 1.0E-7} end-point nudges.
+     *
+     * @return the first block hit, {@link #UNLOADED_CHUNK}, or {@code null} if nothing was hit
+     */
+    private @Nullable BlockHitResult traverseBlocks(@NotNull BlockSource blocks,
+                                                    @NotNull WeaponBlocksPenetration penetration,
+                                                    @NotNull PenetrationCounter counter,
+                                                    long uncountedBlock) {
+        if (fromX == toX && fromY == toY && fromZ == toZ) return null;
+
+        final double endX = Mth.lerp(-1.0E-7, toX, fromX);
+        final double endY = Mth.lerp(-1.0E-7, toY, fromY);
+        final double endZ = Mth.lerp(-1.0E-7, toZ, fromZ);
+        final double startX = Mth.lerp(-1.0E-7, fromX, toX);
+        final double startY = Mth.lerp(-1.0E-7, fromY, toY);
+        final double startZ = Mth.lerp(-1.0E-7, fromZ, toZ);
+
+        int x = Mth.floor(startX);
+        int y = Mth.floor(startY);
+        int z = Mth.floor(startZ);
+
+        final boolean countFirst = uncountedBlock == NO_BLOCK || uncountedBlock != BlockPos.asLong(x, y, z);
+        final BlockHitResult first = visitBlock(blocks, x, y, z, penetration, counter, countFirst);
+        if (first != null) return first;
+
+        final double dx = endX - startX;
+        final double dy = endY - startY;
+        final double dz = endZ - startZ;
+        final int stepX = Mth.sign(dx);
+        final int stepY = Mth.sign(dy);
+        final int stepZ = Mth.sign(dz);
+
+        // ray-parameter distance between two voxel boundaries on each axis
+        final double deltaX = stepX == 0 ? Double.MAX_VALUE : stepX / dx;
+        final double deltaY = stepY == 0 ? Double.MAX_VALUE : stepY / dy;
+        final double deltaZ = stepZ == 0 ? Double.MAX_VALUE : stepZ / dz;
+
+        // ray-parameter of the next voxel boundary on each axis
+        double maxX = deltaX * (stepX > 0 ? 1.0D - Mth.frac(startX) : Mth.frac(startX));
+        double maxY = deltaY * (stepY > 0 ? 1.0D - Mth.frac(startY) : Mth.frac(startY));
+        double maxZ = deltaZ * (stepZ > 0 ? 1.0D - Mth.frac(startZ) : Mth.frac(startZ));
+
+        while (maxX <= 1.0D || maxY <= 1.0D || maxZ <= 1.0D) {
+            if (maxX < maxY) {
+                if (maxX < maxZ) {
+                    x += stepX;
+                    maxX += deltaX;
+                } else {
+                    z += stepZ;
+                    maxZ += deltaZ;
+                }
+            } else if (maxY < maxZ) {
+                y += stepY;
+                maxY += deltaY;
+            } else {
+                z += stepZ;
+                maxZ += deltaZ;
+            }
+
+            final BlockHitResult hit = visitBlock(blocks, x, y, z, penetration, counter, true);
+            if (hit != null) return hit;
+        }
+
+        return null;
+    }
+
+    /**
+     * Tests a single block against the bullet.
+     *
+     * @param count whether to count this block as penetrated if the bullet goes through it
+     * @return the block hit, {@link #UNLOADED_CHUNK}, or {@code null} if the bullet goes through this block
+     */
+    private @Nullable BlockHitResult visitBlock(@NotNull BlockSource blocks,
+                                                int x, int y, int z,
+                                                @NotNull WeaponBlocksPenetration penetration,
+                                                @NotNull PenetrationCounter counter,
+                                                boolean count) {
+        final int materialOrdinal = blocks.collisionMaterial(x, y, z);
+        if (materialOrdinal == BlockSource.UNLOADED) return UNLOADED_CHUNK;
+
+        lastVisitedBlock = BlockPos.asLong(x, y, z);
+        if (materialOrdinal == BlockSource.PASSABLE) return null;
+        if (!stopsBullet(materialOrdinal, penetration, counter, count)) return null;
+
+        // only blocks that stop the bullet need their state, to clip against the block shape
+        final BlockState state = blocks.getBlockState(x, y, z);
+        if (state == null) return UNLOADED_CHUNK;
+
+        if (fromVec == null) {
+            fromVec = new Vec3(fromX, fromY, fromZ);
+            toVec = new Vec3(toX, toY, toZ);
+        }
+
+        final BlockGetter getter = blocks.shapeGetter();
+        final BlockPos pos = blockPos.set(x, y, z);
+
+        final BlockHitResult blockHit = getter.clipWithInteractionOverride(fromVec, toVec, pos, state.getShape(getter, pos), state);
+
+        final FluidState fluid = state.getFluidState();
+        final BlockHitResult fluidHit = fluid.isEmpty() ? null : fluid.getShape(getter, pos).clip(fromVec, toVec, pos);
+
+        if (fluidHit == null) return blockHit;
+        if (blockHit == null) return fluidHit;
+
+        final double blockDistanceSq = fromVec.distanceToSqr(blockHit.getLocation());
+        final double fluidDistanceSq = fromVec.distanceToSqr(fluidHit.getLocation());
+        return blockDistanceSq <= fluidDistanceSq ? blockHit : fluidHit;
+    }
+
+    // -----< Penetration >-----
+
+    /**
+     * Decides whether a block of the given material stops the bullet.
+     *
+     * @param materialOrdinal the ordinal of the block material
+     * @param penetration     the block penetration settings of the weapon used
+     * @param counter         the penetrated blocks of the bullet
+     * @param count           whether to count one more penetrated block of a penetrable material
+     * @return {@code true} if this block will stop the bullet, {@code false} if the bullet goes through
+     */
+    private static boolean stopsBullet(int materialOrdinal,
+                                       @NotNull WeaponBlocksPenetration penetration,
+                                       @NotNull PenetrationCounter counter,
+                                       boolean count) {
+        final int limit = penetration.getCollisionLimit(materialOrdinal);
+        if (limit == IGNORED) return false;
+        if (limit == STOPS) return true;
+
+        final int penetrated = count ? counter.increment(materialOrdinal) : counter.count(materialOrdinal);
+        return penetrated > limit;
+    }
+}
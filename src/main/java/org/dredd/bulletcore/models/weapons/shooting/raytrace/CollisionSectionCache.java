@@ -0,0 +1,337 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.craftbukkit.CraftWorld;
+import org.bukkit.craftbukkit.util.CraftMagicNumbers;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.dredd.bulletcore.config.materials.MaterialsManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static org.dredd.bulletcore.models.weapons.shooting.raytrace.BlockSource.PASSABLE;
+
+/**
+ * Cache of the bullet-relevant material of every block, per chunk section of 16×16×16 blocks.
+ * <p>
+ * A section is built on the first bullet traversal through it and holds a bitset of the blocks bullets always
+ * pass through (air and {@link MaterialsManager#isIgnored ignored} materials) and a small palette of the
+ * materials of all other blocks, so traversing a cached section needs neither block states nor material lookups.
+ * <p>
+ * Sections are dropped when a block in or next to them changes (see {@code BlockChangeListener}),
+ * when their chunk or world is unloaded, and after {@link ConfigManager#collisionCacheMaxAgeTicks},
+ * which bounds how long changes made without events stay unnoticed. Expired sections are swept at the end of the tick.
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class CollisionSectionCache {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private CollisionSectionCache() {}
+
+    // ----------< Constants >----------
+
+    /**
+     * Number of blocks in a section.
+     */
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    /**
+     * Maximum number of distinct materials in a cached section, so palette indices fit in a byte.
+     */
+    private static final int MAX_PALETTE_SIZE = 256;
+
+    /**
+     * Palette index of materials bullets always pass through.
+     */
+    private static final int PASSABLE_INDEX = -1;
+
+    /**
+     * Bitset shared by all sections bullets pass through entirely.
+     */
+    private static final long[] ALL_PASSABLE = new long[SECTION_VOLUME / Long.SIZE];
+
+    static {
+        Arrays.fill(ALL_PASSABLE, -1L);
+    }
+
+    // ----------< Storage >----------
+
+    /**
+     * Cached sections of each world by {@link SectionPos#asLong}.
+     */
+    private static final Reference2ObjectOpenHashMap<ServerLevel, Long2ObjectOpenHashMap<Section>> WORLDS =
+        new Reference2ObjectOpenHashMap<>();
+
+    /**
+     * Palette index of each block type of the section being built.
+     */
+    private static final Reference2IntOpenHashMap<Block> PALETTE_INDICES = new Reference2IntOpenHashMap<>();
+
+    static {
+        PALETTE_INDICES.defaultReturnValue(Integer.MIN_VALUE);
+    }
+
+    /**
+     * Palette of the section being built.
+     */
+    private static final int[] PALETTE = new int[MAX_PALETTE_SIZE];
+
+    /**
+     * Server tick of the last sweep of expired sections.
+     */
+    private static int lastSweepTick;
+
+    // ----------< Stats >----------
+
+    private static long lookups;
+
+    private static long builds;
+
+    // ----------< Public API >----------
+
+    /**
+     * Drops the cached sections around the given block. Called when the block changes.
+     * <p>
+     * The sections of all neighbouring blocks are dropped too, because many changes affect more than one block
+     * (doors, beds, tall plants, pistons) while only a single block is reported.
+     *
+     * @param world the world of the block
+     * @param x     the block x coordinate
+     * @param y     the block y coordinate
+     * @param z     the block z coordinate
+     */
+    public static void invalidate(@NotNull World world, int x, int y, int z) {
+        final Long2ObjectOpenHashMap<Section> sections = WORLDS.get(((CraftWorld) world).getHandle());
+        if (sections == null || sections.isEmpty()) return;
+
+        for (int sectionX = (x - 1) >> 4; sectionX <= (x + 1) >> 4; sectionX++)
+            for (int sectionY = (y - 1) >> 4; sectionY <= (y + 1) >> 4; sectionY++)
+                for (int sectionZ = (z - 1) >> 4; sectionZ <= (z + 1) >> 4; sectionZ++)
+                    sections.remove(SectionPos.asLong(sectionX, sectionY, sectionZ));
+    }
+
+    /**
+     * Drops the cached section of the given block only. Called for every neighbour update,
+     * so it costs a single map lookup, and nothing is done while the world has no cached sections.
+     *
+     * @param world the world of the block
+     * @param x     the block x coordinate
+     * @param y     the block y coordinate
+     * @param z     the block z coordinate
+     */
+    public static void invalidateSection(@NotNull World world, int x, int y, int z) {
+        final Long2ObjectOpenHashMap<Section> sections = WORLDS.get(((CraftWorld) world).getHandle());
+        if (sections == null || sections.isEmpty()) return;
+
+        sections.remove(SectionPos.asLong(x >> 4, y >> 4, z >> 4));
+    }
+
+    /**
+     * Drops the cached sections of the given chunk. Called when the chunk is unloaded.
+     *
+     * @param chunk the chunk
+     */
+    public static void invalidateChunk(@NotNull Chunk chunk) {
+        final World world = chunk.getWorld();
+        final Long2ObjectOpenHashMap<Section> sections = WORLDS.get(((CraftWorld) world).getHandle());
+        if (sections == null || sections.isEmpty()) return;
+
+        final int maxSectionY = (world.getMaxHeight() - 1) >> 4;
+        for (int sectionY = world.getMinHeight() >> 4; sectionY <= maxSectionY; sectionY++)
+            sections.remove(SectionPos.asLong(chunk.getX(), sectionY, chunk.getZ()));
+    }
+
+    /**
+     * Drops the cached sections of the given world. Called when the world is unloaded.
+     *
+     * @param world the world
+     */
+    public static void invalidateWorld(@NotNull World world) {
+        WORLDS.remove(((CraftWorld) world).getHandle());
+    }
+
+    /**
+     * Drops expired sections, so sections no bullet passes through anymore do not stay cached.<br>
+     * Called at the end of each tick, sweeps once per {@link ConfigManager#collisionCacheMaxAgeTicks}.
+     */
+    public static void tick() {
+        final int maxAge = ConfigManager.instance().collisionCacheMaxAgeTicks;
+        if (maxAge <= 0 || WORLDS.isEmpty()) return;
+
+        final int tick = Bukkit.getCurrentTick();
+        if (tick - lastSweepTick < maxAge) return;
+        lastSweepTick = tick;
+
+        for (final Long2ObjectOpenHashMap<Section> sections : WORLDS.values())
+            sections.values().removeIf(section -> expired(section, tick));
+    }
+
+    /**
+     * Drops all cached sections. Called when the plugin is reloaded or disabled, so ignored materials can change.
+     */
+    public static void clear() {
+        WORLDS.clear();
+        lastSweepTick = 0;
+        lookups = 0L;
+        builds = 0L;
+    }
+
+    // -----< Stats >-----
+
+    /**
+     * @return the number of cached sections in all worlds
+     */
+    public static int cachedSections() {
+        int count = 0;
+        for (final Long2ObjectOpenHashMap<Section> sections : WORLDS.values())
+            count += sections.size();
+        return count;
+    }
+
+    /**
+     * @return the number of section lookups since the last reload
+     */
+    public static long lookups() {
+        return lookups;
+    }
+
+    /**
+     * @return the number of sections built since the last reload
+     */
+    public static long builds() {
+        return builds;
+    }
+
+    // ----------< Package API >----------
+
+    /**
+     * Returns the cached sections of the given world, creating an empty map on first use.
+     */
+    static @NotNull Long2ObjectOpenHashMap<Section> sectionsOf(@NotNull ServerLevel level) {
+        return WORLDS.computeIfAbsent(level, k -> new Long2ObjectOpenHashMap<>());
+    }
+
+    /**
+     * Returns the cached section at the given position, building it if it is missing or outdated.
+     *
+     * @param sections the cached sections of the world
+     * @param key      the {@link SectionPos#asLong} of the section
+     * @param source   the current chunk section at this position
+     * @param tick     the current server tick
+     * @return the cached section, or {@code null} if this section can not be cached
+     */
+    static @Nullable Section get(@NotNull Long2ObjectOpenHashMap<Section> sections,
+                                 long key,
+                                 @NotNull LevelChunkSection source,
+                                 int tick) {
+        lookups++;
+        Section section = sections.get(key);
+
+        if (section == null || section.source != source || expired(section, tick)) {
+            section = build(source, tick);
+            sections.put(key, section);
+            builds++;
+        }
+
+        return section.passable == null ? null : section;
+    }
+
+    // ----------< Internal API >----------
+
+    /**
+     * Checks whether the given section is older than the configured maximum age.
+     */
+    private static boolean expired(@NotNull Section section, int tick) {
+        final int maxAge = ConfigManager.instance().collisionCacheMaxAgeTicks;
+        return maxAge > 0 && tick - section.builtTick > maxAge;
+    }
+
+    /**
+     * Builds the cached section of the given chunk section.
+     */
+    private static @NotNull Section build(@NotNull LevelChunkSection source, int tick) {
+        final MaterialsManager materials = MaterialsManager.instance();
+        final long[] passable = new long[SECTION_VOLUME / Long.SIZE];
+        final byte[] indices = new byte[SECTION_VOLUME];
+        int paletteSize = 0;
+
+        PALETTE_INDICES.clear();
+        for (int index = 0; index < SECTION_VOLUME; index++) {
+            final BlockState state = source.getBlockState(index & 15, index >>> 8, (index >>> 4) & 15);
+            if (state.isAir()) {
+                passable[index >>> 6] |= 1L << index;
+                continue;
+            }
+
+            final Block block = state.getBlock();
+            int paletteIndex = PALETTE_INDICES.getInt(block);
+            if (paletteIndex == Integer.MIN_VALUE) {
+                final Material material = CraftMagicNumbers.getMaterial(block);
+                if (materials.isIgnored(material)) {
+                    paletteIndex = PASSABLE_INDEX;
+                } else {
+                    if (paletteSize == MAX_PALETTE_SIZE) return new Section(source, tick, null, null, null);
+                    paletteIndex = paletteSize;
+                    PALETTE[paletteSize++] = material.ordinal();
+                }
+                PALETTE_INDICES.put(block, paletteIndex);
+            }
+
+            if (paletteIndex == PASSABLE_INDEX)
+                passable[index >>> 6] |= 1L << index;
+            else
+                indices[index] = (byte) paletteIndex;
+        }
+
+        if (paletteSize == 0) return new Section(source, tick, ALL_PASSABLE, null, null);
+        return new Section(source, tick, passable, indices, Arrays.copyOf(PALETTE, paletteSize));
+    }
+
+    // ----------< Section >----------
+
+    /**
+     * Bullet-relevant materials of the blocks of one chunk section, indexed by {@code (y << 8) | (z << 4) | x}.
+     *
+     * @param source    the chunk section this was built from, used to detect reloaded chunks
+     * @param builtTick the server tick this was built at
+     * @param passable  bitset of the blocks bullets always pass through, or {@code null} if the section
+     *                  has too many distinct materials and is read from block states instead
+     * @param indices   palette index of each other block, or {@code null} if all blocks are passable
+     * @param palette   material ordinals of the palette, or {@code null} if all blocks are passable
+     */
+    record Section(@NotNull LevelChunkSection source,
+                   int builtTick,
+                   long @Nullable [] passable,
+                   byte @Nullable [] indices,
+                   int @Nullable [] palette) {
+
+        /**
+         * Returns the material of the block at the given position inside this section.
+         *
+         * @return the {@link Material#ordinal()} of the block, or {@link BlockSource#PASSABLE}
+         */
+        int material(int x, int y, int z) {
+            final int index = (y << 8) | (z << 4) | x;
+            if ((passable[index >>> 6] & (1L << index)) != 0L) return PASSABLE;
+            return palette[indices[index] & 0xFF];
+        }
+    }
+}
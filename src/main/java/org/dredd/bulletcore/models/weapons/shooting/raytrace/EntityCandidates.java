@@ -0,0 +1,457 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.util.Arrays;
+
+import org.bukkit.Location;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Entity;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.RayTraceResult;
+import org.bukkit.util.Vector;
+import org.dredd.bulletcore.BulletCore;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Entities that can be hit by any pellet of a single fire cycle.
+ * <p>
+ * Candidates are collected once from the {@link ShootableEntities} grid cells any pellet ray passes through (broad phase)
+ * and every pellet is then tested only against this list (narrow phase).<br>
+ * Hitboxes are stored as flat arrays and tested with the same slab test as
+ * {@link BoundingBox#rayTrace}, so the results are identical to
+ * {@code World#rayTraceEntities}.<br>
+ * If {@link ConfigManager#simdEntityHits} is enabled and the server runs with {@code --add-modules jdk.incubator.vector},
+ * larger candidate lists are tested several hitboxes at a time by the {@link EntityHitKernel SIMD kernel}.<br>
+ * With lag compensation, players are collected with their {@link HitboxHistory hitbox} at the rewind tick.
+ * <p>
+ * Instances are reusable. Collecting reads the {@link ShootableEntities} grid and the {@link HitboxHistory},
+ * so it must only be done on the main thread; the collected candidates are then only read by
+ * {@link #rayTrace}, which may run on another thread (e.g., a shot worker), one thread at a time.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class EntityCandidates {
+
+    // ----------< Static >----------
+
+    /**
+     * Initial capacity of the candidate arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Block faces indexed by the face ids used in the slab test.
+     */
+    private static final BlockFace[] FACES = {
+        BlockFace.WEST, BlockFace.EAST,
+        BlockFace.DOWN, BlockFace.UP,
+        BlockFace.NORTH, BlockFace.SOUTH
+    };
+
+    /**
+     * Whether the {@code jdk.incubator.vector} module is available, so the {@link EntityHitKernel} can be used.
+     */
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * Minimum number of candidates tested by the {@link EntityHitKernel}; smaller lists are tested one by one.
+     */
+    private static final int MIN_VECTORIZED_SIZE = 8;
+
+    /**
+     * Whether larger candidate lists are tested by the {@link EntityHitKernel}.<br>
+     * Only changed on the main thread while no shot is handed to a worker.
+     */
+    private static boolean kernelEnabled;
+
+    /**
+     * Enables or disables the {@link EntityHitKernel}. Called when the configuration is (re)loaded.
+     * <p>
+     * The kernel stays disabled if the {@code jdk.incubator.vector} module is not available.
+     *
+     * @param enabled whether to use the kernel, see {@link ConfigManager#simdEntityHits}
+     */
+    public static void setKernelEnabled(boolean enabled) {
+        if (enabled && !VECTORIZED)
+            BulletCore.logError("simd-entity-hits requires starting the server with --add-modules jdk.incubator.vector; it stays disabled.");
+        kernelEnabled = enabled && VECTORIZED;
+    }
+
+
+    // ----------< Instance >----------
+
+    // -----< Attributes >-----
+
+    private Entity[] entities = new Entity[INITIAL_CAPACITY];
+    private double[] minX = new double[INITIAL_CAPACITY];
+    private double[] minY = new double[INITIAL_CAPACITY];
+    private double[] minZ = new double[INITIAL_CAPACITY];
+    private double[] maxX = new double[INITIAL_CAPACITY];
+    private double[] maxY = new double[INITIAL_CAPACITY];
+    private double[] maxZ = new double[INITIAL_CAPACITY];
+
+    /**
+     * Number of valid candidates.
+     */
+    private int size;
+
+    /**
+     * Tick players are rewound to by the current collection, or {@link HitboxHistory#PRESENT}.
+     */
+    private int rewindTick = HitboxHistory.PRESENT;
+
+    /**
+     * Distance and face id of the nearest hit found by the last {@link #scan}.
+     */
+    private double hitT;
+    private int hitFace;
+
+    // -----< Collection >-----
+
+    /**
+     * Replaces the current candidates with all entities that may be hit by any of the given rays.
+     *
+     * @param shootable   the spatial hash of shootable entities in the world of the rays
+     * @param shooter     the entity that fired the rays, it is never a candidate
+     * @param start       the start position shared by all rays
+     * @param directions  the normalized directions of the rays as consecutive {@code x, y, z} components
+     * @param maxDistance the maximum distance of the rays
+     * @param rewindTick  the tick players are rewound to ({@link HitboxHistory#rewindTick}),
+     *                    or {@link HitboxHistory#PRESENT}
+     */
+    public void collect(@NotNull ShootableEntities shootable,
+                        @NotNull Entity shooter,
+                        @NotNull Location start,
+                        @NotNull double[] directions,
+                        double maxDistance,
+                        int rewindTick) {
+        clear();
+        if (shootable.size == 0 || maxDistance < 0.0D) return;
+
+        this.rewindTick = rewindTick;
+        shootable.beginQuery();
+
+        final double startX = start.getX(), startY = start.getY(), startZ = start.getZ();
+        for (int i = 0; i < directions.length; i += 3) {
+            collectAlongSegment(
+                shootable, shooter,
+                startX, startY, startZ,
+                startX + directions[i] * maxDistance,
+                startY + directions[i + 1] * maxDistance,
+                startZ + directions[i + 2] * maxDistance
+            );
+        }
+    }
+
+    /**
+     * Replaces the current candidates with all entities that may be hit along the given segment.
+     *
+     * @param shootable  the spatial hash of shootable entities in the world of the segment
+     * @param shooter    the entity that fired the bullet, it is never a candidate
+     * @param rewindTick the tick players are rewound to, or {@link HitboxHistory#PRESENT}
+     */
+    public void collectSegment(@NotNull ShootableEntities shootable,
+                               @NotNull Entity shooter,
+                               double fromX, double fromY, double fromZ,
+                               double toX, double toY, double toZ,
+                               int rewindTick) {
+        clear();
+        if (shootable.size == 0) return;
+
+        this.rewindTick = rewindTick;
+        shootable.beginQuery();
+        collectAlongSegment(shootable, shooter, fromX, fromY, fromZ, toX, toY, toZ);
+    }
+
+    /**
+     * Adds all entities in the grid cells the given segment passes through.
+     */
+    private void collectAlongSegment(@NotNull ShootableEntities shootable,
+                                     @NotNull Entity shooter,
+                                     double fromX, double fromY, double fromZ,
+                                     double toX, double toY, double toZ) {
+        // positions in cell units
+        final double startX = fromX / ShootableEntities.CELL_SIZE;
+        final double startY = fromY / ShootableEntities.CELL_SIZE;
+        final double startZ = fromZ / ShootableEntities.CELL_SIZE;
+        final double dx = (toX - fromX) / ShootableEntities.CELL_SIZE;
+        final double dy = (toY - fromY) / ShootableEntities.CELL_SIZE;
+        final double dz = (toZ - fromZ) / ShootableEntities.CELL_SIZE;
+
+        int x = (int) Math.floor(startX);
+        int y = (int) Math.floor(startY);
+        int z = (int) Math.floor(startZ);
+
+        final int stepX = dx > 0.0D ? 1 : dx < 0.0D ? -1 : 0;
+        final int stepY = dy > 0.0D ? 1 : dy < 0.0D ? -1 : 0;
+        final int stepZ = dz > 0.0D ? 1 : dz < 0.0D ? -1 : 0;
+
+        final double deltaX = stepX == 0 ? Double.MAX_VALUE : stepX / dx;
+        final double deltaY = stepY == 0 ? Double.MAX_VALUE : stepY / dy;
+        final double deltaZ = stepZ == 0 ? Double.MAX_VALUE : stepZ / dz;
+
+        double maxX = stepX == 0 ? Double.MAX_VALUE : deltaX * (stepX > 0 ? x + 1 - startX : startX - x);
+        double maxY = stepY == 0 ? Double.MAX_VALUE : deltaY * (stepY > 0 ? y + 1 - startY : startY - y);
+        double maxZ = stepZ == 0 ? Double.MAX_VALUE : deltaZ * (stepZ > 0 ? z + 1 - startZ : startZ - z);
+
+        // the number of cell boundaries crossed is known up front
+        int steps = Math.abs((int) Math.floor(startX + dx) - x)
+            + Math.abs((int) Math.floor(startY + dy) - y)
+            + Math.abs((int) Math.floor(startZ + dz) - z);
+
+        collectCell(shootable, shooter, x, y, z);
+        while (steps-- > 0) {
+            if (maxX < maxY) {
+                if (maxX < maxZ) {
+                    x += stepX;
+                    maxX += deltaX;
+                } else {
+                    z += stepZ;
+                    maxZ += deltaZ;
+                }
+            } else if (maxY < maxZ) {
+                y += stepY;
+                maxY += deltaY;
+            } else {
+                z += stepZ;
+                maxZ += deltaZ;
+            }
+            collectCell(shootable, shooter, x, y, z);
+        }
+    }
+
+    /**
+     * Adds all entities of a single grid cell that were not added yet.
+     */
+    private void collectCell(@NotNull ShootableEntities shootable,
+                             @NotNull Entity shooter,
+                             int cellX, int cellY, int cellZ) {
+        for (int entry = shootable.firstEntry(ShootableEntities.cellKey(cellX, cellY, cellZ));
+             entry != ShootableEntities.NO_ENTRY;
+             entry = shootable.entryNext[entry]) {
+            final int i = shootable.entryEntity[entry];
+            if (!shootable.markReported(i)) continue;
+
+            final Entity entity = shootable.entities[i];
+            if (entity.equals(shooter) || !entity.isValid()) continue;
+
+            final int entry = HitboxHistory.find(shootable.historySlots[i], rewindTick);
+            if (entry >= 0) {
+                // rewound hitbox
+                final double raySize = shootable.raySize;
+                add(entity,
+                    HitboxHistory.minX(entry) - raySize, HitboxHistory.minY(entry) - raySize, HitboxHistory.minZ(entry) - raySize,
+                    HitboxHistory.maxX(entry) + raySize, HitboxHistory.maxY(entry) + raySize, HitboxHistory.maxZ(entry) + raySize);
+                continue;
+            }
+
+            add(entity,
+                shootable.minX[i], shootable.minY[i], shootable.minZ[i],
+                shootable.maxX[i], shootable.maxY[i], shootable.maxZ[i]);
+        }
+    }
+
+    /**
+     * Removes all candidates.
+     */
+    public void clear() {
+        Arrays.fill(entities, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Adds a single candidate with its already expanded (or shrunk) hitbox.
+     */
+    @VisibleForTesting
+    void add(@NotNull Entity entity,
+                     double minX, double minY, double minZ,
+                     double maxX, double maxY, double maxZ) {
+        if (size == entities.length) grow();
+
+        entities[size] = entity;
+        this.minX[size] = minX;
+        this.minY[size] = minY;
+        this.minZ[size] = minZ;
+        this.maxX[size] = maxX;
+        this.maxY[size] = maxY;
+        this.maxZ[size] = maxZ;
+        size++;
+    }
+
+    /**
+     * Doubles the capacity of the candidate arrays.
+     */
+    private void grow() {
+        final int capacity = entities.length << 1;
+        entities = Arrays.copyOf(entities, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        minZ = Arrays.copyOf(minZ, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        maxZ = Arrays.copyOf(maxZ, capacity);
+    }
+
+    // -----< Narrow Phase >-----
+
+    /**
+     * Finds the closest candidate hit by the given ray.
+     *
+     * @param startX      the x coordinate of the start position of the ray
+     * @param startY      the y coordinate of the start position of the ray
+     * @param startZ      the z coordinate of the start position of the ray
+     * @param dirX        the x component of the normalized direction of the ray
+     * @param dirY        the y component of the normalized direction of the ray
+     * @param dirZ        the z component of the normalized direction of the ray
+     * @param maxDistance the maximum distance of the ray
+     * @return the closest entity hit result, or {@code null} if no candidate is hit
+     */
+    public @Nullable RayTraceResult rayTrace(double startX, double startY, double startZ,
+                                             double dirX, double dirY, double dirZ,
+                                             double maxDistance) {
+        if (size == 0 || maxDistance < 0.0D) return null;
+
+        final double divX = 1.0D / dirX;
+        final double divY = 1.0D / dirY;
+        final double divZ = 1.0D / dirZ;
+
+        int nearest;
+        if (kernelEnabled && size >= MIN_VECTORIZED_SIZE) {
+            nearest = EntityHitKernel.nearest(
+                dirX >= 0.0D ? minX : maxX, dirX >= 0.0D ? maxX : minX,
+                dirY >= 0.0D ? minY : maxY, dirY >= 0.0D ? maxY : minY,
+                dirZ >= 0.0D ? minZ : maxZ, dirZ >= 0.0D ? maxZ : minZ,
+                size,
+                startX, startY, startZ,
+                divX, divY, divZ,
+                maxDistance
+            );
+            // resolve the distance and face of the nearest hit; if the scalar test disagrees
+            // on a grazing hit (different rounding), fall back to a full scalar scan
+            if (nearest != -1) {
+                nearest = scan(nearest, nearest + 1, startX, startY, startZ, dirX, dirY, dirZ, divX, divY, divZ, maxDistance);
+                if (nearest == -1)
+                    nearest = scan(0, size, startX, startY, startZ, dirX, dirY, dirZ, divX, divY, divZ, maxDistance);
+            }
+        } else {
+            nearest = scan(0, size, startX, startY, startZ, dirX, dirY, dirZ, divX, divY, divZ, maxDistance);
+        }
+
+        if (nearest == -1) return null;
+
+        final Vector hitPosition = new Vector(
+            startX + dirX * hitT,
+            startY + dirY * hitT,
+            startZ + dirZ * hitT
+        );
+        return new RayTraceResult(hitPosition, entities[nearest], FACES[hitFace]);
+    }
+
+    /**
+     * Finds the candidate in the given index range hit nearest to the start of the given ray,
+     * and stores the distance and face of the hit in {@link #hitT} and {@link #hitFace}.
+     *
+     * @return the index of the nearest hit candidate, or {@code -1} if none is hit
+     */
+    private int scan(int from, int to,
+                     double startX, double startY, double startZ,
+                     double dirX, double dirY, double dirZ,
+                     double divX, double divY, double divZ,
+                     double maxDistance) {
+        int nearest = -1;
+        int nearestFace = 0;
+        double nearestT = 0.0D;
+        double nearestDistanceSq = Double.MAX_VALUE;
+
+        for (int i = from; i < to; i++) {
+            // x
+            double tMin, tMax;
+            int faceMin, faceMax;
+            if (dirX >= 0.0D) {
+                tMin = (minX[i] - startX) * divX;
+                tMax = (maxX[i] - startX) * divX;
+                faceMin = 0;
+                faceMax = 1;
+            } else {
+                tMin = (maxX[i] - startX) * divX;
+                tMax = (minX[i] - startX) * divX;
+                faceMin = 1;
+                faceMax = 0;
+            }
+
+            // y
+            final double tyMin, tyMax;
+            final int faceYMin, faceYMax;
+            if (dirY >= 0.0D) {
+                tyMin = (minY[i] - startY) * divY;
+                tyMax = (maxY[i] - startY) * divY;
+                faceYMin = 2;
+                faceYMax = 3;
+            } else {
+                tyMin = (maxY[i] - startY) * divY;
+                tyMax = (minY[i] - startY) * divY;
+                faceYMin = 3;
+                faceYMax = 2;
+            }
+            if ((tMin > tyMax) || (tMax < tyMin)) continue;
+            if (tyMin > tMin) {
+                tMin = tyMin;
+                faceMin = faceYMin;
+            }
+            if (tyMax < tMax) {
+                tMax = tyMax;
+                faceMax = faceYMax;
+            }
+
+            // z
+            final double tzMin, tzMax;
+            final int faceZMin, faceZMax;
+            if (dirZ >= 0.0D) {
+                tzMin = (minZ[i] - startZ) * divZ;
+                tzMax = (maxZ[i] - startZ) * divZ;
+                faceZMin = 4;
+                faceZMax = 5;
+            } else {
+                tzMin = (maxZ[i] - startZ) * divZ;
+                tzMax = (minZ[i] - startZ) * divZ;
+                faceZMin = 5;
+                faceZMax = 4;
+            }
+            if ((tMin > tzMax) || (tMax < tzMin)) continue;
+            if (tzMin > tMin) {
+                tMin = tzMin;
+                faceMin = faceZMin;
+            }
+            if (tzMax < tMax) {
+                tMax = tzMax;
+                faceMax = faceZMax;
+            }
+
+            // intersection is behind the start or too far away
+            if (tMax < 0.0D) continue;
+            if (tMin > maxDistance) continue;
+
+            // start inside the box: use the exit point
+            final double t = tMin < 0.0D ? tMax : tMin;
+            final int face = tMin < 0.0D ? faceMax : faceMin;
+
+            final double hitX = dirX * t;
+            final double hitY = dirY * t;
+            final double hitZ = dirZ * t;
+            final double distanceSq = hitX * hitX + hitY * hitY + hitZ * hitZ;
+            if (distanceSq < nearestDistanceSq) {
+                nearest = i;
+                nearestFace = face;
+                nearestT = t;
+                nearestDistanceSq = distanceSq;
+            }
+        }
+
+        hitT = nearestT;
+        hitFace = nearestFace;
+        return nearest;
+    }
+}
@@ -0,0 +1,86 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * SIMD slab test of one ray against many {@link EntityCandidates} hitboxes, using the Vector API.
+ * <p>
+ * Tests as many hitboxes at once as the preferred vector shape of the CPU holds doubles
+ * (e.g., 4 with AVX2, 8 with AVX-512). The tested condition is the same as the scalar test
+ * in {@link EntityCandidates#rayTrace}, which then resolves the hit face of the nearest hitbox.
+ * <p>
+ * Requires the {@code jdk.incubator.vector} module, so this class must only be loaded
+ * if {@link EntityCandidates#VECTORIZED} is {@code true}. It is only used if enabled in the configuration,
+ * see {@link EntityCandidates#setKernelEnabled}.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+final class EntityHitKernel {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private EntityHitKernel() {}
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Finds the hitbox hit nearest to the start of the given ray.
+     * <p>
+     * Hitboxes are given by their bounds per axis, ordered along the ray: the {@code near} bound
+     * is the min bound if the direction component is positive (or zero), and the max bound otherwise.
+     *
+     * @param size        the number of hitboxes
+     * @param divX        the reciprocal of the x component of the ray direction
+     * @param divY        the reciprocal of the y component of the ray direction
+     * @param divZ        the reciprocal of the z component of the ray direction
+     * @param maxDistance the maximum distance of the ray
+     * @return the index of the nearest hit hitbox, or {@code -1} if none is hit
+     */
+    static int nearest(double @NotNull [] nearX, double @NotNull [] farX,
+                       double @NotNull [] nearY, double @NotNull [] farY,
+                       double @NotNull [] nearZ, double @NotNull [] farZ,
+                       int size,
+                       double startX, double startY, double startZ,
+                       double divX, double divY, double divZ,
+                       double maxDistance) {
+        final DoubleVector noHit = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+
+        int nearest = -1;
+        double nearestT = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < size; i += SPECIES.length()) {
+            final VectorMask<Double> inRange = SPECIES.indexInRange(i, size);
+
+            // entry and exit distances of each slab
+            DoubleVector tMin = DoubleVector.fromArray(SPECIES, nearX, i, inRange).sub(startX).mul(divX);
+            DoubleVector tMax = DoubleVector.fromArray(SPECIES, farX, i, inRange).sub(startX).mul(divX);
+            tMin = tMin.max(DoubleVector.fromArray(SPECIES, nearY, i, inRange).sub(startY).mul(divY));
+            tMax = tMax.min(DoubleVector.fromArray(SPECIES, farY, i, inRange).sub(startY).mul(divY));
+            tMin = tMin.max(DoubleVector.fromArray(SPECIES, nearZ, i, inRange).sub(startZ).mul(divZ));
+            tMax = tMax.min(DoubleVector.fromArray(SPECIES, farZ, i, inRange).sub(startZ).mul(divZ));
+
+            // the slabs overlap, in front of the start and within the max distance
+            final VectorMask<Double> hit = inRange
+                .and(tMin.compare(VectorOperators.LE, tMax))
+                .and(tMax.compare(VectorOperators.GE, 0.0D))
+                .and(tMin.compare(VectorOperators.LE, maxDistance));
+            if (!hit.anyTrue()) continue;
+
+            // start inside the box: use the exit point
+            final DoubleVector t = noHit.blend(tMin.blend(tMax, tMin.compare(VectorOperators.LT, 0.0D)), hit);
+            final double chunkT = t.reduceLanes(VectorOperators.MIN);
+            if (chunkT < nearestT) {
+                nearestT = chunkT;
+                nearest = i + t.compare(VectorOperators.EQ, chunkT).firstTrue();
+            }
+        }
+
+        return nearest;
+    }
+}
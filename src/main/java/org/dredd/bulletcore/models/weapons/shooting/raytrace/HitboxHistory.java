@@ -0,0 +1,420 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.util.Arrays;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.phys.AABB;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Recent hitboxes of all online players, used for lag-compensated hit registration.
+ * <p>
+ * Every tick, the bounding box of each player is written into a fixed-size ring buffer
+ * of the last {@link ConfigManager#maxRewindTicks} + 1 ticks. All buffers live in shared primitive arrays,
+ * so recording allocates nothing and memory stays proportional to players × window.<br>
+ * Shots of a lagging shooter are then traced against victims as they were {@code ping} ticks ago.
+ * <p>
+ * A player's history is dropped when they change worlds or move further than
+ * {@value #TELEPORT_DISTANCE} blocks in a single tick, so boxes are never rewound across teleports.
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class HitboxHistory {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private HitboxHistory() {}
+
+    // ----------< Constants >----------
+
+    /**
+     * Rewind tick of shots that are traced against the current hitboxes.
+     */
+    public static final int PRESENT = Integer.MIN_VALUE;
+
+    /**
+     * Slot of an entity without history.
+     */
+    static final int NO_SLOT = -1;
+
+    /**
+     * Tick of an unused history entry.
+     */
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    /**
+     * Single-tick movement (per axis) treated as a teleport.
+     */
+    private static final double TELEPORT_DISTANCE = 16.0D;
+
+    /**
+     * Maximum extent (per axis) of all boxes of a player that is still inserted into the entity grid as a whole.<br>
+     * Players whose boxes are spread further apart are inserted box by box.
+     */
+    private static final double MAX_SWEEP_EXTENT = 64.0D;
+
+    /**
+     * Number of double values per stored box.
+     */
+    private static final int BOX_SIZE = 6;
+
+    /**
+     * Initial number of player slots.
+     */
+    private static final int INITIAL_SLOTS = 32;
+
+    // ----------< Storage >----------
+
+    /**
+     * Slot of each player by entity id.
+     */
+    private static final Int2IntOpenHashMap SLOTS = new Int2IntOpenHashMap();
+
+    static {
+        SLOTS.defaultReturnValue(NO_SLOT);
+    }
+
+    /**
+     * Number of entries per slot, {@code 0} until the first recording.
+     */
+    private static int window;
+
+    /**
+     * Boxes of all entries: minX, minY, minZ, maxX, maxY, maxZ.
+     */
+    private static double[] boxes;
+
+    /**
+     * Tick of each entry, or {@link #EMPTY}.
+     */
+    private static int[] ticks;
+
+    /**
+     * World of the latest entry of each slot.
+     */
+    private static ServerLevel[] levels;
+
+    /**
+     * Released slots, reused before new slots are added.
+     */
+    private static int[] freeSlots;
+
+    private static int freeCount;
+
+    /**
+     * Number of slots ever assigned.
+     */
+    private static int slotCount;
+
+    // ----------< Stats >----------
+
+    private static long lastRecordNanos;
+
+    private static long totalRecordNanos;
+
+    private static long recordCount;
+
+    // ----------< Public API >----------
+
+    /**
+     * Returns the tick a shot fired now by the given player should be traced at.
+     *
+     * @param shooter the player who fires
+     * @return the tick to rewind victims to, or {@link #PRESENT} if lag compensation is disabled
+     */
+    public static int rewindTick(@NotNull Player shooter) {
+        final ConfigManager config = ConfigManager.instance();
+        if (!config.lagCompensation) return PRESENT;
+
+        final int rewindTicks = Math.min((shooter.getPing() + 25) / 50, config.maxRewindTicks);
+        return Bukkit.getCurrentTick() - rewindTicks;
+    }
+
+    /**
+     * Records the current hitbox of every online player. Called once at the end of each tick.
+     */
+    public static void record() {
+        final ConfigManager config = ConfigManager.instance();
+        if (!config.lagCompensation) return;
+
+        final long startTime = System.nanoTime();
+        if (window == 0) init(config.maxRewindTicks + 1);
+
+        final int tick = Bukkit.getCurrentTick();
+        final List<ServerPlayer> players = MinecraftServer.getServer().getPlayerList().getPlayers();
+        for (int i = 0, n = players.size(); i < n; i++) {
+            final ServerPlayer player = players.get(i);
+            final AABB bb = player.getBoundingBox();
+            record(player.getId(), player.serverLevel(), bb.minX, bb.minY, bb.minZ, bb.maxX, bb.maxY, bb.maxZ, tick);
+        }
+
+        lastRecordNanos = System.nanoTime() - startTime;
+        totalRecordNanos += lastRecordNanos;
+        recordCount++;
+    }
+
+    /**
+     * Drops the history of the given player. Called when the player leaves the server.
+     *
+     * @param player the player
+     */
+    public static void remove(@NotNull Player player) {
+        final int slot = SLOTS.remove(player.getEntityId());
+        if (slot == NO_SLOT) return;
+
+        Arrays.fill(ticks, slot * window, (slot + 1) * window, EMPTY);
+        levels[slot] = null;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Drops all history. Called when the plugin is reloaded or disabled, so the window size can change.
+     */
+    public static void clear() {
+        SLOTS.clear();
+        window = 0;
+        boxes = null;
+        ticks = null;
+        levels = null;
+        freeSlots = null;
+        freeCount = 0;
+        slotCount = 0;
+        lastRecordNanos = 0L;
+        totalRecordNanos = 0L;
+        recordCount = 0L;
+    }
+
+    /**
+     * Finds the box of the given player at the given tick.
+     *
+     * @param player the player
+     * @param tick   the tick to look up, or {@link #PRESENT}
+     * @return the entry of the box, or {@code -1} if there is none
+     */
+    public static int find(@NotNull Player player, int tick) {
+        return find(slotOf(player.getEntityId()), tick);
+    }
+
+    /**
+     * @return the bottom of the box of the given entry
+     */
+    public static double minY(int entry) {
+        return boxes[entry * BOX_SIZE + 1];
+    }
+
+    /**
+     * @return the top of the box of the given entry
+     */
+    public static double maxY(int entry) {
+        return boxes[entry * BOX_SIZE + 4];
+    }
+
+    // -----< Stats >-----
+
+    /**
+     * @return the number of players with recorded history
+     */
+    public static int trackedPlayers() {
+        return SLOTS.size();
+    }
+
+    /**
+     * @return the number of ticks kept per player, {@code 0} if nothing was recorded yet
+     */
+    public static int window() {
+        return window;
+    }
+
+    /**
+     * @return the time the last recording took, in nanoseconds
+     */
+    public static long lastRecordNanos() {
+        return lastRecordNanos;
+    }
+
+    /**
+     * @return the average time a recording took, in nanoseconds
+     */
+    public static long averageRecordNanos() {
+        return recordCount == 0L ? 0L : totalRecordNanos / recordCount;
+    }
+
+    // ----------< Package API >----------
+
+    /**
+     * Returns the history slot of the entity with the given id.
+     *
+     * @return the slot, or {@link #NO_SLOT} if the entity has no history
+     */
+    static int slotOf(int entityId) {
+        return window == 0 ? NO_SLOT : SLOTS.get(entityId);
+    }
+
+    /**
+     * Finds the entry of the given slot recorded at the given tick.
+     *
+     * @return the entry, or {@code -1} if there is none
+     */
+    static int find(int slot, int tick) {
+        if (slot == NO_SLOT || tick == PRESENT) return -1;
+
+        final int entry = slot * window + Math.floorMod(tick, window);
+        return ticks[entry] == tick ? entry : -1;
+    }
+
+    /**
+     * @return the first entry of the given slot; the slot has {@link #window()} consecutive entries
+     */
+    static int firstEntry(int slot) {
+        return slot * window;
+    }
+
+    /**
+     * @return whether the given entry holds a recorded box
+     */
+    static boolean isRecorded(int entry) {
+        return ticks[entry] != EMPTY;
+    }
+
+    static double minX(int entry) {
+        return boxes[entry * BOX_SIZE];
+    }
+
+    static double minZ(int entry) {
+        return boxes[entry * BOX_SIZE + 2];
+    }
+
+    static double maxX(int entry) {
+        return boxes[entry * BOX_SIZE + 3];
+    }
+
+    static double maxZ(int entry) {
+        return boxes[entry * BOX_SIZE + 5];
+    }
+
+    /**
+     * Expands the given box ({@code minX, minY, minZ, maxX, maxY, maxZ}) to contain all recorded boxes of a slot.<br>
+     * The box is left unchanged if the recorded boxes are spread too far apart.
+     *
+     * @return {@code false} if the box was left unchanged because the recorded boxes are spread too far apart
+     */
+    static boolean sweep(int slot, @NotNull double[] box) {
+        if (slot == NO_SLOT) return true;
+
+        double minX = box[0], minY = box[1], minZ = box[2];
+        double maxX = box[3], maxY = box[4], maxZ = box[5];
+
+        for (int entry = slot * window, end = entry + window; entry < end; entry++) {
+            if (ticks[entry] == EMPTY) continue;
+
+            final int base = entry * BOX_SIZE;
+            minX = Math.min(minX, boxes[base]);
+            minY = Math.min(minY, boxes[base + 1]);
+            minZ = Math.min(minZ, boxes[base + 2]);
+            maxX = Math.max(maxX, boxes[base + 3]);
+            maxY = Math.max(maxY, boxes[base + 4]);
+            maxZ = Math.max(maxZ, boxes[base + 5]);
+        }
+
+        if (maxX - minX > MAX_SWEEP_EXTENT || maxY - minY > MAX_SWEEP_EXTENT || maxZ - minZ > MAX_SWEEP_EXTENT)
+            return false;
+
+        box[0] = minX;
+        box[1] = minY;
+        box[2] = minZ;
+        box[3] = maxX;
+        box[4] = maxY;
+        box[5] = maxZ;
+        return true;
+    }
+
+    /**
+     * Records the box of a single entity at the given tick.
+     *
+     * @param entityId the entity id
+     * @param level    the world of the entity
+     * @param tick     the current tick
+     */
+    @VisibleForTesting
+    static void record(int entityId, @Nullable ServerLevel level,
+                       double minX, double minY, double minZ,
+                       double maxX, double maxY, double maxZ,
+                       int tick) {
+        int slot = SLOTS.get(entityId);
+        if (slot == NO_SLOT) {
+            slot = allocate();
+            SLOTS.put(entityId, slot);
+        } else if (levels[slot] != level || teleported(slot, Math.floorMod(tick - 1, window), minX, minY, minZ)) {
+            Arrays.fill(ticks, slot * window, (slot + 1) * window, EMPTY);
+        }
+
+        final int entry = slot * window + Math.floorMod(tick, window);
+        final int base = entry * BOX_SIZE;
+        boxes[base] = minX;
+        boxes[base + 1] = minY;
+        boxes[base + 2] = minZ;
+        boxes[base + 3] = maxX;
+        boxes[base + 4] = maxY;
+        boxes[base + 5] = maxZ;
+        ticks[entry] = tick;
+        levels[slot] = level;
+    }
+
+    /**
+     * Allocates the storage for the given window size. Called on the first recording after a {@link #clear()}.
+     */
+    @VisibleForTesting
+    static void init(int windowSize) {
+        window = windowSize;
+        boxes = new double[INITIAL_SLOTS * windowSize * BOX_SIZE];
+        ticks = new int[INITIAL_SLOTS * windowSize];
+        Arrays.fill(ticks, EMPTY);
+        levels = new ServerLevel[INITIAL_SLOTS];
+        freeSlots = new int[INITIAL_SLOTS];
+    }
+
+    // ----------< Internal API >----------
+
+    /**
+     * Returns a free slot, growing the storage if needed.
+     */
+    private static int allocate() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+
+        if (slotCount == levels.length) {
+            final int capacity = slotCount << 1;
+            boxes = Arrays.copyOf(boxes, capacity * window * BOX_SIZE);
+            ticks = Arrays.copyOf(ticks, capacity * window);
+            Arrays.fill(ticks, slotCount * window, capacity * window, EMPTY);
+            levels = Arrays.copyOf(levels, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Checks whether the given box moved too far from the entry of the previous tick.
+     */
+    private static boolean teleported(int slot, int previousColumn, double minX, double minY, double minZ) {
+        final int entry = slot * window + previousColumn;
+        if (ticks[entry] == EMPTY) return false;
+
+        final int base = entry * BOX_SIZE;
+        return Math.abs(minX - boxes[base]) > TELEPORT_DISTANCE
+            || Math.abs(minY - boxes[base + 1]) > TELEPORT_DISTANCE
+            || Math.abs(minZ - boxes[base + 2]) > TELEPORT_DISTANCE;
+    }
+}
@@ -0,0 +1,155 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import org.bukkit.Bukkit;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link BlockSource} reading block states directly from the loaded chunks of a world.
+ * <p>
+ * Never loads chunks. Collision materials are read from the {@link CollisionSectionCache} if it is enabled.
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class LevelBlockSource implements BlockSource {
+
+    // -----< Attributes >-----
+
+    private ServerLevel level;
+
+    /**
+     * Coordinates of the last accessed chunk, used to skip chunk lookups while the ray stays in the same chunk.
+     */
+    private int lastChunkX, lastChunkZ;
+
+    /**
+     * The last accessed chunk, or {@code null} if no chunk was accessed yet.
+     */
+    private LevelChunk lastChunk;
+
+    /**
+     * Cached sections of the world, or {@code null} if the collision cache is disabled.
+     */
+    private Long2ObjectOpenHashMap<CollisionSectionCache.Section> sections;
+
+    /**
+     * Server tick of the last {@link #reset}, used to expire cached sections.
+     */
+    private int tick;
+
+    /**
+     * Key ({@link SectionPos#asLong}) of the last accessed cached section.
+     */
+    private long lastSectionKey;
+
+    /**
+     * The last accessed cached section, or {@code null} if no cached section was accessed yet.
+     */
+    private CollisionSectionCache.Section lastSection;
+
+    // -----< Reuse >-----
+
+    /**
+     * Points this source to the given world, so a single instance can be reused for many traces.
+     *
+     * @param level the world to read blocks from
+     * @return this source
+     */
+    public @NotNull LevelBlockSource reset(@NotNull ServerLevel level) {
+        this.level = level;
+        this.lastChunk = null;
+        this.sections = ConfigManager.instance().collisionCache ? CollisionSectionCache.sectionsOf(level) : null;
+        this.tick = Bukkit.getCurrentTick();
+        this.lastSection = null;
+        return this;
+    }
+
+    /**
+     * Drops the world and chunk references, so they are not kept in memory between traces.
+     */
+    public void release() {
+        this.level = null;
+        this.lastChunk = null;
+        this.sections = null;
+        this.lastSection = null;
+    }
+
+    // -----< BlockSource >-----
+
+    @Override
+    public @Nullable BlockState getBlockState(int x, int y, int z) {
+        final LevelChunk chunk = chunkAt(x >> 4, z >> 4);
+        if (chunk == null) return null;
+
+        if (level.isOutsideBuildHeight(y)) return Blocks.AIR.defaultBlockState();
+
+        final LevelChunkSection section = chunk.getSections()[level.getSectionIndex(y)];
+        if (section.hasOnlyAir()) return Blocks.AIR.defaultBlockState();
+
+        return section.getBlockState(x & 15, y & 15, z & 15);
+    }
+
+    @Override
+    public int collisionMaterial(int x, int y, int z) {
+        if (sections == null) return BlockSource.super.collisionMaterial(x, y, z);
+
+        final int chunkX = x >> 4;
+        final int sectionY = y >> 4;
+        final int chunkZ = z >> 4;
+        final long key = SectionPos.asLong(chunkX, sectionY, chunkZ);
+
+        CollisionSectionCache.Section cached = lastSection;
+        if (cached == null || key != lastSectionKey) {
+            final LevelChunk chunk = chunkAt(chunkX, chunkZ);
+            if (chunk == null) return UNLOADED;
+
+            if (level.isOutsideBuildHeight(y)) return PASSABLE;
+
+            final LevelChunkSection section = chunk.getSections()[level.getSectionIndexFromSectionY(sectionY)];
+            if (section.hasOnlyAir()) return PASSABLE;
+
+            cached = CollisionSectionCache.get(sections, key, section, tick);
+            if (cached == null) return BlockSource.super.collisionMaterial(x, y, z);
+
+            lastSection = cached;
+            lastSectionKey = key;
+        }
+
+        return cached.material(x & 15, y & 15, z & 15);
+    }
+
+    @Override
+    public @NotNull BlockGetter shapeGetter() {
+        return level;
+    }
+
+    // -----< Internal >-----
+
+    /**
+     * Returns the chunk at the given chunk coordinates, or {@code null} if it is not loaded.
+     */
+    private @Nullable LevelChunk chunkAt(int chunkX, int chunkZ) {
+        LevelChunk chunk = lastChunk;
+        if (chunk == null || chunkX != lastChunkX || chunkZ != lastChunkZ) {
+            chunk = level.getChunkIfLoaded(chunkX, chunkZ);
+            if (chunk == null) return null;
+
+            lastChunk = chunk;
+            lastChunkX = chunkX;
+            lastChunkZ = chunkZ;
+        }
+        return chunk;
+    }
+}
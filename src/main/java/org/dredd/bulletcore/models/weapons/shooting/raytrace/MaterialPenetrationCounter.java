@@ -0,0 +1,55 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import org.bukkit.Material;
+
+/**
+ * {@link PenetrationCounter} backed by an array indexed by material ordinal.
+ * <p>
+ * Used for hitscan pellets, which are traced in one go and then forgotten.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+final class MaterialPenetrationCounter implements PenetrationCounter {
+
+    /**
+     * Number of {@link Material} constants.
+     */
+    private static final int MATERIALS_COUNT = Material.values().length;
+
+    /**
+     * Number of penetrated blocks for each material.
+     */
+    private final int[] counts = new int[MATERIALS_COUNT];
+
+    /**
+     * Material ordinals with a non-zero count in {@link #counts}.
+     */
+    private final int[] touched = new int[MATERIALS_COUNT];
+
+    /**
+     * Number of valid entries in {@link #touched}.
+     */
+    private int touchedCount;
+
+    @Override
+    public int count(int materialOrdinal) {
+        return counts[materialOrdinal];
+    }
+
+    @Override
+    public int increment(int materialOrdinal) {
+        if (counts[materialOrdinal] == 0)
+            touched[touchedCount++] = materialOrdinal;
+        return ++counts[materialOrdinal];
+    }
+
+    /**
+     * Resets all counters before tracing the next pellet.
+     */
+    void reset() {
+        for (int i = 0; i < touchedCount; i++)
+            counts[touched[i]] = 0;
+        touchedCount = 0;
+    }
+}
@@ -0,0 +1,28 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+/**
+ * Counts how many blocks of each material a single bullet has penetrated.
+ * <p>
+ * Materials are identified by {@link org.bukkit.Material#ordinal()}.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public interface PenetrationCounter {
+
+    /**
+     * Returns the number of penetrated blocks of the given material.
+     *
+     * @param materialOrdinal the ordinal of the block material
+     * @return the number of blocks of this material the bullet went through so far
+     */
+    int count(int materialOrdinal);
+
+    /**
+     * Counts one more penetrated block of the given material.
+     *
+     * @param materialOrdinal the ordinal of the block material
+     * @return the new number of penetrated blocks of this material
+     */
+    int increment(int materialOrdinal);
+}
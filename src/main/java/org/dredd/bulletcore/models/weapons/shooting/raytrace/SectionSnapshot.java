@@ -0,0 +1,230 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable copy of the chunk sections along a set of rays.
+ * <p>
+ * Captured on the main thread, then safe to read from any thread.<br>
+ * Reading a block from a section that was not captured throws {@link MissingSectionException},
+ * so the caller can fall back to tracing against the live world.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class SectionSnapshot implements BlockSource, BlockGetter {
+
+    // ----------< Static >----------
+
+    /**
+     * Marks a section of a chunk that was not loaded at capture time.
+     */
+    private static final Object UNLOADED = new Object();
+
+    /**
+     * Marks a section that contained only air (or was outside the build height) at capture time.
+     */
+    private static final Object ONLY_AIR = new Object();
+
+    /**
+     * Thrown when a block outside the captured sections is read.
+     */
+    public static final class MissingSectionException extends RuntimeException {
+
+        private static final MissingSectionException INSTANCE = new MissingSectionException();
+
+        private MissingSectionException() {
+            super("Block outside of the captured sections", null, false, false);
+        }
+    }
+
+
+    // ----------< Instance >----------
+
+    // -----< Attributes >-----
+
+    private final int minBuildHeight;
+
+    private final int height;
+
+    /**
+     * Captured sections by {@link SectionPos#asLong}: a {@link PalettedContainer} copy, {@link #UNLOADED} or {@link #ONLY_AIR}.
+     */
+    private final Long2ObjectOpenHashMap<Object> sections = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * The world sections are captured from, {@code null} once the snapshot is frozen.
+     */
+    private ServerLevel level;
+
+    // -----< Construction >-----
+
+    /**
+     * Creates a new empty snapshot of the given world.<br>
+     * Sections are captured with {@link #captureRay(Vec3, Vec3)} and the snapshot is completed with {@link #freeze()}.
+     *
+     * @param level the world to capture sections from
+     */
+    public SectionSnapshot(@NotNull ServerLevel level) {
+        this.level = level;
+        this.minBuildHeight = level.getMinBuildHeight();
+        this.height = level.getHeight();
+    }
+
+    // -----< Capturing >-----
+
+    /**
+     * Captures all sections the segment {@code from → to} passes through.<br>
+     * Uses the same end-point nudges as {@link BulletRayTracer}.
+     *
+     * @param from the start of the segment
+     * @param to   the end of the segment
+     */
+    public void captureRay(@NotNull Vec3 from,
+                           @NotNull Vec3 to) {
+        if (from.equals(to)) return;
+
+        final double startX = Mth.lerp(-1.0E-7, from.x, to.x) / 16.0D;
+        final double startY = Mth.lerp(-1.0E-7, from.y, to.y) / 16.0D;
+        final double startZ = Mth.lerp(-1.0E-7, from.z, to.z) / 16.0D;
+        final double dx = Mth.lerp(-1.0E-7, to.x, from.x) / 16.0D - startX;
+        final double dy = Mth.lerp(-1.0E-7, to.y, from.y) / 16.0D - startY;
+        final double dz = Mth.lerp(-1.0E-7, to.z, from.z) / 16.0D - startZ;
+
+        int x = Mth.floor(startX);
+        int y = Mth.floor(startY);
+        int z = Mth.floor(startZ);
+
+        final int stepX = Mth.sign(dx);
+        final int stepY = Mth.sign(dy);
+        final int stepZ = Mth.sign(dz);
+
+        final double deltaX = stepX == 0 ? Double.MAX_VALUE : stepX / dx;
+        final double deltaY = stepY == 0 ? Double.MAX_VALUE : stepY / dy;
+        final double deltaZ = stepZ == 0 ? Double.MAX_VALUE : stepZ / dz;
+
+        double maxX = deltaX * (stepX > 0 ? 1.0D - Mth.frac(startX) : Mth.frac(startX));
+        double maxY = deltaY * (stepY > 0 ? 1.0D - Mth.frac(startY) : Mth.frac(startY));
+        double maxZ = deltaZ * (stepZ > 0 ? 1.0D - Mth.frac(startZ) : Mth.frac(startZ));
+
+        captureSection(x, y, z);
+        while (maxX <= 1.0D || maxY <= 1.0D || maxZ <= 1.0D) {
+            if (maxX < maxY) {
+                if (maxX < maxZ) {
+                    x += stepX;
+                    maxX += deltaX;
+                } else {
+                    z += stepZ;
+                    maxZ += deltaZ;
+                }
+            } else if (maxY < maxZ) {
+                y += stepY;
+                maxY += deltaY;
+            } else {
+                z += stepZ;
+                maxZ += deltaZ;
+            }
+            captureSection(x, y, z);
+        }
+    }
+
+    /**
+     * Captures a single section, if not captured yet.
+     */
+    private void captureSection(int sectionX, int sectionY, int sectionZ) {
+        final long key = SectionPos.asLong(sectionX, sectionY, sectionZ);
+        if (sections.containsKey(key)) return;
+
+        final LevelChunk chunk = level.getChunkIfLoaded(sectionX, sectionZ);
+        if (chunk == null) {
+            sections.put(key, UNLOADED);
+            return;
+        }
+
+        if (sectionY < level.getMinSection() || sectionY >= level.getMaxSection()) {
+            sections.put(key, ONLY_AIR);
+            return;
+        }
+
+        final LevelChunkSection section = chunk.getSection(level.getSectionIndexFromSectionY(sectionY));
+        sections.put(key, section.hasOnlyAir() ? ONLY_AIR : section.getStates().copy());
+    }
+
+    /**
+     * Completes the snapshot. No more sections can be captured after this call.
+     */
+    public void freeze() {
+        level = null;
+    }
+
+    // -----< BlockSource >-----
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable BlockState getBlockState(int x, int y, int z) {
+        final Object section = sections.get(SectionPos.asLong(x >> 4, y >> 4, z >> 4));
+        if (section == null) throw MissingSectionException.INSTANCE;
+        if (section == UNLOADED) return null;
+        if (section == ONLY_AIR) return Blocks.AIR.defaultBlockState();
+        return ((PalettedContainer<BlockState>) section).get(x & 15, y & 15, z & 15);
+    }
+
+    @Override
+    public @NotNull BlockGetter shapeGetter() {
+        return this;
+    }
+
+    // -----< BlockGetter >-----
+
+    @Override
+    public @Nullable BlockEntity getBlockEntity(@NotNull BlockPos pos) {
+        return null;
+    }
+
+    @Override
+    public @NotNull BlockState getBlockState(@NotNull BlockPos pos) {
+        final BlockState state = getBlockState(pos.getX(), pos.getY(), pos.getZ());
+        return state != null ? state : Blocks.AIR.defaultBlockState();
+    }
+
+    @Override
+    public @NotNull FluidState getFluidState(@NotNull BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    @Override
+    public @Nullable BlockState getBlockStateIfLoaded(@NotNull BlockPos pos) {
+        return getBlockState(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    @Override
+    public @Nullable FluidState getFluidIfLoaded(@NotNull BlockPos pos) {
+        final BlockState state = getBlockStateIfLoaded(pos);
+        return state != null ? state.getFluidState() : null;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getMinBuildHeight() {
+        return minBuildHeight;
+    }
+}
@@ -0,0 +1,422 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.craftbukkit.CraftWorld;
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Spatial hash of the entities in a world that bullets can hit.
+ * <p>
+ * Reset once per tick on the first query and shared by every shot resolved in that tick.
+ * Entities are only {@link #collect collected} from the loaded chunks the shots can reach, each chunk
+ * at most once per tick, so the cost follows the entities near the shots, not all entities of the world.
+ * Players are always present, since their rewound hitboxes may lie outside their current chunk.<br>
+ * Rays only look at entities in the grid cells they pass through.<br>
+ * Hitboxes are already expanded (or shrunk) by the configured ray size and are inserted
+ * into every {@value #CELL_SIZE}-block cell they overlap.<br>
+ * Players with {@link HitboxHistory} are inserted with all their recent hitboxes,
+ * so rays of lagging shooters still find them where they were.
+ * <p>
+ * Must only be used from the main thread.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class ShootableEntities {
+
+    // ----------< Static >----------
+
+    // -----< Constants >-----
+
+    /**
+     * Log2 of {@link #CELL_SIZE}.
+     */
+    static final int CELL_SHIFT = 3;
+
+    /**
+     * Size of a single grid cell in blocks.
+     */
+    static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    /**
+     * Marks the end of a cell entry list.
+     */
+    static final int NO_ENTRY = -1;
+
+    /**
+     * Distance (in blocks) around a collected area whose chunks are collected too,
+     * so entities with hitboxes reaching over a chunk border are found.
+     */
+    private static final double CHUNK_MARGIN = 8.0D;
+
+    /**
+     * Initial capacity of the entity and entry arrays.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Spatial hash of each world, reused between ticks.
+     */
+    private static final Map<UUID, ShootableEntities> BY_WORLD = new HashMap<>();
+
+    // -----< Public API >-----
+
+    /**
+     * Returns the spatial hash of the given world, resetting it if it wasn't built in the current tick.<br>
+     * Only players are present until the areas of the shots are {@link #collect collected}.
+     *
+     * @param world   the world to get the spatial hash of
+     * @param raySize entity bounding boxes will be uniformly expanded (or shrunk) by this value
+     * @return the up-to-date {@link ShootableEntities} of the world
+     */
+    public static @NotNull ShootableEntities of(@NotNull World world,
+                                                double raySize) {
+        final ShootableEntities grid = BY_WORLD.computeIfAbsent(world.getUID(), k -> new ShootableEntities());
+
+        final int currentTick = Bukkit.getCurrentTick();
+        if (grid.builtTick != currentTick || grid.raySize != raySize) {
+            grid.build(world, raySize);
+            grid.builtTick = currentTick;
+        }
+
+        return grid;
+    }
+
+    /**
+     * Drops entity references held by all spatial hashes.<br>
+     * Called after the shots of a tick are resolved, so removed entities and unloaded worlds are not kept in memory.
+     */
+    public static void releaseAll() {
+        BY_WORLD.values().forEach(ShootableEntities::release);
+    }
+
+    /**
+     * Removes all spatial hashes. Called when the plugin is reloaded or disabled.
+     */
+    public static void clearAll() {
+        BY_WORLD.clear();
+    }
+
+    /**
+     * Packs grid cell coordinates into a single key.
+     */
+    static long cellKey(int cellX, int cellY, int cellZ) {
+        return ((long) cellX & 0x3FFFFFFL) << 38 | ((long) cellZ & 0x3FFFFFFL) << 12 | ((long) cellY & 0xFFFL);
+    }
+
+    /**
+     * Evaluates whether the bullet should skip the specified entity and go beyond it.
+     *
+     * @param victim the entity being evaluated for skipping
+     * @return true if the entity should be skipped; false otherwise
+     */
+    private static boolean skipHit(@NotNull LivingEntity victim) {
+        return victim.isInvulnerable()
+            || victim instanceof ArmorStand
+            || (victim instanceof Player p && switch (p.getGameMode()) {
+            case CREATIVE, SPECTATOR -> true;
+            default -> false;
+        });
+    }
+
+
+    // ----------< Instance >----------
+
+    // -----< Attributes >-----
+
+    LivingEntity[] entities = new LivingEntity[INITIAL_CAPACITY];
+    double[] minX = new double[INITIAL_CAPACITY];
+    double[] minY = new double[INITIAL_CAPACITY];
+    double[] minZ = new double[INITIAL_CAPACITY];
+    double[] maxX = new double[INITIAL_CAPACITY];
+    double[] maxY = new double[INITIAL_CAPACITY];
+    double[] maxZ = new double[INITIAL_CAPACITY];
+
+    /**
+     * {@link HitboxHistory} slot of each entity, or {@link HitboxHistory#NO_SLOT}.
+     */
+    int[] historySlots = new int[INITIAL_CAPACITY];
+
+    /**
+     * Query stamp of each entity, used to report an entity only once per query.
+     */
+    private int[] stamps = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of entities.
+     */
+    int size;
+
+    /**
+     * First entry of each non-empty grid cell.
+     */
+    private final Long2IntOpenHashMap cellHeads = new Long2IntOpenHashMap();
+
+    /**
+     * Entity index of each entry.
+     */
+    int[] entryEntity = new int[INITIAL_CAPACITY];
+
+    /**
+     * Next entry in the same cell, or {@link #NO_ENTRY}.
+     */
+    int[] entryNext = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of entries.
+     */
+    private int entryCount;
+
+    /**
+     * Stamp of the current query.
+     */
+    private int currentStamp;
+
+    /**
+     * Server tick this spatial hash was last built in.
+     */
+    private int builtTick = Integer.MIN_VALUE;
+
+    /**
+     * Ray size this spatial hash was last built with.
+     */
+    double raySize;
+
+    /**
+     * Reusable box used to compute the grid cells of an entity.
+     */
+    private final double[] cellBox = new double[6];
+
+    /**
+     * World this spatial hash was last built for, {@code null} once released.
+     */
+    private World world;
+
+    /**
+     * Chunks whose entities were collected since the last build.
+     */
+    private final LongOpenHashSet collectedChunks = new LongOpenHashSet();
+
+    // -----< Construction >-----
+
+    /**
+     * Private constructor. Use {@link #of(World, double)} instead.
+     */
+    private ShootableEntities() {
+        cellHeads.defaultReturnValue(NO_ENTRY);
+    }
+
+    // -----< Building >-----
+
+    /**
+     * Rebuilds this spatial hash with the current players of the world.
+     */
+    private void build(@NotNull World world,
+                       double raySize) {
+        release();
+        this.world = world;
+        this.raySize = raySize;
+
+        for (final ServerPlayer handle : ((CraftWorld) world).getHandle().players()) {
+            final Player player = handle.getBukkitEntity();
+            if (skipHit(player)) continue;
+            add(player, player.getBoundingBox().expand(raySize));
+        }
+    }
+
+    /**
+     * Adds the entities that can be hit in the given horizontal area, if not added yet in the current tick.<br>
+     * Entities are collected from the loaded chunks overlapping the area; chunks are never loaded.
+     *
+     * @param minX the minimum x coordinate of the area
+     * @param minZ the minimum z coordinate of the area
+     * @param maxX the maximum x coordinate of the area
+     * @param maxZ the maximum z coordinate of the area
+     * @return this spatial hash
+     */
+    public @NotNull ShootableEntities collect(double minX, double minZ,
+                                              double maxX, double maxZ) {
+        final int fromX = (int) Math.floor(minX - CHUNK_MARGIN) >> 4;
+        final int fromZ = (int) Math.floor(minZ - CHUNK_MARGIN) >> 4;
+        final int toX = (int) Math.floor(maxX + CHUNK_MARGIN) >> 4;
+        final int toZ = (int) Math.floor(maxZ + CHUNK_MARGIN) >> 4;
+
+        for (int chunkX = fromX; chunkX <= toX; chunkX++) {
+            for (int chunkZ = fromZ; chunkZ <= toZ; chunkZ++) {
+                if (!collectedChunks.add(ChunkPos.asLong(chunkX, chunkZ))) continue;
+                if (!world.isChunkLoaded(chunkX, chunkZ)) continue;
+
+                for (final Entity entity : world.getChunkAt(chunkX, chunkZ).getEntities()) {
+                    // players are added on build
+                    if (!(entity instanceof LivingEntity living) || entity instanceof Player || skipHit(living)) continue;
+                    add(living, living.getBoundingBox().expand(raySize));
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds a single entity to all cells its hitbox overlaps.
+     *
+     * @param entity the entity
+     * @param hitbox the already expanded (or shrunk) bounding box of the entity
+     */
+    private void add(@NotNull LivingEntity entity,
+                     @NotNull BoundingBox hitbox) {
+        if (size == entities.length) growEntities();
+
+        final int index = size++;
+        entities[index] = entity;
+        minX[index] = hitbox.getMinX();
+        minY[index] = hitbox.getMinY();
+        minZ[index] = hitbox.getMinZ();
+        maxX[index] = hitbox.getMaxX();
+        maxY[index] = hitbox.getMaxY();
+        maxZ[index] = hitbox.getMaxZ();
+        stamps[index] = 0;
+
+        final int slot = HitboxHistory.slotOf(entity.getEntityId());
+        historySlots[index] = slot;
+
+        // current hitbox, swept over the recorded ones
+        final double[] box = cellBox;
+        box[0] = minX[index];
+        box[1] = minY[index];
+        box[2] = minZ[index];
+        box[3] = maxX[index];
+        box[4] = maxY[index];
+        box[5] = maxZ[index];
+
+        // recorded boxes are not expanded yet
+        final double margin = slot == HitboxHistory.NO_SLOT ? 0.0D : Math.max(0.0D, raySize);
+        if (HitboxHistory.sweep(slot, box)) {
+            addCells(index, box[0] - margin, box[1] - margin, box[2] - margin, box[3] + margin, box[4] + margin, box[5] + margin);
+            return;
+        }
+
+        // boxes spread too far apart to be swept (e.g., fast flight): add the cells of each box
+        addCells(index, box[0], box[1], box[2], box[3], box[4], box[5]);
+        for (int entry = HitboxHistory.firstEntry(slot), end = entry + HitboxHistory.window(); entry < end; entry++) {
+            if (!HitboxHistory.isRecorded(entry)) continue;
+            addCells(index,
+                HitboxHistory.minX(entry) - margin, HitboxHistory.minY(entry) - margin, HitboxHistory.minZ(entry) - margin,
+                HitboxHistory.maxX(entry) + margin, HitboxHistory.maxY(entry) + margin, HitboxHistory.maxZ(entry) + margin);
+        }
+    }
+
+    /**
+     * Adds the given entity to all cells the given box overlaps.<br>
+     * Cells already holding the entity get it again; queries report it only once.
+     */
+    private void addCells(int index,
+                          double minX, double minY, double minZ,
+                          double maxX, double maxY, double maxZ) {
+        final int fromX = (int) Math.floor(minX) >> CELL_SHIFT;
+        final int fromY = (int) Math.floor(minY) >> CELL_SHIFT;
+        final int fromZ = (int) Math.floor(minZ) >> CELL_SHIFT;
+        final int toX = (int) Math.floor(maxX) >> CELL_SHIFT;
+        final int toY = (int) Math.floor(maxY) >> CELL_SHIFT;
+        final int toZ = (int) Math.floor(maxZ) >> CELL_SHIFT;
+
+        for (int x = fromX; x <= toX; x++) {
+            for (int y = fromY; y <= toY; y++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    if (entryCount == entryEntity.length) growEntries();
+
+                    final int entry = entryCount++;
+                    entryEntity[entry] = index;
+                    entryNext[entry] = cellHeads.put(cellKey(x, y, z), entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entities and cells, keeping the allocated arrays.
+     */
+    private void release() {
+        Arrays.fill(entities, 0, size, null);
+        size = 0;
+        entryCount = 0;
+        cellHeads.clear();
+        collectedChunks.clear();
+        world = null;
+        builtTick = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Doubles the capacity of the entity arrays.
+     */
+    private void growEntities() {
+        final int capacity = entities.length << 1;
+        entities = Arrays.copyOf(entities, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        minZ = Arrays.copyOf(minZ, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        maxZ = Arrays.copyOf(maxZ, capacity);
+        historySlots = Arrays.copyOf(historySlots, capacity);
+        stamps = Arrays.copyOf(stamps, capacity);
+    }
+
+    /**
+     * Doubles the capacity of the entry arrays.
+     */
+    private void growEntries() {
+        final int capacity = entryEntity.length << 1;
+        entryEntity = Arrays.copyOf(entryEntity, capacity);
+        entryNext = Arrays.copyOf(entryNext, capacity);
+    }
+
+    // -----< Querying >-----
+
+    /**
+     * Returns the first entry of the given cell.
+     *
+     * @return the entry index, or {@link #NO_ENTRY} if the cell is empty
+     */
+    int firstEntry(long cellKey) {
+        return cellHeads.get(cellKey);
+    }
+
+    /**
+     * Starts a new query, so every entity can be reported once again.
+     */
+    void beginQuery() {
+        if (++currentStamp == 0) {
+            // stamp overflow: reset all stamps
+            Arrays.fill(stamps, 0);
+            currentStamp = 1;
+        }
+    }
+
+    /**
+     * Marks the given entity as reported by the current query.
+     *
+     * @param index the entity index
+     * @return {@code true} if the entity was not reported by the current query yet
+     */
+    boolean markReported(int index) {
+        if (stamps[index] == currentStamp) return false;
+        stamps[index] = currentStamp;
+        return true;
+    }
+}
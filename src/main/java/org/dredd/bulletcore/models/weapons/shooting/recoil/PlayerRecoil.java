@@ -3,6 +3,7 @@ package org.dredd.bulletcore.models.weapons.shooting.recoil;
 import net.minecraft.network.protocol.game.ClientboundPlayerPositionPacket;
 import org.bukkit.craftbukkit.entity.CraftPlayer;
 import org.bukkit.entity.Player;
+import org.dredd.bulletcore.config.ConfigManager;
 import org.dredd.bulletcore.utils.MathUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -10,7 +11,10 @@ import static net.minecraft.world.entity.RelativeMovement.ALL;
 
 /**
  * Tracks and updates the recoil state for a specific player.<br>
- * Handles camera rotation after shots and automatically stops when the recoil is complete or inactive.
+ * Handles camera rotation after shots and reports when the recoil is complete or inactive.
+ * <p>
+ * Camera rotation is sent as at most one packet per tick, limited to {@link #maxPacketsPerSecond}.
+ * Rotation that could not be sent yet is carried forward and merged into the next packet.
  *
  * @author dredd
  * @since 1.0.0
@@ -20,7 +24,7 @@ public final class PlayerRecoil {
     // ----------< Static >----------
 
     /**
-     * Number of consecutive ticks without sending camera movement packets before the recoil task stops.
+     * Number of consecutive ticks without sending camera movement packets before the recoil stops.
      */
     private static final int NO_SENT_PACKET_IN_A_ROW_TO_STOP = 3;
 
@@ -35,10 +39,15 @@ public final class PlayerRecoil {
     private int noSentPacketInARow;
 
     /**
-     * Number of ticks since the last shot while this recoil task has been active.
+     * Number of ticks since the last shot while this recoil has been active.
      */
     private int taskTicks;
 
+    /**
+     * Index of this recoil in the active recoils of {@link RecoilHandler}, or {@code -1} if it is not active.
+     */
+    int activeIndex = -1;
+
     /**
      * The player this recoil instance is associated with.
      */
@@ -95,6 +104,35 @@ public final class PlayerRecoil {
      */
     private float currentRecoilY;
 
+    // START: Camera rotation output
+
+    /**
+     * Horizontal camera rotation not sent to the player yet, in degrees.
+     */
+    private float pendingYaw;
+
+    /**
+     * Vertical camera rotation not sent to the player yet, in degrees.
+     */
+    private float pendingPitch;
+
+    /**
+     * Maximum number of rotation packets sent to the player per second.
+     */
+    private int maxPacketsPerSecond;
+
+    /**
+     * Number of rotation packets that can be sent right now, refilled by {@link #maxPacketsPerSecond} / 20 per tick.
+     */
+    private float packetAllowance = 1.0f;
+
+    /**
+     * Number of rotation packets sent during the current and the last full second.
+     */
+    private int packetsThisSecond, packetsLastSecond;
+
+    // END: Camera rotation output
+
     // -----< Construction >-----
 
     /**
@@ -104,6 +142,7 @@ public final class PlayerRecoil {
      */
     public PlayerRecoil(@NotNull Player player) {
         this.player = player;
+        this.maxPacketsPerSecond = ConfigManager.instance().recoilMaxPacketsPerSecond;
     }
 
     // -----< Public API >-----
@@ -129,14 +168,60 @@ public final class PlayerRecoil {
 
     /**
      * Updates the player's camera to simulate recoil for this tick.<br>
-     * Automatically stops the recoil task when recoil is fully applied or becomes negligible.
+     * Clears the recoil when it is fully applied or becomes negligible.
+     *
+     * @return {@code true} if the recoil is still active or has rotation left to send, {@code false} otherwise
+     */
+    public boolean tick() {
+        final boolean active = updateRecoil();
+        sendPendingRotation();
+        return active || pendingYaw != 0.0f || pendingPitch != 0.0f;
+    }
+
+    /**
+     * Sets the maximum number of rotation packets sent to the player per second.
+     *
+     * @param packetsPerSecond the maximum packet rate, clamped between 1 and 20
+     */
+    public void setMaxPacketsPerSecond(int packetsPerSecond) {
+        this.maxPacketsPerSecond = Math.clamp(packetsPerSecond, 1, 20);
+    }
+
+    /**
+     * @return the maximum number of rotation packets sent to the player per second
+     */
+    public int maxPacketsPerSecond() {
+        return maxPacketsPerSecond;
+    }
+
+    /**
+     * @return the number of rotation packets sent to the player during the last full second
+     */
+    public int packetsPerSecond() {
+        return packetsLastSecond;
+    }
+
+    /**
+     * Starts a new second of packet counting. Called by {@link RecoilHandler} every 20 ticks.
      */
-    public void tick() {
+    void rollPacketCount() {
+        packetsLastSecond = packetsThisSecond;
+        packetsThisSecond = 0;
+    }
+
+    // -----< Internal Utilities >-----
+
+    /**
+     * Advances the recoil by one tick and adds the resulting camera rotation to the pending rotation.
+     *
+     * @return {@code true} if the recoil is still active, {@code false} if it was cleared
+     */
+    private boolean updateRecoil() {
         // TEST VALUES
         if (++taskTicks >= totalTicksToRecover) {
             //System.out.println("Stopped in " + taskTicks + " ticks using 'RECOVERING'");
-            clearAndStop();
-            return;
+            clear();
+            return false;
         }
         // END TEST VALUES
 
@@ -158,27 +243,41 @@ public final class PlayerRecoil {
         if (!MathUtils.approximatelyZero(deltaYaw, 0.01f) ||
             !MathUtils.approximatelyZero(deltaPitch, 0.01f)) {
             noSentPacketInARow = 0;
-            modifyCameraRotation(player, deltaYaw, -deltaPitch);
+            pendingYaw += deltaYaw;
+            pendingPitch -= deltaPitch;
         } else {
             if (++noSentPacketInARow >= NO_SENT_PACKET_IN_A_ROW_TO_STOP) {
                 //System.out.println("Stopped in " + taskTicks + " ticks using 'NOT SENDING PACKETS'");
-                clearAndStop();
+                clear();
+                return false;
             }
         }
+        return true;
     }
 
-    // -----< Internal Utilities >-----
+    /**
+     * Sends the pending camera rotation as a single packet, if the packet rate allows it.
+     */
+    private void sendPendingRotation() {
+        packetAllowance = Math.min(1.0f, packetAllowance + maxPacketsPerSecond / 20.0f);
+        if (pendingYaw == 0.0f && pendingPitch == 0.0f) return;
+        if (packetAllowance < 1.0f) return;
+
+        packetAllowance -= 1.0f;
+        packetsThisSecond++;
+        modifyCameraRotation(player, pendingYaw, pendingPitch);
+        pendingYaw = 0.0f;
+        pendingPitch = 0.0f;
+    }
 
     /**
-     * Clears the accumulated recoil and stops the recoil task for this player.
+     * Clears the accumulated recoil for this player.
      */
-    private void clearAndStop() {
+    private void clear() {
         targetRecoilX = 0.0f;
         targetRecoilY = 0.0f;
         currentRecoilX = 0.0f;
         currentRecoilY = 0.0f;
-
-        RecoilHandler.cancelRecoilTask(player);
     }
 
     /**
@@ -1,17 +1,21 @@
 package org.dredd.bulletcore.models.weapons.shooting.recoil;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
-import org.bukkit.Bukkit;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
-import org.dredd.bulletcore.BulletCore;
+import org.dredd.bulletcore.config.ConfigManager;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Handles recoil tasks for players.
+ * Handles recoil for players.
+ * <p>
+ * Active recoils are kept in a dense array and all of them are updated by a single {@link #tick()}
+ * at the end of each server tick, so no scheduler tasks are created or cancelled per burst.
  *
  * @author dredd
  * @since 1.0.0
@@ -29,9 +33,35 @@ public final class RecoilHandler {
     private static final Map<UUID, PlayerRecoil> RECOILS = new HashMap<>();
 
     /**
-     * Stores currently running recoil tasks for each player.
+     * Maximum recoil packet rate of players whose rate was set through {@link #setMaxPacketsPerSecond}.
      */
-    private static final Map<UUID, BukkitTask> RECOIL_TASKS = new HashMap<>();
+    private static final Object2IntMap<UUID> MAX_PACKET_RATES = new Object2IntOpenHashMap<>();
+
+    /**
+     * Prefix of the permissions setting the maximum recoil packet rate of a player,
+     * e.g., {@code bulletcore.recoil.max-packets.5} for 5 packets per second.
+     */
+    private static final String MAX_PACKETS_PERMISSION = "bulletcore.recoil.max-packets.";
+
+    /**
+     * Recoils that are currently being applied, in the first {@link #activeCount} elements.
+     */
+    private static PlayerRecoil[] active = new PlayerRecoil[16];
+
+    private static int activeCount;
+
+    // ----------< Stats >----------
+
+    /**
+     * Ticks since the last roll of the per-second packet counts.
+     */
+    private static int statsTicks;
+
+    private static int packetsPerSecond;
+
+    private static int maxPlayerPacketsPerSecond;
+
+    private static int playersWithPackets;
 
     // ----------< Public API >----------
 
@@ -43,41 +73,67 @@ public final class RecoilHandler {
      * @return {@link PlayerRecoil} instance for the given player
      */
     public static @NotNull PlayerRecoil getRecoil(@NotNull Player player) {
-        return RECOILS.computeIfAbsent(player.getUniqueId(), k -> new PlayerRecoil(player));
+        return RECOILS.computeIfAbsent(player.getUniqueId(), k -> {
+            final PlayerRecoil recoil = new PlayerRecoil(player);
+            recoil.setMaxPacketsPerSecond(initialMaxPacketsPerSecond(player));
+            return recoil;
+        });
     }
 
     /**
-     * Stops the recoil task for the given player.
+     * Stops applying recoil to the given player and clears their {@link PlayerRecoil} instance.
      *
-     * @param player the player whose task should be stopped
+     * @param player the player whose recoil data should be cleared
      */
-    public static void cancelRecoilTask(@NotNull Player player) {
-        final BukkitTask task = RECOIL_TASKS.remove(player.getUniqueId());
-        if (task != null) task.cancel();
+    public static void cancelAndRemoveRecoil(@NotNull Player player) {
+        final PlayerRecoil recoil = RECOILS.remove(player.getUniqueId());
+        if (recoil != null && recoil.activeIndex >= 0) deactivate(recoil.activeIndex);
     }
 
     /**
-     * Stops the recoil task and clears {@link PlayerRecoil} instance for the given player.
+     * Stops applying recoil and clears all the recoil data for all the players.
+     */
+    public static void cancelAllRecoils() {
+        Arrays.fill(active, 0, activeCount, null);
+        activeCount = 0;
+        RECOILS.clear();
+        MAX_PACKET_RATES.clear();
+        statsTicks = 0;
+        packetsPerSecond = 0;
+        maxPlayerPacketsPerSecond = 0;
+        playersWithPackets = 0;
+    }
+
+    /**
+     * Sets the maximum number of recoil rotation packets sent to the given player per second.<br>
+     * Rotation over the limit is merged into the next packet, so the total recoil stays the same.
+     * <p>
+     * The rate is only kept until the player leaves the server or the plugin is reloaded.
+     * To give a player a lasting rate, grant them the permission {@code bulletcore.recoil.max-packets.<rate>} instead.
      *
-     * @param player the player whose recoil data should be cleared
+     * @param player           the player
+     * @param packetsPerSecond the maximum packet rate, clamped between 1 and 20
      */
-    public static void cancelAndRemoveRecoil(@NotNull Player player) {
-        cancelRecoilTask(player);
-        RECOILS.remove(player.getUniqueId());
+    public static void setMaxPacketsPerSecond(@NotNull Player player, int packetsPerSecond) {
+        MAX_PACKET_RATES.put(player.getUniqueId(), Math.clamp(packetsPerSecond, 1, 20));
+        getRecoil(player).setMaxPacketsPerSecond(packetsPerSecond);
     }
 
     /**
-     * Stops all the recoil tasks and clears all the recoil data for all the players.
+     * Resets the maximum recoil packet rate of the given player to the one of their permissions, or the configured one.
+     *
+     * @param player the player
      */
-    public static void cancelAllRecoilTasks() {
-        RECOIL_TASKS.values().forEach(BukkitTask::cancel);
-        RECOIL_TASKS.clear();
-        RECOILS.clear();
+    public static void resetMaxPacketsPerSecond(@NotNull Player player) {
+        MAX_PACKET_RATES.removeInt(player.getUniqueId());
+
+        final PlayerRecoil recoil = RECOILS.get(player.getUniqueId());
+        if (recoil != null) recoil.setMaxPacketsPerSecond(initialMaxPacketsPerSecond(player));
     }
 
     /**
      * Handles the recoil logic for a shot fired by the given player.<br>
-     * If no recoil task is currently running for the player, a new one is scheduled.<br>
+     * If the recoil of the player is not active yet, it is applied from the end of this tick on.
      *
      * @param player       the player who fired the shot; must not be null
      * @param weaponRecoil the recoil config of the used weapon; must not be null
@@ -87,10 +143,121 @@ public final class RecoilHandler {
         final var playerRecoil = getRecoil(player);
         playerRecoil.onShotFired(weaponRecoil);
 
-        RECOIL_TASKS.computeIfAbsent(player.getUniqueId(), k ->
-            Bukkit.getScheduler().runTaskTimer(
-                BulletCore.instance(), playerRecoil::tick, 0L, 1L
-            )
-        );
+        if (playerRecoil.activeIndex < 0) {
+            if (activeCount == active.length) active = Arrays.copyOf(active, activeCount << 1);
+            playerRecoil.activeIndex = activeCount;
+            active[activeCount++] = playerRecoil;
+        }
+    }
+
+    /**
+     * Applies one tick of recoil to every active recoil, and drops the ones that are complete.<br>
+     * Called once at the end of each server tick.
+     */
+    public static void tick() {
+        int i = 0;
+        while (i < activeCount) {
+            if (active[i].tick()) i++;
+            else deactivate(i);
+        }
+
+        if (++statsTicks == 20) {
+            statsTicks = 0;
+            rollPacketCounts();
+        }
+    }
+
+    // -----< Stats >-----
+
+    /**
+     * @return the number of recoil packets sent to all players during the last full second
+     */
+    public static int packetsPerSecond() {
+        return packetsPerSecond;
+    }
+
+    /**
+     * @return the highest number of recoil packets sent to a single player during the last full second
+     */
+    public static int maxPlayerPacketsPerSecond() {
+        return maxPlayerPacketsPerSecond;
+    }
+
+    /**
+     * @return the number of players who received recoil packets during the last full second
+     */
+    public static int playersWithPackets() {
+        return playersWithPackets;
+    }
+
+    /**
+     * @param player the player
+     * @return the number of recoil packets sent to the given player during the last full second
+     */
+    public static int packetsPerSecond(@NotNull Player player) {
+        final PlayerRecoil recoil = RECOILS.get(player.getUniqueId());
+        return recoil != null ? recoil.packetsPerSecond() : 0;
+    }
+
+    /**
+     * @param player the player
+     * @return the maximum number of recoil packets sent to the given player per second
+     */
+    public static int maxPacketsPerSecond(@NotNull Player player) {
+        final PlayerRecoil recoil = RECOILS.get(player.getUniqueId());
+        return recoil != null ? recoil.maxPacketsPerSecond() : initialMaxPacketsPerSecond(player);
+    }
+
+    // ----------< Internal API >----------
+
+    /**
+     * Returns the maximum recoil packet rate of the given player: the one set through {@link #setMaxPacketsPerSecond},
+     * or else the highest rate of the {@link #MAX_PACKETS_PERMISSION} permissions explicitly granted to them,
+     * or else the configured one.
+     */
+    private static int initialMaxPacketsPerSecond(@NotNull Player player) {
+        final UUID uuid = player.getUniqueId();
+        if (MAX_PACKET_RATES.containsKey(uuid)) return MAX_PACKET_RATES.getInt(uuid);
+
+        // only explicitly set permissions, as unknown permissions are granted to operators by default
+        for (int rate = 20; rate >= 1; rate--) {
+            final String permission = MAX_PACKETS_PERMISSION + rate;
+            if (player.isPermissionSet(permission) && player.hasPermission(permission)) return rate;
+        }
+        return ConfigManager.instance().recoilMaxPacketsPerSecond;
+    }
+
+    /**
+     * Starts a new second of packet counting for all players and updates the stats of the last second.
+     */
+    private static void rollPacketCounts() {
+        int total = 0, max = 0, players = 0;
+        for (final PlayerRecoil recoil : RECOILS.values()) {
+            recoil.rollPacketCount();
+
+            final int packets = recoil.packetsPerSecond();
+            if (packets == 0) continue;
+            total += packets;
+            max = Math.max(max, packets);
+            players++;
+        }
+
+        packetsPerSecond = total;
+        maxPlayerPacketsPerSecond = max;
+        playersWithPackets = players;
+    }
+
+    /**
+     * Removes the active recoil at the given index by moving the last active recoil in its place.
+     */
+    private static void deactivate(int index) {
+        active[index].activeIndex = -1;
+
+        final int last = --activeCount;
+        if (index != last) {
+            active[index] = active[last];
+            active[index].activeIndex = index;
+        }
+        active[last] = null;
     }
-}
\ No newline at end of file
+}
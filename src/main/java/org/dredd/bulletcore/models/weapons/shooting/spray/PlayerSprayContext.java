@@ -2,12 +2,17 @@ package org.dredd.bulletcore.models.weapons.shooting.spray;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.JoinConfiguration;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.Location;
+import net.minecraft.server.level.ServerPlayer;
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.entity.CraftPlayer;
 import org.bukkit.entity.Player;
+import org.dredd.bulletcore.listeners.trackers.HeldItemTracker;
 import org.dredd.bulletcore.utils.ComponentUtils;
 import org.dredd.bulletcore.utils.FormatterUtils;
 import org.jetbrains.annotations.NotNull;
@@ -32,12 +37,60 @@ import static org.dredd.bulletcore.models.weapons.shooting.spray.MovementState.W
 
 /**
  * Tracks and updates the state context for a specific player.
+ * <p>
+ * The context is evaluated lazily, at most once per tick: when the spray of a shot is computed,
+ * and at the end of each tick while the player is {@link SprayHandler#wake awake} (i.e., holds a weapon),
+ * so the movement history needed for {@link MovementState#STANDING} and {@link MovementState#JUMPING} is kept.
+ * All states and modifiers are packed into a single bitfield.
  *
  * @author dredd
  * @since 1.0.0
  */
 public final class PlayerSprayContext {
 
+    // -----< Bitfield >-----
+
+    /**
+     * All movement states, in the order they are checked.
+     */
+    private static final MovementState[] STATES = MovementState.values();
+
+    /**
+     * All movement modifiers.
+     */
+    private static final MovementModifier[] MODIFIERS = MovementModifier.values();
+
+    /**
+     * State bits, by {@link MovementState#ordinal()}, so the lowest set bit is the current state.
+     */
+    private static final int GLIDING_BIT = bit(GLIDING), SWIMMING_BIT = bit(SWIMMING), JUMPING_BIT = bit(JUMPING),
+        STANDING_BIT = bit(STANDING), CRAWLING_BIT = bit(CRAWLING), RIDING_BIT = bit(RIDING),
+        FLYING_BIT = bit(FLYING), CLIMBING_BIT = bit(CLIMBING), WALKING_BIT = bit(WALKING);
+
+    private static final int STATES_MASK = (1 << STATES.length) - 1;
+
+    private static final int MODIFIERS_MASK = ((1 << MODIFIERS.length) - 1) << STATES.length;
+
+    /**
+     * Modifier bits, by {@link MovementModifier#ordinal()}, above the state bits.
+     */
+    private static final int SPRINTING_BIT = bit(SPRINTING), SNEAKING_BIT = bit(SNEAKING),
+        UNDERWATER_BIT = bit(UNDERWATER), IN_WATER_BIT = bit(IN_WATER), IN_VEHICLE_BIT = bit(IN_VEHICLE),
+        IN_FLIGHT_BIT = bit(IN_FLIGHT), IN_CRAWLING_POSE_BIT = bit(IN_CRAWLING_POSE), ON_CLIMBABLE_BIT = bit(ON_CLIMBABLE);
+
+    /**
+     * Whether the player was at the same position on the previous update, above the modifier bits.
+     */
+    private static final int WAS_STANDING_BIT = 1 << (STATES.length + MODIFIERS.length);
+
+    private static int bit(@NotNull MovementState state) {
+        return 1 << state.ordinal();
+    }
+
+    private static int bit(@NotNull MovementModifier modifier) {
+        return 1 << (STATES.length + modifier.ordinal());
+    }
+
     // -----< Attributes >-----
 
     /**
@@ -46,19 +99,24 @@ public final class PlayerSprayContext {
     private final Player player;
 
     /**
-     * Player location from the last tick.
+     * Player position from the last update.
      */
-    private Location lastTickLocation;
+    private double lastX, lastY, lastZ;
 
     /**
-     * Player vertical velocity from the last tick.
+     * Player vertical velocity from the last update.
      */
     private double lastTickVelocityY;
 
     /**
-     * Whether the player was standing on the previous tick.
+     * Tick of the last update.
+     */
+    private int updatedTick = Integer.MIN_VALUE;
+
+    /**
+     * Current states, modifiers, and {@link #WAS_STANDING_BIT}.
      */
-    private boolean wasStanding;
+    private int flags;
 
     /**
      * Shot number since this instance was created.<br>
@@ -71,69 +129,40 @@ public final class PlayerSprayContext {
      */
     private boolean sendMessage;
 
-    // States
-    private boolean gliding;
-
-    private boolean swimming;
-
-    private boolean jumping;
-
-    private boolean standing;
-
-    private boolean crawling;
-
-    private boolean riding;
-
-    private boolean flying;
-
-    private boolean climbing;
-
-    private boolean walking;
-
-    // Modifiers
-    private boolean sprinting;
-
-    private boolean sneaking;
-
-    private boolean underwater;
-
-    private boolean inWater;
-
-    private boolean inVehicle;
-
-    private boolean inFlight;
-
-    private boolean inCrawlingPose;
-
-    private boolean onClimbable;
+    /**
+     * Picks the spray pattern points of the pellets, for weapons with a spray pattern.
+     */
+    private SplittableRandom patternRandom;
 
     // -----< Construction >-----
 
     public PlayerSprayContext(@NotNull Player player) {
         this.player = player;
-        this.lastTickLocation = player.getLocation();
+        final UUID uuid = player.getUniqueId();
+        this.patternRandom = new SplittableRandom(uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits());
+
+        // a new context counts the player as standing until they move away from here
+        final ServerPlayer handle = ((CraftPlayer) player).getHandle();
+        this.lastX = handle.getX();
+        this.lastY = handle.getY();
+        this.lastZ = handle.getZ();
+        this.flags = WAS_STANDING_BIT;
     }
 
     // -----< State Retrieval API >-----
 
     /**
      * Gets the current {@link MovementState} of the player.<br>
-     * Remark: checking order is important, do not rearrange.
+     * Remark: checking order is the declaration order of {@link MovementState}, do not rearrange.
      *
      * @return the current {@link MovementState} of the player
      * @throws IllegalStateException if the player is in an invalid state
      */
     public @NotNull MovementState getState() {
-        if (gliding) return GLIDING;
-        if (swimming) return SWIMMING;
-        if (jumping) return JUMPING;
-        if (standing) return STANDING;
-        if (crawling) return CRAWLING;
-        if (riding) return RIDING;
-        if (flying) return FLYING;
-        if (climbing) return CLIMBING;
-        if (walking) return WALKING;
-        throw new IllegalStateException("Player is in invalid state");
+        update();
+        final int states = flags & STATES_MASK;
+        if (states == 0) throw new IllegalStateException("Player is in invalid state");
+        return STATES[Integer.numberOfTrailingZeros(states)];
     }
 
     /**
@@ -142,82 +171,120 @@ public final class PlayerSprayContext {
      * @return the list of {@link MovementModifier}s for the player
      */
     public @NotNull List<MovementModifier> getModifiers() {
-        final List<MovementModifier> mods = new ArrayList<>(MovementModifier.values().length);
-        if (sprinting) mods.add(SPRINTING);
-        if (sneaking) mods.add(SNEAKING);
-        if (underwater) mods.add(UNDERWATER);
-        if (inWater) mods.add(IN_WATER);
-        if (inVehicle) mods.add(IN_VEHICLE);
-        if (inFlight) mods.add(IN_FLIGHT);
-        if (inCrawlingPose) mods.add(IN_CRAWLING_POSE);
-        if (onClimbable) mods.add(ON_CLIMBABLE);
+        return modifiersOf(getModifierMask());
+    }
+
+    /**
+     * Gets the active {@link MovementModifier}s for the player as a bitmask.
+     *
+     * @return the active {@link MovementModifier}s, as a bit per {@link MovementModifier#ordinal()}
+     */
+    public int getModifierMask() {
+        update();
+        return (flags & MODIFIERS_MASK) >>> STATES.length;
+    }
+
+    /**
+     * Returns the list of the {@link MovementModifier}s in the given bitmask.
+     */
+    private static @NotNull List<MovementModifier> modifiersOf(int modifierMask) {
+        final List<MovementModifier> mods = new ArrayList<>(Integer.bitCount(modifierMask));
+        for (final MovementModifier modifier : MODIFIERS) {
+            if ((modifierMask & (1 << modifier.ordinal())) != 0) mods.add(modifier);
+        }
         return mods;
     }
 
     // -----< State Update >-----
 
     /**
-     * Updates all the {@link MovementState}s and {@link MovementModifier}s for the current player.
+     * Checks whether the player holds a weapon, so this context needs to be updated every tick.
+     */
+    boolean isArmed() {
+        return HeldItemTracker.getWeaponOrNull(player) != null;
+    }
+
+    /**
+     * Forgets the vertical velocity, which is stale after the context was not updated for a while.
+     * Called when the context starts to be updated every tick.
+     * <p>
+     * The last position and whether the player stood there are kept, so a player who has not moved
+     * since the last update is still {@link MovementState#STANDING} on the next one.
      */
-    public void tick() {
+    void reset() {
+        lastTickVelocityY = 0.0D;
+        updatedTick = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Updates all the {@link MovementState}s and {@link MovementModifier}s for the current player,
+     * unless they were already updated during this tick.
+     */
+    public void update() {
+        final int currentTick = Bukkit.getCurrentTick();
+        if (updatedTick == currentTick) return;
+        updatedTick = currentTick;
+
+        final ServerPlayer handle = ((CraftPlayer) player).getHandle();
+
         // Independent states
-        gliding = player.isGliding();
-        swimming = player.isSwimming();
+        final boolean gliding = player.isGliding();
+        final boolean swimming = player.isSwimming();
 
         // Modifiers
-        sprinting = player.isSprinting() && !swimming; // do not trigger SPRINTING when SWIMMING
-        sneaking = player.isSneaking();
-        underwater = player.isUnderWater();
-        inWater = player.isInWater() && !swimming && !underwater; // do not trigger IN_WATER when SWIMMING or UNDERWATER
-        inVehicle = player.isInsideVehicle();
-        inFlight = player.isFlying() && !inVehicle; // do not trigger IN_FLIGHT when IN_VEHICLE
-        inCrawlingPose = !gliding && !swimming && player.getBoundingBox().getHeight() < 1.5D;
-        onClimbable = player.isClimbing();
+        final boolean sprinting = player.isSprinting() && !swimming; // do not trigger SPRINTING when SWIMMING
+        final boolean sneaking = player.isSneaking();
+        final boolean underwater = player.isUnderWater();
+        final boolean inWater = player.isInWater() && !swimming && !underwater; // do not trigger IN_WATER when SWIMMING or UNDERWATER
+        final boolean inVehicle = player.isInsideVehicle();
+        final boolean inFlight = player.isFlying() && !inVehicle; // do not trigger IN_FLIGHT when IN_VEHICLE
+        final boolean inCrawlingPose = !gliding && !swimming && player.getHeight() < 1.5D;
+        final boolean onClimbable = player.isClimbing();
 
         // Jumping state
+        final boolean jumping;
         {
-            final double currentVelocityY = player.getVelocity().getY();
+            final double currentVelocityY = handle.getDeltaMovement().y;
+            final float fallDistance = player.getFallDistance();
             jumping = !onClimbable && !underwater && !inFlight && (
                 (currentVelocityY > 0.0 || Math.abs(currentVelocityY) > 0.1) // ascending
-                    || (player.getFallDistance() > 0.0f) // falling
-                    || (lastTickVelocityY > 0.0 && currentVelocityY < 0.0 && player.getFallDistance() == 0.0f) // apex
+                    || (fallDistance > 0.0f) // falling
+                    || (lastTickVelocityY > 0.0 && currentVelocityY < 0.0 && fallDistance == 0.0f) // apex
             );
             lastTickVelocityY = currentVelocityY;
         }
 
         // Standing state
+        final boolean standing, samePosition;
         {
-            final Location currentLocation = player.getLocation();
-            final boolean samePosition = isSamePosition(currentLocation, lastTickLocation);
-            standing = samePosition && wasStanding;
-            lastTickLocation = currentLocation;
-            wasStanding = samePosition;
+            final double x = handle.getX(), y = handle.getY(), z = handle.getZ();
+            samePosition = x == lastX && y == lastY && z == lastZ;
+            standing = samePosition && (flags & WAS_STANDING_BIT) != 0;
+            lastX = x;
+            lastY = y;
+            lastZ = z;
         }
 
-        // Other states
-        crawling = inCrawlingPose;
-        riding = inVehicle;
-        flying = inFlight;
-        climbing = onClimbable;
-        walking = !inVehicle;
-
-        // Post modifications to remove dependencies
-        inVehicle = inVehicle && standing; // do not trigger IN_VEHICLE when RIDING
-        inFlight = inFlight && standing; // do not trigger IN_FLIGHT when FLYING
-        inCrawlingPose = inCrawlingPose && standing; // do not trigger IN_CRAWLING_POSE when CRAWLING
-        onClimbable = onClimbable && standing; // do not trigger ON_CLIMBABLE when CLIMBING
-    }
-
-    /**
-     * Checks if two locations are the same based on their coordinates excluding rotations.
-     *
-     * @param l1 first location
-     * @param l2 second location
-     * @return true if the locations are the same coordinates, false otherwise
-     */
-    private boolean isSamePosition(@NotNull Location l1,
-                                   @NotNull Location l2) {
-        return l1.getX() == l2.getX() && l1.getY() == l2.getY() && l1.getZ() == l2.getZ();
+        flags = (gliding ? GLIDING_BIT : 0)
+            | (swimming ? SWIMMING_BIT : 0)
+            | (jumping ? JUMPING_BIT : 0)
+            | (standing ? STANDING_BIT : 0)
+            // Other states
+            | (inCrawlingPose ? CRAWLING_BIT : 0)
+            | (inVehicle ? RIDING_BIT : 0)
+            | (inFlight ? FLYING_BIT : 0)
+            | (onClimbable ? CLIMBING_BIT : 0)
+            | (!inVehicle ? WALKING_BIT : 0)
+            // Modifiers, with dependencies removed
+            | (sprinting ? SPRINTING_BIT : 0)
+            | (sneaking ? SNEAKING_BIT : 0)
+            | (underwater ? UNDERWATER_BIT : 0)
+            | (inWater ? IN_WATER_BIT : 0)
+            | (inVehicle && standing ? IN_VEHICLE_BIT : 0) // do not trigger IN_VEHICLE when RIDING
+            | (inFlight && standing ? IN_FLIGHT_BIT : 0) // do not trigger IN_FLIGHT when FLYING
+            | (inCrawlingPose && standing ? IN_CRAWLING_POSE_BIT : 0) // do not trigger IN_CRAWLING_POSE when CRAWLING
+            | (onClimbable && standing ? ON_CLIMBABLE_BIT : 0) // do not trigger ON_CLIMBABLE when CLIMBING
+            | (samePosition ? WAS_STANDING_BIT : 0);
     }
 
     // -----< Message Sending >-----
@@ -225,15 +292,17 @@ public final class PlayerSprayContext {
     /**
      * Sends a message to the player with the current state context.
      *
-     * @param state     the movement state the player is currently in
-     * @param modifiers the list of movement modifiers the player currently has
-     * @param spray     the current spray value for the player
+     * @param state        the movement state the player is currently in
+     * @param modifierMask the movement modifiers the player currently has, as a bitmask
+     * @param spray        the current spray value for the player
      */
     public void sendMessage(@NotNull MovementState state,
-                            @NotNull List<MovementModifier> modifiers,
+                            int modifierMask,
                             double spray) {
         if (!sendMessage) return;
 
+        final List<MovementModifier> modifiers = modifiersOf(modifierMask);
+
         shot++;
 
         // line 1: State
@@ -269,6 +338,23 @@ public final class PlayerSprayContext {
         player.sendMessage(fullMessage);
     }
 
+    /**
+     * Returns the source picking the spray pattern points of the pellets fired by the player.
+     */
+    @NotNull SplittableRandom getPatternRandom() {
+        return patternRandom;
+    }
+
+    /**
+     * Restarts the picking of spray pattern points from the given seed,
+     * so the following shots pick the same points every time (e.g., to replay them).
+     *
+     * @param seed the seed
+     */
+    public void setPatternSeed(long seed) {
+        this.patternRandom = new SplittableRandom(seed);
+    }
+
     /**
      * Sets whether to send a spray info message to the player after the shot.
      *
@@ -1,15 +1,19 @@
 package org.dredd.bulletcore.models.weapons.shooting.spray;
 
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.util.Vector;
 import org.dredd.bulletcore.models.weapons.Weapon;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
 
 /**
  * Handles weapon spray for players.
@@ -44,6 +48,12 @@ public final class SprayHandler {
      */
     private static final Map<UUID, PlayerSprayContext> SPRAY_CONTEXTS = new HashMap<>();
 
+    /**
+     * Spray contexts updated at the end of each tick: the ones of players holding a weapon,
+     * and the ones woken up since the last tick, which are dropped unless their player holds a weapon.
+     */
+    private static final Set<PlayerSprayContext> AWAKE_CONTEXTS = new ReferenceOpenHashSet<>();
+
     // ----------< Public API >----------
 
     /**
@@ -57,62 +67,128 @@ public final class SprayHandler {
         return SPRAY_CONTEXTS.computeIfAbsent(player.getUniqueId(), k -> new PlayerSprayContext(player));
     }
 
+    /**
+     * Makes the spray context of the given player updated every tick, as long as the player holds a weapon.<br>
+     * Called when the held item of the player may change.
+     *
+     * @param player the player whose spray context should be woken up
+     * @return {@link PlayerSprayContext} instance for the given player
+     */
+    public static @NotNull PlayerSprayContext wake(@NotNull Player player) {
+        final PlayerSprayContext sprayContext = getSprayContext(player);
+        if (AWAKE_CONTEXTS.add(sprayContext)) sprayContext.reset();
+        return sprayContext;
+    }
+
+    /**
+     * Wakes up the spray contexts of all online players. Called when the plugin is (re)loaded,
+     * as the held items of the players may have become weapons without any event.
+     */
+    public static void wakeAll() {
+        for (final Player player : Bukkit.getOnlinePlayers())
+            wake(player);
+    }
+
     /**
      * Clears the spray context for the given player.
      *
      * @param player the player whose spray context should be cleared
      */
     public static void clearSprayContext(@NotNull Player player) {
-        SPRAY_CONTEXTS.remove(player.getUniqueId());
+        final PlayerSprayContext sprayContext = SPRAY_CONTEXTS.remove(player.getUniqueId());
+        if (sprayContext != null) AWAKE_CONTEXTS.remove(sprayContext);
     }
 
     /**
-     * Update the spray context for each player.
+     * Update the spray context of each player holding a weapon, and put the others to sleep.
      */
     public static void tick() {
-        SPRAY_CONTEXTS.values().forEach(PlayerSprayContext::tick);
+        if (AWAKE_CONTEXTS.isEmpty()) return;
+
+        final Iterator<PlayerSprayContext> iterator = AWAKE_CONTEXTS.iterator();
+        while (iterator.hasNext()) {
+            final PlayerSprayContext sprayContext = iterator.next();
+            if (sprayContext.isArmed()) {
+                sprayContext.update();
+            } else {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of spray contexts updated every tick
+     */
+    public static int awakeContexts() {
+        return AWAKE_CONTEXTS.size();
     }
 
     /**
      * Applies the spray logic for a shot fired by the given player.
      *
-     * @param player           the player who fired the shot
-     * @param weapon           the weapon used to fire the shot
-     * @param initialDirection the normalized initial direction of the shot
-     * @return a Vector array of size {@link Weapon#pelletsPerShot} where each element is the final direction of each pellet
+     * @param player     the player who fired the shot
+     * @param weapon     the weapon used to fire the shot
+     * @param dirX       the x component of the normalized initial direction of the shot
+     * @param dirY       the y component of the normalized initial direction of the shot
+     * @param dirZ       the z component of the normalized initial direction of the shot
+     * @param directions receives the normalized final direction of each pellet as consecutive {@code x, y, z} components;
+     *                   its size must be 3 × {@link Weapon#pelletsPerShot}
      */
-    public static @NotNull Vector[] handleShot(@NotNull Player player,
-                                               @NotNull Weapon weapon,
-                                               @NotNull Vector initialDirection) {
-        final Vector[] directions = new Vector[weapon.pelletsPerShot];
-
-        final var sprayContext = getSprayContext(player);
+    public static void handleShot(@NotNull Player player,
+                                  @NotNull Weapon weapon,
+                                  double dirX, double dirY, double dirZ,
+                                  @NotNull double[] directions) {
+        final var sprayContext = wake(player);
         final var state = sprayContext.getState();
-        final var modifiers = sprayContext.getModifiers();
-        final double finalSpray = weapon.spray.getFinalValue(state, modifiers);
+        final int modifierMask = sprayContext.getModifierMask();
+        final double finalSpray = weapon.spray.getFinalValue(state, modifierMask);
+
+        sprayContext.sendMessage(state, modifierMask, finalSpray);
 
-        sprayContext.sendMessage(state, modifiers, finalSpray);
+        spread(weapon.spray, finalSpray, sprayContext.getPatternRandom(), dirX, dirY, dirZ, directions);
+    }
 
+    /**
+     * Spreads the pellets of a shot inside the spray cone.
+     *
+     * @param spray         the spray of the weapon used to fire the shot
+     * @param finalSpray    the spray value of the shot, in degrees
+     * @param patternRandom picks the spray pattern points, if the spray has a pattern
+     * @param dirX          the x component of the normalized initial direction of the shot
+     * @param dirY          the y component of the normalized initial direction of the shot
+     * @param dirZ          the z component of the normalized initial direction of the shot
+     * @param directions    receives the normalized final direction of each pellet as consecutive {@code x, y, z} components
+     */
+    @VisibleForTesting
+    static void spread(@NotNull WeaponSpray spray,
+                       double finalSpray,
+                       @NotNull SplittableRandom patternRandom,
+                       double dirX, double dirY, double dirZ,
+                       @NotNull double[] directions) {
         if (finalSpray <= WeaponSpray.NO_SPRAY) {
-            Arrays.fill(directions, initialDirection);
-            return directions;
+            for (int i = 0; i < directions.length; i += 3) {
+                directions[i] = dirX;
+                directions[i + 1] = dirY;
+                directions[i + 2] = dirZ;
+            }
+            return;
         }
 
         // -----< change shot direction >-----
 
         // calculate cone limits in radians and cos space
         final double maxSprayRadians = Math.toRadians(finalSpray);
-        final double minSprayRadians = maxSprayRadians * weapon.spray.minSprayPercent;
+        final double minSprayRadians = maxSprayRadians * spray.minSprayPercent;
         final double cosMax = Math.cos(maxSprayRadians);
         final double cosMin = Math.cos(minSprayRadians);
         final double cosRange = cosMax - cosMin;
 
         // build orthonormal basis
 
-        // forward = initialDirection
-        double fx = initialDirection.getX();
-        double fy = initialDirection.getY();
-        double fz = initialDirection.getZ();
+        // forward = initial direction
+        double fx = dirX;
+        double fy = dirY;
+        double fz = dirZ;
 
         // avoid gimbal lock
         final boolean forwardIsVertical = Math.abs(fx) < 1e-12 && Math.abs(fz) < 1e-12;
@@ -137,25 +213,40 @@ public final class SprayHandler {
         final double uy = rz * fx - rx * fz;
         final double uz = rx * fy - ry * fx;
 
+        final int patternPoints = spray.patternCone.length;
         final ThreadLocalRandom rng = ThreadLocalRandom.current();
 
-        for (int i = 0; i < directions.length; i++) {
-            // sample a random direction inside the cone (local coordinates)
-            final double z = cosMin + cosRange * rng.nextDouble();
+        // pellets take every stride-th pattern point from a random offset, so a shot covers the whole cone
+        // and no point is taken twice as long as there are at least as many points as pellets
+        int point = patternPoints > 0 ? patternRandom.nextInt(patternPoints) : 0;
+        final int stride = Math.max(1, patternPoints / (directions.length / 3));
+
+        for (int i = 0; i < directions.length; i += 3) {
+            // pick a point of the pattern, or a random one, inside the unit cone
+            final double cone, cos, sin;
+            if (patternPoints > 0) {
+                cone = spray.patternCone[point];
+                cos = spray.patternCos[point];
+                sin = spray.patternSin[point];
+                point += stride;
+                if (point >= patternPoints) point -= patternPoints;
+            } else {
+                cone = rng.nextDouble();
+                final int idx = rng.nextInt(LUT_SIZE);
+                cos = COS[idx];
+                sin = SIN[idx];
+            }
+
+            // scale it to the current cone (local coordinates)
+            final double z = cosMin + cosRange * cone;
             final double sinT = Math.sqrt(1.0 - z * z);
-
-            final int idx = rng.nextInt(LUT_SIZE);
-            final double x = sinT * COS[idx];
-            final double y = sinT * SIN[idx];
+            final double x = sinT * cos;
+            final double y = sinT * sin;
 
             // rotate the local offset into world coordinates
-            final double dx = rx * x + ux * y + fx * z;
-            final double dy = ry * x + uy * y + fy * z;
-            final double dz = rz * x + uz * y + fz * z;
-
-            directions[i] = new Vector(dx, dy, dz);
+            directions[i] = rx * x + ux * y + fx * z;
+            directions[i + 1] = ry * x + uy * y + fy * z;
+            directions[i + 2] = rz * x + uz * y + fz * z;
         }
-
-        return directions;
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,7 @@
 package org.dredd.bulletcore.models.weapons.shooting.spray;
 
+import java.util.Arrays;
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Locale;
 
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -11,6 +11,15 @@ import org.jetbrains.annotations.NotNull;
  * Defines the parameters used to represent weapon spray.
  * <p>
  * The spray system models how weapon inaccuracy changes depending on the player's state.
+ * <p>
+ * The final spray of every combination of a {@link MovementState} and a set of {@link MovementModifier}s
+ * is computed once at load time, so resolving the spray of a shot is a single array read.
+ * <p>
+ * Pellets are spread randomly inside the spray cone, or, with {@code spray.patternPoints} set,
+ * picked from a fixed pattern of evenly distributed points computed at load time:
+ * the pellets of a shot take every {@code points / pellets}-th point from a random offset, wrapping around.
+ * As point {@code i} lies at the fraction {@code (i + 0.5) / points} of the cone, this spreads the pellets
+ * from the center to the edge, and they never share a point as long as there are at least as many points as pellets.
  *
  * @author dredd
  * @see PlayerSprayContext
@@ -39,6 +48,21 @@ public final class WeaponSpray {
      */
     static final double NO_SPRAY = 0.0D;
 
+    /**
+     * Number of {@link MovementModifier}s, i.e., of bits in a modifier mask.
+     */
+    private static final int MODIFIER_BITS = MovementModifier.values().length;
+
+    /**
+     * Maximum number of points of a spray pattern.
+     */
+    private static final int MAX_PATTERN_POINTS = 1024;
+
+    /**
+     * Angle between consecutive points of a spray pattern, spreading them evenly around the cone axis.
+     */
+    private static final double GOLDEN_ANGLE = Math.PI * (3.0D - Math.sqrt(5.0D));
+
     // -----< Loader >-----
 
     /**
@@ -93,14 +117,17 @@ public final class WeaponSpray {
     final double minSprayPercent;
 
     /**
-     * Weapon spray values associated with {@link MovementState}.
+     * Clamped final spray values, indexed by {@code (state ordinal << MODIFIER_BITS) | modifier mask}.
      */
-    private final EnumMap<MovementState, Double> stateSpray;
+    private final double[] finalSpray;
 
     /**
-     * Weapon spray values associated with {@link MovementModifier}.
+     * Points of the spray pattern, empty if pellets are spread randomly.<br>
+     * Point {@code i} is at the fraction {@code patternCone[i]} between the minimum and maximum spray
+     * (in cosine space, so points are evenly distributed over the cone), around the cone axis
+     * at the angle with cosine {@code patternCos[i]} and sine {@code patternSin[i]}.
      */
-    private final EnumMap<MovementModifier, Double> modifierSpray;
+    final double[] patternCone, patternCos, patternSin;
 
     // -----< Construction >-----
 
@@ -109,46 +136,54 @@ public final class WeaponSpray {
      */
     private WeaponSpray(@NotNull YamlConfiguration config) {
         this.minSprayPercent = Math.clamp(config.getDouble("spray.minSprayPercent", 0.5D), 0.0D, 1.0D);
-        this.stateSpray = loadSprayValues(MovementState.class, config, "spray.state.");
-        this.modifierSpray = loadSprayValues(MovementModifier.class, config, "spray.modifier.");
+
+        final EnumMap<MovementState, Double> stateSpray = loadSprayValues(MovementState.class, config, "spray.state.");
+        final EnumMap<MovementModifier, Double> modifierSpray = loadSprayValues(MovementModifier.class, config, "spray.modifier.");
+        final MovementModifier[] modifiers = MovementModifier.values();
+
+        // sum of the modifier values for each modifier mask, with the same (compensated) stream sum
+        // the spray of a shot was computed with before, so the table holds the exact same values
+        final double[] modifiersValue = new double[1 << MODIFIER_BITS];
+        for (int mask = 1; mask < modifiersValue.length; mask++) {
+            final int modifierMask = mask;
+            modifiersValue[mask] = Arrays.stream(modifiers)
+                .filter(modifier -> (modifierMask & (1 << modifier.ordinal())) != 0)
+                .mapToDouble(modifierSpray::get)
+                .sum();
+        }
+
+        this.finalSpray = new double[stateSpray.size() << MODIFIER_BITS];
+        for (final MovementState state : MovementState.values()) {
+            final int base = state.ordinal() << MODIFIER_BITS;
+            final double stateValue = stateSpray.get(state);
+            for (int mask = 0; mask < modifiersValue.length; mask++)
+                finalSpray[base | mask] = Math.clamp(stateValue + modifiersValue[mask], NO_SPRAY, MAX_SPRAY);
+        }
+
+        // Fibonacci lattice over the cone
+        final int patternPoints = Math.clamp(config.getInt("spray.patternPoints", 0), 0, MAX_PATTERN_POINTS);
+        this.patternCone = new double[patternPoints];
+        this.patternCos = new double[patternPoints];
+        this.patternSin = new double[patternPoints];
+        for (int i = 0; i < patternPoints; i++) {
+            final double angle = i * GOLDEN_ANGLE;
+            patternCone[i] = (i + 0.5D) / patternPoints;
+            patternCos[i] = Math.cos(angle);
+            patternSin[i] = Math.sin(angle);
+        }
     }
 
     // -----< Spray Retrieval API >-----
 
     /**
-     * Calculates the total spray value based on the player's movement state and active modifiers.<br>
+     * Returns the total spray value based on the player's movement state and active modifiers.<br>
      * The result is clamped between [{@value NO_SPRAY} and {@value MAX_SPRAY}] to ensure valid bounds.
      *
      * @param movementState the current {@link MovementState} of the player
-     * @param modifiers     a list of active {@link MovementModifier}s
+     * @param modifierMask  the active {@link MovementModifier}s, as a bit per {@link MovementModifier#ordinal()}
      * @return the clamped total spray value for the given state and modifiers
      */
-    public double getFinalValue(@NotNull MovementState movementState, @NotNull List<MovementModifier> modifiers) {
-        final double total = getStateValue(movementState) + getModifiersValue(modifiers);
-        return Math.clamp(total, NO_SPRAY, MAX_SPRAY);
-    }
-
-    /**
-     * Returns the weapon spray value associated with the given {@link MovementState}.<br>
-     * If no specific value is defined for the state, {@value NO_SPRAY} is returned.
-     *
-     * @param movementState the player movement state to query
-     * @return the associated weapon spray value, or {@value NO_SPRAY} if not present
-     */
-    private double getStateValue(@NotNull MovementState movementState) {
-        return stateSpray.getOrDefault(movementState, NO_SPRAY);
-    }
-
-    /**
-     * Computes the total weapon spray value for a list of {@link MovementModifier}s.<br>
-     * If any modifier has no defined spray value, it contributes {@value NO_SPRAY}.
-     *
-     * @param modifiers a list of active modifiers
-     * @return the sum of spray values for all specified modifiers
-     */
-    private double getModifiersValue(@NotNull List<MovementModifier> modifiers) {
-        return modifiers.stream()
-            .mapToDouble(m -> modifierSpray.getOrDefault(m, NO_SPRAY))
-            .sum();
+    public double getFinalValue(@NotNull MovementState movementState, int modifierMask) {
+        return finalSpray[(movementState.ordinal() << MODIFIER_BITS) | modifierMask];
     }
-}
\ No newline at end of file
+}
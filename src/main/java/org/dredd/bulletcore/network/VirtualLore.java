@@ -0,0 +1,196 @@
+package org.dredd.bulletcore.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.papermc.paper.adventure.PaperAdventure;
+import net.kyori.adventure.text.Component;
+import net.minecraft.core.NonNullList;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.network.protocol.game.ClientboundContainerSetContentPacket;
+import net.minecraft.network.protocol.game.ClientboundContainerSetSlotPacket;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.component.CustomData;
+import net.minecraft.world.item.component.ItemLore;
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+import org.dredd.bulletcore.BulletCore;
+import org.dredd.bulletcore.config.ConfigManager;
+import org.dredd.bulletcore.custom_item_manager.registries.CustomItemsRegistry;
+import org.dredd.bulletcore.models.CustomBase;
+import org.dredd.bulletcore.models.ItemState;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Renders the dynamic lore line of custom items (bullets, ammo count, durability) into outgoing packets.
+ * <p>
+ * With {@link ConfigManager#virtualLore} enabled, stacks on the server keep their static lore,
+ * and only their persistent data changes. A handler in the network pipeline of each player
+ * replaces the first lore line of every custom item in inventory packets with
+ * {@link CustomBase#renderDynamicLore its rendering} from the persistent data, right before sending.
+ * <p>
+ * Rendering runs on network threads and only reads the copies of the stacks held by the packets.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class VirtualLore {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private VirtualLore() {}
+
+    /**
+     * Name of the handler in the network pipeline of players.
+     */
+    private static final String HANDLER_NAME = "bulletcore_virtual_lore";
+
+    /**
+     * Name of the handler the lore handler is placed before, so it sees packets before they are encoded.
+     */
+    private static final String PACKET_HANDLER_NAME = "packet_handler";
+
+    // ----------< Public API >----------
+
+    /**
+     * Adds the lore handler to the network pipeline of the given player, if virtual lore is enabled,
+     * and resends their inventory.
+     *
+     * @param player the player
+     */
+    public static void install(@NotNull Player player) {
+        if (!ConfigManager.instance().virtualLore) return;
+
+        final ChannelPipeline pipeline = channelOf(player).pipeline();
+        if (pipeline.get(HANDLER_NAME) != null || pipeline.get(PACKET_HANDLER_NAME) == null) return;
+
+        try {
+            pipeline.addBefore(PACKET_HANDLER_NAME, HANDLER_NAME, LoreHandler.INSTANCE);
+        } catch (IllegalArgumentException | NoSuchElementException e) {
+            // the connection is closing or the handler was added concurrently
+            return;
+        }
+        player.updateInventory();
+    }
+
+    /**
+     * Adds the lore handler to all online players. Called when the plugin is loaded or reloaded.
+     */
+    public static void installAll() {
+        for (final Player player : Bukkit.getOnlinePlayers())
+            install(player);
+    }
+
+    /**
+     * Removes the lore handler from all online players. Called when the plugin is reloaded or disabled.
+     */
+    public static void uninstallAll() {
+        for (final Player player : Bukkit.getOnlinePlayers()) {
+            final ChannelPipeline pipeline = channelOf(player).pipeline();
+            if (pipeline.get(HANDLER_NAME) == null) continue;
+
+            try {
+                pipeline.remove(HANDLER_NAME);
+            } catch (NoSuchElementException ignored) {
+                // already removed by the closing connection
+            }
+        }
+    }
+
+    // ----------< Internal API >----------
+
+    private static @NotNull Channel channelOf(@NotNull Player player) {
+        return ((CraftPlayer) player).getHandle().connection.connection.channel;
+    }
+
+    /**
+     * Returns a copy of the given stack with its dynamic lore line rendered,
+     * or the stack itself if it is not a custom item with a dynamic lore line.
+     */
+    private static @NotNull ItemStack render(@NotNull ItemStack stack) {
+        if (stack.isEmpty()) return stack;
+
+        final ItemLore lore = stack.get(DataComponents.LORE);
+        final CustomData data = stack.get(DataComponents.CUSTOM_DATA);
+        if (lore == null || lore.lines().isEmpty() || data == null) return stack;
+
+        final CustomBase item = CustomItemsRegistry.getItemOrNull(stack);
+        if (item == null) return stack;
+
+        @SuppressWarnings("deprecation") final Component line = item.renderDynamicLore(data.getUnsafe().getCompound(ItemState.PERSISTENT_VALUES_TAG));
+        if (line == null) return stack;
+
+        final List<net.minecraft.network.chat.Component> lines = new ArrayList<>(lore.lines());
+        lines.set(0, PaperAdventure.asVanilla(line));
+
+        final ItemStack rendered = stack.copy();
+        rendered.set(DataComponents.LORE, new ItemLore(lines));
+        return rendered;
+    }
+
+    /**
+     * Returns the given packet with the dynamic lore lines of its stacks rendered,
+     * or the packet itself if it holds no stacks to render.
+     */
+    private static @NotNull Object render(@NotNull Object msg) {
+        if (msg instanceof ClientboundContainerSetSlotPacket packet) {
+            final ItemStack item = packet.getItem();
+            final ItemStack rendered = render(item);
+            return rendered == item ? packet
+                : new ClientboundContainerSetSlotPacket(packet.getContainerId(), packet.getStateId(), packet.getSlot(), rendered);
+        }
+
+        if (msg instanceof ClientboundContainerSetContentPacket packet) {
+            final List<ItemStack> items = packet.getItems();
+            final NonNullList<ItemStack> renderedItems = NonNullList.withSize(items.size(), ItemStack.EMPTY);
+            boolean changed = false;
+            for (int i = 0; i < items.size(); i++) {
+                final ItemStack item = items.get(i);
+                final ItemStack rendered = render(item);
+                renderedItems.set(i, rendered);
+                changed |= rendered != item;
+            }
+
+            final ItemStack carried = packet.getCarriedItem();
+            final ItemStack renderedCarried = render(carried);
+            changed |= renderedCarried != carried;
+
+            return !changed ? packet
+                : new ClientboundContainerSetContentPacket(packet.getContainerId(), packet.getStateId(), renderedItems, renderedCarried);
+        }
+
+        return msg;
+    }
+
+    // ----------< Handler >----------
+
+    /**
+     * Renders the dynamic lore of outgoing inventory packets. Shared by all players.
+     */
+    @ChannelHandler.Sharable
+    private static final class LoreHandler extends ChannelOutboundHandlerAdapter {
+
+        private static final LoreHandler INSTANCE = new LoreHandler();
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            Object out = msg;
+            try {
+                out = render(msg);
+            } catch (RuntimeException e) {
+                // never drop a packet because of its lore; the stored lore is sent instead
+                BulletCore.logError("Failed to render item lore: " + e);
+            }
+            super.write(ctx, out, promise);
+        }
+    }
+}
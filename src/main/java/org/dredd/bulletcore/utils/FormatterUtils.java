@@ -17,14 +17,42 @@ public final class FormatterUtils {
     private FormatterUtils() {}
 
     /**
-     * Decimal format with one optional decimal place.
+     * Decimal format with one optional decimal place.<br>
+     * Per thread, since lore may also be rendered on network threads.
      */
-    private static final DecimalFormat NUMBER_FORMAT_ONE_DECIMAL = new DecimalFormat("#.#");
+    private static final ThreadLocal<DecimalFormat> NUMBER_FORMAT_ONE_DECIMAL = ThreadLocal.withInitial(() -> new DecimalFormat("#.#"));
 
     /**
-     * Decimal format with two optional decimal places.
+     * Decimal format with two optional decimal places.<br>
+     * Per thread, since lore may also be rendered on network threads.
      */
-    private static final DecimalFormat NUMBER_FORMAT_TWO_DECIMAL = new DecimalFormat("#.##");
+    private static final ThreadLocal<DecimalFormat> NUMBER_FORMAT_TWO_DECIMAL = ThreadLocal.withInitial(() -> new DecimalFormat("#.##"));
+
+    /**
+     * Number of cached {@link #formatCount(int)} strings.
+     */
+    private static final int CACHED_COUNTS = 1024;
+
+    /**
+     * Cached string of each count in {@code [0, CACHED_COUNTS)}.
+     */
+    private static final String[] COUNT_STRINGS = new String[CACHED_COUNTS];
+
+    static {
+        for (int i = 0; i < CACHED_COUNTS; i++)
+            COUNT_STRINGS[i] = Integer.toString(i);
+    }
+
+    /**
+     * Formats a count (e.g., bullets, ammo) as a string.<br>
+     * Common small counts are cached, so frequent status messages don't create new strings.
+     *
+     * @param count the count to format
+     * @return the formatted count
+     */
+    public static @NotNull String formatCount(int count) {
+        return count >= 0 && count < CACHED_COUNTS ? COUNT_STRINGS[count] : Integer.toString(count);
+    }
 
     /**
      * Formats a double as a percentage to 2 decimal places.
@@ -44,7 +72,7 @@ public final class FormatterUtils {
      * @return the formatted percentage.
      */
     public static @NotNull String formatPercent(double ratio) {
-        return NUMBER_FORMAT_TWO_DECIMAL.format(ratio * 100);
+        return NUMBER_FORMAT_TWO_DECIMAL.get().format(ratio * 100);
     }
 
     /**
@@ -63,7 +91,7 @@ public final class FormatterUtils {
      * @return the formatted value
      */
     public static @NotNull String formatDouble(double value) {
-        return NUMBER_FORMAT_ONE_DECIMAL.format(value);
+        return NUMBER_FORMAT_ONE_DECIMAL.get().format(value);
     }
 
     /**
@@ -73,7 +101,7 @@ public final class FormatterUtils {
      * @return the formatted value
      */
     public static @NotNull String formatDouble2(double value) {
-        return NUMBER_FORMAT_TWO_DECIMAL.format(value);
+        return NUMBER_FORMAT_TWO_DECIMAL.get().format(value);
     }
 
     /**
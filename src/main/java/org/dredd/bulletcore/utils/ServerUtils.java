@@ -1,5 +1,7 @@
 package org.dredd.bulletcore.utils;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -9,6 +11,7 @@ import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.command.CommandSender;
+import org.bukkit.craftbukkit.inventory.CraftItemStack;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.CrossbowMeta;
@@ -42,6 +45,20 @@ public final class ServerUtils {
      */
     private static final List<ItemStack> CHARGED_PROJECTILES_LIST = Collections.singletonList(new ItemStack(Material.ARROW));
 
+    /**
+     * Access to the server stack behind a {@link CraftItemStack}.
+     */
+    private static final VarHandle CRAFT_HANDLE;
+
+    static {
+        try {
+            CRAFT_HANDLE = MethodHandles.privateLookupIn(CraftItemStack.class, MethodHandles.lookup())
+                .findVarHandle(CraftItemStack.class, "handle", net.minecraft.world.item.ItemStack.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     // ----------< Miscellaneous Methods >----------
 
     /**
@@ -120,6 +137,17 @@ public final class ServerUtils {
         return new NamespacedKey("bulletcore", UUID.randomUUID().toString());
     }
 
+    /**
+     * Returns the server stack behind the given stack, without copying it.<br>
+     * Changes to the returned stack are changes to the given stack.
+     *
+     * @param stack the stack
+     * @return the server stack, or {@code null} if the given stack is not backed by one
+     */
+    public static @Nullable net.minecraft.world.item.ItemStack getHandleOrNull(@Nullable ItemStack stack) {
+        return stack instanceof CraftItemStack ? (net.minecraft.world.item.ItemStack) CRAFT_HANDLE.get(stack) : null;
+    }
+
     // ----------< Charge/Discharge API >----------
 
     /**
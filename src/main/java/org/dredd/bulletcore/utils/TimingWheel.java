@@ -0,0 +1,224 @@
+package org.dredd.bulletcore.utils;
+
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Hashed timing wheel of tick-based timers.
+ * <p>
+ * Each slot of the wheel holds a doubly linked list of the timers due at ticks mapped to that slot.
+ * Timers are the list nodes themselves, so scheduling and cancelling are O(1) and allocate nothing.<br>
+ * Timers further away than the wheel size stay in their slot until their deadline comes around.
+ * <p>
+ * Not thread-safe.
+ *
+ * @param <T> the type of the timers
+ * @since 1.0.0
+ */
+public final class TimingWheel<T extends TimingWheel.Timer> {
+
+    /**
+     * Slot of a timer that is not scheduled.
+     */
+    private static final int UNSCHEDULED = -1;
+
+    /**
+     * Slot of a timer that is due and waits for its action in {@link #advance}.
+     */
+    private static final int DUE = -2;
+
+    // -----< Attributes >-----
+
+    /**
+     * Head of the timer list of each slot.
+     */
+    private final Timer[] heads;
+
+    private final int mask;
+
+    /**
+     * The last tick passed to {@link #advance}.
+     */
+    private long lastTick;
+
+    /**
+     * Whether {@link #advance} was called at least once.
+     */
+    private boolean started;
+
+    /**
+     * Number of scheduled timers.
+     */
+    private int size;
+
+    // -----< Construction >-----
+
+    /**
+     * Creates a new timing wheel.
+     *
+     * @param slots the number of slots, must be a power of two
+     */
+    public TimingWheel(int slots) {
+        if (slots <= 0 || Integer.bitCount(slots) != 1)
+            throw new IllegalArgumentException("slots must be a power of two");
+
+        this.heads = new Timer[slots];
+        this.mask = slots - 1;
+    }
+
+    // -----< API >-----
+
+    /**
+     * Schedules the given timer, replacing its current schedule if it has one.
+     * <p>
+     * Timers scheduled at or before the last advanced tick are due on the next call to {@link #advance}.
+     *
+     * @param timer the timer
+     * @param tick  the tick the timer is due at
+     */
+    public void schedule(@NotNull T timer, long tick) {
+        cancel(timer);
+
+        final int slot = (int) (Math.max(tick, started ? lastTick + 1 : tick) & mask);
+        timer.deadline = tick;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = heads[slot];
+        if (timer.next != null) timer.next.prev = timer;
+        heads[slot] = timer;
+        size++;
+    }
+
+    /**
+     * Cancels the given timer.
+     *
+     * @param timer the timer
+     * @return {@code true} if the timer was scheduled, {@code false} otherwise
+     */
+    public boolean cancel(@NotNull T timer) {
+        final int slot = timer.slot;
+        if (slot == UNSCHEDULED) return false;
+
+        // due timers are still linked in the pending list of advance(), which skips them once unscheduled
+        if (slot != DUE) {
+            if (timer.prev != null) timer.prev.next = timer.next;
+            else heads[slot] = timer.next;
+            if (timer.next != null) timer.next.prev = timer.prev;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        timer.slot = UNSCHEDULED;
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given tick and runs the action for every timer due at or before it.
+     * <p>
+     * Due timers are unscheduled before the action runs, so the action may schedule them again.
+     * The action may also schedule or cancel any other timer.
+     *
+     * @param tick   the current tick
+     * @param action the action to run for each due timer
+     */
+    @SuppressWarnings("unchecked")
+    public void advance(long tick, @NotNull Consumer<? super T> action) {
+        long from = started ? lastTick + 1 : tick;
+        if (tick - from >= heads.length) from = tick - heads.length + 1;
+        lastTick = tick;
+        started = true;
+
+        // unlink all due timers first, so the action can freely modify the wheel
+        Timer pending = null;
+        for (long t = from; t <= tick; t++) {
+            final int slot = (int) (t & mask);
+            Timer timer = heads[slot];
+            while (timer != null) {
+                final Timer next = timer.next;
+                if (timer.deadline <= tick) {
+                    if (timer.prev != null) timer.prev.next = next;
+                    else heads[slot] = next;
+                    if (next != null) next.prev = timer.prev;
+
+                    timer.prev = null;
+                    timer.next = null;
+                    timer.slot = DUE;
+                    timer.pending = pending;
+                    pending = timer;
+                }
+                timer = next;
+            }
+        }
+
+        while (pending != null) {
+            final Timer timer = pending;
+            pending = timer.pending;
+            timer.pending = null;
+
+            if (timer.slot != DUE) continue;
+            timer.slot = UNSCHEDULED;
+            size--;
+            action.accept((T) timer);
+        }
+    }
+
+    /**
+     * Cancels all timers.
+     */
+    public void clear() {
+        for (int slot = 0; slot < heads.length; slot++) {
+            Timer timer = heads[slot];
+            while (timer != null) {
+                final Timer next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                timer.slot = UNSCHEDULED;
+                timer = next;
+            }
+            heads[slot] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * @return the number of scheduled timers
+     */
+    public int size() {
+        return size;
+    }
+
+    // ----------< Timer >----------
+
+    /**
+     * A timer of a {@link TimingWheel}. A timer can be scheduled in at most one wheel at a time.
+     */
+    public abstract static class Timer {
+
+        private Timer prev, next;
+
+        /**
+         * Next timer in the list of due timers of {@link TimingWheel#advance}.
+         */
+        private Timer pending;
+
+        private long deadline;
+
+        private int slot = UNSCHEDULED;
+
+        /**
+         * @return {@code true} if this timer is scheduled, {@code false} otherwise
+         */
+        public final boolean isScheduled() {
+            return slot != UNSCHEDULED;
+        }
+
+        /**
+         * @return the tick this timer was last scheduled at
+         */
+        public final long deadline() {
+            return deadline;
+        }
+    }
+}
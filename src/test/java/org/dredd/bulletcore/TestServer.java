@@ -0,0 +1,66 @@
+package org.dredd.bulletcore;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.craftbukkit.inventory.CraftItemFactory;
+import org.bukkit.craftbukkit.util.CraftMagicNumbers;
+
+/**
+ * Minimal Bukkit server for tests that need item metas, without starting a real server.
+ * <p>
+ * Only the item factory, the unsafe values and the logger are provided; any other server call fails the test.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+public final class TestServer {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TestServer() {}
+
+    private static boolean installed;
+
+    /**
+     * Loads the vanilla registries and installs the server. Safe to call more than once.
+     */
+    public static synchronized void install() {
+        if (installed) return;
+
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        final Logger logger = Logger.getLogger("BulletCoreTest");
+        final Server server = (Server) Proxy.newProxyInstance(
+            Server.class.getClassLoader(),
+            new Class<?>[]{Server.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getItemFactory" -> CraftItemFactory.instance();
+                case "getUnsafe" -> CraftMagicNumbers.INSTANCE;
+                case "getLogger" -> logger;
+                case "isPrimaryThread" -> true;
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "TestServer";
+                default -> throw new UnsupportedOperationException("Server#" + method.getName());
+            }
+        );
+
+        // Bukkit#setServer also prints version information the test server does not have
+        try {
+            final Field field = Bukkit.class.getDeclaredField("server");
+            field.setAccessible(true);
+            field.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to install the test server", e);
+        }
+        installed = true;
+    }
+}
@@ -0,0 +1,198 @@
+package org.dredd.bulletcore.models;
+
+import java.util.function.Consumer;
+
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.component.CustomData;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.craftbukkit.inventory.CraftItemStack;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.dredd.bulletcore.TestServer;
+import org.dredd.bulletcore.utils.ServerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the compact item state: round trips of both fields, migration from the legacy keys,
+ * malformed states and the {@link ItemMeta} fallback for stacks not backed by a server stack.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+class ItemStateTest {
+
+    private static final NamespacedKey COUNT_KEY = new NamespacedKey("bulletcore", "bullets");
+
+    private static final NamespacedKey DURABILITY_KEY = new NamespacedKey("bulletcore", "durability");
+
+    private static final int[] COUNTS = {0, 1, 127, 128, 16_383, 16_384, 2_097_152, Integer.MAX_VALUE};
+
+    private static final double[] DURABILITIES = {0.0D, 0.5D, 1.0E-9D, 1234.5678D, Double.MAX_VALUE};
+
+    @BeforeAll
+    static void installServer() {
+        TestServer.install();
+    }
+
+    // ----------< Round Trips >----------
+
+    @Test
+    void countRoundTrips() {
+        final ItemStack stack = serverStack();
+        for (final int count : COUNTS) {
+            ItemState.setCount(stack, count, COUNT_KEY, null);
+            assertEquals(count, ItemState.getCount(stack, COUNT_KEY));
+            assertEquals(0.0D, ItemState.getDurability(stack, DURABILITY_KEY));
+        }
+    }
+
+    @Test
+    void durabilityRoundTrips() {
+        final ItemStack stack = serverStack();
+        for (final double durability : DURABILITIES) {
+            ItemState.setDurability(stack, durability, DURABILITY_KEY, null);
+            assertEquals(durability, ItemState.getDurability(stack, DURABILITY_KEY));
+            assertEquals(0, ItemState.getCount(stack, COUNT_KEY));
+        }
+    }
+
+    @Test
+    void writingOneFieldKeepsTheOther() {
+        final ItemStack stack = serverStack();
+        for (final int count : COUNTS) {
+            for (final double durability : DURABILITIES) {
+                ItemState.setCount(stack, count, COUNT_KEY, null);
+                ItemState.setDurability(stack, durability, DURABILITY_KEY, null);
+                assertEquals(count, ItemState.getCount(stack, COUNT_KEY));
+                assertEquals(durability, ItemState.getDurability(stack, DURABILITY_KEY));
+
+                ItemState.setCount(stack, count, COUNT_KEY, null);
+                assertEquals(durability, ItemState.getDurability(stack, DURABILITY_KEY));
+            }
+        }
+    }
+
+    @Test
+    void negativeValuesReadAsZero() {
+        final ItemStack stack = serverStack();
+        ItemState.setCount(stack, -5, COUNT_KEY, null);
+        ItemState.setDurability(stack, -1.0D, DURABILITY_KEY, null);
+        assertEquals(0, ItemState.getCount(stack, COUNT_KEY));
+        assertEquals(0.0D, ItemState.getDurability(stack, DURABILITY_KEY));
+    }
+
+    // ----------< Legacy Keys >----------
+
+    @Test
+    void legacyCountIsReadAndMigratedOnWrite() {
+        final ItemStack stack = serverStack();
+        setValues(stack, values -> values.putInt(COUNT_KEY.toString(), 17));
+        assertEquals(17, ItemState.getCount(stack, COUNT_KEY));
+
+        ItemState.setCount(stack, 16, COUNT_KEY, null);
+        assertEquals(16, ItemState.getCount(stack, COUNT_KEY));
+        assertFalse(valuesOf(stack).contains(COUNT_KEY.toString()));
+        assertTrue(valuesOf(stack).contains(ItemState.KEY.toString()));
+    }
+
+    @Test
+    void legacyDurabilityIsReadAndMigratedOnWrite() {
+        final ItemStack stack = serverStack();
+        setValues(stack, values -> values.putDouble(DURABILITY_KEY.toString(), 42.5D));
+        assertEquals(42.5D, ItemState.getDurability(stack, DURABILITY_KEY));
+
+        ItemState.setDurability(stack, 40.0D, DURABILITY_KEY, null);
+        assertEquals(40.0D, ItemState.getDurability(stack, DURABILITY_KEY));
+        assertFalse(valuesOf(stack).contains(DURABILITY_KEY.toString()));
+    }
+
+    @Test
+    void otherValuesAreKept() {
+        final ItemStack stack = serverStack();
+        setValues(stack, values -> values.putString("bulletcore:skin", "gold"));
+
+        ItemState.setCount(stack, 3, COUNT_KEY, null);
+        assertEquals("gold", valuesOf(stack).getString("bulletcore:skin"));
+    }
+
+    // ----------< Malformed States >----------
+
+    @Test
+    void malformedStatesReadAsEmpty() {
+        final String key = ItemState.KEY.toString();
+        final byte[][] states = {
+            {2, 3, 5},                       // unknown version
+            {1},                             // no field mask
+            {1, 1, (byte) 0x80},             // truncated count
+            {1, 1, -1, -1, -1, -1, -1, -1},  // count longer than 5 bytes
+            {1, 2, 1, 2, 3}                  // truncated durability
+        };
+
+        for (final byte[] state : states) {
+            final CompoundTag values = new CompoundTag();
+            values.putByteArray(key, state);
+            assertEquals(0, ItemState.getCount(values, COUNT_KEY));
+            assertEquals(0.0D, ItemState.getDurability(values, DURABILITY_KEY));
+        }
+    }
+
+    // ----------< Item Meta Fallback >----------
+
+    @Test
+    void plainStacksFallBackToTheMeta() {
+        final ItemStack stack = new ItemStack(Material.IRON_HOE);
+        assertNull(ServerUtils.getHandleOrNull(stack));
+
+        ItemState.setCount(stack, 30, COUNT_KEY, null);
+        ItemState.setDurability(stack, 7.25D, DURABILITY_KEY, null);
+        assertEquals(30, ItemState.getCount(stack, COUNT_KEY));
+        assertEquals(7.25D, ItemState.getDurability(stack, DURABILITY_KEY));
+
+        final byte[] state = stack.getItemMeta().getPersistentDataContainer().get(ItemState.KEY, PersistentDataType.BYTE_ARRAY);
+        assertNotNull(state);
+    }
+
+    @Test
+    void plainStacksMigrateLegacyKeys() {
+        final ItemStack stack = new ItemStack(Material.IRON_HOE);
+        final ItemMeta meta = stack.getItemMeta();
+        meta.getPersistentDataContainer().set(COUNT_KEY, PersistentDataType.INTEGER, 12);
+        stack.setItemMeta(meta);
+        assertEquals(12, ItemState.getCount(stack, COUNT_KEY));
+
+        ItemState.setCount(stack, 11, COUNT_KEY, null);
+        assertEquals(11, ItemState.getCount(stack, COUNT_KEY));
+        assertFalse(stack.getItemMeta().getPersistentDataContainer().has(COUNT_KEY, PersistentDataType.INTEGER));
+    }
+
+    // ----------< Utilities >----------
+
+    private static @NotNull ItemStack serverStack() {
+        return CraftItemStack.asCraftMirror(new net.minecraft.world.item.ItemStack(Items.IRON_HOE));
+    }
+
+    private static @NotNull CompoundTag valuesOf(@NotNull ItemStack stack) {
+        final CustomData data = ServerUtils.getHandleOrNull(stack).get(DataComponents.CUSTOM_DATA);
+        return data == null ? new CompoundTag() : data.copyTag().getCompound(ItemState.PERSISTENT_VALUES_TAG);
+    }
+
+    private static void setValues(@NotNull ItemStack stack, @NotNull Consumer<CompoundTag> action) {
+        CustomData.update(DataComponents.CUSTOM_DATA, ServerUtils.getHandleOrNull(stack), tag -> {
+            final CompoundTag values = tag.getCompound(ItemState.PERSISTENT_VALUES_TAG);
+            action.accept(values);
+            tag.put(ItemState.PERSISTENT_VALUES_TAG, values);
+        });
+    }
+}
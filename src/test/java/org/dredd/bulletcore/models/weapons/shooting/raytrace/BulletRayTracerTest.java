@@ -0,0 +1,300 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.BlockStateProperties;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.HitResult;
+import net.minecraft.world.phys.Vec3;
+import org.bukkit.Material;
+import org.bukkit.craftbukkit.util.CraftMagicNumbers;
+import org.dredd.bulletcore.models.weapons.WeaponBlocksPenetration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.dredd.bulletcore.models.weapons.WeaponBlocksPenetration.IGNORED;
+import static org.dredd.bulletcore.models.weapons.WeaponBlocksPenetration.STOPS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link BulletRayTracer} hits the same block, face and position as the vanilla ray tracer.
+ * <p>
+ * Rays are traced through random worlds of full and partial blocks, fluids and plants.
+ * Without penetration, both tracers run on the same world. With penetration, the vanilla tracer runs on a copy
+ * of the world where every block the bullet goes through (ignored materials, and the first blocks of each
+ * penetrable material along the ray) is replaced with air.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+class BulletRayTracerTest {
+
+    /**
+     * Blocks are placed in {@code [0, SIZE) × [0, HEIGHT) × [0, SIZE)}.
+     */
+    private static final int SIZE = 48, HEIGHT = 32;
+
+    /**
+     * Chunks from this block x coordinate on are unloaded.
+     */
+    private static final int UNLOADED_FROM_X = 64;
+
+    private static final int RAYS = 20_000;
+
+    private static final double DENSITY = 0.15D;
+
+    /**
+     * Penetrable materials and ignored materials are picked from these.
+     */
+    private static final Material[] MATERIALS = {
+        Material.STONE, Material.GLASS, Material.OAK_SLAB, Material.OAK_STAIRS, Material.OAK_FENCE,
+        Material.GLASS_PANE, Material.IRON_BARS, Material.SNOW, Material.HOPPER,
+        Material.WATER, Material.LAVA, Material.SHORT_GRASS
+    };
+
+    private static final WeaponBlocksPenetration NO_PENETRATION = WeaponBlocksPenetration.of(Map.of(), material -> false);
+
+    private static BlockState[] palette;
+
+    @BeforeAll
+    static void bootstrap() {
+        TestWorld.bootstrap();
+        palette = TestWorld.palette();
+    }
+
+    // ----------< Without Penetration >----------
+
+    @Test
+    void randomRaysHitLikeVanilla() {
+        final SplittableRandom random = new SplittableRandom(1L);
+        final TestWorld world = world(random);
+        final BulletRayTracer tracer = new BulletRayTracer();
+
+        for (int i = 0; i < RAYS; i++) {
+            final Vec3 from = randomPoint(random, random.nextBoolean());
+            final Vec3 to = from.add(randomDirection(random).scale(1.0D + random.nextDouble() * 63.0D));
+            assertSameHit(TestWorld.clip(world, from, to), trace(tracer, world, from, to, NO_PENETRATION), from, to);
+        }
+    }
+
+    @Test
+    void axisAlignedRaysHitLikeVanilla() {
+        final SplittableRandom random = new SplittableRandom(2L);
+        final TestWorld world = world(random);
+        final BulletRayTracer tracer = new BulletRayTracer();
+
+        for (int i = 0; i < RAYS; i++) {
+            // starts on the 1/16 grid, so rays run along block faces and shape edges
+            final Vec3 from = randomPoint(random, true);
+            final int axis = random.nextInt(3);
+            final double length = (random.nextBoolean() ? 1.0D : -1.0D) * (1 + random.nextInt(40));
+            final Vec3 to = from.add(axis == 0 ? length : 0.0D, axis == 1 ? length : 0.0D, axis == 2 ? length : 0.0D);
+            assertSameHit(TestWorld.clip(world, from, to), trace(tracer, world, from, to, NO_PENETRATION), from, to);
+        }
+    }
+
+    @Test
+    void edgeAndCornerGrazesHitLikeVanilla() {
+        final SplittableRandom random = new SplittableRandom(3L);
+        final TestWorld world = world(random);
+        final BulletRayTracer tracer = new BulletRayTracer();
+
+        for (int i = 0; i < RAYS; i++) {
+            // integer start and offset: the ray passes exactly through block edges and corners
+            final Vec3 from = new Vec3(random.nextInt(-4, SIZE + 4), random.nextInt(-4, HEIGHT + 4), random.nextInt(-4, SIZE + 4));
+            final int dx = random.nextInt(-20, 21), dy = random.nextInt(-20, 21), dz = random.nextInt(-20, 21);
+            if (dx == 0 && dy == 0 && dz == 0) continue;
+
+            final boolean diagonal = random.nextBoolean();
+            final Vec3 to = diagonal
+                ? from.add(Integer.signum(dx) * 16, Integer.signum(dy) * 16, Integer.signum(dz) * 16)
+                : from.add(dx, dy, dz);
+            assertSameHit(TestWorld.clip(world, from, to), trace(tracer, world, from, to, NO_PENETRATION), from, to);
+        }
+    }
+
+    @Test
+    void fluidsAreHit() {
+        final TestWorld world = new TestWorld(UNLOADED_FROM_X);
+        world.set(5, 0, 0, Blocks.WATER.defaultBlockState().setValue(BlockStateProperties.LEVEL, 3));
+        world.set(10, 0, 0, Blocks.LAVA.defaultBlockState());
+
+        // flowing water is about half a block high, a lava source almost a full block
+        final BulletRayTracer tracer = new BulletRayTracer();
+        for (final double y : new double[]{0.1D, 0.5D, 0.7D, 0.85D}) {
+            final Vec3 from = new Vec3(0.5D, y, 0.5D);
+            final Vec3 to = new Vec3(20.5D, y, 0.5D);
+            final BlockHitResult hit = trace(tracer, world, from, to, NO_PENETRATION);
+            assertNotNull(hit);
+            assertSameHit(TestWorld.clip(world, from, to), hit, from, to);
+        }
+    }
+
+    @Test
+    void unloadedChunksStopWithoutHit() {
+        final TestWorld world = new TestWorld(UNLOADED_FROM_X);
+        final BulletRayTracer tracer = new BulletRayTracer();
+
+        final Vec3 from = new Vec3(UNLOADED_FROM_X - 10.5D, 0.5D, 0.5D);
+        final Vec3 to = new Vec3(UNLOADED_FROM_X + 10.5D, 0.5D, 0.5D);
+        assertEquals(HitResult.Type.MISS, TestWorld.clip(world, from, to).getType());
+        assertNull(trace(tracer, world, from, to, NO_PENETRATION));
+        assertTrue(tracer.reachedUnloadedChunk());
+
+        final Vec3 inside = new Vec3(UNLOADED_FROM_X - 20.5D, 0.5D, 0.5D);
+        assertNull(trace(tracer, world, from, inside, NO_PENETRATION));
+        assertFalse(tracer.reachedUnloadedChunk());
+    }
+
+    // ----------< With Penetration >----------
+
+    @Test
+    void penetrationMatchesVanillaWithoutPenetratedBlocks() {
+        final SplittableRandom random = new SplittableRandom(4L);
+        final TestWorld world = world(random);
+        final BulletRayTracer tracer = new BulletRayTracer();
+
+        for (int table = 0; table < 20; table++) {
+            final WeaponBlocksPenetration penetration = randomPenetration(random);
+
+            for (int i = 0; i < RAYS / 20; i++) {
+                final Vec3 from = randomPoint(random, random.nextBoolean());
+                final Vec3 to = from.add(randomDirection(random).scale(1.0D + random.nextDouble() * 63.0D));
+                assertSameHit(
+                    TestWorld.clip(penetrated(world, from, to, penetration), from, to),
+                    trace(tracer, world, from, to, penetration),
+                    from, to
+                );
+            }
+        }
+    }
+
+    @Test
+    void penetrationLimitIsCountedPerMaterial() {
+        final TestWorld world = new TestWorld(UNLOADED_FROM_X);
+        for (int x = 1; x <= 3; x++) world.set(x, 0, 0, Blocks.GLASS.defaultBlockState());
+        world.set(4, 0, 0, Blocks.STONE.defaultBlockState());
+        world.set(5, 0, 0, Blocks.SHORT_GRASS.defaultBlockState());
+        world.set(6, 0, 0, Blocks.STONE.defaultBlockState());
+
+        final BulletRayTracer tracer = new BulletRayTracer();
+        final Vec3 from = new Vec3(0.5D, 0.5D, 0.5D);
+        final Vec3 to = new Vec3(20.5D, 0.5D, 0.5D);
+
+        final WeaponBlocksPenetration twoGlass = WeaponBlocksPenetration.of(Map.of(Material.GLASS, 2), material -> false);
+        assertEquals(new BlockPos(3, 0, 0), trace(tracer, world, from, to, twoGlass).getBlockPos());
+
+        final WeaponBlocksPenetration threeGlassOneStone = WeaponBlocksPenetration.of(
+            Map.of(Material.GLASS, 3, Material.STONE, 1), material -> material == Material.SHORT_GRASS
+        );
+        assertEquals(new BlockPos(6, 0, 0), trace(tracer, world, from, to, threeGlassOneStone).getBlockPos());
+    }
+
+    // ----------< Utilities >----------
+
+    private static @NotNull TestWorld world(@NotNull SplittableRandom random) {
+        final TestWorld world = new TestWorld(UNLOADED_FROM_X);
+        world.fill(random, palette, SIZE, HEIGHT, DENSITY);
+        return world;
+    }
+
+    private static @Nullable BlockHitResult trace(@NotNull BulletRayTracer tracer,
+                                                 @NotNull TestWorld world,
+                                                 @NotNull Vec3 from,
+                                                 @NotNull Vec3 to,
+                                                 @NotNull WeaponBlocksPenetration penetration) {
+        return tracer.traceSegment(
+            world, from.x, from.y, from.z, to.x, to.y, to.z,
+            penetration, new MaterialPenetrationCounter(), BulletRayTracer.NO_BLOCK
+        );
+    }
+
+    /**
+     * Returns a point in or around the filled box, on the 1/16 grid if {@code snapped}.
+     */
+    private static @NotNull Vec3 randomPoint(@NotNull SplittableRandom random, boolean snapped) {
+        double x = random.nextDouble(-4.0D, SIZE + 4.0D);
+        double y = random.nextDouble(-4.0D, HEIGHT + 4.0D);
+        double z = random.nextDouble(-4.0D, SIZE + 4.0D);
+        if (snapped) {
+            x = Math.round(x * 16.0D) / 16.0D;
+            y = Math.round(y * 16.0D) / 16.0D;
+            z = Math.round(z * 16.0D) / 16.0D;
+        }
+        return new Vec3(x, y, z);
+    }
+
+    private static @NotNull Vec3 randomDirection(@NotNull SplittableRandom random) {
+        final double y = random.nextDouble(-1.0D, 1.0D);
+        final double angle = random.nextDouble(2.0D * Math.PI);
+        final double r = Math.sqrt(1.0D - y * y);
+        return new Vec3(r * Math.cos(angle), y, r * Math.sin(angle));
+    }
+
+    private static @NotNull WeaponBlocksPenetration randomPenetration(@NotNull SplittableRandom random) {
+        final Map<Material, Integer> limits = new EnumMap<>(Material.class);
+        final boolean[] ignored = new boolean[Material.values().length];
+        for (final Material material : MATERIALS) {
+            switch (random.nextInt(4)) {
+                case 0 -> ignored[material.ordinal()] = true;
+                case 1 -> limits.put(material, 1 + random.nextInt(4));
+                default -> {} // stops bullets
+            }
+        }
+        return WeaponBlocksPenetration.of(limits, material -> ignored[material.ordinal()]);
+    }
+
+    /**
+     * Returns a copy of the world without the blocks a bullet goes through between the given points:
+     * blocks of ignored materials, and the first blocks of each penetrable material up to its limit.
+     */
+    private static @NotNull TestWorld penetrated(@NotNull TestWorld world,
+                                                 @NotNull Vec3 from,
+                                                 @NotNull Vec3 to,
+                                                 @NotNull WeaponBlocksPenetration penetration) {
+        final TestWorld result = world.copy();
+        final int[] counts = new int[Material.values().length];
+
+        BlockGetter.traverseBlocks(from, to, world, (source, pos) -> {
+            final BlockState state = source.getBlockState(pos.getX(), pos.getY(), pos.getZ());
+            if (state == null) return Boolean.TRUE; // unloaded: the vanilla tracer stops here too
+            if (state.isAir()) return null;
+
+            final int material = CraftMagicNumbers.getMaterial(state.getBlock()).ordinal();
+            final int limit = penetration.getCollisionLimit(material);
+            if (limit == IGNORED || (limit != STOPS && ++counts[material] <= limit))
+                result.set(pos.getX(), pos.getY(), pos.getZ(), Blocks.AIR.defaultBlockState());
+            return null;
+        }, source -> Boolean.FALSE);
+
+        return result;
+    }
+
+    private static void assertSameHit(@NotNull BlockHitResult expected,
+                                      @Nullable BlockHitResult actual,
+                                      @NotNull Vec3 from,
+                                      @NotNull Vec3 to) {
+        final String ray = from + " -> " + to;
+        if (expected.getType() == HitResult.Type.MISS) {
+            assertNull(actual, ray);
+            return;
+        }
+
+        assertNotNull(actual, ray);
+        assertEquals(expected.getBlockPos(), actual.getBlockPos(), ray);
+        assertEquals(expected.getDirection(), actual.getDirection(), ray);
+        assertEquals(expected.getLocation(), actual.getLocation(), ray);
+    }
+}
@@ -0,0 +1,117 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.util.SplittableRandom;
+
+import org.bukkit.util.RayTraceResult;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that {@link EntityCandidates#rayTrace} finds the same hits with and without the {@link EntityHitKernel}.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+class EntityHitKernelTest {
+
+    private static final int RAYS = 20_000;
+
+    private static final double MAX_DISTANCE = 64.0D;
+
+    @BeforeAll
+    static void requireVectorModule() {
+        assumeTrue(EntityCandidates.VECTORIZED, "run with --add-modules jdk.incubator.vector");
+    }
+
+    @AfterEach
+    void disableKernel() {
+        EntityCandidates.setKernelEnabled(false);
+    }
+
+    @Test
+    void randomRaysHitTheSameBoxes() {
+        final SplittableRandom random = new SplittableRandom(1L);
+        final EntityCandidates candidates = new EntityCandidates();
+
+        for (int i = 0; i < RAYS; i++) {
+            // new candidates every 100 rays, with sizes around the kernel threshold and up to many entities
+            if (i % 100 == 0) {
+                final int[] sizes = {8, 9, 15, 16, 17, 64, 512};
+                TestEntities.randomCandidates(
+                    candidates, random, sizes[random.nextInt(sizes.length)],
+                    -32.0D, -32.0D, -32.0D, 32.0D, 32.0D, 32.0D
+                );
+            }
+
+            final double startX = random.nextDouble(-40.0D, 40.0D);
+            final double startY = random.nextDouble(-40.0D, 40.0D);
+            final double startZ = random.nextDouble(-40.0D, 40.0D);
+            final double y = random.nextDouble(-1.0D, 1.0D);
+            final double angle = random.nextDouble(2.0D * Math.PI);
+            final double r = Math.sqrt(1.0D - y * y);
+            assertSameHit(candidates, startX, startY, startZ, r * Math.cos(angle), y, r * Math.sin(angle));
+        }
+    }
+
+    @Test
+    void axisAlignedRaysHitTheSameBoxes() {
+        final SplittableRandom random = new SplittableRandom(2L);
+        final EntityCandidates candidates = TestEntities.randomCandidates(
+            new EntityCandidates(), random, 64, -16.0D, -16.0D, -16.0D, 16.0D, 16.0D, 16.0D
+        );
+
+        for (int i = 0; i < RAYS; i++) {
+            final int axis = random.nextInt(3);
+            final double sign = random.nextBoolean() ? 1.0D : -1.0D;
+            assertSameHit(
+                candidates,
+                random.nextDouble(-20.0D, 20.0D), random.nextDouble(-20.0D, 20.0D), random.nextDouble(-20.0D, 20.0D),
+                axis == 0 ? sign : 0.0D, axis == 1 ? sign : 0.0D, axis == 2 ? sign : 0.0D
+            );
+        }
+    }
+
+    @Test
+    void raysStartingInsideABoxHitItsExit() {
+        final EntityCandidates candidates = TestEntities.randomCandidates(
+            new EntityCandidates(), new SplittableRandom(3L), 16, 10.0D, 10.0D, 10.0D, 20.0D, 20.0D, 20.0D
+        );
+        candidates.add(TestEntities.entity("around"), -1.0D, -1.0D, -1.0D, 1.0D, 1.0D, 1.0D);
+
+        final RayTraceResult hit = assertSameHit(candidates, 0.0D, 0.0D, 0.0D, -1.0D, 0.0D, 0.0D);
+        assertNotNull(hit);
+        assertEquals(-1.0D, hit.getHitPosition().getX());
+    }
+
+    // ----------< Utilities >----------
+
+    private static @Nullable RayTraceResult assertSameHit(@NotNull EntityCandidates candidates,
+                                                          double startX, double startY, double startZ,
+                                                          double dirX, double dirY, double dirZ) {
+        EntityCandidates.setKernelEnabled(false);
+        final RayTraceResult scalar = candidates.rayTrace(startX, startY, startZ, dirX, dirY, dirZ, MAX_DISTANCE);
+        EntityCandidates.setKernelEnabled(true);
+        final RayTraceResult kernel = candidates.rayTrace(startX, startY, startZ, dirX, dirY, dirZ, MAX_DISTANCE);
+
+        final String ray = "(" + startX + ", " + startY + ", " + startZ + ") -> (" + dirX + ", " + dirY + ", " + dirZ + ")";
+        if (scalar == null) {
+            assertNull(kernel, ray);
+            return null;
+        }
+
+        assertNotNull(kernel, ray);
+        assertSame(scalar.getHitEntity(), kernel.getHitEntity(), ray);
+        assertEquals(scalar.getHitBlockFace(), kernel.getHitBlockFace(), ray);
+        assertEquals(scalar.getHitPosition(), kernel.getHitPosition(), ray);
+        return scalar;
+    }
+}
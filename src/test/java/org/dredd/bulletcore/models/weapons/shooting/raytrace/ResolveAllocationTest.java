@@ -0,0 +1,203 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import org.bukkit.Material;
+import org.bukkit.craftbukkit.util.CraftMagicNumbers;
+import org.bukkit.util.RayTraceResult;
+import org.dredd.bulletcore.models.weapons.WeaponBlocksPenetration;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures the memory allocated by resolving pellets ({@link BulletRayTracer} and {@link EntityCandidates})
+ * with the thread allocation counter.
+ * <p>
+ * Pellets that hit nothing must allocate nothing, however many blocks they pass, skip or penetrate.
+ * Hits allocate a few small objects (the vanilla shape clip, {@link RayTraceResult} and its {@code Vector}),
+ * which is bounded per hit, not per block travelled.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+class ResolveAllocationTest {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final int SIZE = 48, HEIGHT = 32;
+
+    private static final int WARMUP_ROUNDS = 20, RAYS = 10_000;
+
+    private static final double MAX_DISTANCE = 40.0D;
+
+    /**
+     * X coordinate of the walls hit by the rays aimed along the x axis.
+     */
+    private static final int WALL_X = 32;
+
+    /**
+     * Upper bound of the memory allocated by a single block or entity hit.
+     */
+    private static final long MAX_BYTES_PER_HIT = 1024L;
+
+    @BeforeAll
+    static void bootstrap() {
+        TestWorld.bootstrap();
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported(), "thread allocation counter not supported");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void missesAllocateNothing() {
+        final SplittableRandom random = new SplittableRandom(1L);
+        final BlockState[] palette = TestWorld.palette();
+        final TestWorld world = new TestWorld(64);
+        world.fill(random, palette, SIZE, HEIGHT, 0.3D);
+
+        // every block is ignored or penetrated, so no pellet stops at a block
+        final Map<Material, Integer> limits = new EnumMap<>(Material.class);
+        final boolean[] ignored = new boolean[Material.values().length];
+        for (int i = 0; i < palette.length; i++) {
+            final Material material = CraftMagicNumbers.getMaterial(palette[i].getBlock());
+            if (i % 2 == 0) ignored[material.ordinal()] = true;
+            else limits.put(material, 1_000);
+        }
+        final WeaponBlocksPenetration penetration = WeaponBlocksPenetration.of(limits, material -> ignored[material.ordinal()]);
+
+        // candidates far above the rays, so every entity test misses
+        for (final int candidateCount : new int[]{4, 64}) {
+            final EntityCandidates candidates = TestEntities.randomCandidates(
+                new EntityCandidates(), random, candidateCount, 0.0D, 200.0D, 0.0D, SIZE, 210.0D, SIZE
+            );
+            final double[] rays = randomRays(random, 0.0D, 0.0D, 0.0D, SIZE, HEIGHT, SIZE);
+
+            final long bytes = allocatedPerRay(new BulletRayTracer(), world, rays, penetration, candidates, false);
+            assertEquals(0L, bytes, "bytes per missing pellet with " + candidateCount + " candidates");
+        }
+    }
+
+    @Test
+    void blockHitsAllocateABoundedAmount() {
+        final TestWorld world = new TestWorld(64);
+        for (int y = -8; y < HEIGHT + 8; y++)
+            for (int z = -8; z < SIZE + 8; z++)
+                world.set(WALL_X, y, z, Blocks.STONE.defaultBlockState());
+
+        final SplittableRandom random = new SplittableRandom(2L);
+        final double[] rays = randomRays(random, 0.0D, 0.0D, 0.0D, 8.0D, HEIGHT, SIZE);
+        aimAt(rays, 1.0D, 0.0D, 0.0D, random);
+
+        final WeaponBlocksPenetration penetration = WeaponBlocksPenetration.of(Map.of(), material -> false);
+        final long bytes = allocatedPerRay(new BulletRayTracer(), world, rays, penetration, new EntityCandidates(), true);
+        assertTrue(bytes <= MAX_BYTES_PER_HIT, bytes + " bytes per block hit");
+    }
+
+    @Test
+    void entityHitsAllocateABoundedAmount() {
+        final TestWorld world = new TestWorld(64);
+        final SplittableRandom random = new SplittableRandom(3L);
+
+        // a single huge candidate in front of every ray
+        final EntityCandidates candidates = new EntityCandidates();
+        candidates.add(TestEntities.entity("wall"), WALL_X, -100.0D, -100.0D, WALL_X + 1.0D, 100.0D, 100.0D);
+
+        final double[] rays = randomRays(random, 0.0D, 0.0D, 0.0D, 8.0D, HEIGHT, SIZE);
+        aimAt(rays, 1.0D, 0.0D, 0.0D, random);
+
+        final WeaponBlocksPenetration penetration = WeaponBlocksPenetration.of(Map.of(), material -> false);
+        final long bytes = allocatedPerRay(new BulletRayTracer(), world, rays, penetration, candidates, true);
+        assertTrue(bytes <= MAX_BYTES_PER_HIT, bytes + " bytes per entity hit");
+    }
+
+    // ----------< Utilities >----------
+
+    /**
+     * Traces all rays after warming up, and returns the average memory allocated per ray.
+     *
+     * @param hits whether every ray is expected to hit
+     */
+    private static long allocatedPerRay(@NotNull BulletRayTracer tracer,
+                                        @NotNull TestWorld world,
+                                        @NotNull double[] rays,
+                                        @NotNull WeaponBlocksPenetration penetration,
+                                        @NotNull EntityCandidates candidates,
+                                        boolean hits) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            traceAll(tracer, world, rays, penetration, candidates, hits);
+
+        final long start = THREADS.getCurrentThreadAllocatedBytes();
+        traceAll(tracer, world, rays, penetration, candidates, hits);
+        return (THREADS.getCurrentThreadAllocatedBytes() - start) / RAYS;
+    }
+
+    private static void traceAll(@NotNull BulletRayTracer tracer,
+                                 @NotNull TestWorld world,
+                                 @NotNull double[] rays,
+                                 @NotNull WeaponBlocksPenetration penetration,
+                                 @NotNull EntityCandidates candidates,
+                                 boolean hits) {
+        for (int i = 0; i < rays.length; i += 6) {
+            final RayTraceResult result = tracer.rayTrace(
+                null, world,
+                rays[i], rays[i + 1], rays[i + 2],
+                rays[i + 3], rays[i + 4], rays[i + 5],
+                MAX_DISTANCE, penetration, candidates
+            );
+            if (hits) assertNotNull(result);
+            else assertNull(result);
+        }
+    }
+
+    /**
+     * Returns {@link #RAYS} rays as consecutive {@code startX, startY, startZ, dirX, dirY, dirZ},
+     * starting in the given box with random normalized directions.
+     */
+    private static @NotNull double[] randomRays(@NotNull SplittableRandom random,
+                                                double minX, double minY, double minZ,
+                                                double maxX, double maxY, double maxZ) {
+        final double[] rays = new double[RAYS * 6];
+        for (int i = 0; i < rays.length; i += 6) {
+            rays[i] = random.nextDouble(minX, maxX);
+            rays[i + 1] = random.nextDouble(minY, maxY);
+            rays[i + 2] = random.nextDouble(minZ, maxZ);
+
+            final double y = random.nextDouble(-1.0D, 1.0D);
+            final double angle = random.nextDouble(2.0D * Math.PI);
+            final double r = Math.sqrt(1.0D - y * y);
+            rays[i + 3] = r * Math.cos(angle);
+            rays[i + 4] = y;
+            rays[i + 5] = r * Math.sin(angle);
+        }
+        return rays;
+    }
+
+    /**
+     * Turns all rays towards the given axis, keeping a small random deviation.
+     */
+    private static void aimAt(@NotNull double[] rays,
+                              double axisX, double axisY, double axisZ,
+                              @NotNull SplittableRandom random) {
+        for (int i = 0; i < rays.length; i += 6) {
+            final double x = axisX + random.nextDouble(-0.05D, 0.05D);
+            final double y = axisY + random.nextDouble(-0.05D, 0.05D);
+            final double z = axisZ + random.nextDouble(-0.05D, 0.05D);
+            final double length = Math.sqrt(x * x + y * y + z * z);
+            rays[i + 3] = x / length;
+            rays[i + 4] = y / length;
+            rays[i + 5] = z / length;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.lang.reflect.Proxy;
+import java.util.SplittableRandom;
+
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Entity candidates for tests, without a server.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+final class TestEntities {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TestEntities() {}
+
+    /**
+     * Creates an entity that only supports identity, {@code toString} and {@link Entity#isValid()}.
+     *
+     * @param name the name shown by {@code toString}
+     * @return the entity
+     */
+    static @NotNull Entity entity(@NotNull String name) {
+        return (Entity) Proxy.newProxyInstance(
+            Entity.class.getClassLoader(),
+            new Class<?>[]{Entity.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> name;
+                case "isValid" -> true;
+                default -> throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+
+    /**
+     * Replaces the candidates with the given number of player-sized hitboxes at random positions
+     * inside {@code [minX, maxX) × [minY, maxY) × [minZ, maxZ)}.
+     *
+     * @return the candidates
+     */
+    static @NotNull EntityCandidates randomCandidates(@NotNull EntityCandidates candidates,
+                                                      @NotNull SplittableRandom random,
+                                                      int count,
+                                                      double minX, double minY, double minZ,
+                                                      double maxX, double maxY, double maxZ) {
+        candidates.clear();
+        for (int i = 0; i < count; i++) {
+            final double x = random.nextDouble(minX, maxX);
+            final double y = random.nextDouble(minY, maxY);
+            final double z = random.nextDouble(minZ, maxZ);
+            candidates.add(entity("entity #" + i), x - 0.3D, y, z - 0.3D, x + 0.3D, y + 1.8D, z + 0.3D);
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,192 @@
+package org.dredd.bulletcore.models.weapons.shooting.raytrace;
+
+import java.util.SplittableRandom;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.ClipContext;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.BlockStateProperties;
+import net.minecraft.world.level.block.state.properties.Half;
+import net.minecraft.world.level.block.state.properties.SlabType;
+import net.minecraft.world.level.block.state.properties.StairsShape;
+import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import net.minecraft.world.phys.shapes.CollisionContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * In-memory world for tests: a {@link BlockSource} and a {@link BlockGetter} over the same blocks,
+ * so {@link BulletRayTracer} and the vanilla ray tracer can be run against identical worlds.
+ * <p>
+ * Blocks at {@code x >= unloadedFromX} are in unloaded chunks.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+final class TestWorld implements BlockSource, BlockGetter {
+
+    // ----------< Static >----------
+
+    private static boolean bootstrapped;
+
+    /**
+     * Loads the vanilla registries, so block states, shapes and materials can be used. Safe to call more than once.
+     */
+    static synchronized void bootstrap() {
+        if (bootstrapped) return;
+
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        bootstrapped = true;
+    }
+
+    /**
+     * Traces a ray with the vanilla ray tracer, as {@code World#rayTraceBlocks} does with
+     * {@code FluidCollisionMode.ALWAYS} and {@code ignorePassableBlocks = false}.
+     *
+     * @return the hit, or a {@link BlockHitResult} of type {@code MISS}
+     */
+    static @NotNull BlockHitResult clip(@NotNull BlockGetter getter,
+                                        @NotNull Vec3 from,
+                                        @NotNull Vec3 to) {
+        return getter.clip(new ClipContext(from, to, ClipContext.Block.OUTLINE, ClipContext.Fluid.ANY, CollisionContext.empty()));
+    }
+
+    /**
+     * Returns full and partial blocks, fluids and passable plants to fill test worlds with.<br>
+     * Must be called after {@link #bootstrap()}.
+     *
+     * @return the block states
+     */
+    static @NotNull BlockState[] palette() {
+        return new BlockState[]{
+            Blocks.STONE.defaultBlockState(),
+            Blocks.GLASS.defaultBlockState(),
+            Blocks.OAK_SLAB.defaultBlockState(),
+            Blocks.OAK_SLAB.defaultBlockState().setValue(BlockStateProperties.SLAB_TYPE, SlabType.TOP),
+            Blocks.OAK_SLAB.defaultBlockState().setValue(BlockStateProperties.WATERLOGGED, true),
+            Blocks.OAK_STAIRS.defaultBlockState()
+                .setValue(BlockStateProperties.HORIZONTAL_FACING, Direction.EAST)
+                .setValue(BlockStateProperties.HALF, Half.TOP)
+                .setValue(BlockStateProperties.STAIRS_SHAPE, StairsShape.OUTER_LEFT),
+            Blocks.OAK_FENCE.defaultBlockState()
+                .setValue(BlockStateProperties.NORTH, true)
+                .setValue(BlockStateProperties.EAST, true),
+            Blocks.GLASS_PANE.defaultBlockState()
+                .setValue(BlockStateProperties.EAST, true)
+                .setValue(BlockStateProperties.WEST, true),
+            Blocks.IRON_BARS.defaultBlockState(),
+            Blocks.SNOW.defaultBlockState().setValue(BlockStateProperties.LAYERS, 3),
+            Blocks.HOPPER.defaultBlockState(),
+            Blocks.WATER.defaultBlockState(),
+            Blocks.WATER.defaultBlockState().setValue(BlockStateProperties.LEVEL, 3),
+            Blocks.LAVA.defaultBlockState(),
+            Blocks.SHORT_GRASS.defaultBlockState()
+        };
+    }
+
+
+    // ----------< Instance >----------
+
+    private final Long2ObjectOpenHashMap<BlockState> blocks = new Long2ObjectOpenHashMap<>();
+
+    private final int unloadedFromX;
+
+    /**
+     * @param unloadedFromX the first block x coordinate in unloaded chunks, a multiple of 16
+     */
+    TestWorld(int unloadedFromX) {
+        this.unloadedFromX = unloadedFromX;
+    }
+
+    void set(int x, int y, int z, @NotNull BlockState state) {
+        if (state.isAir())
+            blocks.remove(BlockPos.asLong(x, y, z));
+        else
+            blocks.put(BlockPos.asLong(x, y, z), state);
+    }
+
+    /**
+     * Sets each block of the box {@code [0, size) × [0, height) × [0, size)} to a random palette state
+     * with the given probability, and to air otherwise.
+     */
+    void fill(@NotNull SplittableRandom random,
+              @NotNull BlockState[] palette,
+              int size, int height,
+              double density) {
+        final BlockState air = Blocks.AIR.defaultBlockState();
+        for (int x = 0; x < size; x++)
+            for (int y = 0; y < height; y++)
+                for (int z = 0; z < size; z++)
+                    set(x, y, z, random.nextDouble() < density ? palette[random.nextInt(palette.length)] : air);
+    }
+
+    @NotNull TestWorld copy() {
+        final TestWorld copy = new TestWorld(unloadedFromX);
+        copy.blocks.putAll(blocks);
+        return copy;
+    }
+
+    // -----< BlockSource >-----
+
+    @Override
+    public @Nullable BlockState getBlockState(int x, int y, int z) {
+        if (x >= unloadedFromX) return null;
+
+        final BlockState state = blocks.get(BlockPos.asLong(x, y, z));
+        return state != null ? state : Blocks.AIR.defaultBlockState();
+    }
+
+    @Override
+    public @NotNull BlockGetter shapeGetter() {
+        return this;
+    }
+
+    // -----< BlockGetter >-----
+
+    @Override
+    public @Nullable BlockEntity getBlockEntity(@NotNull BlockPos pos) {
+        return null;
+    }
+
+    @Override
+    public @NotNull BlockState getBlockState(@NotNull BlockPos pos) {
+        final BlockState state = getBlockState(pos.getX(), pos.getY(), pos.getZ());
+        return state != null ? state : Blocks.AIR.defaultBlockState();
+    }
+
+    @Override
+    public @NotNull FluidState getFluidState(@NotNull BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    @Override
+    public @Nullable BlockState getBlockStateIfLoaded(@NotNull BlockPos pos) {
+        return getBlockState(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    @Override
+    public @Nullable FluidState getFluidIfLoaded(@NotNull BlockPos pos) {
+        final BlockState state = getBlockStateIfLoaded(pos);
+        return state != null ? state.getFluidState() : null;
+    }
+
+    @Override
+    public int getHeight() {
+        return 384;
+    }
+
+    @Override
+    public int getMinBuildHeight() {
+        return -64;
+    }
+}
@@ -0,0 +1,59 @@
+package org.dredd.bulletcore.models.weapons.shooting.spray;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Spray resolution as done before {@link WeaponSpray} precomputed its final values:
+ * the active modifiers are collected in a list, and their values summed from an {@link EnumMap} on every shot.
+ * Kept to check and measure the precomputed table against.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+final class LegacySpray {
+
+    private final EnumMap<MovementState, Double> stateSpray;
+
+    private final EnumMap<MovementModifier, Double> modifierSpray;
+
+    LegacySpray(@NotNull YamlConfiguration config) {
+        this.stateSpray = loadSprayValues(MovementState.class, config, "spray.state.");
+        this.modifierSpray = loadSprayValues(MovementModifier.class, config, "spray.modifier.");
+    }
+
+    private static <E extends Enum<E>> @NotNull EnumMap<E, Double> loadSprayValues(
+        @NotNull Class<E> type,
+        @NotNull YamlConfiguration config,
+        @NotNull String prefix
+    ) {
+        final EnumMap<E, Double> map = new EnumMap<>(type);
+        for (final E constant : type.getEnumConstants()) {
+            final String path = prefix + constant.name().toLowerCase(Locale.ROOT);
+            map.put(constant, Math.clamp(config.getDouble(path, WeaponSpray.NO_SPRAY), -45.0D, 45.0D));
+        }
+        return map;
+    }
+
+    /**
+     * Returns the list of the active modifiers, as {@code PlayerSprayContext#getModifiers()} built it for every shot.
+     */
+    static @NotNull List<MovementModifier> modifiersOf(int modifierMask) {
+        final List<MovementModifier> mods = new ArrayList<>(MovementModifier.values().length);
+        for (final MovementModifier modifier : MovementModifier.values()) {
+            if ((modifierMask & (1 << modifier.ordinal())) != 0) mods.add(modifier);
+        }
+        return mods;
+    }
+
+    double getFinalValue(@NotNull MovementState movementState, @NotNull List<MovementModifier> modifiers) {
+        final double total = stateSpray.getOrDefault(movementState, WeaponSpray.NO_SPRAY)
+            + modifiers.stream().mapToDouble(m -> modifierSpray.getOrDefault(m, WeaponSpray.NO_SPRAY)).sum();
+        return Math.clamp(total, WeaponSpray.NO_SPRAY, 45.0D);
+    }
+}
@@ -0,0 +1,76 @@
+package org.dredd.bulletcore.models.weapons.shooting.spray;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the precomputed final spray of {@link WeaponSpray} is exactly the value the per-shot
+ * {@link LegacySpray} computed, for every {@link MovementState} and every set of {@link MovementModifier}s.
+ *
+ * @author dredd
+ * @since 1.0.0
+ */
+class WeaponSprayTest {
+
+    private static final int CONFIGS = 200;
+
+    @Test
+    void finalSprayMatchesThePerShotSum() {
+        final SplittableRandom random = new SplittableRandom(1L);
+        for (int i = 0; i < CONFIGS; i++)
+            assertSameFinalSpray(randomConfig(random));
+    }
+
+    @Test
+    void emptyConfigHasNoSpray() {
+        final WeaponSpray spray = WeaponSpray.load(new YamlConfiguration());
+        for (final MovementState state : MovementState.values()) {
+            for (int mask = 0; mask < 1 << MovementModifier.values().length; mask++)
+                assertEquals(WeaponSpray.NO_SPRAY, spray.getFinalValue(state, mask));
+        }
+    }
+
+    @Test
+    void outOfRangeValuesAreClampedTheSameWay() {
+        final YamlConfiguration config = new YamlConfiguration();
+        config.set("spray.state.walking", 100.0D);
+        config.set("spray.state.standing", -100.0D);
+        config.set("spray.modifier.sprinting", 40.0D);
+        config.set("spray.modifier.sneaking", -60.0D);
+        config.set("spray.modifier.in_water", 0.1D);
+        assertSameFinalSpray(config);
+    }
+
+    // ----------< Utilities >----------
+
+    private static @NotNull YamlConfiguration randomConfig(@NotNull SplittableRandom random) {
+        final YamlConfiguration config = new YamlConfiguration();
+        for (final MovementState state : MovementState.values()) {
+            if (random.nextInt(4) != 0)
+                config.set("spray.state." + state.name().toLowerCase(Locale.ROOT), random.nextDouble(-50.0D, 50.0D));
+        }
+        for (final MovementModifier modifier : MovementModifier.values()) {
+            if (random.nextInt(4) != 0)
+                config.set("spray.modifier." + modifier.name().toLowerCase(Locale.ROOT), random.nextDouble(-50.0D, 50.0D));
+        }
+        return config;
+    }
+
+    private static void assertSameFinalSpray(@NotNull YamlConfiguration config) {
+        final WeaponSpray spray = WeaponSpray.load(config);
+        final LegacySpray legacy = new LegacySpray(config);
+
+        for (final MovementState state : MovementState.values()) {
+            for (int mask = 0; mask < 1 << MovementModifier.values().length; mask++) {
+                final double expected = legacy.getFinalValue(state, LegacySpray.modifiersOf(mask));
+                assertEquals(expected, spray.getFinalValue(state, mask), () -> config.saveToString());
+            }
+        }
+    }
+}